@@ -5,16 +5,21 @@
 package com.kevlindev.pinconverter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.text.MessageFormat;
 
 import org.junit.Test;
 
+import com.kevlindev.pinconverter.cache.ResultCache;
 import com.kevlindev.utils.IOUtils;
 
 /**
@@ -25,13 +30,7 @@ import com.kevlindev.utils.IOUtils;
  */
 public class CommandLineArgsTests {
 	protected void assertOutput(String[] args, String testFile) {
-		// capture stdout
-		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-		PrintStream stdout = new PrintStream(outStream);
-		System.setOut(stdout);
-
-		// run command
-		PinConverter.main(args);
+		String output = getOutput(args);
 
 		// now compare stdout to a file containing the expected output
 		try {
@@ -39,12 +38,24 @@ public class CommandLineArgsTests {
 			String expected = IOUtils.getString(input);
 			String message = MessageFormat.format("Converter output does not match contents of {0}", testFile);
 
-			assertEquals(message, expected, outStream.toString());
+			assertEquals(message, expected, output);
 		} catch (FileNotFoundException e) {
 			fail(e.getMessage());
 		}
 	}
 
+	protected String getOutput(String[] args) {
+		// capture stdout
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		PrintStream stdout = new PrintStream(outStream);
+		System.setOut(stdout);
+
+		// run command
+		PinConverter.main(args);
+
+		return outStream.toString();
+	}
+
 	@Test
 	public void testTransform() {
 		// @formatter:off
@@ -77,6 +88,68 @@ public class CommandLineArgsTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void testInferredSourceBoard() {
+		// @formatter:off
+		assertOutput(
+			new String[] {
+				"--destinationBoard",
+				"Papilio One",
+				"UCF/transform-after.ucf"
+			},
+			"UCF/transform-before.ucf"
+		);
+		// @formatter:on
+	}
+
+	@Test
+	public void testAmbiguousSourceBoard() {
+		// every Papilio One variant has the pins of this file
+		// @formatter:off
+		String output = getOutput(
+			new String[] {
+				"--destinationBoard",
+				"Papilio RAM",
+				"UCF/transform-before.ucf"
+			}
+		);
+		// @formatter:on
+
+		assertEquals("", output);
+	}
+
+	@Test
+	public void testInferBoard() {
+		// @formatter:off
+		String output = getOutput(
+			new String[] {
+				"--inputFile",
+				"UCF/transform-after.ucf",
+				"--inferBoard"
+			}
+		);
+		// @formatter:on
+
+		assertTrue(output, output.contains("Papilio RAM"));
+		assertTrue(output, output.contains("16/16"));
+		assertFalse(output, output.contains("Papilio One"));
+	}
+
+	@Test
+	public void testInferBoardWithoutInputFile() {
+		// trailing input files are set after the infer board command has run
+		// @formatter:off
+		String output = getOutput(
+			new String[] {
+				"--inferBoard",
+				"UCF/transform-after.ucf"
+			}
+		);
+		// @formatter:on
+
+		assertEquals("", output);
+	}
+
 	@Test
 	public void testMoveWing() {
 		// @formatter:off
@@ -93,6 +166,24 @@ public class CommandLineArgsTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void testComposedMoves() {
+		// @formatter:off
+		assertOutput(
+			new String[] {
+				"--sourceBoard",
+				"p1",
+				"--move",
+				"A->C",
+				"--move",
+				"C->B",
+				"UCF/move-wing-before.ucf"
+			},
+			"UCF/move-wing-after.ucf"
+		);
+		// @formatter:on
+	}
+
 	@Test
 	public void testMoveWingLowercase() {
 		// @formatter:off
@@ -444,4 +535,187 @@ public class CommandLineArgsTests {
 		);
 		// @formatter:on
 	}
+
+	@Test
+	public void testCachedTransform() throws IOException {
+		File cache = File.createTempFile("pinconv", "cache");
+		// @formatter:off
+		String[] args = new String[] {
+			"--cache",
+			cache.getPath(),
+			"-src",
+			"p1",
+			"-dst",
+			"pram",
+			"UCF/transform-before.ucf"
+		};
+		// @formatter:on
+
+		cache.delete();
+
+		try {
+			// the first run stores the result and the second copies it
+			assertOutput(args, "UCF/transform-after.ucf");
+			assertOutput(args, "UCF/transform-after.ucf");
+			assertEquals(1, cache.list().length);
+		} finally {
+			for (File file : cache.listFiles()) {
+				file.delete();
+			}
+
+			cache.delete();
+		}
+	}
+
+	@Test
+	public void testBatchTransform() throws IOException {
+		File input = createTempDirectory();
+		File output = createTempDirectory();
+
+		try {
+			ResultCache.copy(new File("UCF/transform-before.ucf"), new File(input, "a.ucf"));
+			new File(input, "nested").mkdir();
+			ResultCache.copy(new File("UCF/transform-before.ucf"), new File(input, "nested/b.ucf"));
+
+			// @formatter:off
+			PinConverter.main(new String[] {
+				"-src",
+				"p1",
+				"-dst",
+				"pram",
+				"--threads",
+				"2",
+				"--outputFile",
+				output.getPath(),
+				input.getPath()
+			});
+			// @formatter:on
+
+			String expected = IOUtils.getString(new FileInputStream("UCF/transform-after.ucf"));
+
+			assertEquals(expected, IOUtils.getString(new FileInputStream(new File(output, "a.ucf"))));
+			assertEquals(expected, IOUtils.getString(new FileInputStream(new File(output, "nested/b.ucf"))));
+		} finally {
+			delete(input);
+			delete(output);
+		}
+	}
+
+	@Test
+	public void testInPlaceTransform() throws IOException {
+		File directory = createTempDirectory();
+
+		try {
+			ResultCache.copy(new File("UCF/transform-before.ucf"), new File(directory, "a.ucf"));
+			ResultCache.copy(new File("UCF/transform-before.ucf"), new File(directory, "b.ucf"));
+			ResultCache.copy(new File("UCF/transform-before.ucf"), new File(directory, "c.txt"));
+
+			// @formatter:off
+			PinConverter.main(new String[] {
+				"-src",
+				"p1",
+				"-dst",
+				"pram",
+				"--inPlace",
+				new File(directory, "*.ucf").getPath()
+			});
+			// @formatter:on
+
+			String before = IOUtils.getString(new FileInputStream("UCF/transform-before.ucf"));
+			String after = IOUtils.getString(new FileInputStream("UCF/transform-after.ucf"));
+
+			assertEquals(after, IOUtils.getString(new FileInputStream(new File(directory, "a.ucf"))));
+			assertEquals(after, IOUtils.getString(new FileInputStream(new File(directory, "b.ucf"))));
+			assertEquals(before, IOUtils.getString(new FileInputStream(new File(directory, "c.txt"))));
+			assertEquals(3, directory.list().length);
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testInPlaceTransformSingleFile() throws IOException {
+		File directory = createTempDirectory();
+		File file = new File(directory, "a.ucf");
+
+		try {
+			ResultCache.copy(new File("UCF/transform-before.ucf"), file);
+
+			// @formatter:off
+			PinConverter.main(new String[] {
+				"-src",
+				"p1",
+				"-dst",
+				"pram",
+				"--inPlace",
+				file.getPath()
+			});
+			// @formatter:on
+
+			String after = IOUtils.getString(new FileInputStream("UCF/transform-after.ucf"));
+
+			assertEquals(after, IOUtils.getString(new FileInputStream(file)));
+			assertEquals(1, directory.list().length);
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testGenerateFormatExtension() throws IOException {
+		File directory = createTempDirectory();
+
+		try {
+			// @formatter:off
+			PinConverter.main(new String[] {
+				"-dst",
+				"pram",
+				"--format",
+				"XDC",
+				"--outputFile",
+				new File(directory, "papilio.ucf").getPath(),
+				"--generate",
+				"all"
+			});
+			// @formatter:on
+
+			// an XDC file is never written under a UCF file's name
+			assertEquals(1, directory.list().length);
+			assertTrue(new File(directory, "papilio.xdc").isFile());
+		} finally {
+			delete(directory);
+		}
+	}
+
+	/**
+	 * Create an empty temporary directory
+	 * 
+	 * @return File
+	 * @throws IOException
+	 */
+	private File createTempDirectory() throws IOException {
+		File result = File.createTempFile("pinconv", "batch");
+
+		result.delete();
+		result.mkdir();
+
+		return result;
+	}
+
+	/**
+	 * Delete a file or a directory and everything beneath it
+	 * 
+	 * @param file
+	 */
+	private void delete(File file) {
+		File[] children = file.listFiles();
+
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
 }
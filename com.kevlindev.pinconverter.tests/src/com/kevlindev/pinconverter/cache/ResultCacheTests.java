@@ -0,0 +1,160 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * ResultCacheTests
+ */
+public class ResultCacheTests {
+	private File directory;
+
+	protected String read(File entry) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		ResultCache.copy(entry, output);
+
+		return output.toString();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("pinconv", "cache");
+		directory.delete();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+
+		directory.delete();
+	}
+
+	@Test
+	public void testKeys() {
+		Map<String, String> map = new LinkedHashMap<String, String>();
+
+		map.put("A", "B");
+
+		assertEquals(new CacheKey().add("ab").add(map).toString(), new CacheKey().add("ab").add(map).toString());
+		assertFalse(new CacheKey().add("ab").add("c").toString().equals(new CacheKey().add("a").add("bc").toString()));
+		assertFalse(new CacheKey().add((String) null).toString().equals(new CacheKey().add("").toString()));
+
+		CacheKey base = new CacheKey().add("generate");
+
+		assertEquals(new CacheKey().add("generate").add("UCF").toString(), base.copy().add("UCF").toString());
+		assertFalse(base.copy().add("UCF").toString().equals(base.copy().add("XDC").toString()));
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		ResultCache cache = new ResultCache(directory);
+		CacheKey key = new CacheKey().add("transform");
+
+		assertNull(cache.get(key));
+
+		cache.put(key, "NET CLK LOC=\"P89\";\n");
+
+		File entry = cache.get(key);
+
+		assertNotNull(entry);
+		assertEquals("NET CLK LOC=\"P89\";\n", read(entry));
+		assertNull(cache.get(new CacheKey().add("validate")));
+	}
+
+	@Test
+	public void testEvictBySize() throws IOException {
+		ResultCache cache = new ResultCache(directory, 10, ResultCache.DEFAULT_MAX_AGE);
+		CacheKey first = new CacheKey().add("first");
+		CacheKey second = new CacheKey().add("second");
+
+		cache.put(first, "123456");
+		cache.getFile(first).setLastModified(System.currentTimeMillis() - 60000);
+		cache.put(second, "123456");
+
+		// the least recently used entry is removed to make room
+		assertNull(cache.get(first));
+		assertNotNull(cache.get(second));
+	}
+
+	@Test
+	public void testEvictByAge() throws IOException {
+		ResultCache cache = new ResultCache(directory, ResultCache.DEFAULT_MAX_SIZE, 60000);
+		CacheKey old = new CacheKey().add("old");
+		CacheKey recent = new CacheKey().add("recent");
+
+		cache.put(old, "old");
+		cache.getFile(old).setLastModified(System.currentTimeMillis() - 120000);
+
+		assertNull(cache.get(old));
+
+		cache.put(recent, "recent");
+
+		assertFalse(cache.getFile(old).exists());
+		assertNotNull(cache.get(recent));
+	}
+
+	@Test
+	public void testEvictTempFiles() throws IOException {
+		ResultCache cache = new ResultCache(directory, ResultCache.DEFAULT_MAX_SIZE, 60000);
+		File stale = cache.createEntryFile();
+		File current = cache.createEntryFile();
+
+		// a process that stopped before storing its entry leaves its
+		// temporary file behind
+		stale.setLastModified(System.currentTimeMillis() - 120000);
+
+		cache.put(new CacheKey().add("entry"), "entry");
+
+		assertFalse(stale.exists());
+		assertTrue(current.exists());
+	}
+
+	@Test
+	public void testCachingWriter() throws IOException {
+		ResultCache cache = new ResultCache(directory);
+		CacheKey stored = new CacheKey().add("stored");
+		CacheKey discarded = new CacheKey().add("discarded");
+		StringWriter output = new StringWriter();
+		CachingWriter writer = new CachingWriter(output, cache, stored);
+
+		writer.write("NET CLK LOC=\"P89\";\n");
+		writer.flush();
+		writer.store();
+
+		assertEquals("NET CLK LOC=\"P89\";\n", output.toString());
+		assertEquals("NET CLK LOC=\"P89\";\n", read(cache.get(stored)));
+
+		writer = new CachingWriter(new StringWriter(), cache, discarded);
+		writer.write("partial");
+		writer.discard();
+
+		// only the stored entry remains
+		assertNull(cache.get(discarded));
+		assertEquals(1, directory.list().length);
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.cache.ResultCache;
+import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.parsing.BoardDefinitionParser;
+
+/**
+ * BoardCatalogTests
+ */
+public class BoardCatalogTests {
+	protected byte[] getSource(String resource) throws IOException {
+		InputStream input = BoardCatalogTests.class.getResourceAsStream(resource);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int c;
+
+		while ((c = input.read()) != -1) {
+			bytes.write(c);
+		}
+
+		input.close();
+
+		return bytes.toByteArray();
+	}
+
+	protected BoardCatalog openCatalog(File file) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		// read rather than map the file, so it can be replaced while the
+		// catalog is open
+		ResultCache.copy(file, bytes);
+
+		return BoardCatalog.open(ByteBuffer.wrap(bytes.toByteArray()));
+	}
+
+	protected void assertRoundTrip(String resource) throws IOException {
+		byte[] source = getSource(resource);
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+
+		parser.parse(new String(source));
+
+		List<Board> expected = parser.getBoards();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new BoardCatalogWriter().write(source, expected, output);
+
+		BoardCatalog catalog = BoardCatalog.open(ByteBuffer.wrap(output.toByteArray()));
+		assertNotNull(catalog);
+		assertTrue(catalog.isCurrent(source));
+		assertEquals(expected.size(), catalog.getBoardCount());
+
+		List<Board> actual = new ArrayList<Board>();
+
+		for (int i = 0; i < catalog.getBoardCount(); i++) {
+			Board board = catalog.createBoard(i);
+
+			assertEquals(expected.get(i).getNames(), catalog.getBoardNames(i));
+			assertEquals(expected.get(i).getParentBoardName(), board.getParentBoardName());
+			assertEquals(expected.get(i).getDeclaredHeader(), board.getDeclaredHeader());
+			assertEquals(String.valueOf(expected.get(i).getDeclaredConfigs()), String.valueOf(board.getDeclaredConfigs()));
+
+			actual.add(board);
+		}
+
+		assertEquals(expected.toString(), actual.toString());
+
+		// any change to the source makes the catalog stale
+		source[source.length - 1] ^= 1;
+		assertFalse(catalog.isCurrent(source));
+	}
+
+	@Test
+	public void testBoards() throws IOException {
+		assertRoundTrip("/com/kevlindev/pinconverter/resources/boards.txt");
+	}
+
+	@Test
+	public void testWings() throws IOException {
+		assertRoundTrip("/com/kevlindev/pinconverter/resources/wings.txt");
+	}
+
+	@Test
+	public void testStamp() throws IOException {
+		byte[] source = getSource("/com/kevlindev/pinconverter/resources/wings.txt");
+		File file = File.createTempFile("wings", ".txt");
+
+		try {
+			FileOutputStream fileOutput = new FileOutputStream(file);
+
+			try {
+				fileOutput.write(source);
+			} finally {
+				fileOutput.close();
+			}
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+			new BoardCatalogWriter().write(source, file.lastModified(), new ArrayList<Board>(), output);
+
+			BoardCatalog catalog = BoardCatalog.open(ByteBuffer.wrap(output.toByteArray()));
+
+			assertTrue(catalog.hasStamp(file.toURI().toURL()));
+			assertFalse(catalog.hasStamp(source.length + 1, file.lastModified()));
+			assertFalse(catalog.hasStamp(source.length, file.lastModified() + 60000));
+
+			// an unknown time never matches
+			assertFalse(catalog.hasStamp(source.length, 0));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testStampOfCopiedSource() throws IOException {
+		File source = File.createTempFile("wings", ".txt");
+		File copy = File.createTempFile("wings", ".txt");
+		File catalogFile = File.createTempFile("wings", ".cat");
+
+		try {
+			FileOutputStream fileOutput = new FileOutputStream(source);
+
+			try {
+				fileOutput.write(getSource("/com/kevlindev/pinconverter/resources/wings.txt"));
+			} finally {
+				fileOutput.close();
+			}
+
+			// a copy that does not keep the source's time, as a build copies
+			// resources to its output directory
+			source.setLastModified(System.currentTimeMillis() - 60000);
+			ResultCache.copy(source, copy);
+
+			BoardCatalogWriter writer = new BoardCatalogWriter();
+
+			writer.write(source, catalogFile);
+			assertFalse(openCatalog(catalogFile).hasStamp(copy.toURI().toURL()));
+
+			// a catalog compiled from the copy matches the copy
+			writer.write(copy, catalogFile);
+			assertTrue(openCatalog(catalogFile).hasStamp(copy.toURI().toURL()));
+		} finally {
+			source.delete();
+			copy.delete();
+			catalogFile.delete();
+		}
+	}
+
+	@Test
+	public void testNoStamp() throws IOException {
+		byte[] source = getSource("/com/kevlindev/pinconverter/resources/wings.txt");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new BoardCatalogWriter().write(source, new ArrayList<Board>(), output);
+
+		BoardCatalog catalog = BoardCatalog.open(ByteBuffer.wrap(output.toByteArray()));
+
+		// without a recorded time, only the checksum can show the catalog
+		// is current
+		assertFalse(catalog.hasStamp(source.length, System.currentTimeMillis()));
+		assertTrue(catalog.isCurrent(source));
+	}
+
+	@Test
+	public void testInvalidCatalog() {
+		assertNull(BoardCatalog.open(ByteBuffer.wrap(new byte[64])));
+	}
+}
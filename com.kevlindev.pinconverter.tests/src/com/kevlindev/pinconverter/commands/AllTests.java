@@ -0,0 +1,21 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * AllTests
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ FileBatchTests.class, FileChunksTests.class, LineReaderTests.class, MappedTransformerTests.class, ValidateCommandTests.class })
+public class AllTests {
+
+}
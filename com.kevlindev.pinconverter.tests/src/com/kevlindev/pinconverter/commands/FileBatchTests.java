@@ -0,0 +1,146 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * FileBatchTests
+ */
+public class FileBatchTests {
+	private File directory;
+
+	protected void assertFiles(List<String> names, String... expected) {
+		List<String> actual = new ArrayList<String>();
+
+		for (BatchFile file : FileBatch.expand(names)) {
+			actual.add(file.getOutputName().replace(File.separatorChar, '/'));
+		}
+
+		assertEquals(Arrays.asList(expected), actual);
+	}
+
+	protected void createFile(String name) throws IOException {
+		File file = new File(directory, name);
+
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+	protected void delete(File file) {
+		File[] children = file.listFiles();
+
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("pinconv", "batch");
+		directory.delete();
+		directory.mkdir();
+
+		createFile("b.ucf");
+		createFile("a.ucf");
+		createFile("notes.txt");
+		createFile("sub/c.UCF");
+		createFile("sub/deeper/d.ucf");
+	}
+
+	@After
+	public void tearDown() {
+		delete(directory);
+	}
+
+	@Test
+	public void testExpandDirectory() {
+		assertFiles(Collections.singletonList(directory.getPath()), "a.ucf", "b.ucf", "sub/c.UCF", "sub/deeper/d.ucf");
+	}
+
+	@Test
+	public void testExpandGlob() {
+		assertFiles(Collections.singletonList(new File(directory, "?.ucf").getPath()), "a.ucf", "b.ucf");
+		assertFiles(Collections.singletonList(new File(directory, "*").getPath()), "a.ucf", "b.ucf", "notes.txt");
+		assertFiles(Collections.singletonList(new File(directory, "*.none").getPath()));
+	}
+
+	@Test
+	public void testExpandFiles() {
+		// missing files are kept so they can be reported
+		assertFiles(Arrays.asList(new File(directory, "b.ucf").getPath(), new File(directory, "missing.ucf").getPath()), "b.ucf", "missing.ucf");
+	}
+
+	@Test
+	public void testOutputConflicts() throws IOException {
+		createFile("first/top.ucf");
+		createFile("second/top.ucf");
+
+		File output = new File(directory, "out");
+		List<String> names = Arrays.asList(new File(directory, "first/top.ucf").getPath(), new File(directory, "second/*.ucf").getPath(), new File(directory, "a.ucf").getPath());
+		List<BatchFile> files = FileBatch.expand(names);
+
+		assertEquals(1, FileBatch.findOutputConflicts(files, output).size());
+		assertTrue(FileBatch.findOutputConflicts(files, null).isEmpty());
+
+		// a file listed twice conflicts with itself, even in place
+		files.add(files.get(0));
+
+		assertEquals(2, FileBatch.findOutputConflicts(files, output).size());
+		assertEquals(1, FileBatch.findOutputConflicts(files, null).size());
+
+		// files below an input directory keep their relative paths
+		assertTrue(FileBatch.findOutputConflicts(FileBatch.expand(Collections.singletonList(directory.getPath())), output).isEmpty());
+	}
+
+	@Test
+	public void testIsBatch() {
+		assertFalse(FileBatch.isBatch(null));
+		assertFalse(FileBatch.isBatch(Collections.singletonList(new File(directory, "a.ucf").getPath())));
+		assertTrue(FileBatch.isBatch(Collections.singletonList(directory.getPath())));
+		assertTrue(FileBatch.isBatch(Collections.singletonList("*.ucf")));
+		assertTrue(FileBatch.isBatch(Arrays.asList("a.ucf", "b.ucf")));
+	}
+
+	@Test
+	public void testRunInOrder() {
+		final List<String> completed = new ArrayList<String>();
+		List<BatchFile> files = FileBatch.expand(Collections.singletonList(directory.getPath()));
+
+		FileBatch batch = new FileBatch() {
+			@Override
+			protected void complete(BatchFile file, boolean succeeded) {
+				completed.add(file.getFile().getName() + ":" + succeeded);
+			}
+
+			@Override
+			protected void process(BatchFile file, List<String> errors) throws IOException {
+				if (file.getFile().getName().startsWith("b")) {
+					throw new IOException("failed");
+				}
+			}
+		};
+
+		assertFalse(batch.run(files, 3));
+		assertEquals(Arrays.asList("a.ucf:true", "b.ucf:false", "c.UCF:true", "d.ucf:true"), completed);
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * FileChunksTests
+ */
+public class FileChunksTests {
+	private File file;
+
+	protected List<String> getChunks(String text, int chunkSize) throws IOException {
+		List<String> result = new ArrayList<String>();
+		OutputStream output = new FileOutputStream(file);
+
+		try {
+			output.write(text.getBytes("US-ASCII"));
+		} finally {
+			output.close();
+		}
+
+		FileChunks chunks = new FileChunks(file, chunkSize);
+
+		try {
+			for (int i = 0; i < chunks.getCount(); i++) {
+				ByteBuffer bytes = chunks.map(i);
+				byte[] data = new byte[bytes.remaining()];
+
+				bytes.get(data);
+				result.add(new String(data, "US-ASCII"));
+			}
+		} finally {
+			chunks.close();
+		}
+
+		return result;
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("pinconv", ".ucf");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		assertEquals("[]", getChunks("", 4).toString());
+	}
+
+	@Test
+	public void testLineBoundaries() throws IOException {
+		assertEquals("[ab\n, cd\n, ef]", getChunks("ab\ncd\nef", 1).toString());
+		assertEquals("[ab\ncd\n, ef]", getChunks("ab\ncd\nef", 4).toString());
+		assertEquals("[ab\ncd\nef]", getChunks("ab\ncd\nef", 100).toString());
+	}
+
+	@Test
+	public void testLineEndings() throws IOException {
+		// a CR LF pair is never split, even when it straddles the target size
+		assertEquals("[ab\r\n, cd\r\n]", getChunks("ab\r\ncd\r\n", 3).toString());
+		assertEquals("[ab\r\n, cd\r\n]", getChunks("ab\r\ncd\r\n", 4).toString());
+		assertEquals("[ab\r, cd\r\n]", getChunks("ab\rcd\r\n", 1).toString());
+		assertEquals("[ab\r, cd\r]", getChunks("ab\rcd\r", 1).toString());
+		assertEquals("[\n, \n, \n]", getChunks("\n\n\n", 1).toString());
+	}
+
+	@Test
+	public void testLongLine() throws IOException {
+		StringBuilder buffer = new StringBuilder();
+
+		for (int i = 0; i < 10000; i++) {
+			buffer.append('x');
+		}
+
+		String line = buffer.toString();
+
+		// the CR is the last byte of the first read, so the LF is in the next
+		assertEquals(line.substring(0, 4104) + "\r\n", getChunks(line.substring(0, 4104) + "\r\nNET", 10).get(0));
+
+		assertEquals(3, getChunks(line + "\r" + line + "\r\n" + line, 10).size());
+		assertEquals(line + "\r", getChunks(line + "\r" + line + "\r\n" + line, 10).get(0));
+		assertEquals(line + "\r\n", getChunks(line + "\r" + line + "\r\n" + line, 10).get(1));
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * LineReaderTests
+ */
+public class LineReaderTests {
+	protected List<String> readLines(Reader input) throws IOException {
+		List<String> result = new ArrayList<String>();
+		LineReader reader = new LineReader(input);
+
+		while (reader.next()) {
+			assertEquals(reader.getLength(), reader.getLine().length());
+			result.add(new String(reader.getChars(), 0, reader.getLength()));
+		}
+
+		reader.close();
+
+		return result;
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		assertEquals(new ArrayList<String>(), readLines(new StringReader("")));
+	}
+
+	@Test
+	public void testLineEndings() throws IOException {
+		assertEquals(Arrays.asList("a", "b", "", "c", "d"), readLines(new StringReader("a\nb\r\n\rc\r\nd")));
+		assertEquals(Arrays.asList("a", ""), readLines(new StringReader("a\n\n")));
+	}
+
+	@Test
+	public void testSplitReads() throws IOException {
+		// return one character per read so "\r\n" is split across reads
+		Reader input = new StringReader("NET A\r\nNET B\r\n\r\nNET C") {
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				return super.read(buffer, offset, Math.min(length, 1));
+			}
+		};
+
+		assertEquals(Arrays.asList("NET A", "NET B", "", "NET C"), readLines(input));
+	}
+
+	@Test
+	public void testLongLine() throws IOException {
+		StringBuilder buffer = new StringBuilder();
+
+		for (int i = 0; i < 20000; i++) {
+			buffer.append((char) ('a' + i % 26));
+		}
+
+		String line = buffer.toString();
+
+		assertEquals(Arrays.asList(line, "end"), readLines(new StringReader(line + "\nend\n")));
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.model.PinTranslation;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
+
+/**
+ * MappedTransformerTests
+ */
+public class MappedTransformerTests {
+	private PinTranslation translation;
+	private File file;
+
+	protected void assertSameOutput(File input) throws IOException {
+		byte[] expected = transformStream(input);
+
+		assertArrayEquals(input.getName(), expected, transformMapped(input));
+
+		// tiny chunks put boundaries next to every kind of line ending
+		for (int chunkSize : new int[] { 1, 2, 7, 64, 4096 }) {
+			assertArrayEquals(input.getName() + " in chunks of " + chunkSize, expected, transformChunks(input, chunkSize));
+		}
+	}
+
+	protected void assertSameOutput(String text) throws IOException {
+		OutputStream output = new FileOutputStream(file);
+
+		try {
+			output.write(text.getBytes(Charset.defaultCharset()));
+		} finally {
+			output.close();
+		}
+
+		assertSameOutput(file);
+	}
+
+	protected byte[] transformMapped(File input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new MappedTransformer(translation, Charset.defaultCharset()).transform(input, Channels.newChannel(output));
+
+		return output.toByteArray();
+	}
+
+	protected byte[] transformChunks(File input, int chunkSize) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new TransformCommand().transformChunks(input, translation, Charset.defaultCharset(), 3, chunkSize, Channels.newChannel(output));
+
+		return output.toByteArray();
+	}
+
+	protected byte[] transformStream(File input) throws IOException {
+		StringWriter output = new StringWriter();
+		LineReader reader = new LineReader(new FileReader(input));
+		UCFScanner scanner = new UCFScanner();
+
+		try {
+			while (reader.next()) {
+				new TransformCommand().processLine(reader, scanner, translation, output);
+			}
+		} finally {
+			reader.close();
+		}
+
+		return output.toString().getBytes(Charset.defaultCharset());
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		Map<String, String> pinMap = new HashMap<String, String>();
+
+		pinMap.put("P18", "P1");
+		pinMap.put("P23", "P100");
+		pinMap.put("P26", "P26");
+		pinMap.put("P89", "P9");
+		translation = PinTranslation.fromMap(pinMap);
+
+		file = File.createTempFile("pinconv", ".ucf");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testUCFFiles() throws IOException {
+		File[] files = new File("UCF").listFiles();
+
+		assertTrue(files != null && files.length > 0);
+
+		for (File input : files) {
+			assertSameOutput(input);
+		}
+	}
+
+	@Test
+	public void testLineEndings() throws IOException {
+		assertSameOutput("");
+		assertSameOutput("NET A LOC=\"P18\";\r\nNET B LOC=\"P23\";\rNET C LOC=\"P26\";\n\r\n");
+		assertSameOutput("# comment\r\nNET CLK LOC=\"P89\" | PERIOD=31.25ns;");
+	}
+
+	@Test
+	public void testPatternRules() throws IOException {
+		// @formatter:off
+		assertSameOutput(
+			"  NET  \"A<0>\"  LOC  =  \"P18\" ; # $1 \\\\ \n" +
+			"NETxLOC=\"P18\";\n" +
+			"NET LOCLOC=\"P23\";\n" +
+			"NET A LOC=\"\";\n" +
+			"NET A LOC=\"P18;\n" +
+			"net a loc=\"P18\";\n" +
+			"INST A LOC=\"P18\";\n" +
+			"NET A\tLOC=\"P18\"\u000B;\n" +
+			"NET \u00e9 LOC=\"P18\"; # \u00e9\n" +
+			"NET A IOSTANDARD=LVTTL | LOC=P23 | PULLUP; NET B LOC=\"P18\";\n" +
+			"INST \"a_OBUF\" LOC = \"P26\";INST s LOC=SLICE_X0Y0;\n"
+		);
+		// @formatter:on
+	}
+
+	@Test
+	public void testLargeSpans() throws IOException {
+		StringBuilder buffer = new StringBuilder();
+
+		for (int i = 0; i < 2000; i++) {
+			buffer.append("# unchanged line ").append(i).append('\n');
+		}
+
+		buffer.append("NET A LOC=\"P18\";\n");
+		buffer.append(buffer.toString());
+
+		assertSameOutput(buffer.toString());
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.model.PinIndex;
+
+/**
+ * ValidateCommandTests
+ */
+public class ValidateCommandTests {
+	private PinIndex index;
+	private File file;
+
+	protected List<String> assertSameErrors(String text) throws IOException {
+		writeFile(text);
+
+		List<String> result = validateStream(file);
+
+		for (int chunkSize : new int[] { 1, 5, 64, 4096 }) {
+			assertEquals("chunks of " + chunkSize, result, validateChunks(file, chunkSize, 1));
+			assertEquals("chunks of " + chunkSize, result, validateChunks(file, chunkSize, 3));
+		}
+
+		return result;
+	}
+
+	protected List<DiagnosticType> getTypes(String text) throws IOException {
+		final List<DiagnosticType> result = new ArrayList<DiagnosticType>();
+
+		writeFile(text);
+
+		new ValidateCommand().validateStream(file.getPath(), new PinValidator(index, new IDiagnosticListener() {
+			@Override
+			public void diagnostic(Diagnostic diagnostic) {
+				result.add(diagnostic.getType());
+			}
+		}));
+
+		return result;
+	}
+
+	protected List<String> validateChunks(File input, int chunkSize, int threadCount) throws IOException {
+		List<String> result = new ArrayList<String>();
+
+		new ValidateCommand().validateChunks(input, index, Charset.defaultCharset(), threadCount, chunkSize, ValidateCommand.createListener("f", result));
+
+		return result;
+	}
+
+	protected List<String> validateStream(File input) throws IOException {
+		List<String> result = new ArrayList<String>();
+
+		new ValidateCommand().validateStream(input.getPath(), new PinValidator(index, ValidateCommand.createListener("f", result)));
+
+		return result;
+	}
+
+	protected void writeFile(String text) throws IOException {
+		OutputStream output = new FileOutputStream(file);
+
+		try {
+			output.write(text.getBytes(Charset.defaultCharset()));
+		} finally {
+			output.close();
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		index = new PinIndex(Arrays.asList("P18", "P23", "P24"), Arrays.asList("P99", "P23"));
+		file = File.createTempFile("pinconv", ".ucf");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testConflicts() throws IOException {
+		// @formatter:off
+		List<String> errors = assertSameErrors(
+			"NET A LOC=\"P18\";\r\n" +
+			"NET B LOC=\"P18\";\n" +
+			"INST A LOC=\"P24\";\r" +
+			"NET A LOC=\"P18\";\n" +
+			"NET C LOC=\"P99\";"
+		);
+		// @formatter:on
+
+		// @formatter:off
+		List<String> expected = Arrays.asList(
+			"f:2: FPGA pin 'P18' of NET 'B' is already assigned to 'A' on line 1",
+			"f:4: NET 'A' is already placed on line 1",
+			"f:5: Prohibited FPGA pin 'P99': NET C LOC=\"P99\";"
+		);
+		// @formatter:on
+
+		assertEquals(expected, errors);
+	}
+
+	@Test
+	public void testDiagnosticTypes() throws IOException {
+		assertEquals(Collections.emptyList(), getTypes("NET A LOC=P18;\nNET B LOC=P24;\nNET A IOSTANDARD=LVTTL;"));
+		assertEquals(Arrays.asList(DiagnosticType.INVALID_PIN), getTypes("NET A LOC=P1;"));
+		assertEquals(Arrays.asList(DiagnosticType.PROHIBITED_PIN), getTypes("NET A LOC=P23;"));
+		assertEquals(Arrays.asList(DiagnosticType.PIN_CONFLICT), getTypes("NET A LOC=P18;\nNET B LOC=P18;"));
+		assertEquals(Arrays.asList(DiagnosticType.DUPLICATE_PLACEMENT), getTypes("NET A LOC=P18;\nNET A LOC=P24;"));
+		assertEquals(Arrays.asList(DiagnosticType.INVALID_PIN, DiagnosticType.DUPLICATE_PLACEMENT), getTypes("NET A LOC=P18; NET A LOC=P2;"));
+	}
+
+	@Test
+	public void testErrorOrder() throws IOException {
+		// @formatter:off
+		assertSameErrors(
+			"NET A LOC=\"P18\";\r\n" +
+			"NET B LOC=\"P99\"; NET C LOC=\"P98\";\r" +
+			"# NET D LOC=\"P97\";\n" +
+			"INST E LOC = P96;\n" +
+			"NET \u00e9 LOC=\"P95\";\n" +
+			"NET F LOC=\"P23\" | PULLUP;\n" +
+			"NET G LOC=\"P94\""
+		);
+		// @formatter:on
+	}
+
+	@Test
+	public void testUCFFiles() throws IOException {
+		File[] files = new File("UCF").listFiles();
+
+		assertTrue(files != null && files.length > 0);
+
+		for (File input : files) {
+			assertEquals(input.getName(), validateStream(input), validateChunks(input, 64, 3));
+		}
+	}
+}
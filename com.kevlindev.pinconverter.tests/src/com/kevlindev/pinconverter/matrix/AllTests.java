@@ -0,0 +1,21 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.matrix;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * AllTests
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ MatrixPlanTests.class })
+public class AllTests {
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.pinconverter.cache.ResultCache;
+import com.kevlindev.pinconverter.model.Configuration;
+import com.kevlindev.pinconverter.model.ConstraintFormat;
+
+/**
+ * MatrixPlanTests
+ */
+public class MatrixPlanTests {
+	private List<File> directories = new ArrayList<File>();
+
+	protected File createDirectory() throws IOException {
+		File result = File.createTempFile("pinconv", "matrix");
+
+		result.delete();
+		result.mkdirs();
+		directories.add(result);
+
+		return result;
+	}
+
+	protected List<String> getFileNames(MatrixPlan plan) {
+		List<String> result = new ArrayList<String>();
+
+		for (MatrixJob job : plan.getJobs()) {
+			result.add(job.getFileName());
+		}
+
+		return result;
+	}
+
+	protected void load(String resource, boolean wings) {
+		InputStream input = MatrixPlanTests.class.getResourceAsStream(resource);
+
+		if (wings) {
+			Registrar.WING_REGISTRY.load(input);
+		} else {
+			Registrar.BOARD_REGISTRY.load(input);
+		}
+	}
+
+	protected String read(File file) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		ResultCache.copy(file, output);
+
+		return output.toString();
+	}
+
+	@Before
+	public void setUp() {
+		load("/com/kevlindev/pinconverter/resources/boards.txt", false);
+		load("/com/kevlindev/pinconverter/resources/wings.txt", true);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+		Registrar.WING_REGISTRY.clear();
+
+		for (File directory : directories) {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testEnumerate() {
+		MatrixPlan plan = MatrixPlan.enumerate(Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY);
+		List<String> fileNames = getFileNames(plan);
+
+		assertEquals(fileNames, getFileNames(MatrixPlan.enumerate(Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY)));
+		assertTrue(fileNames.contains("Papilio_One"));
+		assertTrue(fileNames.contains("Papilio_One-Button_LED_Wing-A0"));
+		assertTrue(fileNames.contains("Papilio_One-Button_LED_Wing-A8"));
+		assertTrue(fileNames.contains("Papilio_One-Button_LED_Wing-C8"));
+
+		// single pin buses can not hold a wing
+		assertFalse(fileNames.contains("Papilio_One-Button_LED_Wing-CLK0"));
+	}
+
+	@Test
+	public void testLocations() {
+		List<String> locations = MatrixPlan.getLocations(Registrar.BOARD_REGISTRY.getBoard("P1"), Registrar.WING_REGISTRY.getBoard("LA"));
+
+		// the second bus of the wing needs a board bus after the first
+		assertEquals(Arrays.asList("A0", "B0"), locations);
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		MatrixPlan plan = MatrixPlan.read(new StringReader("# comment\n\nP1\nP1 | B/LED->AL;PS/2->BH\nP1\n"));
+
+		assertEquals(Arrays.asList("P1", "P1-B_LED-A0-PS_2-B8", "P1-2"), getFileNames(plan));
+		assertEquals("P1 | B/LED->A0;PS/2->B8", plan.getJobs().get(1).toString());
+	}
+
+	@Test
+	public void testGenerate() throws IOException {
+		MatrixPlan plan = MatrixPlan.read(new StringReader("P1\nP1 | B/LED->AL;PS/2->BH\nP1 | B/LED->AH\nP1 | Missing->AL"));
+		List<ConstraintFormat> formats = Arrays.asList(ConstraintFormat.UCF, ConstraintFormat.XDC);
+		File first = createDirectory();
+		File second = createDirectory();
+		MatrixGenerator serial = new MatrixGenerator(first, formats, EnumSet.noneOf(Configuration.class), 1);
+		MatrixGenerator parallel = new MatrixGenerator(second, formats, EnumSet.noneOf(Configuration.class), 4);
+
+		assertFalse(serial.generate(plan, Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY));
+		assertFalse(parallel.generate(plan, Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY));
+		assertEquals(Arrays.asList("Unable to generate 'P1-Missing-A0'. The wing 'Missing' is not defined"), parallel.getErrors());
+		assertEquals(3, parallel.getCombinationCount());
+		assertEquals(6, parallel.getFileCount());
+
+		// the thread count does not change what is written
+		for (MatrixJob job : plan.getJobs().subList(0, 3)) {
+			for (ConstraintFormat format : formats) {
+				String name = job.getFileName() + format.getExtension();
+
+				assertEquals(read(new File(first, name)), read(new File(second, name)));
+			}
+		}
+
+		assertTrue(read(new File(second, "P1-B_LED-A8.ucf")).contains("NET LED4"));
+		assertFalse(read(new File(second, "P1.ucf")).contains("NET LED4"));
+	}
+
+	@Test
+	public void testGenerateSeveralBoards() throws IOException {
+		// boards named by a spec file are created by the generator, and child
+		// boards resolve through their parents, so every board must exist
+		// before any job runs
+		String spec = "P1_500K | B/LED->AL\nPPro\nP1_250K\nPRAM | B/LED->AH\nP1\nPLogic\nPPlus\n";
+		List<ConstraintFormat> formats = Arrays.asList(ConstraintFormat.UCF);
+		File first = createDirectory();
+		File second = createDirectory();
+		MatrixGenerator serial = new MatrixGenerator(first, formats, EnumSet.noneOf(Configuration.class), 1);
+		MatrixGenerator parallel = new MatrixGenerator(second, formats, EnumSet.noneOf(Configuration.class), 4);
+
+		assertTrue(parallel.generate(MatrixPlan.read(new StringReader(spec)), Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY));
+
+		// a fresh registry for the serial run, so both runs create the boards
+		Registrar.BOARD_REGISTRY.clear();
+		Registrar.WING_REGISTRY.clear();
+		setUp();
+
+		MatrixPlan plan = MatrixPlan.read(new StringReader(spec));
+
+		assertTrue(serial.generate(plan, Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY));
+		assertEquals(7, parallel.getCombinationCount());
+
+		for (MatrixJob job : plan.getJobs()) {
+			String name = job.getFileName() + ".ucf";
+
+			assertEquals(read(new File(first, name)), read(new File(second, name)));
+		}
+
+		assertTrue(read(new File(second, "P1_500K-B_LED-A0.ucf")).contains("NET LED4"));
+	}
+}
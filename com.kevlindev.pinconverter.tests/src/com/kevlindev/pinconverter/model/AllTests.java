@@ -0,0 +1,21 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * AllTests
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ AttributeSetTests.class, BoardInferenceTests.class, BoardOverlayTests.class, BoardTests.class, BusSelectionTests.class, ConstraintGeneratorTests.class, PinIndexTests.class, PinMovesTests.class, PinTests.class, PinTranslationTests.class, UCFWriterTests.class })
+public class AllTests {
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * AttributeSetTests
+ */
+public class AttributeSetTests {
+	protected Map<String, String> createMap(String... pairs) {
+		Map<String, String> result = new LinkedHashMap<String, String>();
+
+		for (int i = 0; i < pairs.length; i += 2) {
+			result.put(pairs[i], pairs[i + 1]);
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testIntern() {
+		AttributeSet set = AttributeSet.intern(createMap("IOSTANDARD", "LVTTL", "PULLUP", null));
+
+		assertSame(set, AttributeSet.intern(createMap("IOSTANDARD", "LVTTL", "PULLUP", null)));
+		assertSame(set, AttributeSet.intern(set.asMap()));
+		assertSame(AttributeSet.EMPTY, AttributeSet.intern(createMap()));
+		assertNull(AttributeSet.intern(null));
+
+		// order is significant
+		AttributeSet reversed = AttributeSet.intern(createMap("PULLUP", null, "IOSTANDARD", "LVTTL"));
+
+		assertEquals(set.asMap(), reversed.asMap());
+		assertFalse(set.equals(reversed));
+	}
+
+	@Test
+	public void testMerge() {
+		AttributeSet bus = AttributeSet.intern(createMap("IOSTANDARD", "LVCMOS33", "DRIVE", "8"));
+		AttributeSet pin = AttributeSet.intern(createMap("PULLUP", null, "IOSTANDARD", "LVTTL"));
+		AttributeSet merged = AttributeSet.merge(bus, pin);
+
+		assertEquals(createMap("IOSTANDARD", "LVTTL", "DRIVE", "8", "PULLUP", null).toString(), merged.toString());
+		assertSame(merged, AttributeSet.merge(bus, pin));
+		assertSame(bus, AttributeSet.merge(bus, null));
+		assertSame(pin, AttributeSet.merge(null, pin));
+		assertSame(bus, AttributeSet.merge(bus, AttributeSet.EMPTY));
+	}
+
+	@Test
+	public void testToUCF() {
+		AttributeSet set = AttributeSet.intern(createMap("IOSTANDARD", "LVTTL", "PULLUP", null));
+		EnumSet<Configuration> spaces = EnumSet.of(Configuration.SPACE_AROUND_EQUALS);
+
+		assertEquals("| IOSTANDARD=LVTTL | PULLUP;", set.toUCF(EnumSet.noneOf(Configuration.class)));
+		assertEquals("| IOSTANDARD = LVTTL | PULLUP;", set.toUCF(spaces));
+		assertSame(set.toUCF(spaces), set.toUCF(spaces));
+	}
+
+	@Test
+	public void testPinAdditions() {
+		Bus bus = new Bus("A");
+		Pin pin = new Pin();
+
+		bus.setAdditions(createMap("IOSTANDARD", "LVCMOS33"));
+		pin.setAdditions(createMap("PULLUP", null));
+		pin.setOwningBus(bus);
+
+		assertEquals(createMap("IOSTANDARD", "LVCMOS33", "PULLUP", null), pin.getAdditions());
+		assertSame(pin.getAttributeSet(), new Pin(pin).getAttributeSet());
+
+		// each call returns a copy
+		pin.getAdditions().put("DRIVE", "8");
+
+		assertEquals(createMap("IOSTANDARD", "LVCMOS33", "PULLUP", null), pin.getAdditions());
+	}
+
+	@Test
+	public void testPinAttributeSetCache() {
+		Bus bus = new Bus("A");
+		Bus other = new Bus("B");
+		Pin pin = new Pin();
+
+		bus.setAdditions(createMap("IOSTANDARD", "LVCMOS33"));
+		other.setAdditions(createMap("IOSTANDARD", "LVTTL"));
+		pin.setAdditions(createMap("PULLUP", null));
+		pin.setOwningBus(bus);
+
+		AttributeSet merged = pin.getAttributeSet();
+
+		assertSame(merged, pin.getAttributeSet());
+
+		// changing the bus invalidates the pin's cached merge
+		bus.setAdditions(createMap("IOSTANDARD", "LVCMOS25"));
+
+		assertEquals(createMap("IOSTANDARD", "LVCMOS25", "PULLUP", null), pin.getAdditions());
+
+		// as does changing the pin's own additions
+		pin.setAdditions(createMap("PULLDOWN", null));
+
+		assertEquals(createMap("IOSTANDARD", "LVCMOS25", "PULLDOWN", null), pin.getAdditions());
+
+		// and moving the pin to another bus
+		pin.setOwningBus(other);
+
+		assertEquals(createMap("IOSTANDARD", "LVTTL", "PULLDOWN", null), pin.getAdditions());
+
+		pin.setOwningBus(null);
+
+		assertEquals(createMap("PULLDOWN", null), pin.getAdditions());
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * BoardInferenceTests
+ */
+public class BoardInferenceTests {
+	protected List<String> getNames(List<BoardMatch> matches) {
+		List<String> result = new ArrayList<String>();
+
+		for (BoardMatch match : matches) {
+			result.add(match.getName());
+		}
+
+		return result;
+	}
+
+	@Before
+	public void setUp() {
+		InputStream input = BoardInferenceTests.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/boards.txt");
+
+		Registrar.BOARD_REGISTRY.load(input);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+	}
+
+	@Test
+	public void testCompile() {
+		List<Board> boards = Registrar.BOARD_REGISTRY.getBoards();
+		BoardInference inference = BoardInference.compile(boards);
+
+		assertSame(inference, BoardInference.compile(boards));
+		assertNotSame(inference, BoardInference.compile(boards.subList(1, boards.size())));
+	}
+
+	@Test
+	public void testMatch() {
+		BoardInference inference = BoardInference.compile(Registrar.BOARD_REGISTRY.getBoards());
+		List<BoardMatch> matches = inference.match(Arrays.asList("P18", "P23", "P89"));
+
+		// the three Papilio One boards share their pins, so they rank by name
+		assertEquals(Arrays.asList("Papilio One", "Papilio One 250K", "Papilio One 500K"), getNames(matches).subList(0, 3));
+
+		for (BoardMatch match : matches.subList(0, 3)) {
+			assertTrue(match.isComplete());
+			assertEquals(1.0, match.getCoverage(), 0);
+		}
+
+		for (BoardMatch match : matches.subList(3, matches.size())) {
+			assertFalse(match.getName(), match.isComplete());
+			assertTrue(match.getName(), match.getMatchedCount() > 0);
+		}
+	}
+
+	@Test
+	public void testMatchRanking() {
+		Board p1 = Registrar.BOARD_REGISTRY.getBoard("P1");
+		Board pram = Registrar.BOARD_REGISTRY.getBoard("PRAM");
+		BoardInference inference = new BoardInference(Arrays.asList(pram, p1));
+		List<String> pins = new ArrayList<String>();
+
+		for (Pin pin : p1.getPins()) {
+			pins.add(pin.getName());
+		}
+
+		pins.add("NOT_A_PIN");
+
+		List<BoardMatch> matches = inference.match(pins);
+
+		assertEquals("Papilio One", matches.get(0).getName());
+		assertEquals(pins.size() - 1, matches.get(0).getMatchedCount());
+		assertFalse(matches.get(0).isComplete());
+		assertTrue(matches.get(0).getCoverage() > matches.get(1).getCoverage());
+		assertEquals(2, inference.match(Collections.<String> emptyList()).size());
+	}
+}
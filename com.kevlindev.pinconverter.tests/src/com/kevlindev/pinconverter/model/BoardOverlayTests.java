@@ -0,0 +1,115 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+import java.util.EnumSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.text.Table;
+
+/**
+ * BoardOverlayTests
+ */
+public class BoardOverlayTests {
+	protected void load(String resource, boolean wings) {
+		InputStream input = BoardOverlayTests.class.getResourceAsStream(resource);
+
+		if (wings) {
+			Registrar.WING_REGISTRY.load(input);
+		} else {
+			Registrar.BOARD_REGISTRY.load(input);
+		}
+	}
+
+	protected String toUCF(BoardOverlay overlay) {
+		Table table = new Table();
+
+		overlay.toUCF(table, null, EnumSet.noneOf(Configuration.class));
+
+		return table.toString();
+	}
+
+	@Before
+	public void setUp() {
+		load("/com/kevlindev/pinconverter/resources/boards.txt", false);
+		load("/com/kevlindev/pinconverter/resources/wings.txt", true);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+		Registrar.WING_REGISTRY.clear();
+	}
+
+	@Test
+	public void testBoardUnchanged() {
+		Board board = Registrar.BOARD_REGISTRY.getBoard("P1");
+		String before = board.toUCF(null);
+		BoardOverlay overlay = new BoardOverlay(board);
+
+		overlay.placeWing(Registrar.WING_REGISTRY.getBoard("Arcade"), "A");
+
+		String withWing = toUCF(overlay);
+
+		assertFalse(before.equals(withWing));
+		assertEquals(before, board.toUCF(null));
+		assertEquals(before, toUCF(new BoardOverlay(board)));
+
+		// placing the same wing again on a fresh overlay gives the same result
+		BoardOverlay other = new BoardOverlay(board);
+
+		other.placeWing(Registrar.WING_REGISTRY.getBoard("Arcade"), "A");
+		assertEquals(withWing, toUCF(other));
+	}
+
+	@Test
+	public void testLayers() {
+		Board board = Registrar.BOARD_REGISTRY.getBoard("P1");
+		Bus a = board.getBus("A");
+		Bus b = board.getBus("B");
+		BoardOverlay base = new BoardOverlay(board);
+
+		base.placeWing(Registrar.WING_REGISTRY.getBoard("BLED"), "A0");
+
+		BoardOverlay left = new BoardOverlay(base);
+		BoardOverlay right = new BoardOverlay(base);
+
+		left.placeWing(Registrar.WING_REGISTRY.getBoard("BLED"), "B0");
+		right.placeWing(Registrar.WING_REGISTRY.getBoard("PS2"), "B0");
+
+		assertSame(base.getPin(a, 0), left.getPin(a, 0));
+		assertSame(base.getPin(a, 0), right.getPin(a, 0));
+		assertSame(b.getPin(0), base.getPin(b, 0));
+		assertFalse(left.getPin(b, 0).getName().equals(right.getPin(b, 0).getName()));
+		assertEquals("B0", left.getPin(b, 0).getCanonicalName());
+		assertEquals("B0", right.getPin(b, 0).getCanonicalName());
+	}
+
+	@Test
+	public void testStacking() {
+		Board board = Registrar.BOARD_REGISTRY.getBoard("P1");
+		Bus a = board.getBus("A");
+		BoardOverlay overlay = new BoardOverlay(board);
+
+		overlay.placeWing(Registrar.WING_REGISTRY.getBoard("BLED"), "A0");
+		Pin first = overlay.getPin(a, 0);
+
+		overlay.placeWing(Registrar.WING_REGISTRY.getBoard("BLED"), "A0");
+		Pin second = overlay.getPin(a, 0);
+
+		assertSame(first, second.getNextPin());
+		assertSame(a.getPin(0), first.getNextPin());
+		assertEquals("A0", second.getCanonicalName());
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.IBoardFactory;
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * BoardTests
+ */
+public class BoardTests {
+	protected Board createBoard(String name, String parentName, String... busNames) {
+		Board result = new Board();
+
+		result.addName(name);
+		result.setParentBoardName(parentName);
+
+		for (String busName : busNames) {
+			Bus bus = new Bus(busName);
+			List<Pin> pins = new ArrayList<Pin>();
+			Pin pin = new Pin();
+
+			pin.setName(busName + "_PIN");
+			pins.add(pin);
+			bus.setPins(pins);
+			result.addBus(bus);
+		}
+
+		return result;
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+	}
+
+	@Test
+	public void testInheritance() {
+		Board parent = createBoard("Parent", null, "A", "B");
+		Board child = createBoard("Child", "Parent", "C");
+
+		parent.setHeader("# parent");
+		child.setHeader("# child");
+		Registrar.BOARD_REGISTRY.addBoard(parent);
+		Registrar.BOARD_REGISTRY.addBoard(child);
+
+		assertEquals(3, child.getBusCount());
+		assertEquals("A", child.getBus(0).getName());
+		assertEquals("C", child.getBus(2).getName());
+		assertNull(child.getBus(3));
+		assertEquals(2, child.getBusIndex(child.getBus("c")));
+		assertEquals(1, child.getBusIndex(parent.getBus(1)));
+		assertEquals(3, child.getPins().size());
+		assertEquals("# parent\n# child\n", child.getHeader().replace("\r\n", "\n"));
+	}
+
+	@Test
+	public void testRegistryChange() {
+		Board child = createBoard("Child", "Parent", "C");
+
+		Registrar.BOARD_REGISTRY.addBoard(child);
+		assertEquals(1, child.getBusCount());
+
+		// adding the parent after the child has been resolved
+		Registrar.BOARD_REGISTRY.addBoard(createBoard("Parent", null, "A", "B"));
+		assertEquals(3, child.getBusCount());
+
+		Registrar.BOARD_REGISTRY.clear();
+		assertEquals(1, child.getBusCount());
+	}
+
+	@Test
+	public void testFactoryCreation() {
+		final Board parent = createBoard("Parent", null, "A", "B");
+		final Board child = createBoard("Child", "Parent", "C");
+
+		Registrar.BOARD_REGISTRY.addBoardFactory(parent.getNames(), new IBoardFactory() {
+			@Override
+			public Board createBoard() {
+				return parent;
+			}
+		});
+		Registrar.BOARD_REGISTRY.addBoardFactory(child.getNames(), new IBoardFactory() {
+			@Override
+			public Board createBoard() {
+				return child;
+			}
+		});
+
+		int count = Registrar.BOARD_REGISTRY.getModificationCount();
+
+		// creating boards from their factories leaves resolved boards current
+		assertEquals(3, Registrar.BOARD_REGISTRY.getBoard("Child").getBusCount());
+		assertEquals(count, Registrar.BOARD_REGISTRY.getModificationCount());
+		assertEquals(2, Registrar.BOARD_REGISTRY.getBoards().size());
+		assertEquals(count, Registrar.BOARD_REGISTRY.getModificationCount());
+	}
+
+	@Test
+	public void testAncestorChange() {
+		Board parent = createBoard("Parent", null, "A");
+		Board child = createBoard("Child", "Parent");
+
+		Registrar.BOARD_REGISTRY.addBoard(parent);
+		Registrar.BOARD_REGISTRY.addBoard(child);
+		assertEquals(0, child.getConfigs().size());
+
+		List<Tuple<String, String>> configs = new ArrayList<Tuple<String, String>>();
+		configs.add(new Tuple<String, String>("PART", "XC3S500E-VQ100-4"));
+		parent.setConfigs(configs);
+		parent.addBus(new Bus("B"));
+
+		assertEquals(1, child.getConfigs().size());
+		assertEquals(2, child.getBusCount());
+	}
+
+	@Test
+	public void testSnapshotReuse() {
+		Board board = createBoard("Board", null, "A");
+
+		Registrar.BOARD_REGISTRY.addBoard(board);
+
+		assertSame(board.getBuses(), board.getBuses());
+		assertSame(board.getHeader(), board.getHeader());
+	}
+
+	@Test
+	public void testIndexes() {
+		Board parent = createBoard("Parent", null, "A", "B");
+		Board child = createBoard("Child", "Parent", "C");
+
+		Registrar.BOARD_REGISTRY.addBoard(parent);
+		Registrar.BOARD_REGISTRY.addBoard(child);
+
+		assertSame(parent.getBus(0), child.getBus("a"));
+		assertSame(child.getBus(2), child.getBus("C"));
+		assertNull(child.getBus("D"));
+		assertSame(parent.getBus(1).getPin(0), child.getPin("B_PIN"));
+		assertNull(child.getPin("b_pin"));
+		assertSame(child.getBus(2).getPin(0), child.getPinByUCFName("c"));
+		assertNull(parent.getPinByUCFName("C"));
+	}
+
+	@Test
+	public void testPinChange() {
+		Board board = createBoard("Board", null, "A");
+		Pin pin = new Pin();
+
+		Registrar.BOARD_REGISTRY.addBoard(board);
+		assertEquals("A_PIN", board.getPins().get(0).getName());
+
+		pin.setName("P1");
+		pin.setOwningBus(board.getBus(0));
+		board.getBus(0).setPin(0, pin);
+		assertSame(pin, board.getPin("P1"));
+		assertNull(board.getPin("A_PIN"));
+
+		board.getBus(0).setAlias("LED");
+		assertSame(pin, board.getPinByUCFName("LED"));
+	}
+}
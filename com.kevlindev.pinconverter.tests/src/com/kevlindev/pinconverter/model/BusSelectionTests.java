@@ -0,0 +1,88 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * BusSelectionTests
+ */
+public class BusSelectionTests {
+	private Board board;
+
+	protected void assertSelection(String busList, String... expected) {
+		List<Pin> pins = new ArrayList<Pin>();
+		List<String> names = new ArrayList<String>();
+
+		BusSelection.compile(board, busList).getPins(pins, null);
+
+		for (Pin pin : pins) {
+			names.add(pin.getCanonicalName());
+		}
+
+		assertEquals(Arrays.asList(expected), names);
+	}
+
+	@Before
+	public void setUp() {
+		Registrar.BOARD_REGISTRY.load(BusSelectionTests.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/boards.txt"));
+		board = Registrar.BOARD_REGISTRY.getBoard("P1");
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+	}
+
+	@Test
+	public void testBusOrder() {
+		assertSelection("TX,CLK,rx", "TX", "CLK", "RX");
+	}
+
+	@Test
+	public void testRange() {
+		assertSelection("A[2:4]", "A2", "A3", "A4");
+	}
+
+	@Test
+	public void testReversedRange() {
+		assertSelection("A[4:2]", "A2", "A3", "A4");
+	}
+
+	@Test
+	public void testRangeClipped() {
+		assertSelection("A[14:20]", "A14", "A15");
+	}
+
+	@Test
+	public void testHalfBuses() {
+		assertSelection("BH,CLK,AL", "B8", "B9", "B10", "B11", "B12", "B13", "B14", "B15", "CLK", "A0", "A1", "A2", "A3", "A4", "A5", "A6", "A7");
+	}
+
+	@Test
+	public void testMergedSlots() {
+		assertSelection("A[0:1],CLK,A[14:15]", "A0", "A1", "A14", "A15", "CLK");
+	}
+
+	@Test
+	public void testGlob() {
+		assertSelection("jtag_t?i,FLASH_*", "JTAG_TDI", "FLASH_CS", "FLASH_CK", "FLASH_SI", "FLASH_SO");
+	}
+
+	@Test
+	public void testUnknownBus() {
+		assertSelection("Z,Z[0:3],ZL,Q*");
+	}
+}
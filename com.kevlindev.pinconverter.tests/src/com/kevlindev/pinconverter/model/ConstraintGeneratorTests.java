@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * ConstraintGeneratorTests
+ */
+public class ConstraintGeneratorTests {
+	protected void assertContainsLine(String output, String line) {
+		assertTrue("Missing line: " + line, output.contains(line + "\n") || output.contains(line + "\r\n"));
+	}
+
+	protected BoardOverlay createOverlay() {
+		BoardOverlay result = new BoardOverlay(Registrar.BOARD_REGISTRY.getBoard("P1"));
+
+		result.placeWing(Registrar.WING_REGISTRY.getBoard("Arcade"), "A");
+
+		return result;
+	}
+
+	protected String generate(ConstraintFormat format, BusSelection selection) throws IOException {
+		StringWriter output = new StringWriter();
+		Set<Configuration> configuration = EnumSet.noneOf(Configuration.class);
+		ConstraintGenerator generator = new ConstraintGenerator(configuration);
+		BoardOverlay overlay = createOverlay();
+
+		generator.addEmitter(format.createEmitter(output, configuration));
+		generator.writeHeaders(overlay.getBoard(), "P1");
+		generator.writeRows(overlay, selection);
+
+		return output.toString();
+	}
+
+	protected void load(String resource, boolean wings) {
+		InputStream input = ConstraintGeneratorTests.class.getResourceAsStream(resource);
+
+		if (wings) {
+			Registrar.WING_REGISTRY.load(input);
+		} else {
+			Registrar.BOARD_REGISTRY.load(input);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		load("/com/kevlindev/pinconverter/resources/boards.txt", false);
+		load("/com/kevlindev/pinconverter/resources/wings.txt", true);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+		Registrar.WING_REGISTRY.clear();
+	}
+
+	@Test
+	public void testFormatLookup() {
+		assertEquals(ConstraintFormat.XDC, ConstraintFormat.getFormat("xdc"));
+		assertEquals(ConstraintFormat.QSF, ConstraintFormat.getFormat(" QSF "));
+		assertEquals(".pcf", ConstraintFormat.PCF.getExtension());
+		assertNull(ConstraintFormat.getFormat("sdc"));
+	}
+
+	@Test
+	public void testXDC() throws IOException {
+		String output = generate(ConstraintFormat.XDC, null);
+
+		assertContainsLine(output, "set_property PROHIBIT TRUE [get_sites {P99}]");
+		assertContainsLine(output, "set_property PACKAGE_PIN P88 [get_ports {TX}]");
+		assertContainsLine(output, "set_property PULLUP TRUE [get_ports {TX}]");
+		assertContainsLine(output, "set_property PACKAGE_PIN P35 [get_ports {LED[3]}]");
+		assertContainsLine(output, "# set_property PACKAGE_PIN P60 [get_ports {A8}]");
+	}
+
+	@Test
+	public void testXDCProhibitList() throws IOException {
+		List<Tuple<String, String>> configs = new ArrayList<Tuple<String, String>>();
+
+		configs.add(new Tuple<String, String>("PROHIBIT", "P99, P43,P42"));
+		Registrar.BOARD_REGISTRY.getBoard("P1").setConfigs(configs);
+
+		String output = generate(ConstraintFormat.XDC, null);
+
+		assertContainsLine(output, "set_property PROHIBIT TRUE [get_sites {P99 P43 P42}]");
+	}
+
+	@Test
+	public void testPCF() throws IOException {
+		String output = generate(ConstraintFormat.PCF, null);
+
+		assertContainsLine(output, "# CONFIG PROHIBIT=P99");
+		assertContainsLine(output, "set_io -pullup yes TX P88");
+		assertContainsLine(output, "set_io LED[0] P57");
+		assertContainsLine(output, "# set_io A9 P62");
+	}
+
+	@Test
+	public void testQSF() throws IOException {
+		String output = generate(ConstraintFormat.QSF, null);
+
+		assertContainsLine(output, "set_location_assignment PIN_P88 -to TX");
+		assertContainsLine(output, "set_instance_assignment -name IO_STANDARD \"3.3-V LVTTL\" -to TX");
+		assertContainsLine(output, "set_instance_assignment -name CURRENT_STRENGTH_NEW \"8MA\" -to TX");
+		assertContainsLine(output, "set_instance_assignment -name WEAK_PULL_UP_RESISTOR ON -to TX");
+		assertFalse(output.contains("SLEW"));
+	}
+
+	@Test
+	public void testSinglePass() throws IOException {
+		Set<Configuration> configuration = EnumSet.of(Configuration.SORTED);
+		StringWriter ucf = new StringWriter();
+		StringWriter xdc = new StringWriter();
+		StringWriter expected = new StringWriter();
+		BoardOverlay overlay = createOverlay();
+		BusSelection selection = BusSelection.compile(overlay.getBoard(), "CLK,A");
+		ConstraintGenerator generator = new ConstraintGenerator(configuration);
+
+		generator.addEmitter(ConstraintFormat.UCF.createEmitter(ucf, configuration));
+		generator.addEmitter(ConstraintFormat.XDC.createEmitter(xdc, configuration));
+		generator.writeRows(overlay, selection);
+
+		new UCFWriter(expected, configuration).writeRows(overlay, selection);
+
+		// UCF output is unaffected by other emitters in the same pass
+		assertEquals(expected.toString(), ucf.toString());
+		assertTrue(xdc.toString().startsWith("# set_property PACKAGE_PIN P60 [get_ports {A8}]"));
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * PinIndexTests
+ */
+public class PinIndexTests {
+	@Before
+	public void setUp() {
+		InputStream input = PinIndexTests.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/boards.txt");
+
+		Registrar.BOARD_REGISTRY.load(input);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+	}
+
+	@Test
+	public void testCompile() {
+		Board p1 = Registrar.BOARD_REGISTRY.getBoard("P1");
+		PinIndex index = PinIndex.compile(p1);
+		Set<Integer> ids = new HashSet<Integer>();
+
+		assertSame(index, PinIndex.compile(p1));
+
+		for (Pin pin : p1.getPins()) {
+			int id = index.find(pin.getName(), 0, pin.getName().length());
+
+			assertTrue(pin.getName(), index.isBoardPin(id));
+			assertFalse(pin.getName(), index.isProhibited(id));
+			assertEquals(pin.getName(), index.getName(id));
+			ids.add(id);
+		}
+
+		for (String name : Arrays.asList("P99", "P43", "P42", "P39", "P49", "P48", "P47")) {
+			int id = index.find(name, 0, name.length());
+
+			assertTrue(name, index.isProhibited(id));
+			assertFalse(name, index.isBoardPin(id));
+		}
+
+		assertEquals(ids.size() + 7, index.size());
+		assertEquals(-1, index.find("P1", 0, 2));
+	}
+
+	@Test
+	public void testFindRange() {
+		PinIndex index = new PinIndex(Arrays.asList("P18", "P23", "P18"), Arrays.asList("P23"));
+		String line = "NET A LOC=\"P23\";";
+
+		assertEquals(2, index.size());
+		assertEquals(1, index.find(line, 11, 14));
+		assertTrue(index.isBoardPin(1));
+		assertTrue(index.isProhibited(1));
+		assertEquals(-1, index.find(line, 11, 13));
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.kevlindev.collections.CaselessMap;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * PinMovesTests
+ */
+public class PinMovesTests {
+	private static final String[] BUSES = { "A", "B", "C" };
+
+	/**
+	 * Expand a move list into pin pairs, the way moves were handled before
+	 * they were compiled into intervals
+	 */
+	protected Map<String, String> expand(String moveList) {
+		Map<String, String> result = new CaselessMap<String>();
+
+		for (String move : StringUtils.COMMA_DELIMITER_PATTERN.split(moveList)) {
+			int index = move.indexOf("->");
+			BusIterator source = BusIterator.getBus((index != -1) ? move.substring(0, index).trim() : move.trim());
+			BusIterator destination = BusIterator.getBus((index != -1) ? move.substring(index + 2).trim() : move.trim());
+
+			while (source.hasNext() && destination.hasNext()) {
+				result.put(source.next(), destination.next());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Translate a pin with a list of expanded move lists, applied in order
+	 */
+	protected String translate(List<Map<String, String>> steps, String pin) {
+		String result = pin;
+
+		for (Map<String, String> step : steps) {
+			if (step.containsKey(result)) {
+				result = step.get(result);
+			}
+		}
+
+		return result;
+	}
+
+	protected void assertMoves(String... moveLists) {
+		List<Map<String, String>> steps = new ArrayList<Map<String, String>>();
+		PinMoves moves = PinMoves.NONE;
+
+		for (int i = 0; i < moveLists.length; i++) {
+			steps.add(expand(moveLists[i]));
+			moves = moves.then(PinMoves.parse(moveLists[i]));
+		}
+
+		for (String bus : BUSES) {
+			for (int i = 0; i < 16; i++) {
+				String pin = bus + i;
+				String expected = translate(steps, pin);
+				String actual = moves.translate(pin);
+
+				assertEquals(moves + ": " + pin, expected.toUpperCase(), ((actual != null) ? actual : pin).toUpperCase());
+			}
+		}
+	}
+
+	@Test
+	public void testParse() {
+		assertMoves("A->B");
+		assertMoves("AH->AL");
+		assertMoves("AH->AL,BL->BH");
+		assertMoves("A[15:0]->A[0:15]");
+		assertMoves("A[0:15]->A[15:0]");
+		assertMoves("A[3:9]->b[12:6]");
+		assertMoves("A->B,B->A");
+		assertMoves("A->B,A[4:7]->C[0:3]");
+		assertMoves("a");
+	}
+
+	@Test
+	public void testCompose() {
+		assertMoves("A->B", "B->C");
+		assertMoves("A->B", "BH->CL");
+		assertMoves("AH->AL", "A[15:0]->A[0:15]");
+		assertMoves("A[2:13]->B[13:2]", "B[0:7]->C[7:0],B[8:15]->A[0:7]");
+		assertMoves("A->B,B->A", "A->B,B->A");
+		assertMoves("A[5:10]->C[0:5]", "C[3:12]->A[15:6]", "A->B");
+	}
+
+	@Test
+	public void testTranslate() {
+		PinMoves moves = PinMoves.parse("A->B").then(PinMoves.parse("B->C"));
+
+		assertEquals("C3", moves.translate("A3"));
+		assertEquals("C3", moves.translate("a3"));
+		assertEquals("C15", moves.translate("B15"));
+		assertNull(moves.translate("A16"));
+		assertNull(moves.translate("A03"));
+		assertNull(moves.translate("D3"));
+		assertNull(moves.translate("CLK"));
+		assertNull(moves.translate(""));
+		assertTrue(PinMoves.NONE.isEmpty());
+
+		// bus names may end with digits
+		assertEquals("LED3", PinMoves.parse("LED1[0:7]->LED[0:7]").translate("LED13"));
+	}
+
+	@Test
+	public void testEquality() {
+		Map<PinMoves, String> map = new HashMap<PinMoves, String>();
+
+		map.put(PinMoves.parse("A->B").then(PinMoves.parse("B->C")), "x");
+
+		assertEquals("x", map.get(PinMoves.parse("a->c,b->c")));
+		assertEquals("A[0:15]->C[0:15],B[0:15]->C[0:15]", PinMoves.parse("a->c,b->c").toString());
+	}
+}
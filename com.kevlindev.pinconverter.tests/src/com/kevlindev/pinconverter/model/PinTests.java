@@ -0,0 +1,101 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * PinTests
+ */
+public class PinTests {
+	protected Bus createBus(String name, int pinCount) {
+		Bus result = new Bus(name);
+		List<Pin> pins = new ArrayList<Pin>();
+
+		for (int i = 0; i < pinCount; i++) {
+			Pin pin = new Pin();
+
+			pin.setName("P" + i);
+			pins.add(pin);
+		}
+
+		result.setPins(pins);
+
+		return result;
+	}
+
+	@Test
+	public void testIndex() {
+		Bus bus = createBus("A", 700);
+
+		for (int i = 0; i < bus.getPinCount(); i++) {
+			Pin pin = bus.getPin(i);
+
+			assertEquals(i, pin.getIndex());
+			assertEquals("A" + i, pin.getCanonicalName());
+		}
+	}
+
+	@Test
+	public void testEqualPins() {
+		// unassigned wing pins are all equal to one another
+		Bus bus = createBus("A", 3);
+
+		for (Pin pin : bus.getPins()) {
+			pin.setName(null);
+		}
+
+		assertEquals(0, bus.getPin(0).getIndex());
+		assertEquals(1, bus.getPin(1).getIndex());
+		assertEquals(2, bus.getPin(2).getIndex());
+	}
+
+	@Test
+	public void testSetPin() {
+		Bus bus = createBus("A", 4);
+		Pin oldPin = bus.getPin(2);
+		Pin newPin = new Pin(oldPin);
+
+		newPin.setName("X");
+		bus.setPin(2, newPin);
+
+		assertEquals(2, newPin.getIndex());
+		assertEquals(-1, bus.getPinIndex(oldPin));
+		assertEquals("A2", newPin.getCanonicalName());
+	}
+
+	@Test
+	public void testStackedWings() {
+		Bus board = createBus("A", 2);
+		Bus wing1 = createBus("W", 2);
+		Bus wing2 = createBus("V", 2);
+
+		for (Bus wing : new Bus[] { wing1, wing2 }) {
+			for (int i = 0; i < 2; i++) {
+				Pin wingPin = new Pin(wing.getPin(i));
+
+				wingPin.setNextPin(board.getPin(i));
+				board.setPin(i, wingPin);
+			}
+		}
+
+		Pin top = board.getPin(1);
+
+		assertEquals("A1", top.getCanonicalName());
+
+		// stacking beneath the original board pin moves the bottom of the chain
+		Pin bottom = top.getNextPin().getNextPin();
+		Bus base = createBus("B", 1);
+
+		bottom.setNextPin(base.getPin(0));
+
+		assertEquals("B", top.getCanonicalName());
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+
+/**
+ * PinTranslationTests
+ */
+public class PinTranslationTests {
+	/**
+	 * Build a pin map the way it was built before tables were compiled
+	 */
+	protected Map<String, String> createPinMap(Board source, Board destination, PinMoves moves) {
+		Map<String, String> result = new HashMap<String, String>();
+
+		for (Pin sourcePin : source.getPins()) {
+			String name = sourcePin.getUCFName(false);
+			String moved = (moves != null) ? moves.translate(name) : null;
+			Pin destinationPin = destination.getPinByUCFName((moved != null) ? moved : name);
+
+			if (destinationPin != null) {
+				result.put(sourcePin.getName(), destinationPin.getName());
+			}
+		}
+
+		return result;
+	}
+
+	@Before
+	public void setUp() {
+		InputStream input = PinTranslationTests.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/boards.txt");
+
+		Registrar.BOARD_REGISTRY.load(input);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+	}
+
+	@Test
+	public void testCompile() {
+		Board p1 = Registrar.BOARD_REGISTRY.getBoard("P1");
+		Board pram = Registrar.BOARD_REGISTRY.getBoard("PRAM");
+		PinMoves moves = PinMoves.parse("A[0:0]->b[15:15],B[15:15]->A[0:0]");
+
+		assertEquals(createPinMap(p1, pram, null), PinTranslation.compile(p1, pram, null).asMap());
+		assertEquals(createPinMap(p1, pram, moves), PinTranslation.compile(p1, pram, moves).asMap());
+		assertEquals(createPinMap(p1, p1, moves), PinTranslation.compile(p1, p1, moves).asMap());
+		assertTrue(PinTranslation.compile(p1, pram, null).size() > 0);
+	}
+
+	@Test
+	public void testCache() {
+		Board p1 = Registrar.BOARD_REGISTRY.getBoard("P1");
+		Board pram = Registrar.BOARD_REGISTRY.getBoard("PRAM");
+		PinMoves moves = PinMoves.parse("A[0:0]->B[0:0]");
+		PinTranslation translation = PinTranslation.compile(p1, pram, null);
+
+		assertSame(translation, PinTranslation.compile(p1, pram, null));
+		assertNotSame(translation, PinTranslation.compile(p1, pram, moves));
+		assertSame(PinTranslation.compile(p1, pram, moves), PinTranslation.compile(p1, pram, PinMoves.parse("a[0:0]->b[0:0]")));
+
+		// changing a board replaces its table
+		p1.getBus("A").getPin(0).setName("P1");
+
+		PinTranslation changed = PinTranslation.compile(p1, pram, null);
+
+		assertNotSame(translation, changed);
+		assertEquals(createPinMap(p1, pram, null), changed.asMap());
+	}
+
+	@Test
+	public void testTranslate() {
+		Map<String, String> pinMap = new HashMap<String, String>();
+
+		pinMap.put("P18", "P1");
+		pinMap.put("P26", "P26");
+
+		for (int i = 0; i < 100; i++) {
+			pinMap.put("X" + i, "Y" + i);
+		}
+
+		PinTranslation translation = PinTranslation.fromMap(pinMap);
+		String text = "LOC=\"P18\" LOC=\"P26\" LOC=\"P99\"";
+
+		assertEquals("P1", translation.translate(text, 5, 8));
+		assertNull(translation.translate(text, 15, 18));
+		assertEquals("P26", translation.get("P26"));
+		assertNull(translation.translate(text, 25, 28));
+		assertNull(translation.get("P99"));
+		assertNull(translation.translate(text, 5, 7));
+		assertNull(translation.translate(text, 5, 5));
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals("Y" + i, translation.translate("X" + i, 0, ("X" + i).length()));
+		}
+	}
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.text.Table;
+
+/**
+ * UCFRenderBenchmark compares three ways of rendering UCF rows for every
+ * board in the registry: the original String.format and MessageFormat based
+ * rows added to a table, the current table rows, and UCFWriter streaming to a
+ * writer. Each way is measured with each configuration that changes the
+ * rendered rows. This is not part of the test suite. Run it directly,
+ * optionally passing the number of measured iterations.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class UCFRenderBenchmark {
+	/**
+	 * A benchmark case
+	 */
+	private interface ICase {
+		int run(List<Board> boards, Set<Configuration> configuration) throws IOException;
+	}
+
+	/**
+	 * A writer that counts and discards all characters
+	 */
+	private static class CountingWriter extends Writer {
+		int count;
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			count += len;
+		}
+	}
+
+	/**
+	 * Create the configurations with which each case is measured: the
+	 * default, each option that changes the rendered rows, and all of those
+	 * options together
+	 *
+	 * @return List<Set<Configuration>>
+	 */
+	private static List<Set<Configuration>> createConfigurations() {
+		List<Set<Configuration>> result = new ArrayList<Set<Configuration>>();
+
+		result.add(EnumSet.noneOf(Configuration.class));
+		result.add(EnumSet.of(Configuration.SPACE_AROUND_EQUALS));
+		result.add(EnumSet.of(Configuration.EXCLUDE_UNUSED_PINS));
+		result.add(EnumSet.of(Configuration.SPACE_AROUND_EQUALS, Configuration.EXCLUDE_UNUSED_PINS));
+
+		return result;
+	}
+
+	/**
+	 * Render a pin the way Pin#toUCF did before rows were precompiled. Only
+	 * pins of boards without wings are supported
+	 *
+	 * @param table
+	 * @param pin
+	 * @param configuration
+	 */
+	private static void addFormattedRow(Table table, Pin pin, Set<Configuration> configuration) {
+		Bus bus = pin.getOwningBus();
+		String headerName = formatUCFName(bus, pin);
+		String name = pin.getName();
+		String column1 = null;
+		String column3 = "";
+
+		if (name != null && name.length() > 0) {
+			if (headerName != null && headerName.length() != 0) {
+				column1 = String.format("NET %s", headerName);
+			} else if (!configuration.contains(Configuration.EXCLUDE_UNUSED_PINS)) {
+				column1 = String.format("#NET %s", pin.getCanonicalName());
+			}
+		}
+
+		if (column1 != null) {
+			String column2;
+
+			if (configuration.contains(Configuration.SPACE_AROUND_EQUALS)) {
+				column2 = String.format("LOC = \"%s\"", name);
+			} else {
+				column2 = String.format("LOC=\"%s\"", name);
+			}
+
+			if (pin.hasAdditions()) {
+				column3 = "| " + pin.getAdditionsString(" | ", configuration) + ";";
+			} else {
+				column2 += ";";
+			}
+
+			table.addRow(column1, column2, column3, "# " + pin.getCanonicalName());
+		}
+	}
+
+	/**
+	 * Format a net name the way Bus#getUCFName did before rows were
+	 * precompiled
+	 *
+	 * @param bus
+	 * @param pin
+	 * @return String
+	 */
+	private static String formatUCFName(Bus bus, Pin pin) {
+		String alias = pin.getAlias();
+		String netName = (alias != null && alias.length() > 0) ? alias : bus.getUCFName();
+
+		return (bus.getPinCount() > 1) ? MessageFormat.format("{0}({1})", netName, pin.getIndex()) : netName;
+	}
+
+	/**
+	 * main
+	 *
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+
+		Registrar.BOARD_REGISTRY.load(UCFRenderBenchmark.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/boards.txt"));
+
+		List<Board> boards = Registrar.BOARD_REGISTRY.getBoards();
+
+		for (Set<Configuration> configuration : createConfigurations()) {
+			// @formatter:off
+			measure("formatted table", boards, configuration, iterations, new ICase() {
+				public int run(List<Board> boards, Set<Configuration> configuration) {
+					int result = 0;
+
+					for (Board board : boards) {
+						Table table = createTable();
+
+						for (Pin pin : board.getPins()) {
+							addFormattedRow(table, pin, configuration);
+						}
+
+						result += table.toString().length();
+					}
+
+					return result;
+				}
+			});
+			measure("compiled table", boards, configuration, iterations, new ICase() {
+				public int run(List<Board> boards, Set<Configuration> configuration) {
+					int result = 0;
+
+					for (Board board : boards) {
+						Table table = createTable();
+
+						board.toUCF(table, null, configuration);
+						result += table.toString().length();
+					}
+
+					return result;
+				}
+			});
+			measure("streaming writer", boards, configuration, iterations, new ICase() {
+				public int run(List<Board> boards, Set<Configuration> configuration) throws IOException {
+					CountingWriter writer = new CountingWriter();
+					UCFWriter ucfWriter = new UCFWriter(writer, configuration);
+
+					for (Board board : boards) {
+						ucfWriter.writeRows(new BoardOverlay(board), null);
+					}
+
+					return writer.count;
+				}
+			});
+			// @formatter:on
+		}
+	}
+
+	/**
+	 * createTable
+	 *
+	 * @return Table
+	 */
+	private static Table createTable() {
+		Table result = new Table();
+
+		result.setAlignment(UCF.COMMENT.ordinal(), Table.Alignment.COLLAPSE);
+
+		return result;
+	}
+
+	/**
+	 * Run a case for a number of warm-up iterations and then report the
+	 * average time of the measured iterations
+	 *
+	 * @param name
+	 * @param boards
+	 * @param configuration
+	 * @param iterations
+	 * @param benchmark
+	 * @throws IOException
+	 */
+	private static void measure(String name, List<Board> boards, Set<Configuration> configuration, int iterations, ICase benchmark) throws IOException {
+		int checksum = 0;
+
+		for (int i = 0; i < iterations; i++) {
+			checksum += benchmark.run(boards, configuration);
+		}
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++) {
+			checksum += benchmark.run(boards, configuration);
+		}
+
+		long elapsed = System.nanoTime() - start;
+
+		// @formatter:off
+		System.out.println(MessageFormat.format(
+			"{0} {1}: {2} us/op (checksum {3})",
+			name,
+			configuration,
+			Long.toString(elapsed / iterations / 1000),
+			Integer.toString(checksum)
+		));
+		// @formatter:on
+	}
+}
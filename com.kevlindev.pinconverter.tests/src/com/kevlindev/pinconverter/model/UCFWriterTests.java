@@ -0,0 +1,109 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.text.Table;
+
+/**
+ * UCFWriterTests
+ */
+public class UCFWriterTests {
+	protected void assertSameAsTable(BoardOverlay overlay, Set<Configuration> configuration) throws IOException {
+		Table table = new Table();
+
+		if (configuration.contains(Configuration.COLLAPSE_COLUMNS)) {
+			table.setAlignment(UCF.ADDITIONS.ordinal(), Table.Alignment.COLLAPSE);
+		}
+
+		table.setAlignment(UCF.COMMENT.ordinal(), Table.Alignment.COLLAPSE);
+		overlay.toUCF(table, null, configuration);
+
+		StringWriter output = new StringWriter();
+		UCFWriter writer = new UCFWriter(output, configuration);
+
+		writer.writeRows(overlay, null);
+
+		assertEquals(table.toString(), output.toString());
+	}
+
+	protected BoardOverlay createOverlay() {
+		BoardOverlay result = new BoardOverlay(Registrar.BOARD_REGISTRY.getBoard("P1"));
+
+		result.placeWing(Registrar.WING_REGISTRY.getBoard("Arcade"), "A");
+
+		return result;
+	}
+
+	protected void load(String resource, boolean wings) {
+		InputStream input = UCFWriterTests.class.getResourceAsStream(resource);
+
+		if (wings) {
+			Registrar.WING_REGISTRY.load(input);
+		} else {
+			Registrar.BOARD_REGISTRY.load(input);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		load("/com/kevlindev/pinconverter/resources/boards.txt", false);
+		load("/com/kevlindev/pinconverter/resources/wings.txt", true);
+	}
+
+	@After
+	public void tearDown() {
+		Registrar.BOARD_REGISTRY.clear();
+		Registrar.WING_REGISTRY.clear();
+	}
+
+	@Test
+	public void testDefault() throws IOException {
+		assertSameAsTable(createOverlay(), EnumSet.noneOf(Configuration.class));
+	}
+
+	@Test
+	public void testCollapsed() throws IOException {
+		assertSameAsTable(createOverlay(), EnumSet.of(Configuration.COLLAPSE_COLUMNS));
+	}
+
+	@Test
+	public void testExcludeUnused() throws IOException {
+		assertSameAsTable(createOverlay(), EnumSet.of(Configuration.EXCLUDE_UNUSED_PINS, Configuration.SPACE_AROUND_EQUALS));
+	}
+
+	@Test
+	public void testSorted() throws IOException {
+		StringWriter output = new StringWriter();
+		UCFWriter writer = new UCFWriter(output, EnumSet.of(Configuration.SORTED));
+
+		writer.writeRows(createOverlay(), null);
+
+		String text = output.toString();
+
+		// indexes sort numerically and unused pins come first
+		assertTrue(text.indexOf("#NET A8 ") < text.indexOf("#NET A10 "));
+		assertTrue(text.indexOf("#NET A10 ") < text.indexOf("NET CLK "));
+		assertTrue(text.indexOf("NET I_JOYSTICKA(8) ") < text.indexOf("NET I_RESET "));
+	}
+
+	@Test
+	public void testWithoutWings() throws IOException {
+		assertSameAsTable(new BoardOverlay(Registrar.BOARD_REGISTRY.getBoard("P1")), EnumSet.noneOf(Configuration.class));
+	}
+}
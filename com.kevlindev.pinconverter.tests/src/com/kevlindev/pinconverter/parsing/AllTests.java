@@ -15,7 +15,7 @@ import org.junit.runners.Suite.SuiteClasses;
  * @version 1.0
  */
 @RunWith(Suite.class)
-@SuiteClasses({ BoardDefinitionLexerTests.class, BoardDefinitionParserTests.class })
+@SuiteClasses({ BoardDefinitionIndexTests.class, BoardDefinitionLexerTests.class, BoardDefinitionParserTests.class, BoardDefinitionScannerTests.class, UCFScannerTests.class })
 public class AllTests {
 
 }
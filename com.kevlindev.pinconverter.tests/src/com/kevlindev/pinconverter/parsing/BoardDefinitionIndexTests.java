@@ -0,0 +1,125 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.pinconverter.model.Board;
+
+/**
+ * BoardDefinitionIndexTests
+ */
+public class BoardDefinitionIndexTests {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	protected byte[] getSource(String resource) throws IOException {
+		InputStream input = BoardDefinitionIndexTests.class.getResourceAsStream(resource);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int c;
+
+		while ((c = input.read()) != -1) {
+			bytes.write(c);
+		}
+
+		input.close();
+
+		return bytes.toByteArray();
+	}
+
+	protected void assertIndex(byte[] source) {
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+
+		parser.parse(new String(source, UTF8));
+
+		List<Board> expected = parser.getBoards();
+		BoardDefinitionIndex index = BoardDefinitionIndex.create(ByteBuffer.wrap(source), UTF8);
+		assertNotNull(index);
+		assertEquals(expected.size(), index.getBoardCount());
+
+		List<Board> actual = new ArrayList<Board>();
+
+		for (int i = 0; i < index.getBoardCount(); i++) {
+			assertEquals(expected.get(i).getNames(), index.getBoardNames(i));
+			assertEquals(expected.get(i).getParentBoardName(), index.getParentBoardName(i));
+			assertTrue(index.getStart(i) < index.getEnd(i));
+
+			actual.add(index.createBoard(i));
+		}
+
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	@Test
+	public void testBoards() throws IOException {
+		assertIndex(getSource("/com/kevlindev/pinconverter/resources/boards.txt"));
+	}
+
+	@Test
+	public void testWings() throws IOException {
+		assertIndex(getSource("/com/kevlindev/pinconverter/resources/wings.txt"));
+	}
+
+	@Test
+	public void testDelimitersInText() {
+		String source = "# a comment with { and }\n" //
+				+ "\"A {\", B {\n" //
+				+ "  @header<<\n{ }}\n>>\n" //
+				+ "  @config { PART = XC3S250E-VQ100-4 } # }\n" //
+				+ "  CLK : P89 { IOSTANDARD = LVCMOS25 }\n" //
+				+ "}\n" //
+				+ "C : B {\n" //
+				+ "}\n";
+
+		assertIndex(source.getBytes(UTF8));
+	}
+
+	@Test
+	public void testLazyRegistration() {
+		String source = "A {\n  CLK : P89\n}\nB : A {\n}\n";
+		BoardDefinitionIndex index = BoardDefinitionIndex.create(ByteBuffer.wrap(source.getBytes(UTF8)), UTF8);
+		final List<Board> added = new ArrayList<Board>();
+		BoardRegistry registry = new BoardRegistry() {
+			@Override
+			public void addBoard(Board board) {
+				added.add(board);
+				super.addBoard(board);
+			}
+		};
+
+		index.register(registry);
+
+		assertTrue(registry.contains("a"));
+		assertTrue(registry.contains("B"));
+		assertTrue(added.isEmpty());
+
+		Board board = registry.getBoard("B");
+
+		assertNotNull(board);
+		assertEquals(Arrays.asList("B"), board.getNames());
+		assertEquals(1, added.size());
+		assertFalse(registry.contains("C"));
+	}
+
+	@Test
+	public void testIncompatibleCharset() {
+		assertNull(BoardDefinitionIndex.create(ByteBuffer.wrap(new byte[0]), Charset.forName("UTF-16")));
+	}
+}
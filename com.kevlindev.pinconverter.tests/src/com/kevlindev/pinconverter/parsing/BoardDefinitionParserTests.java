@@ -4,9 +4,14 @@
  */
 package com.kevlindev.pinconverter.parsing;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
@@ -31,4 +36,33 @@ public class BoardDefinitionParserTests {
 
 		System.out.println(boards);
 	}
+
+	@Test
+	public void testStreaming() throws IOException {
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+		InputStream is = BoardDefinitionLexerTests.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/wings.txt");
+		String source = IOUtils.getString(is);
+
+		parser.parse(source);
+
+		List<Board> expected = parser.getBoards();
+		final List<Board> actual = new ArrayList<Board>();
+
+		// hand out a few characters at a time so tokens straddle reads
+		Reader reader = new StringReader(source) {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				return super.read(cbuf, off, Math.min(len, 7));
+			}
+		};
+
+		parser.parse(reader, new IBoardListener() {
+			@Override
+			public void boardParsed(Board board) {
+				actual.add(board);
+			}
+		});
+
+		assertEquals(expected.toString(), actual.toString());
+	}
 }
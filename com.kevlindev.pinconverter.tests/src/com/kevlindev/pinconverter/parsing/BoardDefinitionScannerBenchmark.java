@@ -0,0 +1,107 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import java.io.InputStream;
+import java.text.MessageFormat;
+
+import com.kevlindev.utils.IOUtils;
+
+/**
+ * BoardDefinitionScannerBenchmark compares the throughput of the regular
+ * expression based BoardDefinitionLexer with the hand-written
+ * BoardDefinitionScanner on the default wing definitions. This is not part of
+ * the test suite. Run it directly, optionally passing the number of measured
+ * iterations.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardDefinitionScannerBenchmark {
+	/**
+	 * A benchmark case
+	 */
+	private interface ICase {
+		int run(String source);
+	}
+
+	/**
+	 * main
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+		InputStream input = BoardDefinitionScannerBenchmark.class.getResourceAsStream("/com/kevlindev/pinconverter/resources/wings.txt");
+		String source = IOUtils.getString(input);
+
+		// @formatter:off
+		measure("regex lexer", source, iterations, new ICase() {
+			public int run(String source) {
+				BoardDefinitionLexer lexer = new BoardDefinitionLexer();
+				int result = 0;
+
+				lexer.setSource(source);
+
+				while (lexer.hasNext()) {
+					lexer.advance();
+					result++;
+				}
+
+				return result;
+			}
+		});
+		measure("scanner", source, iterations, new ICase() {
+			public int run(String source) {
+				BoardDefinitionScanner scanner = new BoardDefinitionScanner();
+				int result = 1;
+
+				scanner.setSource(source);
+
+				while (scanner.nextToken() != BoardDefinitionTokenType.EOF) {
+					result++;
+				}
+
+				return result;
+			}
+		});
+		// @formatter:on
+	}
+
+	/**
+	 * Run a case for a number of warm-up iterations and then report the
+	 * average time of the measured iterations
+	 *
+	 * @param name
+	 * @param source
+	 * @param iterations
+	 * @param benchmark
+	 */
+	private static void measure(String name, String source, int iterations, ICase benchmark) {
+		int checksum = 0;
+
+		for (int i = 0; i < iterations; i++) {
+			checksum += benchmark.run(source);
+		}
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++) {
+			checksum += benchmark.run(source);
+		}
+
+		long elapsed = System.nanoTime() - start;
+
+		// @formatter:off
+		System.out.println(MessageFormat.format(
+			"{0}: {1} chars in {2} us/op (tokens {3})",
+			name,
+			Integer.toString(source.length()),
+			Long.toString(elapsed / iterations / 1000),
+			Integer.toString(checksum)
+		));
+		// @formatter:on
+	}
+}
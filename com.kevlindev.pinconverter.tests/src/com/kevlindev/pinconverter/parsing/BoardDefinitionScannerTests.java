@@ -0,0 +1,66 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.kevlindev.parsing.Lexeme;
+import com.kevlindev.utils.IOUtils;
+
+/**
+ * BoardDefinitionScannerTests
+ */
+public class BoardDefinitionScannerTests {
+	protected String getSource(String resource) {
+		InputStream is = BoardDefinitionScannerTests.class.getResourceAsStream(resource);
+
+		return IOUtils.getString(is);
+	}
+
+	protected void assertSameTokens(String source) {
+		BoardDefinitionLexer lexer = new BoardDefinitionLexer();
+		BoardDefinitionScanner scanner = new BoardDefinitionScanner();
+
+		lexer.setSource(source);
+		scanner.setSource(source);
+
+		while (lexer.hasNext()) {
+			Lexeme<BoardDefinitionTokenType> lexeme = lexer.advance();
+			BoardDefinitionTokenType type = scanner.nextToken();
+
+			assertEquals(lexeme.getType(), type);
+
+			if (type != BoardDefinitionTokenType.EOF) {
+				assertEquals(lexeme.getText(), scanner.getTokenText());
+			}
+		}
+
+		assertEquals(BoardDefinitionTokenType.EOF, scanner.nextToken());
+	}
+
+	@Test
+	public void testBoards() {
+		assertSameTokens(getSource("boards.txt"));
+	}
+
+	@Test
+	public void testDefaultBoards() {
+		assertSameTokens(getSource("/com/kevlindev/pinconverter/resources/boards.txt"));
+	}
+
+	@Test
+	public void testDefaultWings() {
+		assertSameTokens(getSource("/com/kevlindev/pinconverter/resources/wings.txt"));
+	}
+
+	@Test
+	public void testEdgeCases() {
+		assertSameTokens("A(12) B(3)x -x_1 5ns 5nsx 1.5 31.25ns @headers @config \"a b\" <<x>y\n>> # comment\r\n}");
+	}
+}
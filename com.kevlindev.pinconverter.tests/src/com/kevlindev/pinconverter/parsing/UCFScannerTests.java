@@ -0,0 +1,95 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * UCFScannerTests
+ */
+public class UCFScannerTests {
+	/**
+	 * Return a description of each statement on a line, in the form
+	 * "TYPE name loc", where loc is "-" for statements without a pin location
+	 */
+	protected List<String> scan(String line) {
+		List<String> result = new ArrayList<String>();
+		UCFScanner scanner = new UCFScanner();
+
+		scanner.reset(line);
+
+		while (scanner.next()) {
+			String name = line.substring(scanner.getNameStart(), scanner.getNameEnd());
+			String location = (scanner.hasPinLocation()) ? line.substring(scanner.getLocationStart(), scanner.getLocationEnd()) : "-";
+
+			result.add(scanner.getStatementType() + " " + name + " " + location);
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testNet() {
+		assertEquals(Arrays.asList("NET CLK P89"), scan("NET CLK LOC=\"P89\";"));
+		assertEquals(Arrays.asList("NET A<0> P18"), scan("  NET  \"A<0>\"  LOC  =  \"P18\" ;"));
+		assertEquals(Arrays.asList("NET clk P89"), scan("net clk loc = P89;"));
+	}
+
+	@Test
+	public void testMultipleConstraints() {
+		assertEquals(Arrays.asList("NET TX P88"), scan("NET TX IOSTANDARD=LVTTL | DRIVE=8 | LOC=\"P88\" | PULLUP;"));
+		assertEquals(Arrays.asList("NET CLK P89"), scan("NET CLK LOC=\"P89\" | PERIOD = 31.25ns | TNM_NET = \"clk|a\";"));
+		assertEquals(Arrays.asList("NET A -"), scan("NET A IOSTANDARD=LVTTL;"));
+	}
+
+	@Test
+	public void testInst() {
+		assertEquals(Arrays.asList("INST led_OBUF P18"), scan("INST \"led_OBUF\" LOC = P18;"));
+
+		// logic sites, ranges, and wildcards are not pins
+		assertEquals(Arrays.asList("INST s -"), scan("INST s LOC = SLICE_X0Y0;"));
+		assertEquals(Arrays.asList("INST r -"), scan("INST r LOC = \"SLICE_X0Y0:SLICE_X3Y3\";"));
+		assertEquals(Arrays.asList("INST w -"), scan("INST w LOC = \"P1*\";"));
+	}
+
+	@Test
+	public void testStatementsAndComments() {
+		UCFScanner scanner = new UCFScanner();
+		String line = "NET A LOC=P18; CONFIG PROHIBIT = \"P99;P43\"; NET B LOC=P23 # NET C LOC=P26;";
+
+		assertEquals(Arrays.asList("NET A P18", "OTHER  -", "NET B P23"), scan(line));
+
+		scanner.reset(line);
+
+		while (scanner.next()) {
+			assertTrue(scanner.getStatementEnd() > scanner.getStatementStart());
+		}
+
+		assertEquals(line.indexOf('#'), scanner.getCommentStart());
+		assertEquals(new ArrayList<String>(), scan("# NET A LOC=P18;"));
+		assertEquals(new ArrayList<String>(), scan("   "));
+	}
+
+	@Test
+	public void testMalformed() {
+		assertEquals(Arrays.asList("NET A -"), scan("NET A LOC=\"\";"));
+		assertEquals(Arrays.asList("NET A -"), scan("NET A LOC=\"P18;"));
+		assertEquals(Arrays.asList("OTHER  -", "OTHER  -"), scan("| = \"x\"; ;"));
+
+		UCFScanner scanner = new UCFScanner();
+
+		scanner.reset("NET \"unterminated");
+		assertTrue(scanner.next());
+		assertFalse(scanner.next());
+	}
+}
@@ -8,7 +8,12 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	com.kevlindev.utils.AllTests.class,
 	com.kevlindev.pinconverter.AllTests.class,
-	com.kevlindev.pinconverter.parsing.AllTests.class
+	com.kevlindev.pinconverter.parsing.AllTests.class,
+	com.kevlindev.pinconverter.catalog.AllTests.class,
+	com.kevlindev.pinconverter.commands.AllTests.class,
+	com.kevlindev.pinconverter.cache.AllTests.class,
+	com.kevlindev.pinconverter.matrix.AllTests.class,
+	com.kevlindev.pinconverter.model.AllTests.class
 })
 public class AllTests {
 
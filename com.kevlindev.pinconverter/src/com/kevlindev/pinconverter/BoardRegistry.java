@@ -4,7 +4,16 @@
  */
 package com.kevlindev.pinconverter;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -13,9 +22,11 @@ import java.util.Map;
 import java.util.Set;
 
 import com.kevlindev.collections.CaselessMap;
+import com.kevlindev.logging.Logger;
 import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.parsing.BoardDefinitionIndex;
 import com.kevlindev.pinconverter.parsing.BoardDefinitionParser;
-import com.kevlindev.utils.IOUtils;
+import com.kevlindev.pinconverter.parsing.IBoardListener;
 
 /**
  * PinRegistry
@@ -29,6 +40,19 @@ public class BoardRegistry {
 	 */
 	private Map<String, Board> boardsByName;
 
+	/**
+	 * A map of factories, by case-insensitive board name, for boards that have
+	 * been registered but not yet created
+	 */
+	private Map<String, IBoardFactory> factoriesByName;
+
+	/**
+	 * The number of times boards have been added to or removed from this
+	 * registry. Boards use this to invalidate their resolved views. Creating a
+	 * board from its factory does not change this count
+	 */
+	private int modificationCount;
+
 	/**
 	 * addBoard
 	 * 
@@ -42,7 +66,42 @@ public class BoardRegistry {
 
 			for (String name : board.getNames()) {
 				boardsByName.put(name, board);
+
+				if (factoriesByName != null) {
+					factoriesByName.remove(name);
+				}
 			}
+
+			modificationCount++;
+		}
+	}
+
+	/**
+	 * Register a board that will not be created until one of its names is
+	 * requested. Once created, the board is added with addBoard, so subclasses
+	 * see deferred boards exactly like any other board
+	 * 
+	 * @param names
+	 *            The names and aliases of the board
+	 * @param factory
+	 *            The factory used to create the board on demand
+	 */
+	public void addBoardFactory(List<String> names, IBoardFactory factory) {
+		if (names != null && factory != null) {
+			if (boardsByName == null) {
+				boardsByName = new CaselessMap<Board>();
+			}
+
+			if (factoriesByName == null) {
+				factoriesByName = new CaselessMap<IBoardFactory>();
+			}
+
+			for (String name : names) {
+				factoriesByName.put(name, factory);
+				boardsByName.remove(name);
+			}
+
+			modificationCount++;
 		}
 	}
 
@@ -53,6 +112,12 @@ public class BoardRegistry {
 		if (boardsByName != null) {
 			boardsByName.clear();
 		}
+
+		if (factoriesByName != null) {
+			factoriesByName.clear();
+		}
+
+		modificationCount++;
 	}
 
 	/**
@@ -63,7 +128,37 @@ public class BoardRegistry {
 	 * @return Returns true if the board exists in the registry
 	 */
 	public boolean contains(String boardName) {
-		return (boardsByName != null && boardsByName.containsKey(boardName));
+		return (boardsByName != null && boardsByName.containsKey(boardName)) || (factoriesByName != null && factoriesByName.containsKey(boardName));
+	}
+
+	/**
+	 * Create the board registered under the specified name, if it has not been
+	 * created already
+	 * 
+	 * @param boardName
+	 */
+	private void createBoard(String boardName) {
+		IBoardFactory factory = factoriesByName.remove(boardName);
+
+		if (factory != null) {
+			int count = modificationCount;
+
+			addBoard(factory.createBoard());
+
+			// the board was already registered by its factory, so creating it
+			// does not change how any board resolves
+			modificationCount = count;
+		}
+	}
+
+	/**
+	 * Return a count that changes whenever a board is added to or removed from
+	 * this registry
+	 * 
+	 * @return int
+	 */
+	public int getModificationCount() {
+		return modificationCount;
 	}
 
 	/**
@@ -76,6 +171,10 @@ public class BoardRegistry {
 	 *         returned
 	 */
 	public Board getBoard(String boardName) {
+		if (factoriesByName != null && factoriesByName.containsKey(boardName)) {
+			createBoard(boardName);
+		}
+
 		return boardsByName.get(boardName);
 	}
 
@@ -87,6 +186,14 @@ public class BoardRegistry {
 	public List<Board> getBoards() {
 		List<Board> result = Collections.emptyList();
 
+		if (factoriesByName != null) {
+			for (String name : new ArrayList<String>(factoriesByName.keySet())) {
+				if (factoriesByName.containsKey(name)) {
+					createBoard(name);
+				}
+			}
+		}
+
 		if (boardsByName != null) {
 			result = new ArrayList<Board>();
 
@@ -106,27 +213,76 @@ public class BoardRegistry {
 	}
 
 	/**
-	 * load
+	 * Load all board definitions from the specified stream. Boards are parsed
+	 * incrementally and each is added to this registry as soon as its
+	 * definition is complete. The stream is closed once it has been consumed
 	 * 
 	 * @param input
 	 * @return boolean
 	 */
 	public boolean load(InputStream input) {
 		boolean result = false;
-
-		String source = IOUtils.getString(input);
+		Reader reader = new InputStreamReader(input);
 		BoardDefinitionParser parser = new BoardDefinitionParser();
 
-		parser.parse(source);
+		try {
+			parser.parse(reader, new IBoardListener() {
+				@Override
+				public void boardParsed(Board board) {
+					addBoard(board);
+				}
+			});
 
-		List<Board> boards = parser.getBoards();
+			result = true;
+		} catch (IOException e) {
+			Logger.logError("Unable to read board definitions: " + e.getMessage());
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) { // $codepro.audit.disable
+										// emptyCatchClause
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Load all board definitions from the specified file. The file is
+	 * memory-mapped and indexed, but only the names and parent of each board
+	 * are parsed. Each board's body is parsed the first time that board is
+	 * requested. If the platform's default encoding is not ASCII-compatible,
+	 * the file is parsed in full with load(InputStream) instead
+	 * 
+	 * @param file
+	 * @return boolean
+	 */
+	public boolean loadIndexed(File file) {
+		boolean result = false;
+
+		try {
+			ByteBuffer bytes;
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
 
-		if (boards != null) {
-			for (Board board : boards) {
-				addBoard(board);
+			try {
+				FileChannel channel = raf.getChannel();
+
+				bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				// the mapping remains valid after the file is closed
+				raf.close();
 			}
 
-			result = true;
+			BoardDefinitionIndex index = BoardDefinitionIndex.create(bytes, Charset.defaultCharset());
+
+			if (index != null) {
+				index.register(this);
+				result = true;
+			} else {
+				result = load(new FileInputStream(file));
+			}
+		} catch (IOException e) {
+			Logger.logError("Unable to read board definitions: " + e.getMessage());
 		}
 
 		return result;
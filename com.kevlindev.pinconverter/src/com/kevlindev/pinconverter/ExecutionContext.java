@@ -4,18 +4,33 @@
  */
 package com.kevlindev.pinconverter;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.kevlindev.collections.CaselessMap;
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.cache.CacheKey;
+import com.kevlindev.pinconverter.cache.CachingWriter;
+import com.kevlindev.pinconverter.cache.ResultCache;
 import com.kevlindev.pinconverter.model.Board;
 import com.kevlindev.pinconverter.model.Configuration;
-import com.kevlindev.pinconverter.model.Pin;
+import com.kevlindev.pinconverter.model.ConstraintFormat;
+import com.kevlindev.pinconverter.model.PinMoves;
+import com.kevlindev.pinconverter.model.PinTranslation;
 
 /**
  * ExecutionContext
@@ -40,15 +55,22 @@ public class ExecutionContext {
 	 */
 	private String inputFileName;
 
+	/**
+	 * The full or relative paths of the files, directories, and glob patterns
+	 * to use as input
+	 */
+	private List<String> inputFileNames;
+
 	/**
 	 * The full or relative path of the file to use as output
 	 */
 	private String outputFileName;
 
 	/**
-	 * A caseless map used for moving pins from one location to another
+	 * The moves applied to pins, composed in the order they were given. This
+	 * is null when no pins are moved
 	 */
-	private Map<String, String> translationMap;
+	private PinMoves pinMoves;
 
 	/**
 	 * A map of containing a wing name and the pin where it should be placed
@@ -60,6 +82,65 @@ public class ExecutionContext {
 	 */
 	private EnumSet<Configuration> configuration = EnumSet.noneOf(Configuration.class);
 
+	/**
+	 * The formats to generate. This is null when only UCF is generated
+	 */
+	private List<ConstraintFormat> formats;
+
+	/**
+	 * The cache of command results. This is null when caching is disabled
+	 */
+	private ResultCache resultCache;
+
+	/**
+	 * The number of threads used to transform and validate files. Files are
+	 * processed on the calling thread when this is 1 or less
+	 */
+	private int threadCount;
+
+	/**
+	 * The contents, or an identifier of the contents, of each bundled board
+	 * definition resource that has been loaded, in load order
+	 */
+	private List<byte[]> definitionSources = new ArrayList<byte[]>();
+
+	/**
+	 * Each board definition file that has been loaded, in load order
+	 */
+	private List<File> definitionFiles = new ArrayList<File>();
+
+	/**
+	 * Record the contents of a board definition resource that has been loaded,
+	 * or bytes that identify those contents. These bytes are part of every
+	 * cache key
+	 * 
+	 * @param source
+	 */
+	public void addDefinitions(byte[] source) {
+		definitionSources.add(source);
+	}
+
+	/**
+	 * Record a board definition file that has been loaded. The file's contents
+	 * are part of every cache key
+	 * 
+	 * @param file
+	 */
+	public void addDefinitions(File file) {
+		definitionFiles.add(file);
+	}
+
+	/**
+	 * Add moves to be applied after any earlier moves when retrieving the
+	 * transformation map. This moves source board pin names to point to
+	 * different wings on the destination board
+	 * 
+	 * @param moves
+	 */
+	public void addPinMoves(PinMoves moves) {
+		pinMoves = (pinMoves != null) ? pinMoves.then(moves) : moves;
+	}
+
 	/**
 	 * Add a wing and its root header pin name to a list of wing placements.
 	 * These are used during UCF generation to override the header pin names to
@@ -84,6 +165,95 @@ public class ExecutionContext {
 		wingPlacements.put(destinationPin, wingName);
 	}
 
+	/**
+	 * Store a command's output in the result cache, if caching is enabled.
+	 * Failures are logged, but do not affect the command
+	 * 
+	 * @param key
+	 *            The key for the output. This may be null
+	 * @param output
+	 */
+	public void cacheResult(CacheKey key, String output) {
+		if (resultCache != null && key != null) {
+			try {
+				resultCache.put(key, output);
+			} catch (IOException e) {
+				Logger.logError("Unable to write to result cache: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Close a writer returned by openOutput. STDOUT is flushed but left open
+	 * 
+	 * @param writer
+	 *            The writer to close. This may be null
+	 */
+	public void closeOutput(Writer writer) {
+		if (writer != null) {
+			try {
+				if (isOutputToFile()) {
+					writer.close();
+				} else {
+					writer.flush();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Close a writer returned by openOutput(CacheKey). If the writer is
+	 * caching its output, the cached copy is stored only if requested
+	 * 
+	 * @param writer
+	 *            The writer to close. This may be null
+	 * @param store
+	 *            Store the cached copy of the output, if there is one. This
+	 *            should be false if the output is incomplete
+	 */
+	public void closeOutput(Writer writer, boolean store) {
+		if (writer instanceof CachingWriter) {
+			CachingWriter cachingWriter = (CachingWriter) writer;
+
+			closeOutput(cachingWriter.getOutput());
+
+			if (store) {
+				try {
+					cachingWriter.store();
+				} catch (IOException e) {
+					Logger.logError("Unable to write to result cache: " + e.getMessage());
+				}
+			} else {
+				cachingWriter.discard();
+			}
+		} else {
+			closeOutput(writer);
+		}
+	}
+
+	/**
+	 * Close a channel returned by openOutputChannel. STDOUT is flushed but
+	 * left open
+	 * 
+	 * @param channel
+	 *            The channel to close. This may be null
+	 */
+	public void closeOutputChannel(WritableByteChannel channel) {
+		if (channel != null) {
+			try {
+				if (isOutputToFile()) {
+					channel.close();
+				} else {
+					System.out.flush();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
 	/**
 	 * collapseColumns
 	 * 
@@ -93,6 +263,75 @@ public class ExecutionContext {
 		return configuration.contains(Configuration.COLLAPSE_COLUMNS);
 	}
 
+	/**
+	 * Create a key for the result of the specified command. The key covers the
+	 * cache format version, the board definitions, the board names, the wing placements, the pin
+	 * translations, and the configuration. Commands add their own arguments
+	 * and input to the key
+	 * 
+	 * @param command
+	 *            The name of the command
+	 * @return The key or null if caching is disabled or a board definition
+	 *         file could not be read
+	 */
+	public CacheKey createCacheKey(String command) {
+		CacheKey result = null;
+
+		if (resultCache != null) {
+			result = new CacheKey();
+			result.add(Integer.toString(ResultCache.CACHE_FORMAT_VERSION));
+			result.add(command);
+
+			try {
+				for (byte[] source : definitionSources) {
+					result.add(source);
+				}
+
+				for (File file : definitionFiles) {
+					result.add(file);
+				}
+			} catch (IOException e) {
+				Logger.logError("Unable to read board definitions for the result cache: " + e.getMessage());
+				result = null;
+			}
+		}
+
+		if (result != null) {
+			result.add(getSourceBoardName());
+			result.add(getDestinationBoardName());
+			result.add(wingPlacements);
+			result.add((pinMoves != null) ? pinMoves.toString() : null);
+			result.add(configuration.toString());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create a key for the result of a command that reads the specified input
+	 * file. The file's contents are added to the key
+	 * 
+	 * @param command
+	 *            The name of the command
+	 * @param inputFileName
+	 * @return The key or null if caching is disabled or a file could not be
+	 *         read
+	 */
+	public CacheKey createCacheKey(String command, String inputFileName) {
+		CacheKey result = (inputFileName != null) ? createCacheKey(command) : null;
+
+		if (result != null) {
+			try {
+				result.add(new File(inputFileName));
+			} catch (IOException e) {
+				// the command will report the missing file
+				result = null;
+			}
+		}
+
+		return result;
+	}
+
 	/**
 	 * excludeUnusedPins
 	 * 
@@ -145,6 +384,16 @@ public class ExecutionContext {
 		return (destinationBoardName != null) ? destinationBoardName : sourceBoardName;
 	}
 
+	/**
+	 * Return the formats to generate. If no formats have been set, this returns
+	 * a list containing UCF only
+	 * 
+	 * @return List<ConstraintFormat>
+	 */
+	public List<ConstraintFormat> getFormats() {
+		return (formats != null && !formats.isEmpty()) ? formats : Collections.singletonList(ConstraintFormat.UCF);
+	}
+
 	/**
 	 * Get the name of the file to be used for input.
 	 * 
@@ -154,6 +403,16 @@ public class ExecutionContext {
 		return inputFileName;
 	}
 
+	/**
+	 * Get the names of the files, directories, and glob patterns to be used
+	 * for input
+	 * 
+	 * @return A list of names. This may be null
+	 */
+	public List<String> getInputFileNames() {
+		return inputFileNames;
+	}
+
 	/**
 	 * Get the name of the file to be used for output.
 	 * 
@@ -164,37 +423,65 @@ public class ExecutionContext {
 	}
 
 	/**
-	 * getPinMap
+	 * Return the result cache
 	 * 
-	 * @return Map<String,String>
+	 * @return ResultCache or null if caching is disabled
 	 */
-	public Map<String, String> getPinMap() {
-		Map<String, String> pinMap = new HashMap<String, String>();
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
 
-		// load up source pin map
-		Board sourceBoard = getSourceBoard();
-		Board destinationBoard = getDestinationBoard();
+	/**
+	 * Return the name of the output file with its extension replaced by the
+	 * extension of the specified format. An extension is added if the output
+	 * file does not have one
+	 * 
+	 * @param format
+	 * @return A string name of the file or null if there is no output file
+	 */
+	public String getOutputFileName(ConstraintFormat format) {
+		String result = null;
 
-		// build map of destination pin UCF names to pins
-		Map<String, Pin> destinationPinsByUCFName = new CaselessMap<Pin>();
+		if (isOutputToFile()) {
+			int slash = Math.max(outputFileName.lastIndexOf('/'), outputFileName.lastIndexOf('\\'));
+			int dot = outputFileName.lastIndexOf('.');
+			String baseName = (dot > slash) ? outputFileName.substring(0, dot) : outputFileName;
 
-		for (Pin destinationPin : destinationBoard.getPins()) {
-			destinationPinsByUCFName.put(destinationPin.getUCFName(false), destinationPin);
+			result = baseName + format.getExtension();
 		}
 
-		// build final map taking any tranlations into account
-		for (Pin sourcePin : sourceBoard.getPins()) {
-			String source = sourcePin.getUCFName(false);
-			String destination = (translationMap != null && translationMap.containsKey(source)) ? translationMap.get(source) : source;
+		return result;
+	}
 
-			Pin destinationPin = destinationPinsByUCFName.get(destination);
+	/**
+	 * Return a map of source board FPGA pin names to destination board FPGA
+	 * pin names, with any pin moves applied
+	 * 
+	 * @return A read-only Map<String,String>
+	 */
+	public Map<String, String> getPinMap() {
+		return getPinTranslation().asMap();
+	}
 
-			if (destinationPin != null) {
-				pinMap.put(sourcePin.getName(), destinationPin.getName());
-			}
-		}
+	/**
+	 * getPinMoves
+	 * 
+	 * @return The moves applied to pins or null if no pins are moved
+	 */
+	public PinMoves getPinMoves() {
+		return pinMoves;
+	}
 
-		return pinMap;
+	/**
+	 * Return the compiled table translating source board FPGA pin names to
+	 * destination board FPGA pin names, with any pin moves applied. Tables are
+	 * shared, so repeated calls with the same boards and moves do not rebuild
+	 * the table
+	 * 
+	 * @return PinTranslation
+	 */
+	public PinTranslation getPinTranslation() {
+		return PinTranslation.compile(getSourceBoard(), getDestinationBoard(), pinMoves);
 	}
 
 	// TODO: document and possibly rename
@@ -230,6 +517,16 @@ public class ExecutionContext {
 		return configuration.contains(Configuration.SPACE_AROUND_EQUALS);
 	}
 
+	/**
+	 * getThreadCount
+	 * 
+	 * @return The number of threads used to transform and validate files or 0
+	 *         if no count has been set
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
 	/**
 	 * Return a map of header pin names to wing names. This is used during UCF
 	 * generation to place wings within wing slots
@@ -240,6 +537,34 @@ public class ExecutionContext {
 		return wingPlacements;
 	}
 
+	/**
+	 * isInPlace
+	 * 
+	 * @return boolean
+	 */
+	public boolean isInPlace() {
+		return configuration.contains(Configuration.IN_PLACE);
+	}
+
+	/**
+	 * isOutputToFile
+	 * 
+	 * @return boolean
+	 */
+	public boolean isOutputToFile() {
+		return outputFileName != null && !outputFileName.isEmpty();
+	}
+
+	/**
+	 * Determine if a source board was given. When it was not, the destination
+	 * board is used as the source board
+	 * 
+	 * @return boolean
+	 */
+	public boolean isSourceBoardSet() {
+		return sourceBoardName != null;
+	}
+
 	/**
 	 * isSorted
 	 * 
@@ -249,6 +574,152 @@ public class ExecutionContext {
 		return configuration.contains(Configuration.SORTED);
 	}
 
+	/**
+	 * Open a writer to STDOUT or to a file. If an output filename is defined,
+	 * output goes to that file; otherwise, the output goes to STDOUT. The
+	 * writer should be released with closeOutput
+	 * 
+	 * @return Writer
+	 * @throws IOException
+	 */
+	public Writer openOutput() throws IOException {
+		Writer writer = (isOutputToFile()) ? new FileWriter(outputFileName) : new OutputStreamWriter(System.out);
+
+		return new BufferedWriter(writer);
+	}
+
+	/**
+	 * Open a writer for a generated format. When writing to a file, the
+	 * format is written to the output file with its extension replaced by the
+	 * format's extension; otherwise, the output goes to STDOUT. The writer
+	 * should be released with closeOutput
+	 * 
+	 * @param format
+	 * @return Writer
+	 * @throws IOException
+	 */
+	public Writer openOutput(ConstraintFormat format) throws IOException {
+		Writer writer = (isOutputToFile()) ? new FileWriter(getOutputFileName(format)) : new OutputStreamWriter(System.out);
+
+		return new BufferedWriter(writer);
+	}
+
+	/**
+	 * Open a channel to STDOUT or to a file, for commands that write encoded
+	 * bytes directly. The channel should be released with closeOutputChannel
+	 * 
+	 * @return WritableByteChannel
+	 * @throws IOException
+	 */
+	public WritableByteChannel openOutputChannel() throws IOException {
+		WritableByteChannel result;
+
+		if (isOutputToFile()) {
+			result = new FileOutputStream(outputFileName).getChannel();
+		} else {
+			result = Channels.newChannel(System.out);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Open a writer to STDOUT or to a file, as openOutput does. If caching is
+	 * enabled, everything written is also written to a new cache entry for the
+	 * specified key. The writer should be released with
+	 * closeOutput(Writer, boolean)
+	 * 
+	 * @param key
+	 *            The key of the output. This may be null
+	 * @return Writer
+	 * @throws IOException
+	 */
+	public Writer openOutput(CacheKey key) throws IOException {
+		return openOutput(null, key);
+	}
+
+	/**
+	 * Open a writer for a generated format, as openOutput(ConstraintFormat)
+	 * does. If caching is enabled, everything
+	 * written is also written to a new cache entry for the specified key. The
+	 * writer should be released with closeOutput(Writer, boolean)
+	 * 
+	 * @param format
+	 *            The format used to name the output file. This may be null to
+	 *            use the output file as it is
+	 * @param key
+	 *            The key of the output. This may be null
+	 * @return Writer
+	 * @throws IOException
+	 */
+	public Writer openOutput(ConstraintFormat format, CacheKey key) throws IOException {
+		Writer result = (format != null) ? openOutput(format) : openOutput();
+
+		if (resultCache != null && key != null) {
+			try {
+				result = new CachingWriter(result, resultCache, key);
+			} catch (IOException e) {
+				Logger.logError("Unable to write to result cache: " + e.getMessage());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the cached result for the specified key
+	 * 
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @return The cached result or null if there is none
+	 */
+	public File getCachedResult(CacheKey key) {
+		return (resultCache != null && key != null) ? resultCache.get(key) : null;
+	}
+
+	/**
+	 * Send the cached result for the specified key to STDOUT or to a file, if
+	 * there is one
+	 * 
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @return true if a cached result was sent to the output
+	 */
+	public boolean outputCachedResult(CacheKey key) {
+		File entry = getCachedResult(key);
+		boolean result = false;
+
+		if (entry != null) {
+			try {
+				outputCachedResult(entry, null);
+				result = true;
+			} catch (IOException e) {
+				Logger.logError("Unable to read from result cache: " + e.getMessage());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Send a cached result to STDOUT or to a file, copying the cached bytes as
+	 * they are
+	 * 
+	 * @param entry
+	 *            The cached result
+	 * @param format
+	 *            The generated format, used to name the output file. This may
+	 *            be null to use the output file as it is
+	 * @throws IOException
+	 */
+	public void outputCachedResult(File entry, ConstraintFormat format) throws IOException {
+		if (isOutputToFile()) {
+			ResultCache.copy(entry, new File((format != null) ? getOutputFileName(format) : outputFileName));
+		} else {
+			ResultCache.copy(entry, System.out);
+		}
+	}
+
 	/**
 	 * Send the specified output to STDOUT or to a file. If an output filename
 	 * is defined, output goes to that file; otherwise, the output goes to
@@ -258,25 +729,15 @@ public class ExecutionContext {
 	 *            The text to output
 	 */
 	public void outputResult(String output) {
-		if (outputFileName != null && !outputFileName.isEmpty()) {
-			FileWriter writer = null;
-
-			try {
-				writer = new FileWriter(outputFileName);
-				writer.write(output);
-			} catch (IOException e) {
-				e.printStackTrace();
-			} finally {
-				if (writer != null) {
-					try {
-						writer.close();
-					} catch (IOException e) { // $codepro.audit.disable
-												// emptyCatchClause
-					}
-				}
-			}
-		} else {
-			System.out.print(output);
+		Writer writer = null;
+
+		try {
+			writer = openOutput();
+			writer.write(output);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			closeOutput(writer);
 		}
 	}
 
@@ -316,6 +777,17 @@ public class ExecutionContext {
 		}
 	}
 
+	/**
+	 * Set the formats to generate
+	 * 
+	 * @param formats
+	 *            The formats, in output order. This may be null, in which case
+	 *            UCF is generated
+	 */
+	public void setFormats(List<ConstraintFormat> formats) {
+		this.formats = formats;
+	}
+
 	/**
 	 * Set the input file name
 	 * 
@@ -326,6 +798,32 @@ public class ExecutionContext {
 	 */
 	public void setInputFileName(String inputFileName) {
 		this.inputFileName = inputFileName;
+		this.inputFileNames = (inputFileName != null) ? Collections.singletonList(inputFileName) : null;
+	}
+
+	/**
+	 * Set the names of the files, directories, and glob patterns to use as
+	 * input. When there is more than one name, or the name is a directory or
+	 * pattern, files are transformed and validated as a batch
+	 * 
+	 * @param inputFileNames
+	 */
+	public void setInputFileNames(List<String> inputFileNames) {
+		this.inputFileNames = inputFileNames;
+		this.inputFileName = (inputFileNames != null && !inputFileNames.isEmpty()) ? inputFileNames.get(0) : null;
+	}
+
+	/**
+	 * setIsInPlace
+	 * 
+	 * @param inPlace
+	 */
+	public void setIsInPlace(boolean inPlace) {
+		if (inPlace) {
+			configuration.add(Configuration.IN_PLACE);
+		} else {
+			configuration.remove(Configuration.IN_PLACE);
+		}
 	}
 
 	/**
@@ -352,16 +850,13 @@ public class ExecutionContext {
 	}
 
 	/**
-	 * Set the translation map to be used when retrieving the transformation
-	 * map. This moves source board pin names to point to different wings on the
-	 * destination board
+	 * Set the cache used to store command results
 	 * 
-	 * @param translationMap
-	 *            A map of source header pin names to destination header pin
-	 *            names. This may be null
+	 * @param resultCache
+	 *            The cache. This may be null, in which case caching is disabled
 	 */
-	public void setPinTranslationMap(Map<String, String> translationMap) {
-		this.translationMap = translationMap;
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
 	}
 
 	/**
@@ -386,4 +881,15 @@ public class ExecutionContext {
 			configuration.remove(Configuration.SPACE_AROUND_EQUALS);
 		}
 	}
+
+	/**
+	 * Set the number of threads used to transform and validate files
+	 * 
+	 * @param threadCount
+	 *            The number of threads. Files are processed on the calling
+	 *            thread when this is 1 or less
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
 }
@@ -0,0 +1,25 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter;
+
+import com.kevlindev.pinconverter.model.Board;
+
+/**
+ * IBoardFactory
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public interface IBoardFactory {
+	/**
+	 * Create the board described by this factory. BoardRegistry calls this
+	 * method at most once, the first time one of the board's names is
+	 * requested
+	 * 
+	 * @return The fully materialized board. This value may be null if the
+	 *         board could not be created
+	 */
+	Board createBoard();
+}
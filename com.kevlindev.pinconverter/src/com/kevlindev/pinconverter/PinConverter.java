@@ -4,7 +4,6 @@
  */
 package com.kevlindev.pinconverter;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -12,29 +11,34 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import com.kevlindev.logging.Logger;
-import com.kevlindev.pinconverter.commands.AbstractLoadCommand;
 import com.kevlindev.pinconverter.commands.ICommand;
 import com.kevlindev.pinconverter.commands.InputFileCommand;
+import com.kevlindev.pinconverter.commands.LoadResourceCommand;
 import com.kevlindev.pinconverter.commands.TransformCommand;
+import com.kevlindev.pinconverter.switches.CacheSwitch;
 import com.kevlindev.pinconverter.switches.CollapseColumnsSwitch;
 import com.kevlindev.pinconverter.switches.DestinationBoardSwitch;
 import com.kevlindev.pinconverter.switches.ExcludeUnusedPinsSwitch;
+import com.kevlindev.pinconverter.switches.FormatSwitch;
 import com.kevlindev.pinconverter.switches.GenerateSwitch;
 import com.kevlindev.pinconverter.switches.HelpSwitch;
 import com.kevlindev.pinconverter.switches.ISwitch;
+import com.kevlindev.pinconverter.switches.InPlaceSwitch;
+import com.kevlindev.pinconverter.switches.InferBoardSwitch;
 import com.kevlindev.pinconverter.switches.InputFileSwitch;
 import com.kevlindev.pinconverter.switches.ListBoardsSwitch;
 import com.kevlindev.pinconverter.switches.LoadBoardSwitch;
 import com.kevlindev.pinconverter.switches.LoadWingSwitch;
+import com.kevlindev.pinconverter.switches.MatrixSwitch;
 import com.kevlindev.pinconverter.switches.MoveSwitch;
 import com.kevlindev.pinconverter.switches.OutputFileSwitch;
 import com.kevlindev.pinconverter.switches.PlaceWingSwitch;
 import com.kevlindev.pinconverter.switches.SortSwitch;
 import com.kevlindev.pinconverter.switches.SourceBoardSwitch;
 import com.kevlindev.pinconverter.switches.SpacesAroundEqualsSwitch;
+import com.kevlindev.pinconverter.switches.ThreadsSwitch;
 import com.kevlindev.pinconverter.switches.TransformSwitch;
 import com.kevlindev.pinconverter.switches.ValidateSwitch;
 import com.kevlindev.pinconverter.switches.VersionSwitch;
@@ -48,11 +52,6 @@ import com.kevlindev.utils.StringUtils;
  * @version 1.0
  */
 public class PinConverter {
-	/**
-	 * A pattern used to match net/loc definitions in UCF files
-	 */
-	public static final Pattern NET_PATTERN = Pattern.compile("^(\\s*NET\\s*\\S+\\s*LOC\\s*=\\s*\")([^\"]+)(\".*$)");
-
 	/**
 	 * The name of the default board definition resource
 	 */
@@ -130,21 +129,27 @@ public class PinConverter {
 	 */
 	protected void initializeSwitches() {
 		if (switchMap == null) {
+			addSwitch(new CacheSwitch());
 			addSwitch(new CollapseColumnsSwitch());
 			addSwitch(new DestinationBoardSwitch());
 			addSwitch(new ExcludeUnusedPinsSwitch());
+			addSwitch(new FormatSwitch());
 			addSwitch(new GenerateSwitch());
 			addSwitch(new HelpSwitch(this));
+			addSwitch(new InPlaceSwitch());
+			addSwitch(new InferBoardSwitch());
 			addSwitch(new InputFileSwitch());
 			addSwitch(new ListBoardsSwitch());
 			addSwitch(new LoadBoardSwitch());
 			addSwitch(new LoadWingSwitch());
+			addSwitch(new MatrixSwitch());
 			addSwitch(new MoveSwitch());
 			addSwitch(new OutputFileSwitch());
 			addSwitch(new PlaceWingSwitch());
 			addSwitch(new SortSwitch());
 			addSwitch(new SourceBoardSwitch());
 			addSwitch(new SpacesAroundEqualsSwitch());
+			addSwitch(new ThreadsSwitch());
 			addSwitch(new TransformSwitch());
 			addSwitch(new ValidateSwitch());
 			addSwitch(new VersionSwitch());
@@ -163,30 +168,9 @@ public class PinConverter {
 
 		if (args.length > 0) {
 
-			// TODO: pull out common class
 			// add command to load default board registries
-			commands.add(new AbstractLoadCommand(null) {
-				@Override
-				protected InputStream getInputStream() {
-					return PinConverter.class.getResourceAsStream(DEFAULT_BOARD_RESOURCE);
-				}
-
-				@Override
-				protected BoardRegistry getRegistry() {
-					return Registrar.BOARD_REGISTRY;
-				}
-			});
-			commands.add(new AbstractLoadCommand(null) {
-				@Override
-				protected InputStream getInputStream() {
-					return PinConverter.class.getResourceAsStream(DEFAULT_WING_RESOURCE);
-				}
-
-				@Override
-				protected BoardRegistry getRegistry() {
-					return Registrar.WING_REGISTRY;
-				}
-			});
+			commands.add(new LoadResourceCommand(DEFAULT_BOARD_RESOURCE, Registrar.BOARD_REGISTRY));
+			commands.add(new LoadResourceCommand(DEFAULT_WING_RESOURCE, Registrar.WING_REGISTRY));
 
 			// walk the args and process each
 			Iterator<String> argIterator = Arrays.asList(args).iterator();
@@ -199,13 +183,30 @@ public class PinConverter {
 
 					currentSwitch.processArg(argIterator);
 					commands.add(currentSwitch.createCommand());
-				} else if (argIterator.hasNext()) {
-					Logger.logError("Unrecognized switch: " + switchName);
-					usage();
-					break;
 				} else {
-					commands.add(new InputFileCommand(switchName));
-					commands.add(new TransformCommand());
+					// the remaining arguments are input files, which must all
+					// follow the last switch
+					List<String> fileNames = new ArrayList<String>();
+
+					fileNames.add(switchName);
+
+					while (argIterator.hasNext()) {
+						fileNames.add(argIterator.next());
+					}
+
+					boolean valid = !(switchName.startsWith("-") && fileNames.size() > 1);
+
+					for (String fileName : fileNames) {
+						valid &= !switchMap.containsKey(fileName);
+					}
+
+					if (!valid) {
+						Logger.logError("Unrecognized switch: " + switchName);
+						usage();
+					} else {
+						commands.add(new InputFileCommand(fileNames));
+						commands.add(new TransformCommand());
+					}
 				}
 			}
 		} else {
@@ -233,7 +234,7 @@ public class PinConverter {
 	 * tool
 	 */
 	protected void usage() {
-		System.out.println("usage: pinconv [options]+ [input-file]");
+		System.out.println("usage: pinconv [options]+ [input-file]*");
 		System.out.println();
 
 		// get all switches, including aliases, and sort them
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * CacheKey builds a digest of everything that affects a command's output.
+ * Each value is written with a length prefix, so adjacent values can never run
+ * together to produce the same digest as a different set of values.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class CacheKey {
+	/**
+	 * The digest algorithm. SHA-1 is available on every Java platform
+	 */
+	private static final String ALGORITHM = "SHA-1";
+
+	/**
+	 * Hexadecimal digits used to format the key
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * The digest being built
+	 */
+	private final MessageDigest digest;
+
+	/**
+	 * The formatted key, once the digest has been completed
+	 */
+	private String key;
+
+	/**
+	 * CacheKey
+	 */
+	public CacheKey() {
+		try {
+			digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * CacheKey
+	 *
+	 * @param digest
+	 */
+	private CacheKey(MessageDigest digest) {
+		this.digest = digest;
+	}
+
+	/**
+	 * Add a byte array to the key
+	 *
+	 * @param bytes
+	 *            The bytes to add. This may be null
+	 * @return this key
+	 */
+	public CacheKey add(byte[] bytes) {
+		if (bytes != null) {
+			addLength(bytes.length);
+			digest.update(bytes);
+		} else {
+			addLength(-1);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Add the contents of a file to the key
+	 *
+	 * @param file
+	 * @return this key
+	 * @throws IOException
+	 */
+	public CacheKey add(File file) throws IOException {
+		InputStream input = new FileInputStream(file);
+
+		try {
+			byte[] buffer = new byte[8192];
+			int count;
+
+			addLength(file.length());
+
+			while ((count = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			input.close();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Add all entries of a map to the key, in iteration order
+	 *
+	 * @param map
+	 *            The map to add. This may be null
+	 * @return this key
+	 */
+	public CacheKey add(Map<String, String> map) {
+		if (map != null) {
+			addLength(map.size());
+
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				add(entry.getKey());
+				add(entry.getValue());
+			}
+		} else {
+			addLength(-1);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Add a string to the key
+	 *
+	 * @param text
+	 *            The text to add. This may be null
+	 * @return this key
+	 */
+	public CacheKey add(String text) {
+		try {
+			return add((text != null) ? text.getBytes("UTF-8") : null);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * addLength
+	 *
+	 * @param length
+	 */
+	private void addLength(long length) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte) (length >>> shift));
+		}
+	}
+
+	/**
+	 * Return a copy of this key, so several keys can share the values added
+	 * so far without hashing them again
+	 *
+	 * @return CacheKey
+	 */
+	public CacheKey copy() {
+		try {
+			return new CacheKey((MessageDigest) digest.clone());
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Complete the digest and return it as a hexadecimal string. No values may
+	 * be added once this has been called
+	 *
+	 * @return String
+	 */
+	@Override
+	public String toString() {
+		if (key == null) {
+			byte[] bytes = digest.digest();
+			char[] chars = new char[bytes.length * 2];
+
+			for (int i = 0; i < bytes.length; i++) {
+				chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+				chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+			}
+
+			key = new String(chars);
+		}
+
+		return key;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.cache;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * CachingWriter sends everything written to it to an output writer and to a
+ * new cache entry, so output can be streamed and cached without holding it in
+ * memory. The entry is stored only when store is called, so output that fails
+ * part way through is never cached.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class CachingWriter extends Writer {
+	/**
+	 * The writer receiving the output
+	 */
+	private final Writer output;
+
+	/**
+	 * The cache in which the entry is stored
+	 */
+	private final ResultCache cache;
+
+	/**
+	 * The key of the entry
+	 */
+	private final CacheKey key;
+
+	/**
+	 * The file holding the entry until it is stored
+	 */
+	private final File entryFile;
+
+	/**
+	 * The writer for the entry's file
+	 */
+	private final Writer entry;
+
+	/**
+	 * CachingWriter
+	 *
+	 * @param output
+	 * @param cache
+	 * @param key
+	 * @throws IOException
+	 */
+	public CachingWriter(Writer output, ResultCache cache, CacheKey key) throws IOException {
+		this.output = output;
+		this.cache = cache;
+		this.key = key;
+		this.entryFile = cache.createEntryFile();
+		this.entry = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(entryFile)));
+	}
+
+	/**
+	 * Close both writers
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			output.close();
+		} finally {
+			entry.close();
+		}
+	}
+
+	/**
+	 * Close the entry without storing it
+	 */
+	public void discard() {
+		try {
+			entry.close();
+		} catch (IOException e) { // $codepro.audit.disable emptyCatchClause
+		}
+
+		entryFile.delete();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		output.flush();
+		entry.flush();
+	}
+
+	/**
+	 * getOutput
+	 *
+	 * @return The writer receiving the output
+	 */
+	public Writer getOutput() {
+		return output;
+	}
+
+	/**
+	 * Close the entry and store it in the cache
+	 *
+	 * @throws IOException
+	 */
+	public void store() throws IOException {
+		try {
+			entry.close();
+		} catch (IOException e) {
+			entryFile.delete();
+			throw e;
+		}
+
+		cache.put(key, entryFile);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#write(char[], int, int)
+	 */
+	@Override
+	public void write(char[] buffer, int offset, int length) throws IOException {
+		output.write(buffer, offset, length);
+		entry.write(buffer, offset, length);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String text, int offset, int length) throws IOException {
+		output.write(text, offset, length);
+		entry.write(text, offset, length);
+	}
+}
@@ -0,0 +1,372 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.cache;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ResultCache stores command output in a local directory, one file per
+ * CacheKey. A hit costs only the hash of the key plus one copy of the stored
+ * file. Entries are written to a temporary file and renamed into place, so a
+ * partially written entry is never read. Each lookup refreshes the entry's
+ * modification time, and expired entries are removed when they are looked up.
+ * The total size of the entries is counted once by the first store and then
+ * kept up to date, so the directory is scanned again only when a store takes
+ * the cache past its maximum size. A scan removes expired entries, temporary
+ * files left behind by processes that stopped before storing them, and then
+ * the least recently used entries until the cache fits.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class ResultCache {
+	/**
+	 * The version of the output stored in the cache. It is the first part of
+	 * every key, so results written by an earlier version of this tool are
+	 * never returned. This must be incremented whenever a change produces
+	 * different output for the same input
+	 */
+	public static final int CACHE_FORMAT_VERSION = 1;
+
+	/**
+	 * The default maximum total size of all entries, in bytes
+	 */
+	public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+	/**
+	 * The default maximum age of an unused entry, in milliseconds
+	 */
+	public static final long DEFAULT_MAX_AGE = 7L * 24 * 60 * 60 * 1000;
+
+	/**
+	 * The extension of each entry file
+	 */
+	private static final String ENTRY_EXTENSION = ".out";
+
+	/**
+	 * The extension of entries that are still being written
+	 */
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	/**
+	 * Accepts entry files and temporary entry files
+	 */
+	private static final FileFilter CACHE_FILE_FILTER = new FileFilter() {
+		@Override
+		public boolean accept(File file) {
+			String name = file.getName();
+
+			return file.isFile() && (name.endsWith(ENTRY_EXTENSION) || name.endsWith(TEMP_EXTENSION));
+		}
+	};
+
+	/**
+	 * Orders files from least to most recently used
+	 */
+	private static final Comparator<File> LEAST_RECENTLY_USED = new Comparator<File>() {
+		@Override
+		public int compare(File a, File b) {
+			long difference = a.lastModified() - b.lastModified();
+
+			return (difference < 0) ? -1 : (difference > 0) ? 1 : 0;
+		}
+	};
+
+	/**
+	 * Copy a file's contents to a stream
+	 *
+	 * @param file
+	 * @param output
+	 * @throws IOException
+	 */
+	public static void copy(File file, OutputStream output) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+
+		try {
+			byte[] buffer = new byte[8192];
+			int count;
+
+			while ((count = input.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+			}
+
+			output.flush();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Copy a file to another file. The bytes are transferred by the file
+	 * system where possible
+	 *
+	 * @param file
+	 * @param destination
+	 * @throws IOException
+	 */
+	public static void copy(File file, File destination) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+
+		try {
+			FileOutputStream output = new FileOutputStream(destination);
+
+			try {
+				FileChannel channel = input.getChannel();
+				long size = channel.size();
+				long position = 0;
+
+				while (position < size) {
+					position += channel.transferTo(position, size - position, output.getChannel());
+				}
+			} finally {
+				output.close();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * The directory holding all entries
+	 */
+	private final File directory;
+
+	/**
+	 * The maximum total size of all entries, in bytes
+	 */
+	private final long maxSize;
+
+	/**
+	 * The maximum age of an unused entry, in milliseconds
+	 */
+	private final long maxAge;
+
+	/**
+	 * The total size of all entries, in bytes, or -1 if the entries have not
+	 * been counted yet
+	 */
+	private long size = -1;
+
+	/**
+	 * ResultCache
+	 *
+	 * @param directory
+	 */
+	public ResultCache(File directory) {
+		this(directory, DEFAULT_MAX_SIZE, DEFAULT_MAX_AGE);
+	}
+
+	/**
+	 * ResultCache
+	 *
+	 * @param directory
+	 * @param maxSize
+	 *            The maximum total size of all entries, in bytes
+	 * @param maxAge
+	 *            The maximum age of an unused entry, in milliseconds
+	 */
+	public ResultCache(File directory, long maxSize, long maxAge) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Update the total size of the entries after an entry has been stored or
+	 * removed. The entries are counted, and evicted if needed, when the total
+	 * is not known yet or no longer fits within the maximum size
+	 * 
+	 * @param change
+	 *            The number of bytes added to the cache. This is negative when
+	 *            bytes were removed
+	 */
+	private synchronized void addSize(long change) {
+		if (size != -1) {
+			size += change;
+		}
+
+		if (size == -1 || size > maxSize) {
+			evict();
+		}
+	}
+
+	/**
+	 * Remove expired entries, expired temporary files, and then the least
+	 * recently used entries until the cache fits within its maximum size
+	 */
+	public synchronized void evict() {
+		File[] files = directory.listFiles(CACHE_FILE_FILTER);
+		List<File> entries = new ArrayList<File>();
+		long oldest = System.currentTimeMillis() - maxAge;
+
+		size = 0;
+
+		if (files != null) {
+			for (File file : files) {
+				// an expired temporary file was left by a process that stopped
+				// before storing it
+				boolean expired = file.lastModified() < oldest && file.delete();
+
+				if (!expired && file.getName().endsWith(ENTRY_EXTENSION)) {
+					entries.add(file);
+					size += file.length();
+				}
+			}
+		}
+
+		if (size > maxSize) {
+			Collections.sort(entries, LEAST_RECENTLY_USED);
+
+			for (int i = 0; i < entries.size() && size > maxSize; i++) {
+				File entry = entries.get(i);
+				long length = entry.length();
+
+				if (entry.delete()) {
+					size -= length;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the entry for the specified key. The entry is marked as recently
+	 * used
+	 *
+	 * @param key
+	 * @return The entry's file or null if there is no current entry for the
+	 *         key
+	 */
+	public File get(CacheKey key) {
+		File result = getFile(key);
+
+		if (result.isFile()) {
+			long now = System.currentTimeMillis();
+
+			if (result.lastModified() < now - maxAge) {
+				long length = result.length();
+
+				if (result.delete()) {
+					addSize(-length);
+				}
+
+				result = null;
+			} else {
+				result.setLastModified(now);
+			}
+		} else {
+			result = null;
+		}
+
+		return result;
+	}
+
+	/**
+	 * getDirectory
+	 *
+	 * @return File
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * getFile
+	 *
+	 * @param key
+	 * @return File
+	 */
+	File getFile(CacheKey key) {
+		return new File(directory, key.toString() + ENTRY_EXTENSION);
+	}
+
+	/**
+	 * Create an empty file in the cache directory to which an entry can be
+	 * written before it is stored with put
+	 *
+	 * @return File
+	 * @throws IOException
+	 */
+	public File createEntryFile() throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create cache directory: " + directory);
+		}
+
+		return File.createTempFile("entry", TEMP_EXTENSION, directory);
+	}
+
+	/**
+	 * Store a file created by createEntryFile as the entry for the specified
+	 * key and then evict entries if the cache no longer fits within its
+	 * maximum size. The file is moved into place, so it no longer exists once this
+	 * returns
+	 *
+	 * @param key
+	 * @param entryFile
+	 * @throws IOException
+	 */
+	public void put(CacheKey key, File entryFile) throws IOException {
+		long change = entryFile.length();
+
+		try {
+			File file = getFile(key);
+
+			// renameTo will not replace an existing file on all platforms
+			if (file.exists()) {
+				change -= file.length();
+				file.delete();
+			}
+
+			if (!entryFile.renameTo(file)) {
+				throw new IOException("Unable to store cache entry: " + file);
+			}
+		} finally {
+			if (entryFile.exists()) {
+				entryFile.delete();
+			}
+		}
+
+		addSize(change);
+	}
+
+	/**
+	 * Store the output for the specified key and then evict entries if the
+	 * cache no longer fits within its maximum size. The text is encoded with the
+	 * platform's default encoding, just as output files are
+	 *
+	 * @param key
+	 * @param text
+	 * @throws IOException
+	 */
+	public void put(CacheKey key, String text) throws IOException {
+		File temp = createEntryFile();
+
+		try {
+			Writer writer = new OutputStreamWriter(new FileOutputStream(temp));
+
+			try {
+				writer.write(text);
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			temp.delete();
+			throw e;
+		}
+
+		put(key, temp);
+	}
+}
@@ -0,0 +1,491 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.pinconverter.IBoardFactory;
+import com.kevlindev.pinconverter.model.AttributeSet;
+import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.model.Bus;
+import com.kevlindev.pinconverter.model.Pin;
+
+/**
+ * BoardCatalog provides read access to a precompiled, binary board definition
+ * file created by BoardCatalogWriter. Only board names are decoded when a
+ * catalog is opened. Boards, strings, and attribute sets are decoded on demand
+ * directly from the underlying buffer, which is typically memory-mapped.
+ * <p>
+ * All values are big-endian ints unless noted. The layout is:
+ * <ul>
+ * <li>header: magic, version, source length, source CRC32 (long), board
+ * count, string count, string directory offset, attribute set count,
+ * attribute set directory offset, source modification time (long, 0 if
+ * unknown)</li>
+ * <li>board directory: the offset of each board record</li>
+ * <li>board records: name count, name ids, parent id, header id, config
+ * count (-1 for none), config key/value ids, bus count (-1 for none), then for
+ * each bus its name id, attribute set id, pin count (-1 for none), and each
+ * pin's name id and attribute set id</li>
+ * <li>string directory and strings: byte length followed by UTF-8 bytes</li>
+ * <li>attribute set directory and sets: pair count followed by key/value
+ * string ids</li>
+ * </ul>
+ * String and attribute set ids of -1 represent null.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardCatalog {
+	/**
+	 * The first four bytes of every catalog, "PCAT"
+	 */
+	public static final int MAGIC = 0x50434154;
+
+	/**
+	 * The catalog format version. Catalogs with any other version are ignored
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The number of bytes in the catalog header
+	 */
+	static final int HEADER_SIZE = 48;
+
+	/**
+	 * The largest difference, in milliseconds, between two modification times
+	 * that are considered equal. Jar entries store times with a resolution of
+	 * two seconds
+	 */
+	private static final long TIME_RESOLUTION = 2000;
+
+	/**
+	 * The character set used to encode strings
+	 */
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Compute the checksum used to determine if a catalog was compiled from
+	 * the specified board definition source
+	 *
+	 * @param source
+	 * @return long
+	 */
+	public static long getChecksum(byte[] source) {
+		CRC32 crc = new CRC32();
+
+		crc.update(source, 0, source.length);
+
+		return crc.getValue();
+	}
+
+	/**
+	 * Return the file named by a file URL
+	 *
+	 * @param url
+	 * @return File or null if the URL is not a file URL
+	 */
+	private static File getFile(URL url) {
+		File result = null;
+
+		if ("file".equals(url.getProtocol())) {
+			try {
+				result = new File(url.toURI());
+			} catch (URISyntaxException e) {
+				result = new File(url.getPath());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Make the content of a URL available as a ByteBuffer. File URLs are
+	 * memory-mapped. Other URLs, such as entries within a jar, cannot be mapped
+	 * so their content is read into a heap buffer instead
+	 *
+	 * @param url
+	 * @return ByteBuffer
+	 * @throws IOException
+	 */
+	public static ByteBuffer map(URL url) throws IOException {
+		File file = getFile(url);
+		ByteBuffer result;
+
+		if (file != null) {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+			try {
+				FileChannel channel = raf.getChannel();
+
+				result = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				// the mapping remains valid after the file is closed
+				raf.close();
+			}
+		} else {
+			InputStream input = url.openStream();
+
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int count;
+
+				while ((count = input.read(buffer)) != -1) {
+					bytes.write(buffer, 0, count);
+				}
+
+				result = ByteBuffer.wrap(bytes.toByteArray());
+			} finally {
+				input.close();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Open a catalog stored in the specified buffer.
+	 *
+	 * @param buffer
+	 * @return The catalog or null if the buffer does not contain a catalog
+	 *         with the current format version
+	 */
+	public static BoardCatalog open(ByteBuffer buffer) {
+		BoardCatalog result = null;
+
+		if (buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+			result = new BoardCatalog(buffer);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The catalog bytes. Only absolute reads are used, so the buffer's position
+	 * is never modified
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The names of each board, in catalog order
+	 */
+	private List<List<String>> boardNames;
+
+	/**
+	 * A cache of decoded strings by id
+	 */
+	private String[] strings;
+
+	/**
+	 * A cache of decoded attribute sets by id
+	 */
+	private AttributeSet[] attributeSets;
+
+	/**
+	 * BoardCatalog
+	 *
+	 * @param buffer
+	 */
+	private BoardCatalog(ByteBuffer buffer) {
+		this.buffer = buffer;
+
+		strings = new String[buffer.getInt(24)];
+		attributeSets = new AttributeSet[buffer.getInt(32)];
+
+		// decode board names so they can be registered without decoding the
+		// boards themselves
+		int boardCount = buffer.getInt(20);
+
+		boardNames = new ArrayList<List<String>>(boardCount);
+
+		for (int i = 0; i < boardCount; i++) {
+			int offset = getBoardOffset(i);
+			int nameCount = buffer.getInt(offset);
+			List<String> names = new ArrayList<String>(nameCount);
+
+			for (int j = 0; j < nameCount; j++) {
+				names.add(getString(buffer.getInt(offset + 4 + 4 * j)));
+			}
+
+			boardNames.add(names);
+		}
+	}
+
+	/**
+	 * Decode the board at the specified index. A new board is returned on
+	 * each call
+	 *
+	 * @param index
+	 * @return Board
+	 */
+	public Board createBoard(int index) {
+		Board result = new Board();
+		int offset = getBoardOffset(index);
+
+		// names
+		int nameCount = buffer.getInt(offset);
+		offset += 4;
+
+		for (int i = 0; i < nameCount; i++) {
+			result.addName(getString(buffer.getInt(offset)));
+			offset += 4;
+		}
+
+		// parent and header
+		result.setParentBoardName(getString(buffer.getInt(offset)));
+		result.setHeader(getString(buffer.getInt(offset + 4)));
+		offset += 8;
+
+		// configs
+		int configCount = buffer.getInt(offset);
+		offset += 4;
+
+		if (configCount != -1) {
+			List<Tuple<String, String>> configs = new ArrayList<Tuple<String, String>>(configCount);
+
+			for (int i = 0; i < configCount; i++) {
+				configs.add(new Tuple<String, String>(getString(buffer.getInt(offset)), getString(buffer.getInt(offset + 4))));
+				offset += 8;
+			}
+
+			result.setConfigs(configs);
+		}
+
+		// buses
+		int busCount = buffer.getInt(offset);
+		offset += 4;
+
+		for (int i = 0; i < busCount; i++) {
+			Bus bus = new Bus(getString(buffer.getInt(offset)));
+			int attributeSet = buffer.getInt(offset + 4);
+			int pinCount = buffer.getInt(offset + 8);
+			offset += 12;
+
+			if (attributeSet != -1) {
+				bus.setAttributeSet(getAttributeSet(attributeSet));
+			}
+
+			if (pinCount != -1) {
+				List<Pin> pins = new ArrayList<Pin>(pinCount);
+
+				for (int j = 0; j < pinCount; j++) {
+					Pin pin = new Pin();
+
+					pin.setName(getString(buffer.getInt(offset)));
+					attributeSet = buffer.getInt(offset + 4);
+					offset += 8;
+
+					if (attributeSet != -1) {
+						pin.setAttributeSet(getAttributeSet(attributeSet));
+					}
+
+					pins.add(pin);
+				}
+
+				bus.setPins(pins);
+			}
+
+			result.addBus(bus);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Decode the attribute set with the specified id. Attribute sets are
+	 * interned, so they are shared with boards loaded from any other source
+	 *
+	 * @param id
+	 * @return AttributeSet
+	 */
+	private AttributeSet getAttributeSet(int id) {
+		AttributeSet result = attributeSets[id];
+
+		if (result == null) {
+			int offset = buffer.getInt(buffer.getInt(36) + 4 * id);
+			int pairCount = buffer.getInt(offset);
+			Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+			for (int i = 0; i < pairCount; i++) {
+				int entry = offset + 4 + 8 * i;
+
+				attributes.put(getString(buffer.getInt(entry)), getString(buffer.getInt(entry + 4)));
+			}
+
+			result = AttributeSet.intern(attributes);
+			attributeSets[id] = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * getBoardCount
+	 *
+	 * @return int
+	 */
+	public int getBoardCount() {
+		return boardNames.size();
+	}
+
+	/**
+	 * getBoardNames
+	 *
+	 * @param index
+	 * @return List<String>
+	 */
+	public List<String> getBoardNames(int index) {
+		return boardNames.get(index);
+	}
+
+	/**
+	 * getBoardOffset
+	 *
+	 * @param index
+	 * @return int
+	 */
+	private int getBoardOffset(int index) {
+		return buffer.getInt(HEADER_SIZE + 4 * index);
+	}
+
+	/**
+	 * Decode the string with the specified id
+	 *
+	 * @param id
+	 * @return The string or null for an id of -1
+	 */
+	private String getString(int id) {
+		String result = null;
+
+		if (id != -1) {
+			result = strings[id];
+
+			if (result == null) {
+				int offset = buffer.getInt(buffer.getInt(28) + 4 * id);
+				byte[] bytes = new byte[buffer.getInt(offset)];
+				ByteBuffer view = buffer.duplicate();
+
+				view.position(offset + 4);
+				view.get(bytes);
+
+				result = new String(bytes, UTF8);
+				strings[id] = result;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the length and checksum of the source this catalog was compiled
+	 * from. These identify the source without reading it
+	 *
+	 * @return byte[]
+	 */
+	public byte[] getSourceId() {
+		ByteBuffer result = ByteBuffer.allocate(12);
+
+		result.putInt(buffer.getInt(8));
+		result.putLong(buffer.getLong(12));
+
+		return result.array();
+	}
+
+	/**
+	 * Determine if this catalog was compiled from a source with the specified
+	 * length and modification time. This check does not read the source, but
+	 * unlike isCurrent, it fails when the source has only been touched or has
+	 * been copied without its modification time
+	 *
+	 * @param length
+	 *            The length of the source or -1 if unknown
+	 * @param lastModified
+	 *            The modification time of the source or 0 if unknown
+	 * @return boolean
+	 */
+	public boolean hasStamp(long length, long lastModified) {
+		long compiledModified = buffer.getLong(40);
+
+		// @formatter:off
+		return length >= 0
+			&& lastModified != 0
+			&& compiledModified != 0
+			&& buffer.getInt(8) == length
+			&& Math.abs(compiledModified - lastModified) < TIME_RESOLUTION;
+		// @formatter:on
+	}
+
+	/**
+	 * Determine if this catalog was compiled from the source at the specified
+	 * URL, using the source's length and modification time as hasStamp does
+	 *
+	 * @param source
+	 * @return boolean
+	 * @throws IOException
+	 */
+	public boolean hasStamp(URL source) throws IOException {
+		File file = getFile(source);
+		boolean result;
+
+		if (file != null) {
+			result = hasStamp(file.length(), file.lastModified());
+		} else {
+			// jar entries report their size and time without being read
+			URLConnection connection = source.openConnection();
+
+			result = hasStamp(connection.getContentLength(), connection.getLastModified());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if this catalog was compiled from the specified source
+	 *
+	 * @param source
+	 *            The raw bytes of a board definition file
+	 * @return boolean
+	 */
+	public boolean isCurrent(byte[] source) {
+		return buffer.getInt(8) == source.length && buffer.getLong(12) == getChecksum(source);
+	}
+
+	/**
+	 * Register every board in this catalog with the specified registry. Boards
+	 * are not decoded until the registry first needs them
+	 *
+	 * @param registry
+	 */
+	public void register(BoardRegistry registry) {
+		for (int i = 0; i < boardNames.size(); i++) {
+			final int index = i;
+
+			registry.addBoardFactory(boardNames.get(i), new IBoardFactory() {
+				@Override
+				public Board createBoard() {
+					return BoardCatalog.this.createBoard(index);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.model.Bus;
+import com.kevlindev.pinconverter.model.Pin;
+import com.kevlindev.pinconverter.parsing.BoardDefinitionParser;
+
+/**
+ * BoardCatalogWriter compiles a board definition file into the binary format
+ * read by BoardCatalog. This is run by the "catalog" target in build.xml.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardCatalogWriter {
+	/**
+	 * Compile each source/catalog pair of file names on the command-line
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0 || args.length % 2 != 0) {
+			System.err.println("usage: BoardCatalogWriter <source> <catalog> [<source> <catalog>]*");
+			System.exit(1);
+		}
+
+		for (int i = 0; i < args.length; i += 2) {
+			try {
+				new BoardCatalogWriter().write(new File(args[i]), new File(args[i + 1]));
+			} catch (IOException e) {
+				System.err.println("Unable to compile " + args[i] + ": " + e.getMessage());
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * The string table, in id order
+	 */
+	private List<String> strings = new ArrayList<String>();
+
+	/**
+	 * A map of strings to their ids in the string table
+	 */
+	private Map<String, Integer> stringIds = new HashMap<String, Integer>();
+
+	/**
+	 * The attribute set table, in id order. Each set is a flattened list of
+	 * string ids: key, value, key, value...
+	 */
+	private List<List<Integer>> attributeSets = new ArrayList<List<Integer>>();
+
+	/**
+	 * A map of attribute sets to their ids in the attribute set table
+	 */
+	private Map<List<Integer>, Integer> attributeSetIds = new HashMap<List<Integer>, Integer>();
+
+	/**
+	 * Return the id of the specified attribute set, adding it to the
+	 * attribute set table if it has not been seen before
+	 *
+	 * @param attributes
+	 * @return The id of the attribute set or -1 for null
+	 */
+	private int internAttributes(Map<String, String> attributes) {
+		int result = -1;
+
+		if (attributes != null) {
+			List<Integer> key = new ArrayList<Integer>();
+
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				key.add(internString(entry.getKey()));
+				key.add(internString(entry.getValue()));
+			}
+
+			Integer id = attributeSetIds.get(key);
+
+			if (id == null) {
+				id = attributeSets.size();
+				attributeSets.add(key);
+				attributeSetIds.put(key, id);
+			}
+
+			result = id;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the id of the specified string, adding it to the string table if
+	 * it has not been seen before
+	 *
+	 * @param text
+	 * @return The id of the string or -1 for null
+	 */
+	private int internString(String text) {
+		int result = -1;
+
+		if (text != null) {
+			Integer id = stringIds.get(text);
+
+			if (id == null) {
+				id = strings.size();
+				strings.add(text);
+				stringIds.put(text, id);
+			}
+
+			result = id;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Compile a board definition file into a catalog file
+	 *
+	 * @param sourceFile
+	 * @param catalogFile
+	 * @throws IOException
+	 */
+	public void write(File sourceFile, File catalogFile) throws IOException {
+		byte[] source = new byte[(int) sourceFile.length()];
+		InputStream input = new FileInputStream(sourceFile);
+
+		try {
+			int offset = 0;
+
+			while (offset < source.length) {
+				int count = input.read(source, offset, source.length - offset);
+
+				if (count == -1) {
+					throw new IOException("Unexpected end of file");
+				}
+
+				offset += count;
+			}
+		} finally {
+			input.close();
+		}
+
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+		parser.parse(new String(source));
+
+		File parent = catalogFile.getParentFile();
+
+		if (parent != null) {
+			parent.mkdirs();
+		}
+
+		OutputStream output = new FileOutputStream(catalogFile);
+
+		try {
+			write(source, sourceFile.lastModified(), parser.getBoards(), output);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Write a catalog for the specified boards without a source modification
+	 * time, so the catalog can only be checked against its source's checksum
+	 *
+	 * @param source
+	 *            The raw bytes of the board definition file
+	 * @param boards
+	 *            The boards parsed from the source
+	 * @param output
+	 *            The stream to which the catalog is written
+	 * @throws IOException
+	 */
+	public void write(byte[] source, List<Board> boards, OutputStream output) throws IOException {
+		write(source, 0, boards, output);
+	}
+
+	/**
+	 * Write a catalog for the specified boards. The source bytes and
+	 * modification time are used only to record the stamp and checksum that
+	 * BoardCatalog uses to detect stale catalogs
+	 *
+	 * @param source
+	 *            The raw bytes of the board definition file
+	 * @param sourceModified
+	 *            The modification time of the board definition file or 0 if
+	 *            unknown
+	 * @param boards
+	 *            The boards parsed from the source
+	 * @param output
+	 *            The stream to which the catalog is written
+	 * @throws IOException
+	 */
+	public void write(byte[] source, long sourceModified, List<Board> boards, OutputStream output) throws IOException {
+		strings.clear();
+		stringIds.clear();
+		attributeSets.clear();
+		attributeSetIds.clear();
+
+		// emit board records, interning strings and attribute sets as we go
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+		DataOutputStream records = new DataOutputStream(recordBytes);
+		int[] recordOffsets = new int[boards.size()];
+
+		for (int i = 0; i < boards.size(); i++) {
+			recordOffsets[i] = records.size();
+			writeBoard(records, boards.get(i));
+		}
+
+		// emit string table
+		ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+		DataOutputStream stringData = new DataOutputStream(stringBytes);
+		int[] stringOffsets = new int[strings.size()];
+
+		for (int i = 0; i < strings.size(); i++) {
+			byte[] bytes = strings.get(i).getBytes(BoardCatalog.UTF8);
+
+			stringOffsets[i] = stringData.size();
+			stringData.writeInt(bytes.length);
+			stringData.write(bytes);
+		}
+
+		// emit attribute set table
+		ByteArrayOutputStream attributeBytes = new ByteArrayOutputStream();
+		DataOutputStream attributeData = new DataOutputStream(attributeBytes);
+		int[] attributeOffsets = new int[attributeSets.size()];
+
+		for (int i = 0; i < attributeSets.size(); i++) {
+			List<Integer> set = attributeSets.get(i);
+
+			attributeOffsets[i] = attributeData.size();
+			attributeData.writeInt(set.size() / 2);
+
+			for (int id : set) {
+				attributeData.writeInt(id);
+			}
+		}
+
+		// compute section offsets
+		int boardDirectory = BoardCatalog.HEADER_SIZE;
+		int recordsStart = boardDirectory + 4 * boards.size();
+		int stringDirectory = recordsStart + records.size();
+		int stringsStart = stringDirectory + 4 * strings.size();
+		int attributeDirectory = stringsStart + stringData.size();
+		int attributesStart = attributeDirectory + 4 * attributeSets.size();
+
+		DataOutputStream out = new DataOutputStream(output);
+
+		// header
+		out.writeInt(BoardCatalog.MAGIC);
+		out.writeInt(BoardCatalog.VERSION);
+		out.writeInt(source.length);
+		out.writeLong(BoardCatalog.getChecksum(source));
+		out.writeInt(boards.size());
+		out.writeInt(strings.size());
+		out.writeInt(stringDirectory);
+		out.writeInt(attributeSets.size());
+		out.writeInt(attributeDirectory);
+		out.writeLong(sourceModified);
+
+		// directories use absolute offsets
+		for (int offset : recordOffsets) {
+			out.writeInt(recordsStart + offset);
+		}
+
+		recordBytes.writeTo(out);
+
+		for (int offset : stringOffsets) {
+			out.writeInt(stringsStart + offset);
+		}
+
+		stringBytes.writeTo(out);
+
+		for (int offset : attributeOffsets) {
+			out.writeInt(attributesStart + offset);
+		}
+
+		attributeBytes.writeTo(out);
+		out.flush();
+	}
+
+	/**
+	 * Write a single board record
+	 *
+	 * @param out
+	 * @param board
+	 * @throws IOException
+	 */
+	private void writeBoard(DataOutputStream out, Board board) throws IOException {
+		List<String> names = board.getNames();
+
+		out.writeInt(names.size());
+
+		for (String name : names) {
+			out.writeInt(internString(name));
+		}
+
+		out.writeInt(internString(board.getParentBoardName()));
+		out.writeInt(internString(board.getDeclaredHeader()));
+
+		List<Tuple<String, String>> configs = board.getDeclaredConfigs();
+
+		if (configs != null) {
+			out.writeInt(configs.size());
+
+			for (Tuple<String, String> config : configs) {
+				out.writeInt(internString(config.first));
+				out.writeInt(internString(config.last));
+			}
+		} else {
+			out.writeInt(-1);
+		}
+
+		List<Bus> buses = board.getDeclaredBuses();
+
+		if (buses != null) {
+			out.writeInt(buses.size());
+
+			for (Bus bus : buses) {
+				out.writeInt(internString(bus.getName()));
+				out.writeInt(internAttributes(bus.getAdditions()));
+
+				List<Pin> pins = bus.getPins();
+
+				if (pins != null) {
+					out.writeInt(pins.size());
+
+					for (Pin pin : pins) {
+						out.writeInt(internString(pin.getName()));
+						out.writeInt(internAttributes(pin.getDeclaredAdditions()));
+					}
+				} else {
+					out.writeInt(-1);
+				}
+			}
+		} else {
+			out.writeInt(-1);
+		}
+	}
+}
@@ -41,34 +41,39 @@ public abstract class AbstractLoadCommand implements ICommand { // $codepro.audi
 	 */
 	@Override
 	public boolean execute(ExecutionContext context) {
-		InputStream input = getInputStream();
 		boolean result = false;
 
-		if (input != null) {
-			BoardRegistry registry = getRegistry();
+		if (filename != null) {
+			// files are indexed so boards are only parsed when used
+			File file = getFile();
 
-			result = registry.load(input);
+			if (file != null) {
+				result = getRegistry().loadIndexed(file);
+				context.addDefinitions(file);
+			}
+		} else {
+			InputStream input = getInputStream();
+
+			if (input != null) {
+				result = getRegistry().load(input);
+			}
 		}
 
 		return result;
 	}
 
 	/**
-	 * getInputStream
+	 * Return the file to load if it exists and is readable
 	 * 
-	 * @return InputStream
+	 * @return File or null if the file cannot be loaded
 	 */
-	protected InputStream getInputStream() {
+	protected File getFile() {
 		File file = new File(filename);
-		InputStream result = null;
+		File result = null;
 
 		if (file.exists()) {
 			if (file.canRead()) {
-				try {
-					result = new FileInputStream(file);
-				} catch (FileNotFoundException e) {
-					e.printStackTrace();
-				}
+				result = file;
 			} else {
 				Logger.logError("Board definition file is not readable: '" + filename + "'");
 			}
@@ -79,6 +84,26 @@ public abstract class AbstractLoadCommand implements ICommand { // $codepro.audi
 		return result;
 	}
 
+	/**
+	 * getInputStream
+	 * 
+	 * @return InputStream
+	 */
+	protected InputStream getInputStream() {
+		File file = getFile();
+		InputStream result = null;
+
+		if (file != null) {
+			try {
+				result = new FileInputStream(file);
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return result;
+	}
+
 	/**
 	 * getRegistry
 	 * 
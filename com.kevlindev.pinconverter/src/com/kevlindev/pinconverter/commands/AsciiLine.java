@@ -0,0 +1,90 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AsciiLine presents a range of ASCII bytes as characters, without decoding
+ * them. A single instance is reset for each line
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+final class AsciiLine implements CharSequence {
+	/**
+	 * The bytes holding the line
+	 */
+	private ByteBuffer bytes;
+
+	/**
+	 * The offset of the line's first byte
+	 */
+	private int start;
+
+	/**
+	 * The number of bytes in the line
+	 */
+	private int length;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.CharSequence#charAt(int)
+	 */
+	@Override
+	public char charAt(int index) {
+		return (char) bytes.get(start + index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.CharSequence#length()
+	 */
+	@Override
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Present a new range of bytes
+	 *
+	 * @param bytes
+	 * @param start
+	 * @param end
+	 */
+	void reset(ByteBuffer bytes, int start, int end) {
+		this.bytes = bytes;
+		this.start = start;
+		this.length = end - start;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.CharSequence#subSequence(int, int)
+	 */
+	@Override
+	public CharSequence subSequence(int begin, int end) {
+		char[] chars = new char[end - begin];
+
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = charAt(begin + i);
+		}
+
+		return new String(chars);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return subSequence(0, length).toString();
+	}
+}
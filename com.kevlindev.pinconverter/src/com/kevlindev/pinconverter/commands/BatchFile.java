@@ -0,0 +1,76 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.File;
+
+/**
+ * BatchFile is a file processed by a FileBatch, along with the name of its
+ * output relative to an output directory
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BatchFile {
+	/**
+	 * The file to process
+	 */
+	private final File file;
+
+	/**
+	 * The relative path of the file's output
+	 */
+	private final String outputName;
+
+	/**
+	 * BatchFile
+	 * 
+	 * @param file
+	 * @param outputName
+	 */
+	public BatchFile(File file, String outputName) {
+		this.file = file;
+		this.outputName = outputName;
+	}
+
+	/**
+	 * getFile
+	 * 
+	 * @return The file to process
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Return the file's output within an output directory
+	 * 
+	 * @param directory
+	 *            The output directory or null to replace the file itself
+	 * @return File
+	 */
+	public File getOutputFile(File directory) {
+		return (directory != null) ? new File(directory, outputName) : file;
+	}
+
+	/**
+	 * getOutputName
+	 * 
+	 * @return The relative path of the file's output
+	 */
+	public String getOutputName() {
+		return outputName;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return file.getPath();
+	}
+}
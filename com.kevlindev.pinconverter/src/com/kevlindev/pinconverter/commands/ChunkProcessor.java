@@ -0,0 +1,122 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ChunkProcessor processes the chunks of a file on a fixed pool of threads and
+ * hands each chunk's result back to the calling thread in file order. Only a
+ * few chunks per thread are in flight at once, so memory use does not depend
+ * on the size of the file. Subclasses must not share mutable state between
+ * chunks.
+ *
+ * @param <T>
+ *            The type of each chunk's result
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public abstract class ChunkProcessor<T> {
+	/**
+	 * The number of chunks queued for each thread
+	 */
+	private static final int CHUNKS_PER_THREAD = 2;
+
+	/**
+	 * Accept the result of a chunk. This runs on the thread that called run,
+	 * once for each chunk, in file order
+	 *
+	 * @param index
+	 * @param result
+	 * @throws IOException
+	 */
+	protected abstract void complete(int index, T result) throws IOException;
+
+	/**
+	 * Process a chunk. This runs on one of the pool's threads
+	 *
+	 * @param chunks
+	 * @param index
+	 * @return T
+	 * @throws IOException
+	 */
+	protected abstract T process(FileChunks chunks, int index) throws IOException;
+
+	/**
+	 * Process every chunk of a file. Processing stops at the first chunk that
+	 * fails, after the results of all earlier chunks have been completed
+	 *
+	 * @param chunks
+	 * @param threadCount
+	 * @throws IOException
+	 */
+	public void run(FileChunks chunks, int threadCount) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		LinkedList<Future<T>> pending = new LinkedList<Future<T>>();
+		int window = threadCount * CHUNKS_PER_THREAD;
+		int submitted = 0;
+
+		try {
+			for (int completed = 0; completed < chunks.getCount(); completed++) {
+				while (submitted < chunks.getCount() && submitted - completed < window) {
+					pending.add(submit(executor, chunks, submitted));
+					submitted++;
+				}
+
+				complete(completed, get(pending.removeFirst()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Wait for a chunk's result, rethrowing any failure as an IOException
+	 *
+	 * @param future
+	 * @return T
+	 * @throws IOException
+	 */
+	private T get(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+
+			throw new IOException(cause.toString());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IOException("Interrupted while processing file");
+		}
+	}
+
+	/**
+	 * Submit a chunk to the executor
+	 *
+	 * @param executor
+	 * @param chunks
+	 * @param index
+	 * @return Future<T>
+	 */
+	private Future<T> submit(ExecutorService executor, final FileChunks chunks, final int index) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call() throws IOException {
+				return process(chunks, index);
+			}
+		});
+	}
+}
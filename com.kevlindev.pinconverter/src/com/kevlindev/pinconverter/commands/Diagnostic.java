@@ -0,0 +1,207 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.text.MessageFormat;
+
+import com.kevlindev.pinconverter.parsing.UCFStatementType;
+
+/**
+ * Diagnostic describes a single problem found while validating a UCF file
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class Diagnostic {
+	/**
+	 * The kind of problem
+	 */
+	private final DiagnosticType type;
+
+	/**
+	 * The line of the statement with the problem, starting at 1
+	 */
+	private final int lineNumber;
+
+	/**
+	 * The type of the statement with the problem
+	 */
+	private final UCFStatementType statementType;
+
+	/**
+	 * The NET or INST name of the statement with the problem
+	 */
+	private final String name;
+
+	/**
+	 * The FPGA pin named by the statement's LOC value
+	 */
+	private final String pin;
+
+	/**
+	 * The text of the line, for invalid and prohibited pins. This is null
+	 * otherwise
+	 */
+	private final String line;
+
+	/**
+	 * The NET or INST name of the earlier statement, for conflicts and
+	 * duplicates. This is null otherwise
+	 */
+	private final String earlierName;
+
+	/**
+	 * The line of the earlier statement, for conflicts and duplicates. This is
+	 * 0 otherwise
+	 */
+	private final int earlierLineNumber;
+
+	/**
+	 * Diagnostic
+	 * 
+	 * @param type
+	 * @param lineNumber
+	 * @param statementType
+	 * @param name
+	 * @param pin
+	 * @param line
+	 * @param earlierName
+	 * @param earlierLineNumber
+	 */
+	public Diagnostic(DiagnosticType type, int lineNumber, UCFStatementType statementType, String name, String pin, String line, String earlierName, int earlierLineNumber) {
+		this.type = type;
+		this.lineNumber = lineNumber;
+		this.statementType = statementType;
+		this.name = name;
+		this.pin = pin;
+		this.line = line;
+		this.earlierName = earlierName;
+		this.earlierLineNumber = earlierLineNumber;
+	}
+
+	/**
+	 * getEarlierLineNumber
+	 * 
+	 * @return The line of the earlier statement or 0
+	 */
+	public int getEarlierLineNumber() {
+		return earlierLineNumber;
+	}
+
+	/**
+	 * getEarlierName
+	 * 
+	 * @return The name of the earlier statement. This may be null
+	 */
+	public String getEarlierName() {
+		return earlierName;
+	}
+
+	/**
+	 * getLine
+	 * 
+	 * @return The text of the line. This may be null
+	 */
+	public String getLine() {
+		return line;
+	}
+
+	/**
+	 * getLineNumber
+	 * 
+	 * @return The line of the statement, starting at 1
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Return a description of the problem, without its location
+	 * 
+	 * @return String
+	 */
+	public String getMessage() {
+		String result;
+
+		switch (type) {
+			case INVALID_PIN:
+				result = MessageFormat.format("Invalid FPGA pin ''{0}'': {1}", pin, line);
+				break;
+			case PROHIBITED_PIN:
+				result = MessageFormat.format("Prohibited FPGA pin ''{0}'': {1}", pin, line);
+				break;
+			case PIN_CONFLICT:
+				// @formatter:off
+				result = MessageFormat.format(
+					"FPGA pin ''{0}'' of {1} ''{2}'' is already assigned to ''{3}'' on line {4}",
+					pin,
+					statementType,
+					name,
+					earlierName,
+					Integer.toString(earlierLineNumber)
+				);
+				// @formatter:on
+				break;
+			default:
+				// @formatter:off
+				result = MessageFormat.format(
+					"{0} ''{1}'' is already placed on line {2}",
+					statementType,
+					name,
+					Integer.toString(earlierLineNumber)
+				);
+				// @formatter:on
+				break;
+		}
+
+		return result;
+	}
+
+	/**
+	 * getName
+	 * 
+	 * @return The NET or INST name of the statement
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * getPin
+	 * 
+	 * @return The FPGA pin named by the statement
+	 */
+	public String getPin() {
+		return pin;
+	}
+
+	/**
+	 * getStatementType
+	 * 
+	 * @return UCFStatementType
+	 */
+	public UCFStatementType getStatementType() {
+		return statementType;
+	}
+
+	/**
+	 * getType
+	 * 
+	 * @return DiagnosticType
+	 */
+	public DiagnosticType getType() {
+		return type;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "line " + lineNumber + ": " + getMessage();
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+/**
+ * DiagnosticType
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public enum DiagnosticType {
+	/**
+	 * A LOC value that does not name a pin on the board
+	 */
+	INVALID_PIN,
+
+	/**
+	 * A LOC value naming a pin in one of the board's PROHIBIT configs
+	 */
+	PROHIBITED_PIN,
+
+	/**
+	 * A pin that was already assigned to another NET or INST
+	 */
+	PIN_CONFLICT,
+
+	/**
+	 * A NET or INST that was already placed on an earlier line
+	 */
+	DUPLICATE_PLACEMENT
+}
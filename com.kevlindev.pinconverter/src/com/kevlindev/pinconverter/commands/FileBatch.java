@@ -0,0 +1,350 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.text.Table;
+
+/**
+ * FileBatch processes a list of files on a pool of threads. Each file is
+ * processed on a single thread and, once all earlier files have finished, its
+ * error messages are reported in file order. Input names may be files,
+ * directories, which include all UCF files beneath them, or glob patterns
+ * using '*' and '?' in the last part of the name
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public abstract class FileBatch {
+	/**
+	 * The extension of the files included from a directory
+	 */
+	public static final String UCF_EXTENSION = ".ucf";
+
+	/**
+	 * The outcome of processing one file
+	 */
+	private static class FileResult {
+		/**
+		 * The error messages for the file, in the order they were found
+		 */
+		List<String> errors = new ArrayList<String>();
+
+		/**
+		 * The size of the file before it was processed
+		 */
+		long bytes;
+
+		/**
+		 * The number of milliseconds spent processing the file
+		 */
+		long elapsed;
+	}
+
+	/**
+	 * Add all UCF files beneath a directory to a list, in name order
+	 * 
+	 * @param directory
+	 * @param path
+	 *            The path of the directory relative to the input directory, or
+	 *            an empty string for the input directory itself
+	 * @param files
+	 */
+	private static void addDirectory(File directory, String path, List<BatchFile> files) {
+		File[] children = directory.listFiles();
+
+		if (children != null) {
+			Arrays.sort(children);
+
+			for (File child : children) {
+				String name = path + child.getName();
+
+				if (child.isDirectory()) {
+					addDirectory(child, name + File.separator, files);
+				} else if (child.getName().toLowerCase().endsWith(UCF_EXTENSION)) {
+					files.add(new BatchFile(child, name));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Expand a list of file names, directories, and glob patterns into the
+	 * files they name. Each file is paired with the name of its output
+	 * relative to an output directory: the file's own name or, for files
+	 * found beneath a directory, the path below that directory
+	 * 
+	 * @param names
+	 * @return List<BatchFile>
+	 */
+	public static List<BatchFile> expand(List<String> names) {
+		List<BatchFile> result = new ArrayList<BatchFile>();
+
+		for (String name : names) {
+			File file = new File(name);
+
+			if (isGlob(file.getName())) {
+				File directory = (file.getParentFile() != null) ? file.getParentFile() : new File(".");
+				Pattern pattern = getGlobPattern(file.getName());
+				File[] children = directory.listFiles();
+
+				if (children != null) {
+					Arrays.sort(children);
+
+					for (File child : children) {
+						if (child.isFile() && pattern.matcher(child.getName()).matches()) {
+							result.add(new BatchFile(new File(file.getParentFile(), child.getName()), child.getName()));
+						}
+					}
+				}
+			} else if (file.isDirectory()) {
+				addDirectory(file, "", result);
+			} else {
+				// missing files are reported when they are processed
+				result.add(new BatchFile(file, file.getName()));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Find files whose outputs would be written to the same file, such as
+	 * files with the same name in different input directories, or a file that
+	 * is listed twice. Outputs are compared as files, so the comparison
+	 * ignores case on platforms whose file names do
+	 * 
+	 * @param files
+	 * @param directory
+	 *            The output directory or null when files replace their input
+	 * @return A message for each conflicting file. This is empty if there are
+	 *         no conflicts
+	 */
+	public static List<String> findOutputConflicts(List<BatchFile> files, File directory) {
+		List<String> result = new ArrayList<String>();
+		Map<File, BatchFile> filesByOutput = new HashMap<File, BatchFile>();
+
+		for (BatchFile file : files) {
+			File output = file.getOutputFile(directory).getAbsoluteFile();
+			BatchFile earlier = filesByOutput.get(output);
+
+			if (earlier != null) {
+				result.add(MessageFormat.format("''{0}'' and ''{1}'' would both be written to ''{2}''", earlier, file, file.getOutputFile(directory)));
+			} else {
+				filesByOutput.put(output, file);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Convert a glob pattern into a regular expression. '*' matches any run of
+	 * characters and '?' matches a single character
+	 * 
+	 * @param glob
+	 * @return Pattern
+	 */
+	protected static Pattern getGlobPattern(String glob) {
+		StringBuilder buffer = new StringBuilder();
+		int start = 0;
+
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+
+			if (c == '*' || c == '?') {
+				if (start < i) {
+					buffer.append(Pattern.quote(glob.substring(start, i)));
+				}
+
+				buffer.append((c == '*') ? ".*" : ".");
+				start = i + 1;
+			}
+		}
+
+		if (start < glob.length()) {
+			buffer.append(Pattern.quote(glob.substring(start)));
+		}
+
+		return Pattern.compile(buffer.toString());
+	}
+
+	/**
+	 * Determine if a list of input names should be processed as a batch. This
+	 * is the case for more than one name, a directory, or a glob pattern
+	 * 
+	 * @param names
+	 * @return boolean
+	 */
+	public static boolean isBatch(List<String> names) {
+		boolean result = false;
+
+		if (names != null) {
+			if (names.size() > 1) {
+				result = true;
+			} else if (names.size() == 1) {
+				File file = new File(names.get(0));
+
+				result = isGlob(file.getName()) || file.isDirectory();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if a file name contains glob characters
+	 * 
+	 * @param name
+	 * @return boolean
+	 */
+	private static boolean isGlob(String name) {
+		return name.indexOf('*') != -1 || name.indexOf('?') != -1;
+	}
+
+	/**
+	 * The summary of each file processed by the last run
+	 */
+	private Table summary;
+
+	/**
+	 * Called on the calling thread, in file order, after the errors for a
+	 * file have been reported. The default implementation does nothing
+	 * 
+	 * @param file
+	 * @param succeeded
+	 */
+	protected void complete(BatchFile file, boolean succeeded) {
+	}
+
+	/**
+	 * Return a table listing the size, processing time, and status of each
+	 * file processed by the last run, followed by the totals
+	 * 
+	 * @return The summary or null if the batch has not been run
+	 */
+	public String getReport() {
+		return (summary != null) ? summary.toString() : null;
+	}
+
+	/**
+	 * Process a single file. This is called on a pool thread, so it may only
+	 * use state that is shared safely
+	 * 
+	 * @param file
+	 * @param errors
+	 *            The list receiving error messages for the file
+	 * @throws IOException
+	 */
+	protected abstract void process(BatchFile file, List<String> errors) throws IOException;
+
+	/**
+	 * Process all files on a pool of threads. Errors are logged and complete
+	 * is called in file order as files finish
+	 * 
+	 * @param files
+	 * @param threadCount
+	 *            The number of files processed at the same time or 0 for one
+	 *            thread per processor
+	 * @return Returns true if every file was processed without errors
+	 */
+	public boolean run(List<BatchFile> files, int threadCount) {
+		int poolSize = (threadCount > 0) ? threadCount : Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(poolSize, files.size())));
+		List<Future<FileResult>> futures = new ArrayList<Future<FileResult>>();
+		long start = System.currentTimeMillis();
+		long totalBytes = 0;
+		int failures = 0;
+		boolean result = true;
+
+		summary = new Table();
+		summary.addHeaders("File", "Bytes", "ms", "Status");
+		summary.setAlignment(1, Table.Alignment.RIGHT);
+		summary.setAlignment(2, Table.Alignment.RIGHT);
+
+		try {
+			for (final BatchFile file : files) {
+				futures.add(executor.submit(new Callable<FileResult>() {
+					@Override
+					public FileResult call() {
+						FileResult fileResult = new FileResult();
+						long fileStart = System.currentTimeMillis();
+
+						fileResult.bytes = file.getFile().length();
+
+						try {
+							process(file, fileResult.errors);
+						} catch (IOException e) {
+							if (file.getFile().exists()) {
+								fileResult.errors.add(MessageFormat.format("Unable to process ''{0}'': {1}", file.getFile(), e.getMessage()));
+							} else {
+								fileResult.errors.add("File not found: " + file.getFile());
+							}
+						}
+
+						fileResult.elapsed = System.currentTimeMillis() - fileStart;
+
+						return fileResult;
+					}
+				}));
+			}
+
+			for (int i = 0; i < files.size(); i++) {
+				BatchFile file = files.get(i);
+				FileResult fileResult;
+
+				try {
+					fileResult = futures.get(i).get();
+				} catch (ExecutionException e) {
+					fileResult = new FileResult();
+					fileResult.errors.add(MessageFormat.format("Unable to process ''{0}'': {1}", file.getFile(), e.getCause()));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					result = false;
+					break;
+				}
+
+				for (String error : fileResult.errors) {
+					Logger.logError(error);
+				}
+
+				boolean succeeded = fileResult.errors.isEmpty();
+
+				complete(file, succeeded);
+
+				summary.addRow(file.getFile().getPath(), Long.toString(fileResult.bytes), Long.toString(fileResult.elapsed), (succeeded) ? "ok" : "failed");
+				totalBytes += fileResult.bytes;
+
+				if (!succeeded) {
+					failures++;
+					result = false;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		String status = (failures == 0) ? "ok" : MessageFormat.format("{0} failed", failures);
+
+		summary.addRow(MessageFormat.format("{0} files", files.size()), Long.toString(totalBytes), Long.toString(System.currentTimeMillis() - start), status);
+
+		return result;
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FileChunks splits a file into chunks of roughly equal size that start and
+ * end on line boundaries, so each chunk can be processed on its own. Chunks
+ * are mapped on demand, which lets files larger than a single mapping be
+ * processed. Both mapping and reading are safe to do from several threads at
+ * once.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class FileChunks {
+	/**
+	 * The default size of a chunk
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	/**
+	 * The size of the buffer used to find the end of a line
+	 */
+	private static final int SCAN_SIZE = 4096;
+
+	/**
+	 * The open file
+	 */
+	private final RandomAccessFile file;
+
+	/**
+	 * The file's channel
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The offset of each chunk followed by the size of the file
+	 */
+	private final List<Long> offsets = new ArrayList<Long>();
+
+	/**
+	 * FileChunks
+	 *
+	 * @param file
+	 * @param chunkSize
+	 *            The target size of each chunk. Chunks are longer when a line
+	 *            crosses the target size. This must be no larger than the
+	 *            size of a single mapping
+	 * @throws IOException
+	 */
+	public FileChunks(File file, int chunkSize) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+
+		try {
+			long size = channel.size();
+			long offset = 0;
+
+			while (offset < size) {
+				offsets.add(offset);
+				offset = findLineStart(offset + chunkSize, size);
+			}
+
+			offsets.add(size);
+		} catch (IOException e) {
+			this.file.close();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Close the file
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Return the offset of the first line starting at or after the specified
+	 * offset. A CR LF pair is never split
+	 *
+	 * @param offset
+	 * @param size
+	 *            The size of the file
+	 * @return long
+	 * @throws IOException
+	 */
+	private long findLineStart(long offset, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+		long result = -1;
+
+		// start one byte early, so a line ending right at the offset is found
+		// and a LF following a CR at offset - 1 is kept with its CR
+		long position = offset - 1;
+
+		while (result == -1 && position < size) {
+			buffer.clear();
+
+			int count = channel.read(buffer, position);
+
+			for (int i = 0; i < count && result == -1; i++) {
+				byte b = buffer.get(i);
+				boolean hasNext = i + 1 < count;
+
+				if (b == '\n') {
+					result = position + i + 1;
+				} else if (b == '\r' && (hasNext || position + i + 1 == size)) {
+					result = position + i + ((hasNext && buffer.get(i + 1) == '\n') ? 2 : 1);
+				} else if (b == '\r') {
+					// read the CR again with the byte that follows it
+					count = i;
+				}
+			}
+
+			position += Math.max(count, 1);
+		}
+
+		if (result == -1) {
+			result = size;
+		}
+
+		return result;
+	}
+
+	/**
+	 * getChannel
+	 *
+	 * @return The file's channel
+	 */
+	public FileChannel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * getCount
+	 *
+	 * @return The number of chunks
+	 */
+	public int getCount() {
+		return offsets.size() - 1;
+	}
+
+	/**
+	 * getOffset
+	 *
+	 * @param index
+	 * @return The offset of the specified chunk within the file
+	 */
+	public long getOffset(int index) {
+		return offsets.get(index);
+	}
+
+	/**
+	 * getSize
+	 *
+	 * @param index
+	 * @return The number of bytes in the specified chunk
+	 */
+	public int getSize(int index) {
+		return (int) (offsets.get(index + 1) - offsets.get(index));
+	}
+
+	/**
+	 * Map the specified chunk into memory
+	 *
+	 * @param index
+	 * @return ByteBuffer
+	 * @throws IOException
+	 */
+	public ByteBuffer map(int index) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, getOffset(index), getSize(index));
+	}
+}
@@ -0,0 +1,21 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+/**
+ * IDiagnosticListener
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public interface IDiagnosticListener {
+	/**
+	 * Receive a diagnostic. Diagnostics are sent in line order, as soon as
+	 * they are found
+	 * 
+	 * @param diagnostic
+	 */
+	void diagnostic(Diagnostic diagnostic);
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.pinconverter.model.BoardInference;
+import com.kevlindev.pinconverter.model.BoardMatch;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
+import com.kevlindev.text.Table;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * InferBoardCommand lists every loaded board having the FPGA pins named by
+ * the LOC values of the input files, ranked by the fraction of those pins
+ * found on each board
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class InferBoardCommand implements ICommand {
+	/**
+	 * Collect the distinct FPGA pins named by the LOC values of the NET and
+	 * INST statements in a list of files, directories, and glob patterns
+	 * 
+	 * @param fileNames
+	 * @return The pin names, in the order they were first found
+	 * @throws IOException
+	 */
+	protected static Set<String> getLocationPins(List<String> fileNames) throws IOException {
+		Set<String> result = new LinkedHashSet<String>();
+		UCFScanner scanner = new UCFScanner();
+
+		for (BatchFile file : FileBatch.expand(fileNames)) {
+			LineReader reader = new LineReader(new FileReader(file.getFile()));
+
+			try {
+				while (reader.next()) {
+					CharSequence line = reader.getLine();
+
+					scanner.reset(line);
+
+					while (scanner.next()) {
+						if (scanner.hasPinLocation()) {
+							result.add(line.subSequence(scanner.getLocationStart(), scanner.getLocationEnd()).toString());
+						}
+					}
+				}
+			} finally {
+				try {
+					reader.close();
+				} catch (IOException e) { // $codepro.audit.disable
+											// emptyCatchClause
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Match the pins of the input files against every loaded board
+	 * 
+	 * @param context
+	 * @return The matches, from best to worst, or null if the input could not
+	 *         be read
+	 */
+	protected static List<BoardMatch> match(ExecutionContext context) {
+		List<String> fileNames = context.getInputFileNames();
+		List<BoardMatch> result = null;
+
+		if (fileNames == null || fileNames.isEmpty()) {
+			// input files listed after the last switch are only set once all
+			// switches have run
+			Logger.logError("An input file is required to infer a board. Use --inputFile before --inferBoard");
+		} else {
+			try {
+				Set<String> pins = getLocationPins(fileNames);
+
+				result = BoardInference.compile(Registrar.BOARD_REGISTRY.getBoards()).match(pins);
+			} catch (FileNotFoundException e) {
+				Logger.logError("File not found: " + e.getMessage());
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Set the source board to the only board having every pin of the input
+	 * files. This is used when no source board was given. Boards with the same
+	 * pins may still differ in other ways, such as their FPGA part, so when
+	 * several boards have every pin, none is chosen
+	 * 
+	 * @param context
+	 * @return Returns false if no board, or more than one board, has every pin
+	 */
+	public static boolean inferSourceBoard(ExecutionContext context) {
+		List<BoardMatch> matches = match(context);
+		List<String> candidates = new ArrayList<String>();
+		boolean result = false;
+
+		if (matches != null) {
+			for (BoardMatch match : matches) {
+				if (match.isComplete()) {
+					candidates.add(match.getName());
+				}
+			}
+
+			if (candidates.size() == 1) {
+				context.setSourceBoardName(candidates.get(0));
+				result = true;
+			} else if (candidates.isEmpty()) {
+				// @formatter:off
+				Logger.logError(MessageFormat.format(
+					"No board has every pin used in {0}. Use --sourceBoard to choose one",
+					StringUtils.join(", ", context.getInputFileNames())
+				));
+				// @formatter:on
+			} else {
+				// @formatter:off
+				Logger.logError(MessageFormat.format(
+					"Several boards have every pin used in {0}: {1}. Use --sourceBoard to choose one",
+					StringUtils.join(", ", context.getInputFileNames()),
+					StringUtils.join(", ", candidates)
+				));
+				// @formatter:on
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.papilio.ICommand#execute(com.kevlindev.papilio.ExecutionContext
+	 * )
+	 */
+	@Override
+	public boolean execute(ExecutionContext context) {
+		List<BoardMatch> matches = match(context);
+
+		if (matches != null) {
+			Table table = new Table();
+
+			table.addHeaders("Board", "Pins", "Coverage", "Board Pins");
+			table.setAlignment(1, Table.Alignment.RIGHT);
+			table.setAlignment(2, Table.Alignment.RIGHT);
+			table.setAlignment(3, Table.Alignment.RIGHT);
+
+			for (BoardMatch match : matches) {
+				// @formatter:off
+				table.addRow(
+					match.getName(),
+					match.getMatchedCount() + "/" + match.getPinCount(),
+					String.format("%.1f%%", match.getCoverage() * 100),
+					Integer.toString(match.getBoardPinCount())
+				);
+				// @formatter:on
+			}
+
+			context.outputResult(table.toString());
+		}
+
+		return matches != null;
+	}
+}
@@ -4,6 +4,9 @@
  */
 package com.kevlindev.pinconverter.commands;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.kevlindev.pinconverter.ExecutionContext;
 
 /**
@@ -14,9 +17,19 @@ import com.kevlindev.pinconverter.ExecutionContext;
  */
 public class InputFileCommand implements ICommand {
 	/**
-	 * The full or relative path of the file to input
+	 * The full or relative paths of the files, directories, and glob patterns
+	 * to input
 	 */
-	private String fileName;
+	private List<String> fileNames;
+
+	/**
+	 * InputFileCommand
+	 * 
+	 * @param fileNames
+	 */
+	public InputFileCommand(List<String> fileNames) {
+		this.fileNames = fileNames;
+	}
 
 	/**
 	 * InputFileCommand
@@ -24,7 +37,7 @@ public class InputFileCommand implements ICommand {
 	 * @param fileName
 	 */
 	public InputFileCommand(String fileName) {
-		this.fileName = fileName;
+		this((fileName != null) ? Collections.singletonList(fileName) : null);
 	}
 
 	/*
@@ -36,7 +49,7 @@ public class InputFileCommand implements ICommand {
 	 */
 	@Override
 	public boolean execute(ExecutionContext context) {
-		context.setInputFileName(fileName);
+		context.setInputFileNames(fileNames);
 
 		return true;
 	}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * LineReader reads lines into a single character buffer that is reused for
+ * every line, so reading a file of any size allocates only as much memory as
+ * its longest line. Lines end with "\n", "\r", or "\r\n", just as they do for
+ * BufferedReader#readLine, and the line terminator is not included in the
+ * line.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class LineReader {
+	/**
+	 * The number of characters read from the underlying reader at a time
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The source of all characters
+	 */
+	private final Reader reader;
+
+	/**
+	 * Characters read from the reader but not yet consumed
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The offset of the next unconsumed character in buffer
+	 */
+	private int position;
+
+	/**
+	 * The number of valid characters in buffer
+	 */
+	private int limit;
+
+	/**
+	 * A flag indicating that the last line ended with '\r', so a '\n' that
+	 * immediately follows it should be skipped
+	 */
+	private boolean skipLineFeed;
+
+	/**
+	 * The characters of the current line. This grows as needed
+	 */
+	private char[] line = new char[128];
+
+	/**
+	 * The number of characters in the current line
+	 */
+	private int length;
+
+	/**
+	 * A view of the current line
+	 */
+	private CharBuffer view = CharBuffer.wrap(line);
+
+	/**
+	 * LineReader
+	 *
+	 * @param reader
+	 */
+	public LineReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Append characters to the current line, growing it as needed
+	 *
+	 * @param start
+	 * @param end
+	 */
+	private void append(int start, int end) {
+		int count = end - start;
+
+		if (length + count > line.length) {
+			char[] newLine = new char[Math.max(line.length * 2, length + count)];
+
+			System.arraycopy(line, 0, newLine, 0, length);
+			line = newLine;
+			view = CharBuffer.wrap(line);
+		}
+
+		System.arraycopy(buffer, start, line, length, count);
+		length += count;
+	}
+
+	/**
+	 * close
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Return the characters of the current line. Only the first getLength()
+	 * characters are part of the line, and the array is reused by the next
+	 * call to next
+	 *
+	 * @return char[]
+	 */
+	public char[] getChars() {
+		return line;
+	}
+
+	/**
+	 * getLength
+	 *
+	 * @return The number of characters in the current line
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Return a view of the current line. The view is reused by the next call
+	 * to next
+	 *
+	 * @return CharSequence
+	 */
+	public CharSequence getLine() {
+		view.clear();
+		view.limit(length);
+
+		return view;
+	}
+
+	/**
+	 * Advance to the next line
+	 *
+	 * @return Returns false if the end of the input has been reached
+	 * @throws IOException
+	 */
+	public boolean next() throws IOException {
+		boolean result = false;
+		boolean done = false;
+
+		length = 0;
+
+		while (!done) {
+			if (position == limit) {
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+
+				if (limit == -1) {
+					limit = 0;
+					done = true;
+				}
+			} else if (skipLineFeed) {
+				// the last line ended with '\r', so skip the '\n' of a "\r\n"
+				// pair, which may not arrive until the next read
+				skipLineFeed = false;
+
+				if (buffer[position] == '\n') {
+					position++;
+				}
+			} else {
+				int start = position;
+
+				while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+					position++;
+				}
+
+				append(start, position);
+				result = true;
+
+				if (position < limit) {
+					skipLineFeed = buffer[position] == '\r';
+					position++;
+					done = true;
+				}
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import com.kevlindev.pinconverter.model.PinTranslation;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * MappedTransformer transforms a UCF file without decoding it. The file is
+ * memory-mapped and each line's bytes are read by a UCFScanner through an
+ * ASCII view of the line. Only replaced pin names and line endings that differ
+ * from the platform's are written as new bytes. Every other span of the file
+ * is copied as is, with large spans transferred by the file system. Lines
+ * containing non-ASCII bytes are decoded before they are scanned, so the
+ * output is byte-for-byte the same as decoding, transforming, and re-encoding
+ * the whole file.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class MappedTransformer {
+	/**
+	 * The largest file that can be mapped
+	 */
+	public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * Spans at least this long are transferred directly from the input file.
+	 * Shorter spans are gathered in the output buffer, so lines with
+	 * replacements do not cost a system call per span
+	 */
+	private static final int TRANSFER_THRESHOLD = 8192;
+
+	/**
+	 * The size of the output buffer
+	 */
+	private static final int BUFFER_SIZE = 65536;
+
+	/**
+	 * Determine if files encoded with the specified character set can be
+	 * scanned as bytes. Every ASCII character must be encoded as the same
+	 * single byte
+	 *
+	 * @param charset
+	 * @return boolean
+	 */
+	public static boolean isSupported(Charset charset) {
+		char[] ascii = new char[128];
+		byte[] expected = new byte[ascii.length];
+
+		for (int i = 0; i < ascii.length; i++) {
+			ascii[i] = (char) i;
+			expected[i] = (byte) i;
+		}
+
+		return Arrays.equals(new String(ascii).getBytes(charset), expected);
+	}
+
+	/**
+	 * The table translating source board FPGA pin names to destination board
+	 * FPGA pin names
+	 */
+	private final PinTranslation translation;
+
+	/**
+	 * The character set of the input and output
+	 */
+	private final Charset charset;
+
+	/**
+	 * The encoded platform line separator
+	 */
+	private final byte[] eol;
+
+	/**
+	 * The scanner used for every line
+	 */
+	private final UCFScanner scanner = new UCFScanner();
+
+	/**
+	 * A view of the current line's bytes as characters, used for ASCII lines
+	 */
+	private final AsciiLine asciiLine = new AsciiLine();
+
+	/**
+	 * Gathers short spans and new bytes before they are written
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * The input file's channel
+	 */
+	private FileChannel input;
+
+	/**
+	 * The offset of the mapped bytes within the input file
+	 */
+	private long offset;
+
+	/**
+	 * The mapped contents of the input file
+	 */
+	private ByteBuffer bytes;
+
+	/**
+	 * The output channel
+	 */
+	private WritableByteChannel output;
+
+	/**
+	 * The offset of the first input byte that has not been written yet
+	 */
+	private int spanStart;
+
+	/**
+	 * MappedTransformer
+	 *
+	 * @param translation
+	 *            The table translating source board FPGA pin names to
+	 *            destination board FPGA pin names
+	 * @param charset
+	 *            The character set of the input and output. This must be
+	 *            supported, as determined by isSupported
+	 */
+	public MappedTransformer(PinTranslation translation, Charset charset) {
+		this.translation = translation;
+		this.charset = charset;
+		this.eol = StringUtils.EOL.getBytes(charset);
+	}
+
+	/**
+	 * Write all input bytes up to, but not including, the specified offset
+	 *
+	 * @param end
+	 * @throws IOException
+	 */
+	private void copyTo(int end) throws IOException {
+		int length = end - spanStart;
+
+		if (length >= TRANSFER_THRESHOLD) {
+			flush();
+
+			long position = offset + spanStart;
+
+			while (position < offset + end) {
+				position += input.transferTo(position, offset + end - position, output);
+			}
+		} else if (length > 0) {
+			ByteBuffer span = bytes.duplicate();
+
+			span.limit(end).position(spanStart);
+			write(span);
+		}
+
+		spanStart = end;
+	}
+
+	/**
+	 * Determine if the bytes in the specified range match the platform's line
+	 * separator
+	 *
+	 * @param start
+	 * @param end
+	 * @return boolean
+	 */
+	private boolean endsWithEOL(int start, int end) {
+		boolean result = end - start == eol.length;
+
+		for (int i = 0; i < eol.length && result; i++) {
+			result = bytes.get(start + i) == eol[i];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Write any buffered bytes to the output
+	 *
+	 * @throws IOException
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			output.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	/**
+	 * Transform an ASCII line, splicing in the replacement for each pin name
+	 *
+	 * @param start
+	 * @param end
+	 * @throws IOException
+	 */
+	private void processAsciiLine(int start, int end) throws IOException {
+		asciiLine.reset(bytes, start, end);
+		scanner.reset(asciiLine);
+
+		while (scanner.next()) {
+			if (scanner.hasPinLocation()) {
+				int pinStart = start + scanner.getLocationStart();
+				int pinEnd = start + scanner.getLocationEnd();
+				String replacement = translation.translate(asciiLine, scanner.getLocationStart(), scanner.getLocationEnd());
+
+				if (replacement != null) {
+					copyTo(pinStart);
+					write(replacement);
+					spanStart = pinEnd;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Transform a line containing non-ASCII bytes by decoding it and scanning
+	 * the decoded characters. The whole line is written re-encoded
+	 *
+	 * @param start
+	 * @param end
+	 * @throws IOException
+	 */
+	private void processDecodedLine(int start, int end) throws IOException {
+		ByteBuffer span = bytes.duplicate();
+
+		span.limit(end).position(start);
+
+		CharBuffer line = charset.decode(span);
+		int written = 0;
+
+		copyTo(start);
+		scanner.reset(line);
+
+		while (scanner.next()) {
+			if (scanner.hasPinLocation()) {
+				String replacement = translation.translate(line, scanner.getLocationStart(), scanner.getLocationEnd());
+
+				if (replacement != null) {
+					write(line, written, scanner.getLocationStart());
+					write(replacement);
+					written = scanner.getLocationEnd();
+				}
+			}
+		}
+
+		write(line, written, line.length());
+		spanStart = end;
+	}
+
+	/**
+	 * Transform the specified file and write the result to the output channel.
+	 * The output channel is not closed
+	 *
+	 * @param file
+	 *            The file to transform. It must be no larger than MAX_SIZE
+	 * @param output
+	 * @throws IOException
+	 */
+	public void transform(File file, WritableByteChannel output) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try {
+			FileChannel channel = raf.getChannel();
+
+			transform(channel, 0, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), output);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Transform a mapped region of a file and write the result to the output
+	 * channel. The region should end at the end of a line or at the end of the
+	 * file. Neither channel is closed
+	 *
+	 * @param input
+	 *            The channel of the file containing the region
+	 * @param offset
+	 *            The offset of the region within the file
+	 * @param bytes
+	 *            The mapped region
+	 * @param output
+	 * @throws IOException
+	 */
+	public void transform(FileChannel input, long offset, ByteBuffer bytes, WritableByteChannel output) throws IOException {
+		try {
+			this.input = input;
+			this.offset = offset;
+			this.bytes = bytes;
+			this.output = output;
+			this.spanStart = 0;
+
+			int size = bytes.limit();
+			int lineStart = 0;
+
+			while (lineStart < size) {
+				int lineEnd = lineStart;
+				boolean ascii = true;
+				byte b;
+
+				while (lineEnd < size && (b = bytes.get(lineEnd)) != '\n' && b != '\r') {
+					ascii &= b >= 0;
+					lineEnd++;
+				}
+
+				int nextLine = lineEnd;
+
+				if (nextLine < size) {
+					boolean crlf = bytes.get(nextLine) == '\r' && nextLine + 1 < size && bytes.get(nextLine + 1) == '\n';
+
+					nextLine += (crlf) ? 2 : 1;
+				}
+
+				if (ascii) {
+					processAsciiLine(lineStart, lineEnd);
+				} else {
+					processDecodedLine(lineStart, lineEnd);
+				}
+
+				// every line, including the last, ends with the platform's
+				// line separator
+				if (!endsWithEOL(lineEnd, nextLine)) {
+					copyTo(lineEnd);
+					write(eol);
+					spanStart = nextLine;
+				}
+
+				lineStart = nextLine;
+			}
+
+			copyTo(size);
+			flush();
+		} finally {
+			this.input = null;
+			this.bytes = null;
+			this.output = null;
+		}
+	}
+
+	/**
+	 * Buffer the specified bytes
+	 *
+	 * @param data
+	 * @throws IOException
+	 */
+	private void write(byte[] data) throws IOException {
+		write(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Buffer the remaining bytes of the specified buffer
+	 *
+	 * @param data
+	 * @throws IOException
+	 */
+	private void write(ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+
+			int count = Math.min(data.remaining(), buffer.remaining());
+			ByteBuffer chunk = data.duplicate();
+
+			chunk.limit(data.position() + count);
+			buffer.put(chunk);
+			data.position(data.position() + count);
+		}
+	}
+
+	/**
+	 * Buffer a range of characters, encoded
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @throws IOException
+	 */
+	private void write(CharBuffer text, int start, int end) throws IOException {
+		CharBuffer range = text.duplicate();
+
+		range.limit(end).position(start);
+		write(charset.encode(range));
+	}
+
+	/**
+	 * Buffer the encoded text
+	 *
+	 * @param text
+	 * @throws IOException
+	 */
+	private void write(String text) throws IOException {
+		write(charset.encode(text));
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import com.kevlindev.pinconverter.parsing.UCFStatementType;
+
+/**
+ * PinPlacement records a NET or INST statement whose LOC value names a single
+ * pin. Placements are found on any thread and then applied to a PinValidator
+ * in line order
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+final class PinPlacement {
+	/**
+	 * The line of the statement, relative to the first line scanned
+	 */
+	final int lineNumber;
+
+	/**
+	 * The type of the statement
+	 */
+	final UCFStatementType statementType;
+
+	/**
+	 * The NET or INST name
+	 */
+	final String name;
+
+	/**
+	 * The id of the pin in the board's PinIndex, or -1 if the pin is unknown
+	 */
+	final int pinId;
+
+	/**
+	 * The pin name, for unknown pins. This is null otherwise
+	 */
+	final String pin;
+
+	/**
+	 * The text of the line, for unknown and prohibited pins. This is null
+	 * otherwise
+	 */
+	final String line;
+
+	/**
+	 * PinPlacement
+	 * 
+	 * @param lineNumber
+	 * @param statementType
+	 * @param name
+	 * @param pinId
+	 * @param pin
+	 * @param line
+	 */
+	PinPlacement(int lineNumber, UCFStatementType statementType, String name, int pinId, String pin, String line) {
+		this.lineNumber = lineNumber;
+		this.statementType = statementType;
+		this.name = name;
+		this.pinId = pinId;
+		this.pin = pin;
+		this.line = line;
+	}
+}
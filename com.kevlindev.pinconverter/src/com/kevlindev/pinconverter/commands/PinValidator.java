@@ -0,0 +1,199 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kevlindev.pinconverter.model.PinIndex;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
+import com.kevlindev.pinconverter.parsing.UCFStatementType;
+
+/**
+ * PinValidator checks the LOC value of each NET and INST statement of a UCF
+ * file in a single pass. It reports pins that are not on the board, pins in
+ * the board's PROHIBIT configs, pins assigned more than once, and NETs or
+ * INSTs placed more than once. State is kept by pin id, using one bit, one int
+ * and one reference per pin, plus one entry per placed name
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class PinValidator {
+	/**
+	 * Find the NET and INST statements on a line whose LOC value names a
+	 * single pin. This only reads the index, so it may be called on any thread
+	 * 
+	 * @param line
+	 * @param lineNumber
+	 *            The line number recorded in each placement
+	 * @param scanner
+	 *            A UCF scanner, reused for each line
+	 * @param index
+	 * @param placements
+	 *            The list receiving the placements
+	 */
+	static void scanLine(CharSequence line, int lineNumber, UCFScanner scanner, PinIndex index, List<PinPlacement> placements) {
+		scanner.reset(line);
+
+		while (scanner.next()) {
+			if (scanner.hasPinLocation()) {
+				int start = scanner.getLocationStart();
+				int end = scanner.getLocationEnd();
+				int pinId = index.find(line, start, end);
+				String name = line.subSequence(scanner.getNameStart(), scanner.getNameEnd()).toString();
+				String pin = (pinId == -1) ? line.subSequence(start, end).toString() : null;
+				String text = (pinId == -1 || index.isProhibited(pinId)) ? line.toString() : null;
+
+				placements.add(new PinPlacement(lineNumber, scanner.getStatementType(), name, pinId, pin, text));
+			}
+		}
+	}
+
+	/**
+	 * The pins that may be placed
+	 */
+	private final PinIndex index;
+
+	/**
+	 * The listener receiving diagnostics
+	 */
+	private final IDiagnosticListener listener;
+
+	/**
+	 * The ids of the pins that have been assigned
+	 */
+	private final BitSet assignedPins = new BitSet();
+
+	/**
+	 * The line where each assigned pin was first assigned
+	 */
+	private final int[] assignedLines;
+
+	/**
+	 * The name that each assigned pin was first assigned to
+	 */
+	private final String[] assignedNames;
+
+	/**
+	 * The line where each NET was first placed
+	 */
+	private final Map<String, Integer> placedNets = new HashMap<String, Integer>();
+
+	/**
+	 * The line where each INST was first placed
+	 */
+	private final Map<String, Integer> placedInstances = new HashMap<String, Integer>();
+
+	/**
+	 * The placements found on the current line, reused for each line
+	 */
+	private final List<PinPlacement> linePlacements = new ArrayList<PinPlacement>();
+
+	/**
+	 * The number of lines processed by processLine
+	 */
+	private int lineCount;
+
+	/**
+	 * The number of diagnostics reported
+	 */
+	private int diagnosticCount;
+
+	/**
+	 * PinValidator
+	 * 
+	 * @param index
+	 * @param listener
+	 */
+	public PinValidator(PinIndex index, IDiagnosticListener listener) {
+		this.index = index;
+		this.listener = listener;
+
+		assignedLines = new int[index.size()];
+		assignedNames = new String[index.size()];
+	}
+
+	/**
+	 * getDiagnosticCount
+	 * 
+	 * @return The number of diagnostics reported so far
+	 */
+	public int getDiagnosticCount() {
+		return diagnosticCount;
+	}
+
+	/**
+	 * Apply a placement, reporting any problems with it
+	 * 
+	 * @param placement
+	 * @param lineOffset
+	 *            The number of lines before the first line of the placement's
+	 *            scan
+	 */
+	void place(PinPlacement placement, int lineOffset) {
+		int lineNumber = lineOffset + placement.lineNumber;
+		int pinId = placement.pinId;
+		Map<String, Integer> placedNames = (placement.statementType == UCFStatementType.INST) ? placedInstances : placedNets;
+		Integer placedLine = placedNames.get(placement.name);
+
+		if (pinId == -1) {
+			report(new Diagnostic(DiagnosticType.INVALID_PIN, lineNumber, placement.statementType, placement.name, placement.pin, placement.line, null, 0));
+		} else if (index.isProhibited(pinId)) {
+			report(new Diagnostic(DiagnosticType.PROHIBITED_PIN, lineNumber, placement.statementType, placement.name, index.getName(pinId), placement.line, null, 0));
+		}
+
+		if (placedLine != null) {
+			report(new Diagnostic(DiagnosticType.DUPLICATE_PLACEMENT, lineNumber, placement.statementType, placement.name, (pinId != -1) ? index.getName(pinId) : placement.pin, null, placement.name, placedLine));
+		} else {
+			placedNames.put(placement.name, lineNumber);
+		}
+
+		if (pinId != -1) {
+			if (!assignedPins.get(pinId)) {
+				assignedPins.set(pinId);
+				assignedLines[pinId] = lineNumber;
+				assignedNames[pinId] = placement.name;
+			} else if (!assignedNames[pinId].equals(placement.name)) {
+				report(new Diagnostic(DiagnosticType.PIN_CONFLICT, lineNumber, placement.statementType, placement.name, index.getName(pinId), null, assignedNames[pinId], assignedLines[pinId]));
+			}
+		}
+	}
+
+	/**
+	 * Validate the next line of a file. Lines are numbered in the order they
+	 * are processed
+	 * 
+	 * @param line
+	 * @param scanner
+	 *            A UCF scanner, reused for each line
+	 */
+	public void processLine(CharSequence line, UCFScanner scanner) {
+		lineCount++;
+		scanLine(line, lineCount, scanner, index, linePlacements);
+
+		for (PinPlacement placement : linePlacements) {
+			place(placement, 0);
+		}
+
+		linePlacements.clear();
+	}
+
+	/**
+	 * Count a diagnostic and send it to the listener
+	 * 
+	 * @param diagnostic
+	 */
+	private void report(Diagnostic diagnostic) {
+		diagnosticCount++;
+
+		if (listener != null) {
+			listener.diagnostic(diagnostic);
+		}
+	}
+}
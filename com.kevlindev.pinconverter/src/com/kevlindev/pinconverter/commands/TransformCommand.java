@@ -4,15 +4,27 @@
  */
 package com.kevlindev.pinconverter.commands;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.util.Map;
-import java.util.Scanner;
-import java.util.regex.Matcher;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.List;
 
 import com.kevlindev.logging.Logger;
 import com.kevlindev.pinconverter.ExecutionContext;
-import com.kevlindev.pinconverter.PinConverter;
+import com.kevlindev.pinconverter.cache.CacheKey;
+import com.kevlindev.pinconverter.cache.ResultCache;
+import com.kevlindev.pinconverter.model.PinTranslation;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
 import com.kevlindev.utils.StringUtils;
 
 /**
@@ -31,68 +43,383 @@ public class TransformCommand implements ICommand {
 	 */
 	@Override
 	public boolean execute(ExecutionContext context) {
-		StringBuilder buffer = new StringBuilder();
+		// without a source board, the source board is inferred from the pins
+		// used by the input
+		boolean result = context.isSourceBoardSet() || context.getDestinationBoardName() == null || InferBoardCommand.inferSourceBoard(context);
+
+		if (result) {
+			String file = context.getInputFileName();
+			List<String> fileNames = context.getInputFileNames();
+
+			// a single file replaced in place is a batch of one, since only
+			// batches write over their inputs
+			boolean batch = FileBatch.isBatch(fileNames) || (context.isInPlace() && fileNames != null && !fileNames.isEmpty());
+
+			// batches write many outputs, so they are not cached
+			CacheKey key = (batch) ? null : context.createCacheKey("transform", file);
+
+			if (batch) {
+				result = transformBatch(context, fileNames);
+			} else if (!context.outputCachedResult(key)) {
+				result = transform(context, file, key);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Transform the current line of the reader and write it, followed by an
+	 * end of line, to the output. The LOC value of each NET and INST statement
+	 * on the line that names a pin is replaced. Everything else is written
+	 * untouched.
+	 * 
+	 * @param reader
+	 *            The reader positioned on the line to process
+	 * @param scanner
+	 *            A UCF scanner, reused for each line
+	 * @param translation
+	 *            The table translating source board FPGA pin names to
+	 *            destination board FPGA pin names
+	 * @param output
+	 * @throws IOException
+	 */
+	protected void processLine(LineReader reader, UCFScanner scanner, PinTranslation translation, Writer output) throws IOException {
+		char[] line = reader.getChars();
+		CharSequence view = reader.getLine();
+		int written = 0;
+
+		scanner.reset(view);
+
+		while (scanner.next()) {
+			if (scanner.hasPinLocation()) {
+				int start = scanner.getLocationStart();
+				int end = scanner.getLocationEnd();
+				String replacement = translation.translate(view, start, end);
+
+				// the pin names are the only parts of the line that change
+				if (replacement != null) {
+					output.write(line, written, start - written);
+					output.write(replacement);
+					written = end;
+				}
+			}
+		}
+
+		output.write(line, written, reader.getLength() - written);
+		output.write(StringUtils.EOL);
+	}
+
+	/**
+	 * Transform the specified file, send the result to the output, and cache
+	 * the result. Files are transformed as bytes when the platform's encoding
+	 * allows it; otherwise, they are decoded and transformed one line at a
+	 * time. Files transformed as bytes are split into chunks that are
+	 * transformed in parallel when more than one thread is requested
+	 * 
+	 * @param context
+	 * @param file
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @return boolean
+	 */
+	protected boolean transform(ExecutionContext context, String file, CacheKey key) {
+		Charset charset = Charset.defaultCharset();
+		boolean fits = context.getThreadCount() > 1 || new File(file).length() <= MappedTransformer.MAX_SIZE;
+		boolean result;
+
+		if (MappedTransformer.isSupported(charset) && fits) {
+			result = transformMapped(context, file, key, charset);
+		} else {
+			result = transformStream(context, file, key);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Transform a list of files, directories, and glob patterns, writing each
+	 * output to the output directory or, in place, over its input. Files are
+	 * transformed on a pool of threads, all sharing one translation table. A
+	 * summary of each file is printed once all files are done
+	 * 
+	 * @param context
+	 * @param fileNames
+	 * @return boolean
+	 */
+	protected boolean transformBatch(ExecutionContext context, List<String> fileNames) {
+		List<BatchFile> files = FileBatch.expand(fileNames);
+		final File directory = (context.isInPlace() || !context.isOutputToFile()) ? null : new File(context.getOutputFileName());
+		List<String> conflicts = FileBatch.findOutputConflicts(files, directory);
 		boolean result = false;
 
-		String file = context.getInputFileName();
-		Scanner scanner = null;
+		if (!context.isInPlace() && !context.isOutputToFile()) {
+			Logger.logError("An output directory or --inPlace is required to transform more than one file");
+		} else if (files.isEmpty()) {
+			Logger.logError("No input files found: " + StringUtils.join(" ", fileNames));
+		} else if (!conflicts.isEmpty()) {
+			// outputs written at the same time would silently replace each
+			// other
+			for (String conflict : conflicts) {
+				Logger.logError(conflict);
+			}
+		} else {
+			final PinTranslation translation = context.getPinTranslation();
+			final Charset charset = Charset.defaultCharset();
+
+			FileBatch batch = new FileBatch() {
+				@Override
+				protected void process(BatchFile file, List<String> errors) throws IOException {
+					transformFile(file.getFile(), translation, charset, file.getOutputFile(directory));
+				}
+			};
+
+			result = batch.run(files, context.getThreadCount());
+
+			System.out.println(batch.getReport());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Transform a file on several threads. The file is split into chunks at
+	 * line boundaries and each chunk is transformed into memory. Chunks are
+	 * written to the output in file order
+	 * 
+	 * @param file
+	 * @param translation
+	 *            The table translating source board FPGA pin names to
+	 *            destination board FPGA pin names, shared by all threads
+	 * @param charset
+	 *            The character set of the file. This must be supported by
+	 *            MappedTransformer
+	 * @param threadCount
+	 * @param chunkSize
+	 * @param output
+	 * @throws IOException
+	 */
+	protected void transformChunks(File file, final PinTranslation translation, final Charset charset, int threadCount, int chunkSize, WritableByteChannel output) throws IOException {
+		final OutputStream stream = Channels.newOutputStream(output);
+		FileChunks chunks = new FileChunks(file, chunkSize);
+
+		try {
+			new ChunkProcessor<ByteArrayOutputStream>() {
+				@Override
+				protected void complete(int index, ByteArrayOutputStream result) throws IOException {
+					result.writeTo(stream);
+				}
+
+				@Override
+				protected ByteArrayOutputStream process(FileChunks chunks, int index) throws IOException {
+					ByteArrayOutputStream result = new ByteArrayOutputStream(chunks.getSize(index));
+
+					new MappedTransformer(translation, charset).transform(chunks.getChannel(), chunks.getOffset(index), chunks.map(index), Channels.newChannel(result));
+
+					return result;
+				}
+			}.run(chunks, threadCount);
+		} finally {
+			chunks.close();
+		}
+	}
+
+	/**
+	 * Transform a file on the calling thread, writing the result to a
+	 * temporary file that then replaces the output file. The output may be the
+	 * input file itself, in which case the input is read as a stream. A mapped
+	 * file stays open until its buffer is garbage collected, and some
+	 * platforms will not replace a file that is still mapped
+	 * 
+	 * @param input
+	 * @param translation
+	 *            The table translating source board FPGA pin names to
+	 *            destination board FPGA pin names
+	 * @param charset
+	 *            The character set of the file
+	 * @param output
+	 * @throws IOException
+	 */
+	protected void transformFile(File input, PinTranslation translation, Charset charset, File output) throws IOException {
+		File directory = output.getAbsoluteFile().getParentFile();
+
+		// several threads may create the same directory
+		if (!directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Unable to create directory: " + directory);
+		}
+
+		File temporaryFile = File.createTempFile("pinconv", ".tmp", directory);
+		boolean inPlace = input.getCanonicalFile().equals(output.getCanonicalFile());
 
 		try {
-			Map<String, String> pinMap = context.getPinMap();
+			if (!inPlace && MappedTransformer.isSupported(charset) && input.length() <= MappedTransformer.MAX_SIZE) {
+				FileOutputStream stream = new FileOutputStream(temporaryFile);
 
-			scanner = new Scanner(new FileReader(file));
+				try {
+					new MappedTransformer(translation, charset).transform(input, stream.getChannel());
+				} finally {
+					stream.close();
+				}
+			} else {
+				LineReader reader = new LineReader(new FileReader(input));
+
+				try {
+					Writer writer = new BufferedWriter(new FileWriter(temporaryFile));
 
-			// first use a Scanner to get each line
-			while (scanner.hasNextLine()) {
-				buffer.append(processLine(scanner.nextLine(), pinMap));
-				buffer.append(StringUtils.EOL);
+					try {
+						UCFScanner scanner = new UCFScanner();
+
+						while (reader.next()) {
+							processLine(reader, scanner, translation, writer);
+						}
+					} finally {
+						writer.close();
+					}
+				} finally {
+					reader.close();
+				}
+			}
+
+			// renaming over an existing file fails on some platforms
+			if (!temporaryFile.renameTo(output) && !(output.delete() && temporaryFile.renameTo(output))) {
+				throw new IOException("Unable to replace " + output);
+			}
+		} finally {
+			if (temporaryFile.exists()) {
+				temporaryFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Transform the specified file as bytes, copying unchanged spans of the
+	 * file straight to the output. When caching is enabled, the result is
+	 * written to a new cache entry, which is then copied to the output
+	 * 
+	 * @param context
+	 * @param file
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @param charset
+	 * @return boolean
+	 */
+	protected boolean transformMapped(ExecutionContext context, String file, CacheKey key, Charset charset) {
+		ResultCache cache = (key != null) ? context.getResultCache() : null;
+		File entryFile = null;
+		WritableByteChannel output = null;
+		boolean result = false;
+
+		try {
+			if (cache != null) {
+				entryFile = cache.createEntryFile();
+				output = new FileOutputStream(entryFile).getChannel();
+			} else {
+				output = context.openOutputChannel();
+			}
+
+			if (context.getThreadCount() > 1) {
+				transformChunks(new File(file), context.getPinTranslation(), charset, context.getThreadCount(), FileChunks.DEFAULT_CHUNK_SIZE, output);
+			} else {
+				new MappedTransformer(context.getPinTranslation(), charset).transform(new File(file), output);
 			}
 
 			result = true;
 		} catch (FileNotFoundException e) {
 			Logger.logError("File not found: " + file);
+		} catch (IOException e) {
+			e.printStackTrace();
 		} finally {
-			if (scanner != null) {
-				scanner.close();
+			if (entryFile != null) {
+				if (output != null) {
+					try {
+						output.close();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			} else {
+				context.closeOutputChannel(output);
 			}
 		}
 
-		context.outputResult(buffer.toString());
+		if (entryFile != null) {
+			storeEntry(context, cache, key, entryFile, result);
+		}
 
 		return result;
 	}
 
 	/**
-	 * Transform the specified line. Lines that do not match the NET-LOC pattern
-	 * are left untouched.
+	 * Copy a transformed cache entry to the output and, if the transform
+	 * succeeded, store it in the cache. Failed entries are discarded
 	 * 
-	 * @param line
-	 *            The line to process
-	 * @param pinMap
-	 *            A map of source board FPGA pin names to destinatin board FPGA
-	 *            names
-	 * @return A string of a the transformed line or the original line value if
-	 *         no transformation took place
+	 * @param context
+	 * @param cache
+	 * @param key
+	 * @param entryFile
+	 * @param succeeded
 	 */
-	protected String processLine(String line, Map<String, String> pinMap) {
-		Matcher matcher = PinConverter.NET_PATTERN.matcher(line);
-		StringBuffer sb = new StringBuffer();
+	private void storeEntry(ExecutionContext context, ResultCache cache, CacheKey key, File entryFile, boolean succeeded) {
+		try {
+			context.outputCachedResult(entryFile, null);
 
-		while (matcher.find()) {
-			String headerPinName = matcher.group(2);
-			String replacement;
+			if (succeeded) {
+				cache.put(key, entryFile);
+			}
+		} catch (IOException e) {
+			Logger.logError("Unable to write to result cache: " + e.getMessage());
+		} finally {
+			if (entryFile.exists()) {
+				entryFile.delete();
+			}
+		}
+	}
 
-			if (pinMap.containsKey(headerPinName)) {
-				replacement = pinMap.get(headerPinName);
-			} else {
-				replacement = headerPinName;
+	/**
+	 * Transform the specified file one line at a time, streaming the result to
+	 * the output and, if caching is enabled, to the cache. Memory use does not
+	 * depend on the size of the file
+	 * 
+	 * @param context
+	 * @param file
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @return boolean
+	 */
+	protected boolean transformStream(ExecutionContext context, String file, CacheKey key) {
+		boolean result = false;
+		Writer output = null;
+		LineReader reader = null;
+
+		try {
+			PinTranslation translation = context.getPinTranslation();
+			UCFScanner scanner = new UCFScanner();
+
+			output = context.openOutput(key);
+			reader = new LineReader(new FileReader(file));
+
+			while (reader.next()) {
+				processLine(reader, scanner, translation, output);
 			}
 
-			matcher.appendReplacement(sb, matcher.group(1) + replacement + matcher.group(3));
-		}
+			result = true;
+		} catch (FileNotFoundException e) {
+			Logger.logError("File not found: " + file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) { // $codepro.audit.disable
+											// emptyCatchClause
+				}
+			}
 
-		matcher.appendTail(sb);
+			// only complete results are cached
+			context.closeOutput(output, result);
+		}
 
-		return sb.toString();
+		return result;
 	}
 }
@@ -0,0 +1,335 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.commands;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.cache.CacheKey;
+import com.kevlindev.pinconverter.model.PinIndex;
+import com.kevlindev.pinconverter.parsing.UCFScanner;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * ValidateCommand
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class ValidateCommand implements ICommand {
+	/**
+	 * Create a listener that formats each diagnostic with its file and line
+	 * and adds it to a list
+	 * 
+	 * @param file
+	 * @param messages
+	 * @return IDiagnosticListener
+	 */
+	protected static IDiagnosticListener createListener(final String file, final List<String> messages) {
+		return new IDiagnosticListener() {
+			@Override
+			public void diagnostic(Diagnostic diagnostic) {
+				messages.add(getMessage(file, diagnostic));
+			}
+		};
+	}
+
+	/**
+	 * Create a listener that logs each diagnostic, with its file and line, as
+	 * an error
+	 * 
+	 * @param file
+	 * @return IDiagnosticListener
+	 */
+	protected static IDiagnosticListener createLogger(final String file) {
+		return new IDiagnosticListener() {
+			@Override
+			public void diagnostic(Diagnostic diagnostic) {
+				Logger.logError(getMessage(file, diagnostic));
+			}
+		};
+	}
+
+	/**
+	 * Format a diagnostic with its file and line
+	 * 
+	 * @param file
+	 * @param diagnostic
+	 * @return String
+	 */
+	protected static String getMessage(String file, Diagnostic diagnostic) {
+		return file + ":" + diagnostic.getLineNumber() + ": " + diagnostic.getMessage();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.papilio.ICommand#execute(com.kevlindev.papilio.ExecutionContext
+	 * )
+	 */
+	@Override
+	public boolean execute(ExecutionContext context) {
+		boolean batch = FileBatch.isBatch(context.getInputFileNames());
+
+		// batches are not cached
+		CacheKey key = (batch) ? null : context.createCacheKey("validate", context.getInputFileName());
+		boolean result;
+
+		if (key != null) {
+			// the file name is part of the result message
+			key.add(context.getInputFileName());
+		}
+
+		// only successful validations are cached, so failures are always
+		// reported in full
+		if (batch) {
+			result = validateBatch(context, context.getInputFileNames());
+		} else if (context.outputCachedResult(key)) {
+			result = true;
+		} else {
+			result = validate(context, key);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Validate the input file and report the result
+	 * 
+	 * @param context
+	 * @param key
+	 *            The key of the result. This may be null
+	 * @return boolean
+	 */
+	protected boolean validate(ExecutionContext context, CacheKey key) {
+		String file = context.getInputFileName();
+		PinIndex index = PinIndex.compile(context.getSourceBoard());
+		Charset charset = Charset.defaultCharset();
+		boolean result = false;
+
+		try {
+			if (context.getThreadCount() > 1 && MappedTransformer.isSupported(charset)) {
+				result = validateChunks(new File(file), index, charset, context.getThreadCount(), FileChunks.DEFAULT_CHUNK_SIZE, createLogger(file));
+			} else {
+				result = validateStream(file, new PinValidator(index, createLogger(file)));
+			}
+		} catch (FileNotFoundException e) {
+			Logger.logError("File not found: " + file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		if (result) {
+			// @formatter:off
+			String message = MessageFormat.format(
+				"All pins in file ''{0}'' are valid for the {1} board",
+				context.getInputFileName(),
+				context.getSourceBoardName()
+			);
+			// @formatter:on
+
+			context.outputResult(message);
+			context.cacheResult(key, message);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Validate a list of files, directories, and glob patterns on a pool of
+	 * threads, all sharing one pin index. Problems are reported in file order,
+	 * followed by the files that are valid and a summary of each file
+	 * 
+	 * @param context
+	 * @param fileNames
+	 * @return Returns true if all files are valid
+	 */
+	protected boolean validateBatch(final ExecutionContext context, List<String> fileNames) {
+		List<BatchFile> files = FileBatch.expand(fileNames);
+		boolean result = false;
+
+		if (files.isEmpty()) {
+			Logger.logError("No input files found: " + StringUtils.join(" ", fileNames));
+		} else {
+			final PinIndex index = PinIndex.compile(context.getSourceBoard());
+			final StringBuilder buffer = new StringBuilder();
+
+			FileBatch batch = new FileBatch() {
+				@Override
+				protected void complete(BatchFile file, boolean succeeded) {
+					if (succeeded) {
+						// @formatter:off
+						buffer.append(MessageFormat.format(
+							"All pins in file ''{0}'' are valid for the {1} board",
+							file,
+							context.getSourceBoardName()
+						)).append(StringUtils.EOL);
+						// @formatter:on
+					}
+				}
+
+				@Override
+				protected void process(BatchFile file, List<String> errors) throws IOException {
+					String path = file.getFile().getPath();
+
+					validateStream(path, new PinValidator(index, createListener(path, errors)));
+				}
+			};
+
+			result = batch.run(files, context.getThreadCount());
+
+			if (buffer.length() > 0) {
+				context.outputResult(buffer.toString());
+			}
+
+			System.out.println(batch.getReport());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Find the placements in a single chunk of a file
+	 * 
+	 * @param chunks
+	 * @param index
+	 *            The index of the chunk
+	 * @param pinIndex
+	 * @param charset
+	 * @param placements
+	 *            The list receiving the placements. Line numbers are relative
+	 *            to the start of the chunk
+	 * @return The number of lines in the chunk
+	 * @throws IOException
+	 */
+	protected int scanChunk(FileChunks chunks, int index, PinIndex pinIndex, Charset charset, List<PinPlacement> placements) throws IOException {
+		ByteBuffer bytes = chunks.map(index);
+		UCFScanner scanner = new UCFScanner();
+		AsciiLine asciiLine = new AsciiLine();
+		int size = bytes.limit();
+		int lineStart = 0;
+		int result = 0;
+
+		while (lineStart < size) {
+			int lineEnd = lineStart;
+			boolean ascii = true;
+			byte b;
+
+			while (lineEnd < size && (b = bytes.get(lineEnd)) != '\n' && b != '\r') {
+				ascii &= b >= 0;
+				lineEnd++;
+			}
+
+			result++;
+
+			if (ascii) {
+				asciiLine.reset(bytes, lineStart, lineEnd);
+				PinValidator.scanLine(asciiLine, result, scanner, pinIndex, placements);
+			} else {
+				ByteBuffer line = bytes.duplicate();
+
+				line.limit(lineEnd).position(lineStart);
+				PinValidator.scanLine(charset.decode(line), result, scanner, pinIndex, placements);
+			}
+
+			// chunks never split a CR LF pair, which ends a single line
+			if (lineEnd + 1 < size && bytes.get(lineEnd) == '\r' && bytes.get(lineEnd + 1) == '\n') {
+				lineEnd++;
+			}
+
+			lineStart = lineEnd + 1;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Validate a file on several threads. The file is split into chunks at
+	 * line boundaries, which are scanned at the same time. Their placements
+	 * are then checked in line order on the calling thread
+	 * 
+	 * @param file
+	 * @param pinIndex
+	 * @param charset
+	 *            The character set of the file. This must be supported by
+	 *            MappedTransformer
+	 * @param threadCount
+	 * @param chunkSize
+	 * @param listener
+	 *            The listener receiving diagnostics
+	 * @return Returns true if there were no diagnostics
+	 * @throws IOException
+	 */
+	protected boolean validateChunks(File file, final PinIndex pinIndex, final Charset charset, int threadCount, int chunkSize, IDiagnosticListener listener) throws IOException {
+		final PinValidator validator = new PinValidator(pinIndex, listener);
+		final int[] lineOffset = { 0 };
+		FileChunks chunks = new FileChunks(file, chunkSize);
+		final int[] lineCounts = new int[chunks.getCount()];
+
+		try {
+			new ChunkProcessor<List<PinPlacement>>() {
+				@Override
+				protected void complete(int index, List<PinPlacement> placements) {
+					for (PinPlacement placement : placements) {
+						validator.place(placement, lineOffset[0]);
+					}
+
+					lineOffset[0] += lineCounts[index];
+				}
+
+				@Override
+				protected List<PinPlacement> process(FileChunks chunks, int index) throws IOException {
+					List<PinPlacement> result = new ArrayList<PinPlacement>();
+
+					lineCounts[index] = scanChunk(chunks, index, pinIndex, charset, result);
+
+					return result;
+				}
+			}.run(chunks, threadCount);
+		} finally {
+			chunks.close();
+		}
+
+		return validator.getDiagnosticCount() == 0;
+	}
+
+	/**
+	 * Validate a file one line at a time on the calling thread
+	 * 
+	 * @param file
+	 * @param validator
+	 * @return Returns true if the validator reported no diagnostics
+	 * @throws IOException
+	 */
+	protected boolean validateStream(String file, PinValidator validator) throws IOException {
+		LineReader reader = new LineReader(new FileReader(file));
+
+		try {
+			UCFScanner scanner = new UCFScanner();
+
+			while (reader.next()) {
+				validator.processLine(reader.getLine(), scanner);
+			}
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) { // $codepro.audit.disable
+										// emptyCatchClause
+			}
+		}
+
+		return validator.getDiagnosticCount() == 0;
+	}
+}
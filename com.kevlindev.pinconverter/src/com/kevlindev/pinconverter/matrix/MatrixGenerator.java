@@ -0,0 +1,355 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.matrix;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.model.BoardOverlay;
+import com.kevlindev.pinconverter.model.Configuration;
+import com.kevlindev.pinconverter.model.ConstraintFormat;
+import com.kevlindev.pinconverter.model.ConstraintGenerator;
+
+/**
+ * MatrixGenerator writes the constraint files for every job in a plan using a
+ * fixed pool of threads. All boards and wings are looked up before any thread
+ * starts, so the registries are only read while jobs run. Each job places its
+ * wings on its own overlay and writes its own files, so jobs share nothing
+ * but the read-only boards. Results are collected in plan order, which keeps
+ * the output and any error messages the same from run to run.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class MatrixGenerator {
+	/**
+	 * The directory receiving all generated files
+	 */
+	private final File directory;
+
+	/**
+	 * The formats written for each job
+	 */
+	private final List<ConstraintFormat> formats;
+
+	/**
+	 * The configuration used for each job
+	 */
+	private final Set<Configuration> configuration;
+
+	/**
+	 * The number of threads generating files
+	 */
+	private final int threadCount;
+
+	/**
+	 * Error messages from the last run, in plan order
+	 */
+	private final List<String> errors = new ArrayList<String>();
+
+	/**
+	 * The number of combinations generated in the last run
+	 */
+	private int combinationCount;
+
+	/**
+	 * The number of files written in the last run
+	 */
+	private int fileCount;
+
+	/**
+	 * The number of bytes written in the last run
+	 */
+	private long byteCount;
+
+	/**
+	 * The duration of the last run, in milliseconds
+	 */
+	private long elapsedTime;
+
+	/**
+	 * MatrixGenerator
+	 *
+	 * @param directory
+	 * @param formats
+	 * @param configuration
+	 * @param threadCount
+	 *            The number of threads to use. If this is less than 1, one
+	 *            thread per available processor is used
+	 */
+	public MatrixGenerator(File directory, List<ConstraintFormat> formats, Set<Configuration> configuration, int threadCount) {
+		this.directory = directory;
+		this.formats = formats;
+		this.configuration = configuration;
+		this.threadCount = (threadCount > 0) ? threadCount : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Write the files for a single job
+	 *
+	 * @param job
+	 * @param board
+	 * @param wings
+	 *            The wing for each of the job's placements
+	 * @return The number of bytes written
+	 * @throws IOException
+	 */
+	private long generate(MatrixJob job, Board board, List<Board> wings) throws IOException {
+		List<Writer> outputs = new ArrayList<Writer>();
+		List<File> files = new ArrayList<File>();
+		long result = 0;
+
+		// place wings on an overlay so the shared board is left untouched
+		BoardOverlay overlay = new BoardOverlay(board);
+
+		for (int i = 0; i < wings.size(); i++) {
+			overlay.placeWing(wings.get(i), job.getPlacements().get(i).first);
+		}
+
+		try {
+			ConstraintGenerator generator = new ConstraintGenerator(configuration);
+
+			for (ConstraintFormat format : formats) {
+				File file = new File(directory, job.getFileName() + format.getExtension());
+				Writer output = new BufferedWriter(new FileWriter(file));
+
+				files.add(file);
+				outputs.add(output);
+				generator.addEmitter(format.createEmitter(output, configuration));
+			}
+
+			generator.writeHeaders(board, job.getBoardName());
+			generator.writeRows(overlay, null);
+		} finally {
+			for (Writer output : outputs) {
+				output.close();
+			}
+		}
+
+		for (File file : files) {
+			result += file.length();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Write the files for every job in the plan
+	 *
+	 * @param plan
+	 * @param boards
+	 * @param wings
+	 * @return Returns true if every job succeeded
+	 */
+	public boolean generate(MatrixPlan plan, BoardRegistry boards, BoardRegistry wings) {
+		long start = System.currentTimeMillis();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		List<MatrixJob> jobs = plan.getJobs();
+		List<Future<Long>> results = new ArrayList<Future<Long>>();
+		List<String> lookupErrors = new ArrayList<String>();
+
+		errors.clear();
+		combinationCount = 0;
+		fileCount = 0;
+		byteCount = 0;
+
+		List<List<Board>> boardLists = new ArrayList<List<Board>>();
+
+		// registry lookups may create boards, which changes the registry that
+		// resolving boards reads, so every board is created, as enumerate
+		// does, and every job's boards are resolved before any job is running
+		boards.getBoards();
+		wings.getBoards();
+
+		for (MatrixJob job : jobs) {
+			List<Board> jobBoards = new ArrayList<Board>();
+
+			lookupErrors.add(getBoards(job, boards, wings, jobBoards));
+			boardLists.add(jobBoards);
+		}
+
+		try {
+			// submit in plan order
+			for (int i = 0; i < jobs.size(); i++) {
+				results.add((lookupErrors.get(i) == null) ? submit(executor, jobs.get(i), boardLists.get(i)) : null);
+			}
+
+			for (int i = 0; i < jobs.size(); i++) {
+				String fileName = jobs.get(i).getFileName();
+
+				if (lookupErrors.get(i) != null) {
+					errors.add(lookupErrors.get(i));
+				} else {
+					try {
+						byteCount += results.get(i).get();
+						combinationCount++;
+						fileCount += formats.size();
+					} catch (ExecutionException e) {
+						Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+
+						errors.add(MessageFormat.format("Unable to generate ''{0}'': {1}", fileName, cause.getMessage()));
+					} catch (InterruptedException e) {
+						errors.add(MessageFormat.format("Interrupted while generating ''{0}''", fileName));
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		elapsedTime = System.currentTimeMillis() - start;
+
+		return errors.isEmpty();
+	}
+
+	/**
+	 * Look up the board and wings for a job
+	 *
+	 * @param job
+	 * @param boards
+	 * @param wings
+	 * @param jobBoards
+	 *            The list receiving the board followed by the wing for each
+	 *            placement
+	 * @return An error message or null if all boards are defined
+	 */
+	private String getBoards(MatrixJob job, BoardRegistry boards, BoardRegistry wings, List<Board> jobBoards) {
+		String result = null;
+
+		if (boards.contains(job.getBoardName())) {
+			jobBoards.add(boards.getBoard(job.getBoardName()));
+
+			for (Tuple<String, String> placement : job.getPlacements()) {
+				if (wings.contains(placement.last)) {
+					jobBoards.add(wings.getBoard(placement.last));
+				} else if (result == null) {
+					result = MessageFormat.format("Unable to generate ''{0}''. The wing ''{1}'' is not defined", job.getFileName(), placement.last);
+				}
+			}
+
+			// resolving a board looks up its parents in the registry, so each
+			// board is resolved now rather than by the thread generating it
+			for (Board board : jobBoards) {
+				board.getBusCount();
+			}
+		} else {
+			result = MessageFormat.format("Unable to generate ''{0}''. The board ''{1}'' is not defined", job.getFileName(), job.getBoardName());
+		}
+
+		return result;
+	}
+
+	/**
+	 * getByteCount
+	 *
+	 * @return The number of bytes written in the last run
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * getCombinationCount
+	 *
+	 * @return The number of combinations generated in the last run
+	 */
+	public int getCombinationCount() {
+		return combinationCount;
+	}
+
+	/**
+	 * getElapsedTime
+	 *
+	 * @return The duration of the last run, in milliseconds
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * getErrors
+	 *
+	 * @return Error messages from the last run, in plan order
+	 */
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * getFileCount
+	 *
+	 * @return The number of files written in the last run
+	 */
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	/**
+	 * Return a summary of the last run's throughput
+	 *
+	 * @return String
+	 */
+	public String getReport() {
+		// avoid dividing by zero on very fast runs
+		double seconds = Math.max(elapsedTime, 1) / 1000.0;
+
+		// @formatter:off
+		return String.format(
+			"Generated %d files for %d combinations in %d ms on %d threads (%.1f combinations/s, %.1f files/s, %.2f MB/s)",
+			fileCount,
+			combinationCount,
+			elapsedTime,
+			threadCount,
+			combinationCount / seconds,
+			fileCount / seconds,
+			byteCount / seconds / (1024 * 1024)
+		);
+		// @formatter:on
+	}
+
+	/**
+	 * getThreadCount
+	 *
+	 * @return int
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Submit a job to the executor
+	 *
+	 * @param executor
+	 * @param job
+	 * @param jobBoards
+	 *            The board followed by the wing for each placement
+	 * @return Future<Long>
+	 */
+	private Future<Long> submit(ExecutorService executor, final MatrixJob job, final List<Board> jobBoards) {
+		return executor.submit(new Callable<Long>() {
+			@Override
+			public Long call() throws IOException {
+				return generate(job, jobBoards.get(0), jobBoards.subList(1, jobBoards.size()));
+			}
+		});
+	}
+}
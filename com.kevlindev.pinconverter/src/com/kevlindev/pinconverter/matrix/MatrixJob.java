@@ -0,0 +1,93 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.matrix;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.kevlindev.collections.Tuple;
+
+/**
+ * MatrixJob is a single board and wing placement combination to generate.
+ * Jobs are immutable, so they can be handed to any thread.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class MatrixJob {
+	/**
+	 * The name of the board
+	 */
+	private final String boardName;
+
+	/**
+	 * Tuples of the location of the first pin each wing covers and the wing
+	 * name, in placement order
+	 */
+	private final List<Tuple<String, String>> placements;
+
+	/**
+	 * The name of the generated files, without an extension
+	 */
+	private final String fileName;
+
+	/**
+	 * MatrixJob
+	 *
+	 * @param boardName
+	 * @param placements
+	 * @param fileName
+	 */
+	public MatrixJob(String boardName, List<Tuple<String, String>> placements, String fileName) {
+		this.boardName = boardName;
+		this.placements = Collections.unmodifiableList(placements);
+		this.fileName = fileName;
+	}
+
+	/**
+	 * getBoardName
+	 *
+	 * @return String
+	 */
+	public String getBoardName() {
+		return boardName;
+	}
+
+	/**
+	 * getFileName
+	 *
+	 * @return The name of the generated files, without an extension
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * getPlacements
+	 *
+	 * @return An unmodifiable list of tuples of the location of the first pin
+	 *         each wing covers and the wing name
+	 */
+	public List<Tuple<String, String>> getPlacements() {
+		return placements;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buffer = new StringBuilder(boardName);
+
+		for (int i = 0; i < placements.size(); i++) {
+			buffer.append((i == 0) ? " | " : ";");
+			buffer.append(placements.get(i).last).append("->").append(placements.get(i).first);
+		}
+
+		return buffer.toString();
+	}
+}
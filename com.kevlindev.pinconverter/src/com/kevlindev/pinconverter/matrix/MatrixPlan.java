@@ -0,0 +1,225 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.matrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.pinconverter.model.Board;
+import com.kevlindev.pinconverter.model.Bus;
+import com.kevlindev.pinconverter.switches.PlaceWingSwitch;
+
+/**
+ * MatrixPlan is the ordered list of board and wing placement combinations
+ * generated in one matrix run. A plan is either enumerated from the loaded
+ * registries or read from a spec file. Each job is given a unique file name up
+ * front, so the files written by a run do not depend on the order in which
+ * jobs finish.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class MatrixPlan {
+	/**
+	 * The number of slots in half of a wing header. Wings are placed on the low
+	 * or high half of a bus, just as with --placeWing
+	 */
+	private static final int HALF_HEADER_SIZE = 8;
+
+	/**
+	 * Characters that may not appear in a generated file name
+	 */
+	private static final Pattern UNSAFE_FILE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9_.-]+");
+
+	/**
+	 * Orders boards by their primary name
+	 */
+	private static final Comparator<Board> BY_NAME = new Comparator<Board>() {
+		@Override
+		public int compare(Board a, Board b) {
+			return a.getNames().get(0).compareToIgnoreCase(b.getNames().get(0));
+		}
+	};
+
+	/**
+	 * Create a plan with every board on its own and every board with each wing
+	 * placed at each location where it fits
+	 *
+	 * @param boards
+	 * @param wings
+	 * @return MatrixPlan
+	 */
+	public static MatrixPlan enumerate(BoardRegistry boards, BoardRegistry wings) {
+		MatrixPlan result = new MatrixPlan();
+		List<Board> sortedBoards = new ArrayList<Board>(boards.getBoards());
+		List<Board> sortedWings = new ArrayList<Board>(wings.getBoards());
+
+		Collections.sort(sortedBoards, BY_NAME);
+		Collections.sort(sortedWings, BY_NAME);
+
+		for (Board board : sortedBoards) {
+			String boardName = board.getNames().get(0);
+
+			result.addJob(boardName, new ArrayList<Tuple<String, String>>());
+
+			for (Board wing : sortedWings) {
+				String wingName = wing.getNames().get(0);
+
+				for (String location : getLocations(board, wing)) {
+					List<Tuple<String, String>> placements = new ArrayList<Tuple<String, String>>();
+
+					placements.add(new Tuple<String, String>(location, wingName));
+					result.addJob(boardName, placements);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return each location at which all multi-pin buses of the wing fit on the
+	 * board. The first bus is placed at the start of the low or high half of a
+	 * board bus and any remaining buses cover the board buses that follow it
+	 *
+	 * @param board
+	 * @param wing
+	 * @return List<String>
+	 */
+	static List<String> getLocations(Board board, Board wing) {
+		List<String> result = new ArrayList<String>();
+		List<Bus> wingBuses = new ArrayList<Bus>();
+
+		for (Bus wingBus : wing) {
+			if (wingBus.getPinCount() > 1) {
+				wingBuses.add(wingBus);
+			}
+		}
+
+		if (!wingBuses.isEmpty()) {
+			int firstSize = wingBuses.get(0).getPinCount();
+
+			for (int busIndex = 0; busIndex < board.getBusCount(); busIndex++) {
+				Bus bus = board.getBus(busIndex);
+
+				for (int start = 0; start + firstSize <= bus.getPinCount(); start += HALF_HEADER_SIZE) {
+					boolean fits = true;
+
+					for (int i = 1; i < wingBuses.size() && fits; i++) {
+						Bus next = (busIndex + i < board.getBusCount()) ? board.getBus(busIndex + i) : null;
+
+						fits = next != null && wingBuses.get(i).getPinCount() <= next.getPinCount();
+					}
+
+					if (fits) {
+						result.add(bus.getName() + start);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create a plan from a spec file. Each line names a board, optionally
+	 * followed by '|' and a list of wing placements in the same form used by
+	 * --placeWing, e.g. "P1 | B/LED->AL;PS/2->BH". Blank lines and lines
+	 * starting with '#' are ignored
+	 *
+	 * @param reader
+	 * @return MatrixPlan
+	 * @throws IOException
+	 */
+	public static MatrixPlan read(Reader reader) throws IOException {
+		MatrixPlan result = new MatrixPlan();
+		BufferedReader input = new BufferedReader(reader);
+		String line;
+
+		while ((line = input.readLine()) != null) {
+			line = line.trim();
+
+			if (line.length() > 0 && !line.startsWith("#")) {
+				int bar = line.indexOf('|');
+				String boardName = (bar != -1) ? line.substring(0, bar).trim() : line;
+				List<Tuple<String, String>> placements;
+
+				if (bar != -1) {
+					placements = PlaceWingSwitch.getPlacements(line.substring(bar + 1));
+				} else {
+					placements = new ArrayList<Tuple<String, String>>();
+				}
+
+				result.addJob(boardName, placements);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The jobs in this plan, in output order
+	 */
+	private final List<MatrixJob> jobs = new ArrayList<MatrixJob>();
+
+	/**
+	 * The file names used so far, in lower case so names differing by case
+	 * only do not collide on case-insensitive file systems
+	 */
+	private final Set<String> fileNames = new HashSet<String>();
+
+	/**
+	 * Add a job, giving it a file name that is unique within this plan
+	 *
+	 * @param boardName
+	 * @param placements
+	 */
+	public void addJob(String boardName, List<Tuple<String, String>> placements) {
+		StringBuilder buffer = new StringBuilder(boardName);
+
+		for (Tuple<String, String> placement : placements) {
+			buffer.append('-').append(placement.last).append('-').append(placement.first);
+		}
+
+		String baseName = UNSAFE_FILE_NAME_CHARACTERS.matcher(buffer.toString()).replaceAll("_");
+		String fileName = baseName;
+
+		for (int i = 2; fileNames.contains(fileName.toLowerCase()); i++) {
+			fileName = baseName + "-" + i; // $codepro.audit.disable
+											// stringConcatenationInLoop
+		}
+
+		fileNames.add(fileName.toLowerCase());
+		jobs.add(new MatrixJob(boardName, placements, fileName));
+	}
+
+	/**
+	 * getJobs
+	 *
+	 * @return An unmodifiable List<MatrixJob>
+	 */
+	public List<MatrixJob> getJobs() {
+		return Collections.unmodifiableList(jobs);
+	}
+
+	/**
+	 * size
+	 *
+	 * @return int
+	 */
+	public int size() {
+		return jobs.size();
+	}
+}
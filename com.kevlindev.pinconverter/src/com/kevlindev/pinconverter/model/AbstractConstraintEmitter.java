@@ -0,0 +1,165 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * AbstractConstraintEmitter is the base of emitters that write lines of text.
+ * Each line is built in a reused buffer and handed to the writer as
+ * characters, so no strings are created per row.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public abstract class AbstractConstraintEmitter implements IConstraintEmitter {
+	/**
+	 * The destination of all output
+	 */
+	private final Writer writer;
+
+	/**
+	 * The configuration used to format rows
+	 */
+	protected final Set<Configuration> configuration;
+
+	/**
+	 * The buffer each line is built in
+	 */
+	protected final StringBuilder line = new StringBuilder();
+
+	/**
+	 * The characters of the current line, handed to the writer
+	 */
+	private char[] chars = new char[128];
+
+	/**
+	 * AbstractConstraintEmitter
+	 *
+	 * @param writer
+	 * @param configuration
+	 */
+	protected AbstractConstraintEmitter(Writer writer, Set<Configuration> configuration) {
+		this.writer = writer;
+		this.configuration = configuration;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.pinconverter.model.IConstraintEmitter#beginRows()
+	 */
+	@Override
+	public void beginRows() {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#measureRow(com.kevlindev
+	 * .pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void measureRow(ConstraintRow row) {
+	}
+
+	/**
+	 * Write text as is
+	 *
+	 * @param text
+	 * @throws IOException
+	 */
+	public void write(String text) throws IOException {
+		writer.write(text);
+	}
+
+	/**
+	 * Write the board's configs. Each config is written by writeConfig and a
+	 * blank line follows the configs, if there are any
+	 *
+	 * @param board
+	 * @throws IOException
+	 */
+	protected void writeConfigs(Board board) throws IOException {
+		List<Tuple<String, String>> configs = board.getConfigs();
+
+		if (!configs.isEmpty()) {
+			for (Tuple<String, String> config : configs) {
+				line.setLength(0);
+				writeConfig(config.first, config.last);
+			}
+
+			write(StringUtils.EOL);
+		}
+	}
+
+	/**
+	 * Write a single board config. By default, configs are written as
+	 * comments
+	 *
+	 * @param name
+	 * @param value
+	 *            The config value. This may be null
+	 * @throws IOException
+	 */
+	protected void writeConfig(String name, String value) throws IOException {
+		line.append("# CONFIG ").append(name);
+
+		if (value != null) {
+			line.append('=').append(value);
+		}
+
+		writeLine();
+	}
+
+	/**
+	 * Write the generated-by comments and the board's custom header
+	 *
+	 * @param formatName
+	 * @param board
+	 * @param boardName
+	 * @throws IOException
+	 */
+	protected void writeHeaderComments(String formatName, Board board, String boardName) throws IOException {
+		write("# " + formatName + " file for the " + boardName + " board" + StringUtils.EOL);
+		write("# Generated by pin_converter, written by Kevin Lindsey" + StringUtils.EOL);
+		write("# https://github.com/thelonious/papilio_pins/tree/development/pin_converter" + StringUtils.EOL);
+		write(StringUtils.EOL);
+
+		// emit custom header
+		String header = board.getHeader();
+
+		if (header != null && header.length() > 0) {
+			write(header);
+		}
+	}
+
+	/**
+	 * End the current line and write it without converting it to a string.
+	 * The line buffer is cleared afterwards
+	 *
+	 * @throws IOException
+	 */
+	protected void writeLine() throws IOException {
+		line.append(StringUtils.EOL);
+
+		int length = line.length();
+
+		if (chars.length < length) {
+			chars = new char[Math.max(chars.length * 2, length)];
+		}
+
+		line.getChars(0, length, chars, 0);
+		writer.write(chars, 0, length);
+		line.setLength(0);
+	}
+}
@@ -0,0 +1,379 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * AttributeSet is an immutable, ordered set of key/value pairs used for bus
+ * and pin additions. Sets are interned, so the many pins that share the same
+ * additions also share a single instance. The result of merging two sets and
+ * the UCF text for each set are computed once and cached. Interned sets and
+ * cached merges are only weakly referenced, so sets that are no longer used by
+ * any board, such as those of a cleared registry, can be garbage collected.
+ * Note that a pair containing a null value will emit the key name only
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class AttributeSet {
+	/**
+	 * The empty attribute set
+	 */
+	public static final AttributeSet EMPTY = new AttributeSet(new String[0], new String[0]);
+
+	/**
+	 * The pool of interned attribute sets. Values are weak too, since a strong
+	 * value would keep its own key alive
+	 */
+	private static final Map<AttributeSet, WeakReference<AttributeSet>> POOL = new WeakHashMap<AttributeSet, WeakReference<AttributeSet>>();
+
+	static {
+		POOL.put(EMPTY, new WeakReference<AttributeSet>(EMPTY));
+	}
+
+	/**
+	 * Return the set held by a weak reference
+	 *
+	 * @param reference
+	 *            The reference. This may be null
+	 * @return AttributeSet or null if there is no reference or its set has
+	 *         been collected
+	 */
+	private static AttributeSet get(WeakReference<AttributeSet> reference) {
+		return (reference != null) ? reference.get() : null;
+	}
+
+	/**
+	 * Return the shared attribute set with the same pairs, in the same order,
+	 * as the specified map
+	 *
+	 * @param attributes
+	 * @return AttributeSet or null if attributes is null
+	 */
+	public static AttributeSet intern(Map<String, String> attributes) {
+		AttributeSet result = null;
+
+		if (attributes instanceof AttributeSetMap) {
+			result = ((AttributeSetMap) attributes).getAttributeSet();
+		} else if (attributes != null) {
+			String[] keys = new String[attributes.size()];
+			String[] values = new String[attributes.size()];
+			int i = 0;
+
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				keys[i] = entry.getKey();
+				values[i] = entry.getValue();
+				i++;
+			}
+
+			result = intern(new AttributeSet(keys, values));
+		}
+
+		return result;
+	}
+
+	/**
+	 * intern
+	 *
+	 * @param candidate
+	 * @return AttributeSet
+	 */
+	private static AttributeSet intern(AttributeSet candidate) {
+		synchronized (POOL) {
+			AttributeSet result = get(POOL.get(candidate));
+
+			if (result == null) {
+				result = candidate;
+				POOL.put(result, new WeakReference<AttributeSet>(result));
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * Merge two attribute sets. Pairs from overrides replace pairs with the
+	 * same key in base, but keep base's ordering, just as Map#putAll does
+	 *
+	 * @param base
+	 *            The set to merge into. This may be null
+	 * @param overrides
+	 *            The set to merge. This may be null
+	 * @return AttributeSet or null if both sets are null
+	 */
+	public static AttributeSet merge(AttributeSet base, AttributeSet overrides) {
+		AttributeSet result;
+
+		if (base == null || base.size() == 0) {
+			result = (overrides != null) ? overrides : base;
+		} else if (overrides == null || overrides.size() == 0 || overrides == base) {
+			result = base;
+		} else {
+			synchronized (overrides.merges) {
+				result = get(overrides.merges.get(base));
+
+				if (result == null) {
+					Map<String, String> attributes = new LinkedHashMap<String, String>(base.asMap());
+
+					attributes.putAll(overrides.asMap());
+					result = intern(attributes);
+					overrides.merges.put(base, new WeakReference<AttributeSet>(result));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The keys of each pair
+	 */
+	private final String[] keys;
+
+	/**
+	 * The values of each pair. A null value emits the key only
+	 */
+	private final String[] values;
+
+	/**
+	 * The hash code of this set
+	 */
+	private final int hash;
+
+	/**
+	 * A cache of merge results by base set. The result may be the base set
+	 * itself, so it is weakly referenced too
+	 */
+	private final Map<AttributeSet, WeakReference<AttributeSet>> merges = new WeakHashMap<AttributeSet, WeakReference<AttributeSet>>();
+
+	/**
+	 * A read-only map view of this set, created on demand
+	 */
+	private volatile Map<String, String> map;
+
+	/**
+	 * Cached UCF text, indexed by whether spaces surround '='
+	 */
+	private final String[] ucfFragments = new String[2];
+
+	/**
+	 * AttributeSet
+	 *
+	 * @param keys
+	 * @param values
+	 */
+	private AttributeSet(String[] keys, String[] values) {
+		this.keys = keys;
+		this.values = values;
+		this.hash = 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+	}
+
+	/**
+	 * Return a read-only map view of this set
+	 *
+	 * @return Map<String, String>
+	 */
+	public Map<String, String> asMap() {
+		if (map == null) {
+			Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+			for (int i = 0; i < keys.length; i++) {
+				attributes.put(keys[i], values[i]);
+			}
+
+			map = new AttributeSetMap(this, attributes);
+		}
+
+		return map;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		boolean result = false;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof AttributeSet) {
+			AttributeSet other = (AttributeSet) obj;
+
+			result = hash == other.hash && Arrays.equals(keys, other.keys) && Arrays.equals(values, other.values);
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * getKey
+	 *
+	 * @param index
+	 * @return The key of the pair at the specified index
+	 */
+	public String getKey(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * getValue
+	 *
+	 * @param index
+	 * @return The value of the pair at the specified index. This may be null
+	 */
+	public String getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Join all pairs with the specified delimiter
+	 *
+	 * @param delimiter
+	 * @param configuration
+	 * @return String
+	 */
+	public String join(String delimiter, Set<Configuration> configuration) {
+		String equals = (configuration.contains(Configuration.SPACE_AROUND_EQUALS)) ? " = " : "=";
+		StringBuilder buffer = new StringBuilder();
+
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				buffer.append(delimiter);
+			}
+
+			buffer.append(keys[i]);
+
+			if (values[i] != null) {
+				buffer.append(equals).append(values[i]);
+			}
+		}
+
+		return buffer.toString();
+	}
+
+	/**
+	 * size
+	 *
+	 * @return int
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return asMap().toString();
+	}
+
+	/**
+	 * Return the UCF text for this set, for example "| IOSTANDARD=LVTTL |
+	 * PULLUP;". The text is cached for each configuration
+	 *
+	 * @param configuration
+	 * @return String
+	 */
+	public String toUCF(Set<Configuration> configuration) {
+		int index = (configuration.contains(Configuration.SPACE_AROUND_EQUALS)) ? 1 : 0;
+		String result = ucfFragments[index];
+
+		if (result == null) {
+			result = "| " + join(" | ", configuration) + ";";
+			ucfFragments[index] = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * AttributeSetMap is the read-only map view of an attribute set. It lets
+	 * intern recognize maps that are already backed by an interned set
+	 */
+	private static final class AttributeSetMap extends AbstractMap<String, String> {
+		/**
+		 * The set this map views
+		 */
+		private final AttributeSet attributeSet;
+
+		/**
+		 * The read-only map of pairs
+		 */
+		private final Map<String, String> attributes;
+
+		/**
+		 * AttributeSetMap
+		 *
+		 * @param attributeSet
+		 * @param attributes
+		 */
+		AttributeSetMap(AttributeSet attributeSet, Map<String, String> attributes) {
+			this.attributeSet = attributeSet;
+			this.attributes = Collections.unmodifiableMap(attributes);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+		 */
+		@Override
+		public boolean containsKey(Object key) {
+			return attributes.containsKey(key);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.AbstractMap#entrySet()
+		 */
+		@Override
+		public Set<Map.Entry<String, String>> entrySet() {
+			return attributes.entrySet();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.AbstractMap#get(java.lang.Object)
+		 */
+		@Override
+		public String get(Object key) {
+			return attributes.get(key);
+		}
+
+		/**
+		 * getAttributeSet
+		 *
+		 * @return AttributeSet
+		 */
+		AttributeSet getAttributeSet() {
+			return attributeSet;
+		}
+	}
+}
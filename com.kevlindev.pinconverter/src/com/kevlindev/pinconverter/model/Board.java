@@ -5,16 +5,11 @@
 package com.kevlindev.pinconverter.model;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.kevlindev.collections.CaselessSet;
 import com.kevlindev.collections.CaselessString;
@@ -60,6 +55,17 @@ public class Board implements Iterable<Bus> {
 	 */
 	private List<Tuple<String, String>> configs;
 
+	/**
+	 * The number of times this board's own definition has changed. This is
+	 * used to invalidate resolved snapshots of this board and its descendants
+	 */
+	private int modificationCount;
+
+	/**
+	 * A cached view of this board, flattened with all of its ancestors
+	 */
+	private ResolvedBoard resolved;
+
 	/**
 	 * addBus
 	 * 
@@ -72,6 +78,7 @@ public class Board implements Iterable<Bus> {
 			}
 
 			buses.add(bus);
+			modificationCount++;
 
 			bus.setOwningBoard(this);
 		}
@@ -99,16 +106,7 @@ public class Board implements Iterable<Bus> {
 	 * @return boolean
 	 */
 	public boolean containsBusName(String busName) {
-		boolean result = false;
-
-		for (Board board : getInheritanceList()) {
-			if (board.getBus(busName) != null) {
-				result = true;
-				break;
-			}
-		}
-
-		return result;
+		return getBus(busName) != null;
 	}
 
 	/**
@@ -118,20 +116,7 @@ public class Board implements Iterable<Bus> {
 	 * @return Bus
 	 */
 	public Bus getBus(int index) {
-		Bus result = null;
-
-		for (Board board : getInheritanceList()) {
-			int busCount = (board.buses != null) ? board.buses.size() : 0;
-
-			if (index < busCount) {
-				result = board.buses.get(index);
-				break;
-			} else {
-				index -= busCount;
-			}
-		}
-
-		return result;
+		return getResolvedBoard().getBus(index);
 	}
 
 	/**
@@ -141,21 +126,7 @@ public class Board implements Iterable<Bus> {
 	 * @return Bus
 	 */
 	public Bus getBus(String busName) {
-		CaselessString caselessName = new CaselessString(busName);
-		Bus result = null;
-
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				for (Bus bus : board.buses) {
-					if (caselessName.equals(bus.getName())) {
-						result = bus;
-						break;
-					}
-				}
-			}
-		}
-
-		return result;
+		return (busName != null) ? getResolvedBoard().getBus(busName) : null;
 	}
 
 	/**
@@ -164,30 +135,16 @@ public class Board implements Iterable<Bus> {
 	 * @return int
 	 */
 	public int getBusCount() {
-		int result = 0;
-
-		for (Board board : getInheritanceList()) {
-			result += (board.buses != null) ? board.buses.size() : 0;
-		}
-
-		return result;
+		return getResolvedBoard().getBuses().size();
 	}
 
 	/**
 	 * getBuses
 	 * 
-	 * @return List<Bus>
+	 * @return An unmodifiable List<Bus>
 	 */
 	public List<Bus> getBuses() {
-		List<Bus> result = new ArrayList<Bus>();
-
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				result.addAll(board.buses);
-			}
-		}
-
-		return result;
+		return getResolvedBoard().getBuses();
 	}
 
 	/**
@@ -197,23 +154,7 @@ public class Board implements Iterable<Bus> {
 	 * @return int
 	 */
 	public int getBusIndex(Bus bus) {
-		int offset = 0;
-		int result = -1;
-
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				int index = board.buses.indexOf(bus);
-
-				if (index != 1) {
-					result = offset + index;
-					break;
-				} else {
-					offset += board.getBusCount();
-				}
-			}
-		}
-
-		return result;
+		return getResolvedBoard().getBusIndex(bus);
 	}
 
 	/**
@@ -224,12 +165,8 @@ public class Board implements Iterable<Bus> {
 	public Set<String> getBusNames() {
 		Set<String> result = new CaselessSet(new LinkedHashSet<CaselessString>());
 
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				for (Bus bus : board.buses) {
-					result.add(bus.getName());
-				}
-			}
+		for (Bus bus : getResolvedBoard().getBuses()) {
+			result.add(bus.getName());
 		}
 
 		return result;
@@ -238,18 +175,10 @@ public class Board implements Iterable<Bus> {
 	/**
 	 * getConfigs
 	 * 
-	 * @return
+	 * @return An unmodifiable List<Tuple<String, String>>
 	 */
 	public List<Tuple<String, String>> getConfigs() {
-		List<Tuple<String, String>> result = new ArrayList<Tuple<String, String>>();
-
-		for (Board board : getInheritanceList()) {
-			if (board.configs != null) {
-				result.addAll(board.configs);
-			}
-		}
-
-		return result;
+		return getResolvedBoard().getConfigs();
 	}
 
 	/**
@@ -284,40 +213,59 @@ public class Board implements Iterable<Bus> {
 	}
 
 	/**
-	 * getHeader
+	 * Return the buses defined directly on this board, excluding any that are
+	 * inherited from a parent board
 	 * 
-	 * @return String
+	 * @return List<Bus>. This value may be null
 	 */
-	public String getHeader() {
-		StringBuilder buffer = new StringBuilder();
-
-		for (Board board : getInheritanceList()) {
-			if (board.header != null) {
-				buffer.append(board.header).append(StringUtils.EOL);
-			}
-		}
-
-		return buffer.toString();
+	public List<Bus> getDeclaredBuses() {
+		return buses;
 	}
 
 	/**
-	 * getInheritanceList
+	 * Return the configurations defined directly on this board, excluding any
+	 * that are inherited from a parent board
 	 * 
-	 * @return
+	 * @return List<Tuple<String, String>>. This value may be null
 	 */
-	protected List<Board> getInheritanceList() {
-		List<Board> result = new ArrayList<Board>();
-		Board currentBoard = this;
+	public List<Tuple<String, String>> getDeclaredConfigs() {
+		return configs;
+	}
 
-		while (currentBoard != null) {
-			result.add(currentBoard);
+	/**
+	 * Return the header defined directly on this board, excluding any that are
+	 * inherited from a parent board
+	 * 
+	 * @return String. This value may be null
+	 */
+	public String getDeclaredHeader() {
+		return header;
+	}
 
-			currentBoard = currentBoard.getParentBoard();
-		}
+	/**
+	 * getHeader
+	 * 
+	 * @return String
+	 */
+	public String getHeader() {
+		return getResolvedBoard().getHeader();
+	}
 
-		Collections.reverse(result);
+	/**
+	 * getModificationCount
+	 * 
+	 * @return int
+	 */
+	int getModificationCount() {
+		return modificationCount;
+	}
 
-		return result;
+	/**
+	 * Record that a bus or pin on this board has changed so any resolved views
+	 * will be rebuilt
+	 */
+	void modified() {
+		modificationCount++;
 	}
 
 	/**
@@ -344,6 +292,15 @@ public class Board implements Iterable<Bus> {
 		return result;
 	}
 
+	/**
+	 * getParentBoardName
+	 * 
+	 * @return String
+	 */
+	public String getParentBoardName() {
+		return parentBoard;
+	}
+
 	/**
 	 * getPin
 	 * 
@@ -351,39 +308,44 @@ public class Board implements Iterable<Bus> {
 	 * @return Pin
 	 */
 	public Pin getPin(String pinName) {
-		Pin result = null;
-
-		if (pinName != null) {
-			for (Pin pin : getPins()) {
-				if (pinName.equals(pin.getName())) {
-					result = pin;
-					break;
-				}
-			}
-		}
+		return (pinName != null) ? getResolvedBoard().getPin(pinName) : null;
+	}
 
-		return result;
+	/**
+	 * Return the pin with the specified UCF name. This is the name returned by
+	 * Pin#getUCFName(false), so bus pins are named without parentheses, e.g.
+	 * A0. Names are case-insensitive
+	 * 
+	 * @param ucfName
+	 * @return Pin
+	 */
+	public Pin getPinByUCFName(String ucfName) {
+		return (ucfName != null) ? getResolvedBoard().getPinByUCFName(ucfName) : null;
 	}
 
 	/**
 	 * getPinList
 	 * 
-	 * @return List<Pin>
+	 * @return An unmodifiable List<Pin>
 	 */
 	public List<Pin> getPins() {
-		List<Pin> result = new ArrayList<Pin>();
+		return getResolvedBoard().getPins();
+	}
 
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				for (Bus bus : board.buses) {
-					for (Pin pin : bus.getPins()) {
-						result.add(pin);
-					}
-				}
-			}
+	/**
+	 * Return a flattened view of this board and its ancestors. The view is
+	 * cached until the board registry or any board in the inheritance chain
+	 * changes. Access is synchronized so a board may be shared by threads
+	 * generating constraints at the same time
+	 * 
+	 * @return ResolvedBoard
+	 */
+	synchronized ResolvedBoard getResolvedBoard() {
+		if (resolved == null || !resolved.isCurrent(Registrar.BOARD_REGISTRY)) {
+			resolved = new ResolvedBoard(this, Registrar.BOARD_REGISTRY);
 		}
 
-		return result;
+		return resolved;
 	}
 
 	/**
@@ -402,70 +364,7 @@ public class Board implements Iterable<Bus> {
 	 */
 	@Override
 	public Iterator<Bus> iterator() {
-		Stack<Bus> allBuses = new Stack<Bus>();
-
-		for (Board board : getInheritanceList()) {
-			if (board.buses != null) {
-				allBuses.addAll(board.buses);
-			}
-		}
-
-		return allBuses.iterator();
-	}
-
-	/**
-	 * placeWing
-	 * 
-	 * @param wing
-	 * @param busName
-	 */
-	public void placeWing(Board wing, String busName) {
-		String name;
-		int startingIndex;
-
-		Pattern pattern = Pattern.compile("([^0-9\\r\\n\\s]+)([0-9]+)");
-		Matcher matcher = pattern.matcher(busName);
-
-		if (matcher.matches()) {
-			name = matcher.group(1);
-			startingIndex = Integer.parseInt(matcher.group(2));
-		} else {
-			name = busName;
-			startingIndex = 0;
-		}
-
-		int busIndex = getBusIndex(getBus(name));
-
-		if (busIndex != -1) {
-			for (Bus wingBus : wing) {
-				if (wingBus.getPinCount() > 1) {
-					Bus bus = getBus(busIndex);
-
-					if (0 <= startingIndex && startingIndex + wingBus.getPinCount() <= bus.getPinCount()) {
-						for (int i = 0; i < wingBus.getPinCount(); i++) {
-							Pin pin = bus.getPin(startingIndex + i);
-							Pin wingPin = new Pin(wingBus.getPin(i));
-
-							wingPin.setNextPin(pin);
-							bus.setPin(startingIndex + i, wingPin);
-						}
-					}
-
-					// reset startingIndex for any remaining buses on the wing
-					startingIndex = 0;
-					busIndex++;
-				} else {
-					Bus bus = getBus(wingBus.getName());
-					Pin pin = new Pin(bus.getPin(0));
-					Pin wingPin = wingBus.getPin(0);
-
-					Map<String, String> additions = pin.getAdditions();
-					additions.putAll(wingPin.getAdditions());
-					pin.setAdditions(additions);
-					bus.setPin(0, pin);
-				}
-			}
-		}
+		return getResolvedBoard().getBuses().iterator();
 	}
 
 	/**
@@ -475,6 +374,7 @@ public class Board implements Iterable<Bus> {
 	 */
 	public void setConfigs(List<Tuple<String, String>> configs) {
 		this.configs = configs;
+		modificationCount++;
 	}
 
 	/**
@@ -484,6 +384,7 @@ public class Board implements Iterable<Bus> {
 	 */
 	public void setHeader(String header) {
 		this.header = header;
+		modificationCount++;
 	}
 
 	/**
@@ -502,6 +403,7 @@ public class Board implements Iterable<Bus> {
 	 */
 	public void setParentBoardName(String name) {
 		parentBoard = name;
+		modificationCount++;
 	}
 
 	/*
@@ -536,44 +438,68 @@ public class Board implements Iterable<Bus> {
 	/**
 	 * toUCF
 	 * 
-	 * @param nameFilter
+	 * @param selection
 	 * @return String
 	 */
-	public String toUCF(Set<String> nameFilter) {
+	public String toUCF(BusSelection selection) {
 		Table table = new Table();
 
-		toUCF(table, nameFilter, EnumSet.noneOf(Configuration.class));
+		toUCF(table, selection, EnumSet.noneOf(Configuration.class));
 
 		return table.toString();
 	}
 
 	/**
-	 * // $codepro.audit.disable blockDepth toUCF
+	 * toUCF
 	 * 
 	 * @param table
-	 * @param nameFilter
+	 * @param selection
+	 *            The buses and slots to emit. If this is null, all pins are
+	 *            emitted
 	 * @param configuration
 	 */
-	public void toUCF(Table table, Set<String> nameFilter, Set<Configuration> configuration) {
-		if (getBusCount() > 0) {
-			if (nameFilter != null) {
-				// TODO: fix cartesian product. We do this to preserve output
-				// order
-				for (String name : nameFilter) {
-					CaselessString caselessName = new CaselessString(name);
-
-					for (Bus bus : getBuses()) {
-						if (caselessName.equals(bus.getName())) {
-							bus.toUCF(table, nameFilter, configuration);
-							break;
-						}
-					}
-				}
-			} else {
-				for (Bus bus : getBuses()) {
-					bus.toUCF(table, nameFilter, configuration);
+	public void toUCF(Table table, BusSelection selection, Set<Configuration> configuration) {
+		toUCF(table, selection, configuration, null);
+	}
+
+	/**
+	 * toUCF
+	 * 
+	 * @param table
+	 * @param selection
+	 * @param configuration
+	 * @param overlay
+	 *            The wing placements to apply. This may be null
+	 */
+	void toUCF(Table table, BusSelection selection, Set<Configuration> configuration, BoardOverlay overlay) {
+		for (Pin pin : getUCFPins(selection, overlay)) {
+			pin.toUCF(table, configuration);
+		}
+	}
+
+	/**
+	 * Return the pins to emit, in output order
+	 * 
+	 * @param selection
+	 *            The buses and slots to emit. If this is null, all pins are
+	 *            emitted
+	 * @param overlay
+	 *            The wing placements to apply. This may be null
+	 * @return List<Pin>
+	 */
+	List<Pin> getUCFPins(BusSelection selection, BoardOverlay overlay) {
+		List<Pin> result = new ArrayList<Pin>();
+
+		if (selection != null) {
+			selection.getPins(result, overlay);
+		} else {
+			for (Bus bus : getBuses()) {
+				for (int i = 0; i < bus.getPinCount(); i++) {
+					result.add((overlay != null) ? overlay.getPin(bus, i) : bus.getPin(i));
 				}
 			}
 		}
+
+		return result;
 	}
 }
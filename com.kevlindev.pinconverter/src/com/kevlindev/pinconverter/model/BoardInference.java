@@ -0,0 +1,136 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BoardInference finds the boards that have a set of FPGA pins. It holds an
+ * inverted index of each FPGA pin name to the set of boards having that pin,
+ * so a set of pins is matched against every board in one pass over the pins
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class BoardInference {
+	/**
+	 * The resolved boards of the last index that was built
+	 */
+	private static List<ResolvedBoard> cachedKey;
+
+	/**
+	 * The last index that was built
+	 */
+	private static BoardInference cachedInference;
+
+	/**
+	 * Return an index of the specified boards. The last index is kept until
+	 * the list of boards, or any board in it, changes
+	 * 
+	 * @param boards
+	 * @return BoardInference
+	 */
+	public static synchronized BoardInference compile(List<Board> boards) {
+		List<ResolvedBoard> key = new ArrayList<ResolvedBoard>();
+
+		// resolved boards are replaced whenever a board changes, so they
+		// identify the version of each board
+		for (Board board : boards) {
+			key.add(board.getResolvedBoard());
+		}
+
+		if (!key.equals(cachedKey)) {
+			cachedInference = new BoardInference(boards);
+			cachedKey = key;
+		}
+
+		return cachedInference;
+	}
+
+	/**
+	 * The indexed boards
+	 */
+	private final List<Board> boards;
+
+	/**
+	 * The number of distinct FPGA pins on each board
+	 */
+	private final int[] boardPinCounts;
+
+	/**
+	 * The set of boards, by index, having each FPGA pin
+	 */
+	private final Map<String, BitSet> boardsByPin = new HashMap<String, BitSet>();
+
+	/**
+	 * BoardInference
+	 * 
+	 * @param boards
+	 */
+	public BoardInference(List<Board> boards) {
+		this.boards = new ArrayList<Board>(boards);
+
+		boardPinCounts = new int[boards.size()];
+
+		for (int i = 0; i < boards.size(); i++) {
+			for (Pin pin : boards.get(i).getPins()) {
+				String name = pin.getName();
+
+				if (name != null) {
+					BitSet boardSet = boardsByPin.get(name);
+
+					if (boardSet == null) {
+						boardSet = new BitSet(boards.size());
+						boardsByPin.put(name, boardSet);
+					}
+
+					if (!boardSet.get(i)) {
+						boardSet.set(i);
+						boardPinCounts[i]++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Match a set of FPGA pins against every board. Boards having none of the
+	 * pins are left out
+	 * 
+	 * @param pins
+	 *            A collection of distinct FPGA pin names
+	 * @return The matches, from best to worst
+	 */
+	public List<BoardMatch> match(Collection<String> pins) {
+		int[] matchedCounts = new int[boards.size()];
+		List<BoardMatch> result = new ArrayList<BoardMatch>();
+
+		for (String pin : pins) {
+			BitSet boardSet = boardsByPin.get(pin);
+
+			if (boardSet != null) {
+				for (int i = boardSet.nextSetBit(0); i >= 0; i = boardSet.nextSetBit(i + 1)) {
+					matchedCounts[i]++;
+				}
+			}
+		}
+
+		for (int i = 0; i < boards.size(); i++) {
+			if (matchedCounts[i] > 0 || pins.isEmpty()) {
+				result.add(new BoardMatch(boards.get(i), matchedCounts[i], pins.size(), boardPinCounts[i]));
+			}
+		}
+
+		Collections.sort(result);
+
+		return result;
+	}
+}
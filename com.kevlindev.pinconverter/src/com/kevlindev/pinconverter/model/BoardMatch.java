@@ -0,0 +1,134 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+/**
+ * BoardMatch records how many of a set of FPGA pins a board has
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardMatch implements Comparable<BoardMatch> {
+	/**
+	 * The board
+	 */
+	private final Board board;
+
+	/**
+	 * The number of pins in the set that are on the board
+	 */
+	private final int matchedCount;
+
+	/**
+	 * The number of pins in the set
+	 */
+	private final int pinCount;
+
+	/**
+	 * The number of FPGA pins on the board
+	 */
+	private final int boardPinCount;
+
+	/**
+	 * BoardMatch
+	 * 
+	 * @param board
+	 * @param matchedCount
+	 * @param pinCount
+	 * @param boardPinCount
+	 */
+	public BoardMatch(Board board, int matchedCount, int pinCount, int boardPinCount) {
+		this.board = board;
+		this.matchedCount = matchedCount;
+		this.pinCount = pinCount;
+		this.boardPinCount = boardPinCount;
+	}
+
+	/**
+	 * Order matches from best to worst: by coverage, then by the fewest pins
+	 * left unused on the board, then by name
+	 * 
+	 * @param other
+	 * @return int
+	 */
+	@Override
+	public int compareTo(BoardMatch other) {
+		// coverages share a denominator, so the counts can be compared
+		int result = other.matchedCount - matchedCount;
+
+		if (result == 0) {
+			result = boardPinCount - other.boardPinCount;
+		}
+
+		if (result == 0) {
+			result = getName().compareToIgnoreCase(other.getName());
+		}
+
+		return result;
+	}
+
+	/**
+	 * getBoard
+	 * 
+	 * @return Board
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * getBoardPinCount
+	 * 
+	 * @return The number of FPGA pins on the board
+	 */
+	public int getBoardPinCount() {
+		return boardPinCount;
+	}
+
+	/**
+	 * Return the fraction of the pins that are on the board
+	 * 
+	 * @return A value from 0 to 1
+	 */
+	public double getCoverage() {
+		return (pinCount > 0) ? (double) matchedCount / pinCount : 1.0;
+	}
+
+	/**
+	 * getMatchedCount
+	 * 
+	 * @return The number of pins that are on the board
+	 */
+	public int getMatchedCount() {
+		return matchedCount;
+	}
+
+	/**
+	 * Return the board's primary name
+	 * 
+	 * @return String
+	 */
+	public String getName() {
+		return board.getNames().get(0);
+	}
+
+	/**
+	 * getPinCount
+	 * 
+	 * @return The number of pins matched against the board
+	 */
+	public int getPinCount() {
+		return pinCount;
+	}
+
+	/**
+	 * Determine if every pin is on the board
+	 * 
+	 * @return boolean
+	 */
+	public boolean isComplete() {
+		return matchedCount == pinCount;
+	}
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.kevlindev.text.Table;
+
+/**
+ * BoardOverlay places wings on a board without modifying the board. Each
+ * placed wing pin is recorded against the bus and slot it covers, and lookups
+ * fall through to the board for any slot that has not been covered. An overlay
+ * may also be layered on another overlay, so a common set of placements can
+ * be shared by several variations. Since the board is never changed, any
+ * number of overlays can use the same board at once, and an overlay is
+ * discarded by simply dropping it.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardOverlay {
+	/**
+	 * The pattern used to split a placement location into a bus name and a
+	 * starting index, e.g. A8
+	 */
+	private static final Pattern LOCATION_PATTERN = Pattern.compile("([^0-9\\r\\n\\s]+)([0-9]+)");
+
+	/**
+	 * The board on which wings are placed
+	 */
+	private final Board board;
+
+	/**
+	 * The overlay beneath this one. This may be null
+	 */
+	private final BoardOverlay parent;
+
+	/**
+	 * The pins placed by this overlay, by bus. Each array has one entry per
+	 * slot in the bus, with null entries for slots this overlay does not cover
+	 */
+	private final Map<Bus, Pin[]> placedPins = new IdentityHashMap<Bus, Pin[]>();
+
+	/**
+	 * Create an empty overlay for the specified board
+	 *
+	 * @param board
+	 */
+	public BoardOverlay(Board board) {
+		this.board = board;
+		this.parent = null;
+	}
+
+	/**
+	 * Create an empty overlay on top of another overlay. Placements made on
+	 * this overlay do not affect the parent
+	 *
+	 * @param parent
+	 */
+	public BoardOverlay(BoardOverlay parent) {
+		this.board = parent.board;
+		this.parent = parent;
+	}
+
+	/**
+	 * getBoard
+	 *
+	 * @return Board
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Return the pin in the specified slot of a bus, taking all placements in
+	 * this overlay and its parents into account
+	 *
+	 * @param bus
+	 * @param index
+	 * @return Pin
+	 */
+	public Pin getPin(Bus bus, int index) {
+		Pin result = null;
+
+		for (BoardOverlay overlay = this; overlay != null && result == null; overlay = overlay.parent) {
+			Pin[] pins = overlay.placedPins.get(bus);
+
+			if (pins != null && 0 <= index && index < pins.length) {
+				result = pins[index];
+			}
+		}
+
+		return (result != null) ? result : bus.getPin(index);
+	}
+
+	/**
+	 * Cover a slot with the specified pin
+	 *
+	 * @param bus
+	 * @param index
+	 * @param pin
+	 */
+	private void setPin(Bus bus, int index, Pin pin) {
+		Pin[] pins = placedPins.get(bus);
+
+		if (pins == null) {
+			pins = new Pin[bus.getPinCount()];
+			placedPins.put(bus, pins);
+		}
+
+		// the pin stands in for the board's pin, so it reports that slot
+		pin.setSlot(bus, index);
+		pins[index] = pin;
+	}
+
+	/**
+	 * Place a wing at the specified location. Wings may be stacked on top of
+	 * previously placed wings
+	 *
+	 * @param wing
+	 *            The wing board to place
+	 * @param location
+	 *            A bus name, optionally followed by the index of the first slot
+	 *            to cover, e.g. A or A8
+	 */
+	public void placeWing(Board wing, String location) {
+		String name;
+		int startingIndex;
+
+		Matcher matcher = LOCATION_PATTERN.matcher(location);
+
+		if (matcher.matches()) {
+			name = matcher.group(1);
+			startingIndex = Integer.parseInt(matcher.group(2));
+		} else {
+			name = location;
+			startingIndex = 0;
+		}
+
+		int busIndex = board.getBusIndex(board.getBus(name));
+
+		if (busIndex != -1) {
+			for (Bus wingBus : wing) {
+				if (wingBus.getPinCount() > 1) {
+					Bus bus = board.getBus(busIndex);
+
+					if (bus != null && 0 <= startingIndex && startingIndex + wingBus.getPinCount() <= bus.getPinCount()) {
+						for (int i = 0; i < wingBus.getPinCount(); i++) {
+							int index = startingIndex + i;
+							Pin wingPin = new Pin(wingBus.getPin(i));
+
+							wingPin.setNextPin(getPin(bus, index));
+							setPin(bus, index, wingPin);
+						}
+					}
+
+					// reset startingIndex for any remaining buses on the wing
+					startingIndex = 0;
+					busIndex++;
+				} else {
+					Bus bus = board.getBus(wingBus.getName());
+
+					if (bus != null && bus.getPinCount() > 0) {
+						Pin pin = new Pin(getPin(bus, 0));
+						Pin wingPin = wingBus.getPin(0);
+
+						pin.setAttributeSet(AttributeSet.merge(pin.getAttributeSet(), wingPin.getAttributeSet()));
+						setPin(bus, 0, pin);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Emit UCF rows for the board with all placed wings
+	 *
+	 * @param table
+	 * @param selection
+	 *            The buses and slots to emit. This may be null
+	 * @param configuration
+	 */
+	public void toUCF(Table table, BusSelection selection, Set<Configuration> configuration) {
+		board.toUCF(table, selection, configuration, this);
+	}
+}
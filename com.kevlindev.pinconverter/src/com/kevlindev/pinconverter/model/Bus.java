@@ -4,13 +4,11 @@
  */
 package com.kevlindev.pinconverter.model;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.kevlindev.collections.CaselessString;
 import com.kevlindev.text.Table;
 import com.kevlindev.utils.StringUtils;
 
@@ -45,7 +43,13 @@ public class Bus {
 	 * A map of key/value pair additions to be applied to all pins in this bus.
 	 * Note that a pair containing a null value will emit the key name only
 	 */
-	private Map<String, String> additions;
+	private AttributeSet additions;
+
+	/**
+	 * A count of the changes made to this bus's additions. Pins compare this
+	 * against the count they saw when caching their merged attribute set
+	 */
+	private volatile int modificationCount;
 
 	/**
 	 * Bus
@@ -72,6 +76,7 @@ public class Bus {
 			for (Pin pin : bus.pins) {
 				Pin newPin = new Pin(pin);
 
+				newPin.setSlot(this, pins.size());
 				pins.add(newPin);
 			}
 		}
@@ -80,12 +85,30 @@ public class Bus {
 	/**
 	 * getAdditions
 	 * 
-	 * @return List<String>
+	 * @return A read-only Map<String, String>. This value may be null
 	 */
 	public Map<String, String> getAdditions() {
+		return (additions != null) ? additions.asMap() : null;
+	}
+
+	/**
+	 * getAttributeSet
+	 * 
+	 * @return AttributeSet. This value may be null
+	 */
+	public AttributeSet getAttributeSet() {
 		return additions;
 	}
 
+	/**
+	 * getModificationCount
+	 * 
+	 * @return int
+	 */
+	int getModificationCount() {
+		return modificationCount;
+	}
+
 	/**
 	 * getAlias
 	 * 
@@ -139,7 +162,8 @@ public class Bus {
 	}
 
 	/**
-	 * getPinIndex
+	 * getPinIndex. Pins held by this bus know their own slot, so this is
+	 * constant time for them. Other pins fall back to an equality search
 	 * 
 	 * @param pin
 	 * @return int
@@ -147,7 +171,9 @@ public class Bus {
 	public int getPinIndex(Pin pin) {
 		int result = -1;
 
-		if (pins != null) {
+		if (pin != null && pin.getSlotBus() == this) {
+			result = pin.getSlotIndex();
+		} else if (pins != null) {
 			result = pins.indexOf(pin);
 		}
 
@@ -198,7 +224,7 @@ public class Bus {
 
 			if (getPinCount() > 1) {
 				if (asBus) {
-					result = MessageFormat.format("{0}({1})", netName, pin.getIndex());
+					result = netName + "(" + pin.getIndex() + ")";
 				} else {
 					result = netName + pin.getIndex();
 				}
@@ -219,13 +245,32 @@ public class Bus {
 		return additions != null && additions.size() > 0;
 	}
 
+	/**
+	 * Record that this bus or one of its pins has changed
+	 */
+	void modified() {
+		if (owningBoard != null) {
+			owningBoard.modified();
+		}
+	}
+
 	/**
 	 * setAdditions
 	 * 
 	 * @param additions
 	 */
 	public void setAdditions(Map<String, String> additions) {
+		setAttributeSet(AttributeSet.intern(additions));
+	}
+
+	/**
+	 * setAttributeSet
+	 * 
+	 * @param additions
+	 */
+	public void setAttributeSet(AttributeSet additions) {
 		this.additions = additions;
+		modificationCount++;
 	}
 
 	/**
@@ -235,6 +280,7 @@ public class Bus {
 	 */
 	public void setAlias(String alias) {
 		this.alias = alias;
+		modified();
 	}
 
 	/**
@@ -258,6 +304,16 @@ public class Bus {
 
 		if (pins != null && 0 <= index && index < pins.size()) {
 			result = pins.set(index, pin);
+
+			if (result != null) {
+				result.clearSlot(this);
+			}
+
+			if (pin != null) {
+				pin.setSlot(this, index);
+			}
+
+			modified();
 		}
 
 		return result;
@@ -269,13 +325,24 @@ public class Bus {
 	 * @param pins
 	 */
 	public void setPins(List<Pin> pins) {
+		if (this.pins != null) {
+			for (Pin pin : this.pins) {
+				pin.clearSlot(this);
+			}
+		}
+
 		this.pins = pins;
 
 		if (pins != null) {
-			for (Pin pin : pins) {
+			for (int i = 0; i < pins.size(); i++) {
+				Pin pin = pins.get(i);
+
 				pin.setOwningBus(this);
+				pin.setSlot(this, i);
 			}
 		}
+
+		modified();
 	}
 
 	/*
@@ -307,18 +374,11 @@ public class Bus {
 	 * toUCF
 	 * 
 	 * @param table
-	 * @param nameFilter
 	 * @param configuration
 	 */
-	public void toUCF(Table table, Set<String> nameFilter, Set<Configuration> configuration) {
-		if (pins != null) {
-			for (Pin pin : pins) {
-				CaselessString canonicalName = new CaselessString(pin.getCanonicalName());
-
-				if (nameFilter == null || nameFilter.contains(canonicalName)) {
-					pin.toUCF(table, configuration);
-				}
-			}
+	public void toUCF(Table table, Set<Configuration> configuration) {
+		for (int i = 0; i < getPinCount(); i++) {
+			pins.get(i).toUCF(table, configuration);
 		}
 	}
 }
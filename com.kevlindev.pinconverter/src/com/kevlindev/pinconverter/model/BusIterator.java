@@ -113,6 +113,15 @@ public class BusIterator implements Iterator<String> {
 		current = start;
 	}
 
+	/**
+	 * getEnd
+	 * 
+	 * @return int
+	 */
+	public int getEnd() {
+		return end;
+	}
+
 	/**
 	 * getName
 	 * 
@@ -122,6 +131,15 @@ public class BusIterator implements Iterator<String> {
 		return name;
 	}
 
+	/**
+	 * getStart
+	 * 
+	 * @return int
+	 */
+	public int getStart() {
+		return start;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
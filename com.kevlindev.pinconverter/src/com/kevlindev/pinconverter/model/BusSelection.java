@@ -0,0 +1,167 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * BusSelection is a compiled list of the buses, and the slots within each bus,
+ * to emit for a board. A selection is built once from a comma-delimited bus
+ * list, with each item being one of the following:
+ * <ul>
+ * <li>a bus name, e.g. A or CLK, which selects the entire bus</li>
+ * <li>a bus range, e.g. A[0:7], which selects a range of slots</li>
+ * <li>a half bus, e.g. AL or AH, which selects slots 0-7 or 8-15</li>
+ * <li>a glob, e.g. * or LED?, which selects every matching bus</li>
+ * </ul>
+ * Buses are emitted in the order they are first selected and slots are
+ * emitted in bus order, so selecting the same bus more than once simply adds
+ * to its slots.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BusSelection {
+	/**
+	 * Compile a comma-delimited bus list for the specified board. Items that
+	 * do not select any pins on the board are ignored
+	 *
+	 * @param board
+	 * @param busList
+	 * @return BusSelection
+	 */
+	public static BusSelection compile(Board board, String busList) {
+		BusSelection result = new BusSelection();
+
+		for (String item : StringUtils.COMMA_DELIMITER_PATTERN.split(busList.trim())) {
+			if (item.indexOf('*') != -1 || item.indexOf('?') != -1) {
+				Pattern pattern = getGlobPattern(item);
+
+				for (Bus bus : board.getBuses()) {
+					if (bus.getName() != null && pattern.matcher(bus.getName()).matches()) {
+						result.addBus(bus);
+					}
+				}
+			} else if (board.containsBusName(item)) {
+				result.addBus(board.getBus(item));
+			} else if (item.length() > 0) {
+				BusIterator range = BusIterator.getBus(item);
+				Bus bus = board.getBus(range.getName());
+
+				if (bus != null) {
+					result.addSlots(bus, range.getStart(), range.getEnd());
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Convert a glob, where '*' matches any run of characters and '?' matches
+	 * a single character, into a case-insensitive pattern
+	 *
+	 * @param glob
+	 * @return Pattern
+	 */
+	private static Pattern getGlobPattern(String glob) {
+		StringBuilder buffer = new StringBuilder();
+		int start = 0;
+
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+
+			if (c == '*' || c == '?') {
+				if (start < i) {
+					buffer.append(Pattern.quote(glob.substring(start, i)));
+				}
+
+				buffer.append((c == '*') ? ".*" : ".");
+				start = i + 1;
+			}
+		}
+
+		if (start < glob.length()) {
+			buffer.append(Pattern.quote(glob.substring(start)));
+		}
+
+		return Pattern.compile(buffer.toString(), Pattern.CASE_INSENSITIVE);
+	}
+
+	/**
+	 * The selected slots of each bus, in selection order
+	 */
+	private final Map<Bus, BitSet> slotsByBus = new LinkedHashMap<Bus, BitSet>();
+
+	/**
+	 * Select every slot on a bus
+	 *
+	 * @param bus
+	 */
+	public void addBus(Bus bus) {
+		addSlots(bus, 0, bus.getPinCount() - 1);
+	}
+
+	/**
+	 * Select a range of slots on a bus. Start may be greater than end, and any
+	 * slots outside of the bus are ignored
+	 *
+	 * @param bus
+	 * @param start
+	 * @param end
+	 */
+	public void addSlots(Bus bus, int start, int end) {
+		BitSet slots = slotsByBus.get(bus);
+
+		if (slots == null) {
+			slots = new BitSet(bus.getPinCount());
+			slotsByBus.put(bus, slots);
+		}
+
+		int from = Math.max(0, Math.min(start, end));
+		int to = Math.min(bus.getPinCount(), Math.max(start, end) + 1);
+
+		if (from < to) {
+			slots.set(from, to);
+		}
+	}
+
+	/**
+	 * Add the selected pins to the specified list
+	 *
+	 * @param result
+	 * @param overlay
+	 *            The wing placements to apply. This may be null
+	 */
+	void getPins(List<Pin> result, BoardOverlay overlay) {
+		for (Map.Entry<Bus, BitSet> entry : slotsByBus.entrySet()) {
+			Bus bus = entry.getKey();
+			BitSet slots = entry.getValue();
+
+			for (int i = slots.nextSetBit(0); i != -1; i = slots.nextSetBit(i + 1)) {
+				result.add((overlay != null) ? overlay.getPin(bus, i) : bus.getPin(i));
+			}
+		}
+	}
+
+	/**
+	 * Get the selected slots of a bus
+	 *
+	 * @param bus
+	 * @return A copy of the selected slots. This is empty if the bus has not
+	 *         been selected
+	 */
+	public BitSet getSlots(Bus bus) {
+		BitSet slots = slotsByBus.get(bus);
+
+		return (slots != null) ? (BitSet) slots.clone() : new BitSet();
+	}
+}
@@ -28,5 +28,10 @@ public enum Configuration {
 	/**
 	 * A flag indicating that space around '=' characters should be added
 	 */
-	SPACE_AROUND_EQUALS
+	SPACE_AROUND_EQUALS,
+
+	/**
+	 * A flag indicating that transformed files should replace their input
+	 */
+	IN_PLACE
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * ConstraintFormat
+ */
+public enum ConstraintFormat {
+	/**
+	 * Xilinx ISE user constraints
+	 */
+	UCF {
+		@Override
+		public IConstraintEmitter createEmitter(Writer writer, Set<Configuration> configuration) {
+			return new UCFWriter(writer, configuration);
+		}
+	},
+
+	/**
+	 * Xilinx Vivado design constraints
+	 */
+	XDC {
+		@Override
+		public IConstraintEmitter createEmitter(Writer writer, Set<Configuration> configuration) {
+			return new XDCWriter(writer, configuration);
+		}
+	},
+
+	/**
+	 * Lattice iCE40 physical constraints
+	 */
+	PCF {
+		@Override
+		public IConstraintEmitter createEmitter(Writer writer, Set<Configuration> configuration) {
+			return new PCFWriter(writer, configuration);
+		}
+	},
+
+	/**
+	 * Altera Quartus settings
+	 */
+	QSF {
+		@Override
+		public IConstraintEmitter createEmitter(Writer writer, Set<Configuration> configuration) {
+			return new QSFWriter(writer, configuration);
+		}
+	};
+
+	/**
+	 * Find a format by name, ignoring case
+	 *
+	 * @param name
+	 * @return ConstraintFormat or null if there is no format by that name
+	 */
+	public static ConstraintFormat getFormat(String name) {
+		ConstraintFormat result = null;
+
+		if (name != null) {
+			for (ConstraintFormat format : values()) {
+				if (format.name().equalsIgnoreCase(name.trim())) {
+					result = format;
+					break;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create an emitter that writes this format
+	 *
+	 * @param writer
+	 * @param configuration
+	 * @return IConstraintEmitter
+	 */
+	public abstract IConstraintEmitter createEmitter(Writer writer, Set<Configuration> configuration);
+
+	/**
+	 * getExtension
+	 *
+	 * @return The file extension for this format, including the leading '.'
+	 */
+	public String getExtension() {
+		return "." + name().toLowerCase();
+	}
+}
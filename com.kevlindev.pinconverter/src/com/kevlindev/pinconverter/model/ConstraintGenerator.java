@@ -0,0 +1,134 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ConstraintGenerator walks a board, with its wing placements, once and sends
+ * each resolved row to every registered emitter. Selection, filtering, and
+ * sorting are done once no matter how many formats are being written.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class ConstraintGenerator {
+	/**
+	 * The configuration used to resolve rows
+	 */
+	private final Set<Configuration> configuration;
+
+	/**
+	 * The emitters receiving each row
+	 */
+	private final List<IConstraintEmitter> emitters = new ArrayList<IConstraintEmitter>();
+
+	/**
+	 * The single row refilled for each pin
+	 */
+	private final ConstraintRow row = new ConstraintRow();
+
+	/**
+	 * ConstraintGenerator
+	 *
+	 * @param configuration
+	 */
+	public ConstraintGenerator(Set<Configuration> configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * addEmitter
+	 *
+	 * @param emitter
+	 */
+	public void addEmitter(IConstraintEmitter emitter) {
+		if (emitter != null) {
+			emitters.add(emitter);
+		}
+	}
+
+	/**
+	 * Return the pins that produce a row, sorted by net name and index if the
+	 * configuration calls for it. Each row is measured by every emitter along
+	 * the way
+	 *
+	 * @param pins
+	 * @return List<Pin>
+	 */
+	private List<Pin> getRowPins(List<Pin> pins) {
+		List<Pin> result = new ArrayList<Pin>(pins.size());
+		boolean sorted = configuration.contains(Configuration.SORTED);
+		ConstraintRowOrder order = (sorted) ? new ConstraintRowOrder() : null;
+
+		for (Pin pin : pins) {
+			if (pin.fillRow(row, configuration)) {
+				for (IConstraintEmitter emitter : emitters) {
+					emitter.measureRow(row);
+				}
+
+				if (sorted) {
+					order.add(row);
+				}
+
+				result.add(pin);
+			}
+		}
+
+		if (sorted) {
+			List<Pin> unsortedPins = new ArrayList<Pin>(result);
+
+			result.clear();
+
+			for (int position : order.getOrder()) {
+				result.add(unsortedPins.get(position));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Write the header of every emitter
+	 *
+	 * @param board
+	 * @param boardName
+	 * @throws IOException
+	 */
+	public void writeHeaders(Board board, String boardName) throws IOException {
+		for (IConstraintEmitter emitter : emitters) {
+			emitter.writeHeader(board, boardName);
+		}
+	}
+
+	/**
+	 * Write the rows for a board with all wings placed on the specified
+	 * overlay to every emitter
+	 *
+	 * @param overlay
+	 * @param selection
+	 *            The buses and slots to write. If this is null, all pins are
+	 *            written
+	 * @throws IOException
+	 */
+	public void writeRows(BoardOverlay overlay, BusSelection selection) throws IOException {
+		for (IConstraintEmitter emitter : emitters) {
+			emitter.beginRows();
+		}
+
+		List<Pin> rowPins = getRowPins(overlay.getBoard().getUCFPins(selection, overlay));
+
+		for (Pin pin : rowPins) {
+			pin.fillRow(row, configuration);
+
+			for (IConstraintEmitter emitter : emitters) {
+				emitter.writeRow(row);
+			}
+		}
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+/**
+ * ConstraintRow holds the resolved parts of a single pin constraint: its net
+ * name and index, its FPGA pin, its attributes, and its canonical name. Names
+ * and indexes are kept apart so UCF columns can be measured and written, and
+ * other formats can build port names, without first building any text. A
+ * single row is typically refilled for each pin being emitted.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class ConstraintRow {
+	/**
+	 * The prefix of a constraint for a pin with a net name
+	 */
+	static final String NET_PREFIX = "NET ";
+
+	/**
+	 * The prefix of a commented-out constraint for a pin without a net name
+	 */
+	static final String UNUSED_NET_PREFIX = "#NET ";
+
+	/**
+	 * The prefix of the comment column
+	 */
+	private static final String COMMENT_PREFIX = "# ";
+
+	/**
+	 * getDigitCount
+	 *
+	 * @param value
+	 * @return int
+	 */
+	private static int getDigitCount(int value) {
+		int result = (value < 0) ? 2 : 1;
+
+		for (int remaining = Math.abs(value / 10); remaining > 0; remaining /= 10) {
+			result++;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Either NET_PREFIX or UNUSED_NET_PREFIX
+	 */
+	private String netPrefix;
+
+	/**
+	 * The net name, without any bus index
+	 */
+	private String netName;
+
+	/**
+	 * True if the net name is followed by a bus index
+	 */
+	private boolean netIndexed;
+
+	/**
+	 * True if the net name's bus index is wrapped in parentheses
+	 */
+	private boolean netParenthesized;
+
+	/**
+	 * The bus index of the net name
+	 */
+	private int netIndex;
+
+	/**
+	 * The FPGA pin name
+	 */
+	private String location;
+
+	/**
+	 * True if spaces surround the '=' in the location
+	 */
+	private boolean spaceAroundEquals;
+
+	/**
+	 * The pin's attributes
+	 */
+	private AttributeSet attributes;
+
+	/**
+	 * The UCF text for the pin's additions. This is null if there are none
+	 */
+	private String additions;
+
+	/**
+	 * The canonical bus name, without any index
+	 */
+	private String canonicalName;
+
+	/**
+	 * True if the canonical name is followed by a bus index
+	 */
+	private boolean canonicalIndexed;
+
+	/**
+	 * The bus index of the canonical name
+	 */
+	private int canonicalIndex;
+
+	/**
+	 * Append the text of the specified column. Nothing is allocated beyond
+	 * any growth of the buffer
+	 *
+	 * @param out
+	 * @param column
+	 */
+	void append(StringBuilder out, UCF column) {
+		switch (column) {
+			case NET:
+				out.append(netPrefix).append(netName);
+
+				if (netParenthesized) {
+					out.append('(').append(netIndex).append(')');
+				} else if (netIndexed) {
+					out.append(netIndex);
+				}
+				break;
+
+			case LOC:
+				out.append((spaceAroundEquals) ? "LOC = \"" : "LOC=\"").append(location).append('"');
+
+				if (additions == null) {
+					out.append(';');
+				}
+				break;
+
+			case ADDITIONS:
+				if (additions != null) {
+					out.append(additions);
+				}
+				break;
+
+			case COMMENT:
+				out.append(COMMENT_PREFIX).append(canonicalName);
+
+				if (canonicalIndexed) {
+					out.append(canonicalIndex);
+				}
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Append the canonical name of the pin's slot, e.g. A8 or CLK
+	 *
+	 * @param out
+	 */
+	public void appendCanonicalName(StringBuilder out) {
+		out.append(canonicalName);
+
+		if (canonicalIndexed) {
+			out.append(canonicalIndex);
+		}
+	}
+
+	/**
+	 * Append the port name for this row using the specified index brackets,
+	 * e.g. LED[3]. Unused pins are named by their canonical name. Wing pin
+	 * names that already end with a UCF index, e.g. LED(3), have their
+	 * parentheses replaced by the brackets
+	 *
+	 * @param out
+	 * @param open
+	 * @param close
+	 */
+	public void appendPortName(StringBuilder out, char open, char close) {
+		if (isUnused()) {
+			appendCanonicalName(out);
+		} else {
+			int start = out.length();
+
+			out.append(netName);
+
+			if (netIndexed) {
+				out.append(open).append(netIndex).append(close);
+			} else {
+				int end = out.length() - 1;
+				int i = end - 1;
+
+				while (i > start && Character.isDigit(out.charAt(i))) {
+					i--;
+				}
+
+				if (end > start && out.charAt(end) == ')' && i < end - 1 && out.charAt(i) == '(') {
+					out.setCharAt(i, open);
+					out.setCharAt(end, close);
+				}
+			}
+		}
+	}
+
+	/**
+	 * getAttributes
+	 *
+	 * @return The pin's attributes merged with those of its bus
+	 */
+	public AttributeSet getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * getColumn
+	 *
+	 * @param column
+	 * @return String
+	 */
+	String getColumn(UCF column) {
+		StringBuilder buffer = new StringBuilder();
+
+		append(buffer, column);
+
+		return buffer.toString();
+	}
+
+	/**
+	 * getNetIndex
+	 *
+	 * @return The bus index of the net name or -1 if the net name has no
+	 *         index
+	 */
+	public int getNetIndex() {
+		return (netIndexed) ? netIndex : -1;
+	}
+
+	/**
+	 * getNetName
+	 *
+	 * @return The net name, without any bus index or prefix
+	 */
+	public String getNetName() {
+		return netName;
+	}
+
+	/**
+	 * getLocation
+	 *
+	 * @return The FPGA pin name
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	/**
+	 * Return the number of characters in the specified column
+	 *
+	 * @param column
+	 * @return int
+	 */
+	int getLength(UCF column) {
+		int result = 0;
+
+		switch (column) {
+			case NET:
+				result = netPrefix.length() + String.valueOf(netName).length();
+
+				if (netIndexed) {
+					result += getDigitCount(netIndex);
+
+					if (netParenthesized) {
+						result += 2;
+					}
+				}
+				break;
+
+			case LOC:
+				result = ((spaceAroundEquals) ? 8 : 6) + location.length();
+
+				if (additions == null) {
+					result++;
+				}
+				break;
+
+			case ADDITIONS:
+				result = (additions != null) ? additions.length() : 0;
+				break;
+
+			case COMMENT:
+				result = COMMENT_PREFIX.length() + canonicalName.length();
+
+				if (canonicalIndexed) {
+					result += getDigitCount(canonicalIndex);
+				}
+				break;
+
+			default:
+				break;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if this row is a commented-out constraint for an unused pin
+	 *
+	 * @return boolean
+	 */
+	public boolean isUnused() {
+		return netPrefix == UNUSED_NET_PREFIX;
+	}
+
+	/**
+	 * setComment
+	 *
+	 * @param canonicalName
+	 * @param indexed
+	 * @param index
+	 */
+	void setComment(String canonicalName, boolean indexed, int index) {
+		this.canonicalName = canonicalName;
+		this.canonicalIndexed = indexed;
+		this.canonicalIndex = index;
+	}
+
+	/**
+	 * setLocation
+	 *
+	 * @param location
+	 * @param attributes
+	 * @param additions
+	 *            The UCF text of the attributes. This may be null
+	 * @param spaceAroundEquals
+	 */
+	void setLocation(String location, AttributeSet attributes, String additions, boolean spaceAroundEquals) {
+		this.location = location;
+		this.attributes = attributes;
+		this.additions = additions;
+		this.spaceAroundEquals = spaceAroundEquals;
+	}
+
+	/**
+	 * setNet
+	 *
+	 * @param prefix
+	 * @param name
+	 * @param indexed
+	 * @param index
+	 * @param parenthesized
+	 */
+	void setNet(String prefix, String name, boolean indexed, int index, boolean parenthesized) {
+		this.netPrefix = prefix;
+		this.netName = name;
+		this.netIndexed = indexed;
+		this.netIndex = index;
+		this.netParenthesized = indexed && parenthesized;
+	}
+}
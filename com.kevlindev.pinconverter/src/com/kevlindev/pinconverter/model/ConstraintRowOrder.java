@@ -0,0 +1,167 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ConstraintRowOrder sorts UCF rows by net name and then numerically by bus
+ * index, so LED(2) comes before LED(10). Commented-out rows for unused pins
+ * come first, just as they would in a plain text sort. As each row is added,
+ * its net name is given an id and its index is recorded. Only the distinct net
+ * names are compared as strings. Each row's sort key is then packed into a
+ * single long with its name rank, index, and position, so the rows themselves
+ * are sorted as primitives without any comparator.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+final class ConstraintRowOrder {
+	/**
+	 * The number of bits used for a row's position. Name ranks use the same
+	 * number of bits, which leaves the sign bit clear
+	 */
+	private static final int POSITION_BITS = 22;
+
+	/**
+	 * The number of bits used for a row's bus index
+	 */
+	private static final int INDEX_BITS = 19;
+
+	/**
+	 * The maximum number of rows that can be ordered
+	 */
+	private static final int MAX_ROWS = 1 << POSITION_BITS;
+
+	/**
+	 * Ids of used net names, by name
+	 */
+	private final Map<String, Integer> usedNames = new HashMap<String, Integer>();
+
+	/**
+	 * Ids of unused net names, by name
+	 */
+	private final Map<String, Integer> unusedNames = new HashMap<String, Integer>();
+
+	/**
+	 * The name id of each row
+	 */
+	private int[] nameIds = new int[64];
+
+	/**
+	 * The bus index of each row, plus one so rows without an index sort first
+	 */
+	private int[] indexes = new int[64];
+
+	/**
+	 * The number of rows added so far
+	 */
+	private int size;
+
+	/**
+	 * Record the sort key of the next row
+	 *
+	 * @param row
+	 */
+	void add(ConstraintRow row) {
+		if (size == MAX_ROWS) {
+			throw new IllegalStateException("Too many rows to sort: " + size);
+		}
+
+		if (size == nameIds.length) {
+			nameIds = Arrays.copyOf(nameIds, size * 2);
+			indexes = Arrays.copyOf(indexes, size * 2);
+		}
+
+		boolean unused = row.isUnused();
+		String name = String.valueOf(row.getNetName());
+		Map<String, Integer> ids = (unused) ? unusedNames : usedNames;
+		Integer id = ids.get(name);
+
+		if (id == null) {
+			id = Integer.valueOf(usedNames.size() + unusedNames.size());
+			ids.put(name, id);
+		}
+
+		nameIds[size] = id.intValue();
+		indexes[size] = Math.max(0, Math.min(row.getNetIndex() + 1, (1 << INDEX_BITS) - 1));
+		size++;
+	}
+
+	/**
+	 * Return the position of each row in sorted order. Rows with equal keys
+	 * keep the order in which they were added
+	 *
+	 * @return int[]
+	 */
+	int[] getOrder() {
+		int[] ranks = getNameRanks();
+		long[] keys = new long[size];
+
+		for (int i = 0; i < size; i++) {
+			long rank = ranks[nameIds[i]];
+
+			keys[i] = (rank << (INDEX_BITS + POSITION_BITS)) | ((long) indexes[i] << POSITION_BITS) | i;
+		}
+
+		Arrays.sort(keys);
+
+		int[] result = new int[size];
+		int positionMask = (1 << POSITION_BITS) - 1;
+
+		for (int i = 0; i < size; i++) {
+			result[i] = (int) (keys[i] & positionMask);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Rank each distinct net name, with all unused names before all used
+	 * names
+	 *
+	 * @return The rank of each name, by id
+	 */
+	private int[] getNameRanks() {
+		String[] unusedSorted = getSortedNames(unusedNames);
+		String[] usedSorted = getSortedNames(usedNames);
+		int[] result = new int[usedNames.size() + unusedNames.size()];
+
+		for (int i = 0; i < unusedSorted.length; i++) {
+			result[unusedNames.get(unusedSorted[i]).intValue()] = i;
+		}
+
+		for (int i = 0; i < usedSorted.length; i++) {
+			result[usedNames.get(usedSorted[i]).intValue()] = unusedSorted.length + i;
+		}
+
+		return result;
+	}
+
+	/**
+	 * getSortedNames
+	 *
+	 * @param ids
+	 * @return String[]
+	 */
+	private String[] getSortedNames(Map<String, Integer> ids) {
+		String[] result = ids.keySet().toArray(new String[ids.size()]);
+
+		Arrays.sort(result);
+
+		return result;
+	}
+
+	/**
+	 * size
+	 *
+	 * @return int
+	 */
+	int size() {
+		return size;
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+
+/**
+ * IConstraintEmitter writes pin constraints in a particular file format. A
+ * ConstraintGenerator resolves each row once and hands it to every emitter,
+ * first to be measured and then to be written.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public interface IConstraintEmitter {
+	/**
+	 * Prepare for a new set of rows. This is called before any rows are
+	 * measured
+	 */
+	void beginRows();
+
+	/**
+	 * Inspect a row before any rows are written. Emitters that align columns
+	 * use this to find column widths
+	 *
+	 * @param row
+	 */
+	void measureRow(ConstraintRow row);
+
+	/**
+	 * Write the comments and board-wide settings that precede all rows
+	 *
+	 * @param board
+	 * @param boardName
+	 *            The name the board was requested by
+	 * @throws IOException
+	 */
+	void writeHeader(Board board, String boardName) throws IOException;
+
+	/**
+	 * Write a row. Rows are written in output order after all rows have been
+	 * measured
+	 *
+	 * @param row
+	 * @throws IOException
+	 */
+	void writeRow(ConstraintRow row) throws IOException;
+}
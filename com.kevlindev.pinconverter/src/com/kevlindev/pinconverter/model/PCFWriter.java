@@ -0,0 +1,90 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * PCFWriter writes iCE40 PCF constraints. PCF only assigns pins, so the only
+ * attribute carried over is PULLUP. Configs and unused pins are written as
+ * comments.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class PCFWriter extends AbstractConstraintEmitter {
+	/**
+	 * The only attribute PCF supports
+	 */
+	private static final String PULLUP = "PULLUP";
+
+	/**
+	 * PCFWriter
+	 *
+	 * @param writer
+	 * @param configuration
+	 */
+	public PCFWriter(Writer writer, Set<Configuration> configuration) {
+		super(writer, configuration);
+	}
+
+	/**
+	 * hasPullup
+	 *
+	 * @param attributes
+	 * @return boolean
+	 */
+	private boolean hasPullup(AttributeSet attributes) {
+		boolean result = false;
+
+		for (int i = 0; i < attributes.size(); i++) {
+			if (PULLUP.equalsIgnoreCase(attributes.getKey(i))) {
+				result = true;
+				break;
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeHeader(com.kevlindev
+	 * .pinconverter.model.Board, java.lang.String)
+	 */
+	@Override
+	public void writeHeader(Board board, String boardName) throws IOException {
+		writeHeaderComments("PCF", board, boardName);
+		writeConfigs(board);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeRow(com.kevlindev
+	 * .pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void writeRow(ConstraintRow row) throws IOException {
+		if (row.isUnused()) {
+			line.append("# ");
+		}
+
+		line.append("set_io ");
+
+		if (hasPullup(row.getAttributes())) {
+			line.append("-pullup yes ");
+		}
+
+		row.appendPortName(line, '[', ']');
+		line.append(' ').append(row.getLocation());
+		writeLine();
+	}
+}
@@ -4,10 +4,8 @@
  */
 package com.kevlindev.pinconverter.model;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,7 +33,7 @@ public class Pin {
 	/**
 	 * Any additional UCF configuration
 	 */
-	private Map<String, String> additions;
+	private AttributeSet additions;
 
 	/**
 	 * An alias to use when outputting this bus to a UCF file. Note that if this
@@ -49,6 +47,35 @@ public class Pin {
 	 */
 	private Pin nextPin;
 
+	/**
+	 * The bus whose pin list holds this pin. This usually matches owningBus,
+	 * but differs for wing pins that have been placed on a board's bus
+	 */
+	private Bus slotBus;
+
+	/**
+	 * The index of this pin within slotBus
+	 */
+	private int slotIndex = -1;
+
+	/**
+	 * A shortcut to a pin further down the nextPin chain, usually the board
+	 * pin itself. This is updated on each lookup so chains of stacked wings
+	 * are only walked once
+	 */
+	private Pin boardPin;
+
+	/**
+	 * A count of the changes made to this pin's additions or owning bus
+	 */
+	private volatile int modificationCount;
+
+	/**
+	 * The last result of merging this pin's additions with those of its
+	 * owning bus. This is reused until either modification count changes
+	 */
+	private volatile MergedAttributes mergedAttributes;
+
 	/**
 	 * Pin
 	 */
@@ -64,9 +91,7 @@ public class Pin {
 		owningBus = pin.owningBus;
 		name = pin.name;
 
-		if (pin.additions != null) {
-			additions = new LinkedHashMap<String, String>(pin.additions);
-		}
+		additions = pin.additions;
 	}
 
 	/*
@@ -89,27 +114,12 @@ public class Pin {
 	}
 
 	/**
-	 * getAdditions
+	 * Return the additions for this pin merged with those of its owning bus
 	 * 
-	 * @return List<String>
+	 * @return A new Map<String, String>, which the caller may modify
 	 */
 	public Map<String, String> getAdditions() {
-		Bus owningBus = getOwningBus();
-		Map<String, String> result = new LinkedHashMap<String, String>();
-
-		if (owningBus != null) {
-			Map<String, String> additions = owningBus.getAdditions();
-
-			if (additions != null) {
-				result.putAll(additions);
-			}
-		}
-
-		if (additions != null) {
-			result.putAll(additions);
-		}
-
-		return result;
+		return new LinkedHashMap<String, String>(getAttributeSet().asMap());
 	}
 
 	/**
@@ -130,39 +140,7 @@ public class Pin {
 	 * @return String
 	 */
 	protected String getAdditionsString(String delimiter, Set<Configuration> configuration) {
-		// build combined list of entries from owning bus and this pin
-		Map<String, String> entries = new LinkedHashMap<String, String>();
-		Bus owningBus = getOwningBus();
-
-		if (owningBus.hasAdditions()) {
-			entries.putAll(owningBus.getAdditions());
-		}
-
-		if (additions != null) {
-			entries.putAll(additions);
-		}
-
-		// build a list of assignments to join, taking configuration into
-		// account
-		List<String> items = new ArrayList<String>();
-
-		for (Map.Entry<String, String> entry : entries.entrySet()) {
-			String name = entry.getKey();
-			String value = entry.getValue();
-
-			if (value != null) {
-				if (configuration.contains(Configuration.SPACE_AROUND_EQUALS)) {
-					items.add(name + " = " + value);
-				} else {
-					items.add(name + '=' + value);
-				}
-			} else {
-				items.add(name);
-			}
-		}
-
-		// return joined result
-		return StringUtils.join(delimiter, items);
+		return getAttributeSet().join(delimiter, configuration);
 	}
 
 	/**
@@ -174,6 +152,43 @@ public class Pin {
 		return alias;
 	}
 
+	/**
+	 * Clear this pin's slot if it is still recorded as being held by the
+	 * specified bus
+	 * 
+	 * @param bus
+	 */
+	void clearSlot(Bus bus) {
+		if (slotBus == bus) {
+			slotBus = null;
+			slotIndex = -1;
+		}
+	}
+
+	/**
+	 * Return the additions for this pin merged with those of its owning bus.
+	 * Merges are cached, so pins sharing additions share the result. Each pin
+	 * also keeps its last result, so the shared merge cache is only consulted
+	 * after this pin or its bus changes
+	 * 
+	 * @return AttributeSet
+	 */
+	public AttributeSet getAttributeSet() {
+		int pinCount = modificationCount;
+		Bus bus = owningBus;
+		int busCount = (bus != null) ? bus.getModificationCount() : 0;
+		MergedAttributes merged = mergedAttributes;
+
+		if (merged == null || merged.pinCount != pinCount || merged.bus != bus || merged.busCount != busCount) {
+			AttributeSet result = AttributeSet.merge((bus != null) ? bus.getAttributeSet() : null, additions);
+
+			merged = new MergedAttributes(bus, busCount, pinCount, (result != null) ? result : AttributeSet.EMPTY);
+			mergedAttributes = merged;
+		}
+
+		return merged.result;
+	}
+
 	/**
 	 * getBoardPin
 	 * 
@@ -182,8 +197,20 @@ public class Pin {
 	private Pin getBoardPin() {
 		Pin result = this;
 
+		// a shortcut may end at a pin that has since had wings stacked
+		// beneath it, so keep walking until we reach the bottom of the chain
 		while (result.nextPin != null) {
-			result = result.nextPin;
+			result = (result.boardPin != null) ? result.boardPin : result.nextPin;
+		}
+
+		// compress the path so every pin along it points at the board pin
+		Pin current = this;
+
+		while (current != result) {
+			Pin next = (current.boardPin != null) ? current.boardPin : current.nextPin;
+
+			current.boardPin = result;
+			current = next;
 		}
 
 		return result;
@@ -208,6 +235,26 @@ public class Pin {
 		return result;
 	}
 
+	/**
+	 * Return the additions defined directly on this pin, excluding any that
+	 * are inherited from the owning bus
+	 * 
+	 * @return Map<String, String>. This value may be null
+	 */
+	public Map<String, String> getDeclaredAdditions() {
+		return (additions != null) ? additions.asMap() : null;
+	}
+
+	/**
+	 * Return the additions defined directly on this pin, excluding any that
+	 * are inherited from the owning bus
+	 * 
+	 * @return AttributeSet. This value may be null
+	 */
+	public AttributeSet getDeclaredAttributeSet() {
+		return additions;
+	}
+
 	/**
 	 * getIndex
 	 * 
@@ -244,6 +291,24 @@ public class Pin {
 		return owningBus;
 	}
 
+	/**
+	 * getSlotBus
+	 * 
+	 * @return Bus
+	 */
+	Bus getSlotBus() {
+		return slotBus;
+	}
+
+	/**
+	 * getSlotIndex
+	 * 
+	 * @return int
+	 */
+	int getSlotIndex() {
+		return slotIndex;
+	}
+
 	/**
 	 * getUCFName
 	 * 
@@ -298,7 +363,17 @@ public class Pin {
 	 * @param additions
 	 */
 	public void setAdditions(Map<String, String> additions) {
+		setAttributeSet(AttributeSet.intern(additions));
+	}
+
+	/**
+	 * setAttributeSet
+	 * 
+	 * @param additions
+	 */
+	public void setAttributeSet(AttributeSet additions) {
 		this.additions = additions;
+		modificationCount++;
 	}
 
 	/**
@@ -308,6 +383,10 @@ public class Pin {
 	 */
 	public void setAlias(String alias) {
 		this.alias = alias;
+
+		if (owningBus != null) {
+			owningBus.modified();
+		}
 	}
 
 	/**
@@ -317,6 +396,10 @@ public class Pin {
 	 */
 	public void setName(String name) {
 		this.name = name;
+
+		if (owningBus != null) {
+			owningBus.modified();
+		}
 	}
 
 	/**
@@ -326,6 +409,18 @@ public class Pin {
 	 */
 	public void setNextPin(Pin nextPin) {
 		this.nextPin = nextPin;
+		boardPin = null;
+	}
+
+	/**
+	 * Record the bus and index where this pin is held
+	 * 
+	 * @param bus
+	 * @param index
+	 */
+	void setSlot(Bus bus, int index) {
+		slotBus = bus;
+		slotIndex = index;
 	}
 
 	/**
@@ -335,6 +430,7 @@ public class Pin {
 	 */
 	public void setOwningBus(Bus owningBus) {
 		this.owningBus = owningBus;
+		modificationCount++;
 	}
 
 	/*
@@ -358,49 +454,101 @@ public class Pin {
 	}
 
 	/**
-	 * toUCF
+	 * Fill a row with this pin's UCF constraint
 	 * 
-	 * @param table
+	 * @param row
 	 * @param configuration
+	 * @return false if this pin should not be emitted
 	 */
-	public void toUCF(Table table, Set<Configuration> configuration) {
-		String column1 = null;
-		String column2;
-		String column3 = StringUtils.EMPTY;
-		String column4;
-
+	boolean fillRow(ConstraintRow row, Set<Configuration> configuration) {
 		Pin boardPin = getBoardPin();
 		Bus boardBus = boardPin.getOwningBus();
-		String headerName = (owningBus.getOwningBoard().isWing()) ? getName() : boardBus.getUCFName(this);
-		String name = (owningBus.getOwningBoard().isWing()) ? boardPin.getName() : getName();
+		boolean isWing = owningBus.getOwningBoard().isWing();
+		String name = (isWing) ? boardPin.getName() : getName();
+		boolean indexed = boardBus.getPinCount() > 1;
+		boolean result = false;
 
 		if (name != null && name.length() > 0) {
-			if (headerName != null && headerName.length() != 0) {
-				column1 = String.format("NET %s", headerName);
+			if (isWing) {
+				result = getName() != null && getName().length() != 0;
+				row.setNet(ConstraintRow.NET_PREFIX, getName(), false, 0, false);
 			} else {
-				if (!configuration.contains(Configuration.EXCLUDE_UNUSED_PINS)) {
-					column1 = String.format("#NET %s", getCanonicalName());
-				}
-			}
-		}
+				String netName = (alias != null && alias.length() > 0) ? alias : boardBus.getUCFName();
 
-		// a null column1 indicates that we should not emit this pin
-		if (column1 != null) {
-			if (configuration.contains(Configuration.SPACE_AROUND_EQUALS)) {
-				column2 = String.format("LOC = \"%s\"", name);
-			} else {
-				column2 = String.format("LOC=\"%s\"", name);
+				result = indexed || (netName != null && netName.length() != 0);
+				row.setNet(ConstraintRow.NET_PREFIX, netName, indexed, (indexed) ? getIndex() : 0, true);
 			}
 
-			if (hasAdditions()) {
-				column3 = "| " + getAdditionsString(" | ", configuration) + ";";
-			} else {
-				column2 += ";";
+			if (!result && !configuration.contains(Configuration.EXCLUDE_UNUSED_PINS)) {
+				result = true;
+				row.setNet(ConstraintRow.UNUSED_NET_PREFIX, boardBus.getName(), indexed, (indexed) ? boardBus.getPinIndex(this) : 0, false);
 			}
+		}
+
+		// an unfilled row indicates that we should not emit this pin
+		if (result) {
+			AttributeSet attributes = getAttributeSet();
+			String additionsText = (attributes.size() > 0) ? attributes.toUCF(configuration) : null;
+
+			row.setLocation(name, attributes, additionsText, configuration.contains(Configuration.SPACE_AROUND_EQUALS));
+			row.setComment(boardBus.getName(), indexed, (indexed) ? boardBus.getPinIndex(this) : 0);
+		}
 
-			column4 = "# " + getCanonicalName();
+		return result;
+	}
 
-			table.addRow(column1, column2, column3, column4);
+	/**
+	 * toUCF
+	 * 
+	 * @param table
+	 * @param configuration
+	 */
+	public void toUCF(Table table, Set<Configuration> configuration) {
+		ConstraintRow row = new ConstraintRow();
+
+		if (fillRow(row, configuration)) {
+			table.addRow(row.getColumn(UCF.NET), row.getColumn(UCF.LOC), row.getColumn(UCF.ADDITIONS), row.getColumn(UCF.COMMENT));
+		}
+	}
+
+	/**
+	 * MergedAttributes records a merged attribute set along with the
+	 * modification counts that were current when it was merged
+	 */
+	private static final class MergedAttributes {
+		/**
+		 * The owning bus at the time of the merge
+		 */
+		final Bus bus;
+
+		/**
+		 * The owning bus's modification count at the time of the merge
+		 */
+		final int busCount;
+
+		/**
+		 * The pin's modification count at the time of the merge
+		 */
+		final int pinCount;
+
+		/**
+		 * The merged attribute set
+		 */
+		final AttributeSet result;
+
+		/**
+		 * MergedAttributes
+		 * 
+		 * @param bus
+		 * @param busCount
+		 * @param pinCount
+		 * @param result
+		 */
+		MergedAttributes(Bus bus, int busCount, int pinCount, AttributeSet result) {
+			this.bus = bus;
+			this.busCount = busCount;
+			this.pinCount = pinCount;
+			this.result = result;
 		}
 	}
 }
@@ -0,0 +1,256 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * PinIndex assigns a dense integer id to each FPGA pin name known to a board:
+ * the board's own pins followed by any pins named in its PROHIBIT configs.
+ * Ids let per-pin state be kept in bit sets and arrays instead of sets of
+ * strings. Like PinTranslation, names are found with a range of characters,
+ * so a pin name in a line of text can be looked up without creating a string.
+ * Indexes are immutable and shared by every thread that uses them
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class PinIndex {
+	/**
+	 * The name of the config listing pins that may not be used
+	 */
+	public static final String PROHIBIT = "PROHIBIT";
+
+	/**
+	 * The number of indexes kept in the cache
+	 */
+	private static final int CACHE_SIZE = 16;
+
+	/**
+	 * Indexes by resolved board. The least recently used index is dropped once
+	 * the cache is full
+	 */
+	private static final Map<ResolvedBoard, PinIndex> CACHE = new LinkedHashMap<ResolvedBoard, PinIndex>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ResolvedBoard, PinIndex> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Return the index of the FPGA pins on a board. Indexes are cached until
+	 * the board changes
+	 * 
+	 * @param board
+	 * @return PinIndex
+	 */
+	public static PinIndex compile(Board board) {
+		// resolved boards are replaced whenever a board changes, so they
+		// identify the version of the board
+		ResolvedBoard resolvedBoard = board.getResolvedBoard();
+
+		synchronized (CACHE) {
+			PinIndex result = CACHE.get(resolvedBoard);
+
+			if (result == null) {
+				List<String> pinNames = new ArrayList<String>();
+				List<String> prohibitedNames = new ArrayList<String>();
+
+				for (Pin pin : resolvedBoard.getPins()) {
+					if (pin.getName() != null) {
+						pinNames.add(pin.getName());
+					}
+				}
+
+				for (Tuple<String, String> config : resolvedBoard.getConfigs()) {
+					if (PROHIBIT.equalsIgnoreCase(config.first) && config.last != null) {
+						for (String name : StringUtils.COMMA_DELIMITER_PATTERN.split(config.last.trim())) {
+							prohibitedNames.add(name);
+						}
+					}
+				}
+
+				result = new PinIndex(pinNames, prohibitedNames);
+				CACHE.put(resolvedBoard, result);
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * The pin name of each id
+	 */
+	private final String[] names;
+
+	/**
+	 * The id in each slot plus one, or 0 for empty slots
+	 */
+	private final int[] slots;
+
+	/**
+	 * The hash of the pin name in each slot
+	 */
+	private final int[] hashes;
+
+	/**
+	 * The mask selecting a slot from a hash
+	 */
+	private final int mask;
+
+	/**
+	 * The number of pins on the board. Ids at or above this count name pins
+	 * that are only prohibited
+	 */
+	private final int boardPinCount;
+
+	/**
+	 * The ids of the pins that may not be used
+	 */
+	private final BitSet prohibited = new BitSet();
+
+	/**
+	 * Create an index of the specified pins. Names that appear more than once
+	 * are given a single id
+	 * 
+	 * @param pinNames
+	 *            The names of the pins on the board
+	 * @param prohibitedNames
+	 *            The names of the pins that may not be used
+	 */
+	public PinIndex(List<String> pinNames, List<String> prohibitedNames) {
+		int capacity = 16;
+
+		// keep the table at most half full so probes stay short
+		while (capacity < (pinNames.size() + prohibitedNames.size()) * 2) {
+			capacity *= 2;
+		}
+
+		List<String> uniqueNames = new ArrayList<String>();
+
+		slots = new int[capacity];
+		hashes = new int[capacity];
+		mask = capacity - 1;
+
+		for (String name : pinNames) {
+			add(name, uniqueNames);
+		}
+
+		boardPinCount = uniqueNames.size();
+
+		for (String name : prohibitedNames) {
+			prohibited.set(add(name, uniqueNames));
+		}
+
+		names = uniqueNames.toArray(new String[uniqueNames.size()]);
+	}
+
+	/**
+	 * Add a name to the table, unless it is already there
+	 * 
+	 * @param name
+	 * @param uniqueNames
+	 *            The names added so far, in id order
+	 * @return The id of the name
+	 */
+	private int add(String name, List<String> uniqueNames) {
+		int hash = name.hashCode();
+		int slot = getSlot(hash);
+
+		while (slots[slot] != 0 && !(hashes[slot] == hash && uniqueNames.get(slots[slot] - 1).equals(name))) {
+			slot = (slot + 1) & mask;
+		}
+
+		if (slots[slot] == 0) {
+			uniqueNames.add(name);
+			slots[slot] = uniqueNames.size();
+			hashes[slot] = hash;
+		}
+
+		return slots[slot] - 1;
+	}
+
+	/**
+	 * Return the id of the pin named by a range of characters
+	 * 
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return The id or -1 if the name is not in this index
+	 */
+	public int find(CharSequence text, int start, int end) {
+		int hash = PinTranslation.hash(text, start, end);
+		int slot = getSlot(hash);
+		int result = -1;
+
+		while (result == -1 && slots[slot] != 0) {
+			if (hashes[slot] == hash && PinTranslation.matches(names[slots[slot] - 1], text, start, end)) {
+				result = slots[slot] - 1;
+			} else {
+				slot = (slot + 1) & mask;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the pin name of an id
+	 * 
+	 * @param id
+	 * @return String
+	 */
+	public String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * Return the first slot to probe for a hash
+	 * 
+	 * @param hash
+	 * @return int
+	 */
+	private int getSlot(int hash) {
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * Determine if an id names a pin on the board
+	 * 
+	 * @param id
+	 * @return boolean
+	 */
+	public boolean isBoardPin(int id) {
+		return id >= 0 && id < boardPinCount;
+	}
+
+	/**
+	 * Determine if an id names a pin that may not be used
+	 * 
+	 * @param id
+	 * @return boolean
+	 */
+	public boolean isProhibited(int id) {
+		return id >= 0 && prohibited.get(id);
+	}
+
+	/**
+	 * size
+	 * 
+	 * @return The number of ids in this index
+	 */
+	public int size() {
+		return names.length;
+	}
+}
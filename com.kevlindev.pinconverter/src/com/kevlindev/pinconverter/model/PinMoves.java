@@ -0,0 +1,503 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * PinMoves is an immutable mapping of header pin names to new header pin
+ * names, as given to --move. Moves are stored as intervals, each moving a run
+ * of consecutive pins on one bus to a run of pins on another bus in the same
+ * or the reverse order. Memory use depends on the number of ranges moved, not
+ * on the number of pins, and translating a pin name is a single binary search
+ * of its bus's intervals. Pins that are not moved keep their names.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class PinMoves {
+	/**
+	 * The moves that leave every pin in place
+	 */
+	public static final PinMoves NONE = new PinMoves(new TreeMap<String, List<Interval>>());
+
+	/**
+	 * Parse a comma-delimited list of moves, e.g. "AH->AL,BL->BH". All moves in
+	 * a list are applied at the same time, so "A->B,B->A" swaps two buses. When
+	 * moves in a list overlap, the last one wins. A bus name without '->' moves
+	 * the bus to itself
+	 *
+	 * @param moveList
+	 * @return PinMoves
+	 */
+	public static PinMoves parse(String moveList) {
+		Map<String, List<Interval>> intervals = new TreeMap<String, List<Interval>>();
+
+		for (String move : StringUtils.COMMA_DELIMITER_PATTERN.split(moveList)) {
+			int index = move.indexOf(StringUtils.TRANSFORM_DELIMITER);
+			String sourcePin;
+			String destinationPin;
+
+			if (index != -1) {
+				sourcePin = move.substring(0, index).trim();
+				destinationPin = move.substring(index + StringUtils.TRANSFORM_DELIMITER.length()).trim();
+			} else {
+				// assume A is a shortcut for A->A
+				sourcePin = destinationPin = move.trim();
+			}
+
+			BusIterator source = BusIterator.getBus(sourcePin);
+			BusIterator destination = BusIterator.getBus(destinationPin);
+			int length = Math.min(Math.abs(source.getEnd() - source.getStart()), Math.abs(destination.getEnd() - destination.getStart())) + 1;
+			int sourceStep = (source.getStart() <= source.getEnd()) ? 1 : -1;
+			int destinationStep = (destination.getStart() <= destination.getEnd()) ? 1 : -1;
+			int sourceStart = source.getStart();
+			int destinationStart = destination.getStart();
+
+			// store every interval with its source pins in ascending order
+			if (sourceStep == -1) {
+				sourceStart -= length - 1;
+				destinationStart += destinationStep * (length - 1);
+			}
+
+			put(intervals, new Interval(source.getName(), sourceStart, length, destination.getName(), destinationStart, sourceStep * destinationStep));
+		}
+
+		return new PinMoves(intervals);
+	}
+
+	/**
+	 * Add an interval, replacing the parts of any intervals it overlaps
+	 *
+	 * @param intervals
+	 * @param interval
+	 */
+	private static void put(Map<String, List<Interval>> intervals, Interval interval) {
+		String key = interval.sourceBus.toUpperCase();
+		List<Interval> busIntervals = intervals.get(key);
+		List<Interval> result = new ArrayList<Interval>();
+
+		if (busIntervals != null) {
+			for (Interval existing : busIntervals) {
+				existing.addRemainder(interval.sourceStart, interval.getSourceEnd(), result);
+			}
+		}
+
+		result.add(interval);
+		Collections.sort(result);
+		intervals.put(key, result);
+	}
+
+	/**
+	 * Intervals by upper-case source bus name, each list sorted by source
+	 * index and without overlaps
+	 */
+	private final Map<String, Interval[]> intervals = new HashMap<String, Interval[]>();
+
+	/**
+	 * A canonical description of these moves
+	 */
+	private final String description;
+
+	/**
+	 * PinMoves
+	 *
+	 * @param intervals
+	 *            Intervals by upper-case source bus name, in name order
+	 */
+	private PinMoves(Map<String, List<Interval>> intervals) {
+		StringBuilder buffer = new StringBuilder();
+
+		for (Map.Entry<String, List<Interval>> entry : intervals.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				this.intervals.put(entry.getKey(), entry.getValue().toArray(new Interval[entry.getValue().size()]));
+
+				for (Interval interval : entry.getValue()) {
+					if (buffer.length() > 0) {
+						buffer.append(',');
+					}
+
+					buffer.append(interval);
+				}
+			}
+		}
+
+		description = buffer.toString();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof PinMoves && description.equals(((PinMoves) obj).description);
+	}
+
+	/**
+	 * Find the interval moving a pin
+	 *
+	 * @param busName
+	 * @param index
+	 * @return The interval or null if the pin is not moved
+	 */
+	private Interval find(String busName, int index) {
+		Interval[] busIntervals = intervals.get(busName.toUpperCase());
+		Interval result = null;
+
+		if (busIntervals != null) {
+			int low = 0;
+			int high = busIntervals.length - 1;
+
+			while (result == null && low <= high) {
+				int middle = (low + high) >>> 1;
+				Interval interval = busIntervals[middle];
+
+				if (index < interval.sourceStart) {
+					high = middle - 1;
+				} else if (index >= interval.getSourceEnd()) {
+					low = middle + 1;
+				} else {
+					result = interval;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return description.hashCode();
+	}
+
+	/**
+	 * isEmpty
+	 *
+	 * @return Returns true if no pins are moved
+	 */
+	public boolean isEmpty() {
+		return intervals.isEmpty();
+	}
+
+	/**
+	 * Return the moves that result from applying these moves followed by the
+	 * specified moves. For example, "A->B" then "B->C" moves A to C
+	 *
+	 * @param next
+	 * @return PinMoves
+	 */
+	public PinMoves then(PinMoves next) {
+		Map<String, List<Interval>> result = new TreeMap<String, List<Interval>>();
+
+		// pins moved by these moves are moved again by the next moves
+		for (Map.Entry<String, Interval[]> entry : intervals.entrySet()) {
+			List<Interval> composed = new ArrayList<Interval>();
+
+			for (Interval interval : entry.getValue()) {
+				next.addComposed(interval, composed);
+			}
+
+			Collections.sort(composed);
+			result.put(entry.getKey(), composed);
+		}
+
+		// pins left in place by these moves are moved by the next moves only
+		for (Map.Entry<String, Interval[]> entry : next.intervals.entrySet()) {
+			List<Interval> composed = result.get(entry.getKey());
+			Interval[] moved = intervals.get(entry.getKey());
+
+			if (composed == null) {
+				composed = new ArrayList<Interval>();
+				result.put(entry.getKey(), composed);
+			}
+
+			for (Interval interval : entry.getValue()) {
+				List<Interval> remainders = Arrays.asList(interval);
+
+				if (moved != null) {
+					for (Interval movedInterval : moved) {
+						List<Interval> pieces = new ArrayList<Interval>();
+
+						for (Interval remainder : remainders) {
+							remainder.addRemainder(movedInterval.sourceStart, movedInterval.getSourceEnd(), pieces);
+						}
+
+						remainders = pieces;
+					}
+				}
+
+				composed.addAll(remainders);
+			}
+
+			Collections.sort(composed);
+		}
+
+		return new PinMoves(result);
+	}
+
+	/**
+	 * Add the result of applying an interval followed by these moves. The
+	 * interval is split wherever its destination pins cross the boundary of
+	 * one of these moves
+	 *
+	 * @param interval
+	 * @param result
+	 */
+	private void addComposed(Interval interval, List<Interval> result) {
+		Interval[] busIntervals = intervals.get(interval.destinationBus.toUpperCase());
+		int low = interval.getDestinationLow();
+		int high = low + interval.length;
+
+		while (low < high) {
+			Interval next = null;
+			int end = high;
+
+			// find the interval covering low or the first one after it
+			if (busIntervals != null) {
+				for (int i = 0; i < busIntervals.length && next == null; i++) {
+					if (busIntervals[i].getSourceEnd() > low) {
+						next = busIntervals[i];
+					}
+				}
+			}
+
+			if (next != null && next.sourceStart <= low) {
+				end = Math.min(high, next.getSourceEnd());
+				result.add(interval.restrictDestination(low, end).then(next));
+			} else {
+				if (next != null) {
+					end = Math.min(high, next.sourceStart);
+				}
+
+				result.add(interval.restrictDestination(low, end));
+			}
+
+			low = end;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return description;
+	}
+
+	/**
+	 * Return the new name of a header pin, e.g. A3
+	 *
+	 * @param ucfName
+	 *            The pin's UCF name, without bus parentheses
+	 * @return The new name or null if the pin is not moved
+	 */
+	public String translate(String ucfName) {
+		String result = null;
+		int digitStart = ucfName.length();
+
+		while (digitStart > 0 && Character.isDigit(ucfName.charAt(digitStart - 1))) {
+			digitStart--;
+		}
+
+		// bus names may end with digits themselves, so each split is tried,
+		// starting with the longest index
+		for (int split = digitStart; split < ucfName.length() && result == null; split++) {
+			String index = ucfName.substring(split);
+
+			if (index.length() < 10 && (index.length() == 1 || index.charAt(0) != '0')) {
+				Interval interval = find(ucfName.substring(0, split), Integer.parseInt(index));
+
+				if (interval != null) {
+					result = interval.destinationBus + interval.translate(Integer.parseInt(index));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Interval moves a run of consecutive pins on a source bus to a run of
+	 * pins on a destination bus
+	 */
+	private static final class Interval implements Comparable<Interval> {
+		/**
+		 * The name of the source bus
+		 */
+		final String sourceBus;
+
+		/**
+		 * The index of the first source pin
+		 */
+		final int sourceStart;
+
+		/**
+		 * The number of pins moved
+		 */
+		final int length;
+
+		/**
+		 * The name of the destination bus
+		 */
+		final String destinationBus;
+
+		/**
+		 * The index of the destination pin of the first source pin
+		 */
+		final int destinationStart;
+
+		/**
+		 * The change in the destination index for each source pin. Either 1
+		 * or -1
+		 */
+		final int stride;
+
+		/**
+		 * Interval
+		 *
+		 * @param sourceBus
+		 * @param sourceStart
+		 * @param length
+		 * @param destinationBus
+		 * @param destinationStart
+		 * @param stride
+		 */
+		Interval(String sourceBus, int sourceStart, int length, String destinationBus, int destinationStart, int stride) {
+			this.sourceBus = sourceBus;
+			this.sourceStart = sourceStart;
+			this.length = length;
+			this.destinationBus = destinationBus;
+			this.destinationStart = destinationStart;
+			this.stride = stride;
+		}
+
+		/**
+		 * Add the parts of this interval whose source pins lie outside the
+		 * specified range
+		 *
+		 * @param start
+		 * @param end
+		 * @param result
+		 */
+		void addRemainder(int start, int end, List<Interval> result) {
+			if (end <= sourceStart || start >= getSourceEnd()) {
+				result.add(this);
+			} else {
+				if (sourceStart < start) {
+					result.add(restrictSource(sourceStart, start));
+				}
+
+				if (end < getSourceEnd()) {
+					result.add(restrictSource(end, getSourceEnd()));
+				}
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int compareTo(Interval other) {
+			return (sourceStart < other.sourceStart) ? -1 : ((sourceStart == other.sourceStart) ? 0 : 1);
+		}
+
+		/**
+		 * getDestinationLow
+		 *
+		 * @return The lowest destination index
+		 */
+		int getDestinationLow() {
+			return (stride == 1) ? destinationStart : destinationStart - (length - 1);
+		}
+
+		/**
+		 * getSourceEnd
+		 *
+		 * @return The index after the last source pin
+		 */
+		int getSourceEnd() {
+			return sourceStart + length;
+		}
+
+		/**
+		 * Return the part of this interval whose destination pins lie in the
+		 * specified range
+		 *
+		 * @param start
+		 * @param end
+		 * @return Interval
+		 */
+		Interval restrictDestination(int start, int end) {
+			// map the range back to source indexes, which are ascending
+			int first = (stride == 1) ? sourceStart + (start - destinationStart) : sourceStart + (destinationStart - (end - 1));
+
+			return restrictSource(first, first + (end - start));
+		}
+
+		/**
+		 * Return the part of this interval whose source pins lie in the
+		 * specified range
+		 *
+		 * @param start
+		 * @param end
+		 * @return Interval
+		 */
+		Interval restrictSource(int start, int end) {
+			return new Interval(sourceBus, start, end - start, destinationBus, translate(start), stride);
+		}
+
+		/**
+		 * Return this interval followed by another whose source pins cover
+		 * this interval's destination pins
+		 *
+		 * @param next
+		 * @return Interval
+		 */
+		Interval then(Interval next) {
+			return new Interval(sourceBus, sourceStart, length, next.destinationBus, next.translate(destinationStart), stride * next.stride);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			int last = translate(getSourceEnd() - 1);
+
+			return sourceBus.toUpperCase() + "[" + sourceStart + ":" + (getSourceEnd() - 1) + "]->" + destinationBus.toUpperCase() + "[" + destinationStart + ":" + last + "]";
+		}
+
+		/**
+		 * Return the destination index of a source index
+		 *
+		 * @param index
+		 * @return int
+		 */
+		int translate(int index) {
+			return destinationStart + stride * (index - sourceStart);
+		}
+	}
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PinTranslation is an immutable table mapping source board FPGA pin names to
+ * destination board FPGA pin names. Names are stored in an open-addressed hash
+ * table that is probed with a range of characters, so a pin name found in a
+ * line of text can be translated without creating a string. Tables are
+ * compiled once for each source board, destination board, and set of pin
+ * moves, and are shared by every thread that uses them.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public final class PinTranslation {
+	/**
+	 * The number of compiled tables kept in the cache
+	 */
+	private static final int CACHE_SIZE = 16;
+
+	/**
+	 * Compiled tables by key. The least recently used table is dropped once
+	 * the cache is full
+	 */
+	private static final Map<List<Object>, PinTranslation> CACHE = new LinkedHashMap<List<Object>, PinTranslation>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, PinTranslation> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Return the table translating pins on the source board to pins on the
+	 * destination board. A source pin is matched to the destination pin with
+	 * the same UCF name, after the name is moved. Source
+	 * pins without a matching destination pin are not included. Tables are
+	 * cached until either board changes
+	 *
+	 * @param source
+	 * @param destination
+	 * @param moves
+	 *            The moves applied to source header pin names. This may be
+	 *            null
+	 * @return PinTranslation
+	 */
+	public static PinTranslation compile(Board source, Board destination, PinMoves moves) {
+		ResolvedBoard resolvedSource = source.getResolvedBoard();
+		ResolvedBoard resolvedDestination = destination.getResolvedBoard();
+		List<Object> key = new ArrayList<Object>();
+
+		// resolved boards are replaced whenever a board changes, so they
+		// identify the version of each board
+		key.add(resolvedSource);
+		key.add(resolvedDestination);
+		key.add(moves);
+
+		synchronized (CACHE) {
+			PinTranslation result = CACHE.get(key);
+
+			if (result == null) {
+				result = new PinTranslation(createMap(resolvedSource, resolvedDestination, moves));
+				CACHE.put(key, result);
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * Build the map of source FPGA pin names to destination FPGA pin names
+	 *
+	 * @param source
+	 * @param destination
+	 * @param moves
+	 * @return Map<String, String>
+	 */
+	private static Map<String, String> createMap(ResolvedBoard source, ResolvedBoard destination, PinMoves moves) {
+		Map<String, String> result = new LinkedHashMap<String, String>();
+
+		for (Pin sourcePin : source.getPins()) {
+			String ucfName = sourcePin.getUCFName(false);
+			String moved = (moves != null) ? moves.translate(ucfName) : null;
+			Pin destinationPin = destination.getPinByUCFName((moved != null) ? moved : ucfName);
+
+			if (destinationPin != null && sourcePin.getName() != null) {
+				result.put(sourcePin.getName(), destinationPin.getName());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create a table from a map of source FPGA pin names to destination FPGA
+	 * pin names
+	 *
+	 * @param pinMap
+	 * @return PinTranslation
+	 */
+	public static PinTranslation fromMap(Map<String, String> pinMap) {
+		return new PinTranslation(new LinkedHashMap<String, String>(pinMap));
+	}
+
+	/**
+	 * Return the hash of a range of characters. This is the same as the hash
+	 * of the equivalent string
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return int
+	 */
+	static int hash(CharSequence text, int start, int end) {
+		int result = 0;
+
+		for (int i = start; i < end; i++) {
+			result = 31 * result + text.charAt(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if a range of characters matches a string
+	 *
+	 * @param name
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return boolean
+	 */
+	static boolean matches(String name, CharSequence text, int start, int end) {
+		boolean result = name.length() == end - start;
+
+		for (int i = 0; result && i < name.length(); i++) {
+			result = name.charAt(i) == text.charAt(start + i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The source pin name in each slot, or null for empty slots
+	 */
+	private final String[] sourceNames;
+
+	/**
+	 * The destination pin name in each slot
+	 */
+	private final String[] destinationNames;
+
+	/**
+	 * The destination pin name in each slot, or null when the pin keeps its
+	 * name
+	 */
+	private final String[] changedNames;
+
+	/**
+	 * The hash of the source pin name in each slot
+	 */
+	private final int[] hashes;
+
+	/**
+	 * The mask selecting a slot from a hash
+	 */
+	private final int mask;
+
+	/**
+	 * A read-only map view of this table
+	 */
+	private final Map<String, String> map;
+
+	/**
+	 * PinTranslation
+	 *
+	 * @param pinMap
+	 */
+	private PinTranslation(Map<String, String> pinMap) {
+		int capacity = 16;
+
+		// keep the table at most half full so probes stay short
+		while (capacity < pinMap.size() * 2) {
+			capacity *= 2;
+		}
+
+		sourceNames = new String[capacity];
+		destinationNames = new String[capacity];
+		changedNames = new String[capacity];
+		hashes = new int[capacity];
+		mask = capacity - 1;
+		map = Collections.unmodifiableMap(pinMap);
+
+		for (Map.Entry<String, String> entry : pinMap.entrySet()) {
+			String sourceName = entry.getKey();
+			int hash = sourceName.hashCode();
+			int slot = getSlot(hash);
+
+			while (sourceNames[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+
+			sourceNames[slot] = sourceName;
+			destinationNames[slot] = entry.getValue();
+			changedNames[slot] = (sourceName.equals(entry.getValue())) ? null : entry.getValue();
+			hashes[slot] = hash;
+		}
+	}
+
+	/**
+	 * Return a read-only map view of this table
+	 *
+	 * @return Map<String, String>
+	 */
+	public Map<String, String> asMap() {
+		return map;
+	}
+
+	/**
+	 * Find the slot holding a source pin name
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return The slot or -1 if the name is not in this table
+	 */
+	private int find(CharSequence text, int start, int end) {
+		int hash = hash(text, start, end);
+		int slot = getSlot(hash);
+		int result = -1;
+
+		while (result == -1 && sourceNames[slot] != null) {
+			if (hashes[slot] == hash && matches(sourceNames[slot], text, start, end)) {
+				result = slot;
+			} else {
+				slot = (slot + 1) & mask;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the destination pin name for a source pin name
+	 *
+	 * @param sourceName
+	 * @return The destination pin name or null if the source pin is not in
+	 *         this table
+	 */
+	public String get(String sourceName) {
+		int slot = find(sourceName, 0, sourceName.length());
+
+		return (slot != -1) ? destinationNames[slot] : null;
+	}
+
+	/**
+	 * Return the first slot to probe for a hash. The high bits are folded in,
+	 * since pin names often differ only in their last characters
+	 *
+	 * @param hash
+	 * @return int
+	 */
+	private int getSlot(int hash) {
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * size
+	 *
+	 * @return The number of source pins in this table
+	 */
+	public int size() {
+		return map.size();
+	}
+
+	/**
+	 * Return the new name of the source pin named by a range of characters
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return The destination pin name or null if the pin is not in this table
+	 *         or keeps its name
+	 */
+	public String translate(CharSequence text, int start, int end) {
+		int slot = find(text, start, end);
+
+		return (slot != -1) ? changedNames[slot] : null;
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * QSFWriter writes Quartus QSF assignments. Pins become location assignments
+ * and the IOSTANDARD, PULLUP, and DRIVE attributes are mapped to their Quartus
+ * equivalents. Other attributes have no Quartus equivalent and are dropped.
+ * Configs and unused pins are written as comments.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class QSFWriter extends AbstractConstraintEmitter {
+	/**
+	 * QSFWriter
+	 *
+	 * @param writer
+	 * @param configuration
+	 */
+	public QSFWriter(Writer writer, Set<Configuration> configuration) {
+		super(writer, configuration);
+	}
+
+	/**
+	 * Return the Quartus name of an I/O standard. Unknown standards are
+	 * passed through
+	 *
+	 * @param standard
+	 * @return String
+	 */
+	private String getIOStandard(String standard) {
+		String result = standard;
+
+		if ("LVTTL".equalsIgnoreCase(standard)) {
+			result = "3.3-V LVTTL";
+		} else if ("LVCMOS33".equalsIgnoreCase(standard)) {
+			result = "3.3-V LVCMOS";
+		} else if ("LVCMOS25".equalsIgnoreCase(standard)) {
+			result = "2.5 V";
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeHeader(com.kevlindev
+	 * .pinconverter.model.Board, java.lang.String)
+	 */
+	@Override
+	public void writeHeader(Board board, String boardName) throws IOException {
+		writeHeaderComments("QSF", board, boardName);
+		writeConfigs(board);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeRow(com.kevlindev
+	 * .pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void writeRow(ConstraintRow row) throws IOException {
+		writeAssignment(row, "set_location_assignment PIN_", row.getLocation());
+
+		AttributeSet attributes = row.getAttributes();
+
+		for (int i = 0; i < attributes.size(); i++) {
+			String key = attributes.getKey(i);
+			String value = attributes.getValue(i);
+
+			if ("IOSTANDARD".equalsIgnoreCase(key) && value != null) {
+				writeAssignment(row, "set_instance_assignment -name IO_STANDARD \"", getIOStandard(value) + "\"");
+			} else if ("PULLUP".equalsIgnoreCase(key)) {
+				writeAssignment(row, "set_instance_assignment -name WEAK_PULL_UP_RESISTOR ", "ON");
+			} else if ("DRIVE".equalsIgnoreCase(key) && value != null) {
+				writeAssignment(row, "set_instance_assignment -name CURRENT_STRENGTH_NEW \"", value + "MA\"");
+			}
+		}
+	}
+
+	/**
+	 * Write a single assignment to the row's port
+	 *
+	 * @param row
+	 * @param prefix
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeAssignment(ConstraintRow row, String prefix, String value) throws IOException {
+		if (row.isUnused()) {
+			line.append("# ");
+		}
+
+		line.append(prefix).append(value).append(" -to ");
+		row.appendPortName(line, '[', ']');
+		writeLine();
+	}
+}
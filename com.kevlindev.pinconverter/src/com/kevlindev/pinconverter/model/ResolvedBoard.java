@@ -0,0 +1,310 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kevlindev.collections.CaselessMap;
+import com.kevlindev.collections.Tuple;
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * ResolvedBoard is an immutable snapshot of a board with everything it
+ * inherits from its ancestors flattened into a single view. A snapshot records
+ * the modification counts of the registry and of each board in the inheritance
+ * chain so the owning board can tell when it needs to be resolved again. Since
+ * buses and pins report changes to their owning board, this includes changes
+ * made by wing placement. Name indexes are built the first time they are used.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+class ResolvedBoard {
+	/**
+	 * The registry used to look up parent boards
+	 */
+	private final BoardRegistry registry;
+
+	/**
+	 * The registry's modification count when this snapshot was created
+	 */
+	private final int registryModificationCount;
+
+	/**
+	 * The inheritance chain, from the root-most ancestor to the board itself
+	 */
+	private final Board[] chain;
+
+	/**
+	 * The modification count of each board in the chain when this snapshot was
+	 * created
+	 */
+	private final int[] modificationCounts;
+
+	/**
+	 * The index of the first bus of each board in the chain within the
+	 * flattened bus list
+	 */
+	private final int[] busOffsets;
+
+	/**
+	 * All buses, in inheritance order
+	 */
+	private final List<Bus> buses;
+
+	/**
+	 * All configs, in inheritance order
+	 */
+	private final List<Tuple<String, String>> configs;
+
+	/**
+	 * All pins, in inheritance order
+	 */
+	private final List<Pin> pins;
+
+	/**
+	 * The concatenated headers of all boards in the chain
+	 */
+	private final String header;
+
+	/**
+	 * A map of buses by case-insensitive name. Buses on descendants replace
+	 * those with the same name on ancestors
+	 */
+	private volatile Map<String, Bus> busesByName;
+
+	/**
+	 * A map of pins by FPGA pin name. The first pin with a given name wins
+	 */
+	private volatile Map<String, Pin> pinsByName;
+
+	/**
+	 * A map of pins by case-insensitive UCF name, without bus parentheses. The
+	 * last pin with a given name wins
+	 */
+	private volatile Map<String, Pin> pinsByUCFName;
+
+	/**
+	 * Resolve the specified board
+	 *
+	 * @param board
+	 * @param registry
+	 */
+	ResolvedBoard(Board board, BoardRegistry registry) {
+		this.registry = registry;
+
+		List<Board> boards = new ArrayList<Board>();
+
+		for (Board current = board; current != null; current = current.getParentBoard()) {
+			boards.add(current);
+		}
+
+		Collections.reverse(boards);
+
+		// looking up parents may materialize pending boards, so the count is
+		// only captured once the chain has been walked
+		registryModificationCount = registry.getModificationCount();
+		chain = boards.toArray(new Board[boards.size()]);
+		modificationCounts = new int[chain.length];
+		busOffsets = new int[chain.length];
+
+		List<Bus> allBuses = new ArrayList<Bus>();
+		List<Tuple<String, String>> allConfigs = new ArrayList<Tuple<String, String>>();
+		StringBuilder buffer = new StringBuilder();
+
+		for (int i = 0; i < chain.length; i++) {
+			Board current = chain[i];
+			List<Bus> declaredBuses = current.getDeclaredBuses();
+			List<Tuple<String, String>> declaredConfigs = current.getDeclaredConfigs();
+			String declaredHeader = current.getDeclaredHeader();
+
+			modificationCounts[i] = current.getModificationCount();
+			busOffsets[i] = allBuses.size();
+
+			if (declaredBuses != null) {
+				allBuses.addAll(declaredBuses);
+			}
+
+			if (declaredConfigs != null) {
+				allConfigs.addAll(declaredConfigs);
+			}
+
+			if (declaredHeader != null) {
+				buffer.append(declaredHeader).append(StringUtils.EOL);
+			}
+		}
+
+		List<Pin> allPins = new ArrayList<Pin>();
+
+		for (Bus bus : allBuses) {
+			if (bus.getPins() != null) {
+				allPins.addAll(bus.getPins());
+			}
+		}
+
+		buses = Collections.unmodifiableList(Arrays.asList(allBuses.toArray(new Bus[allBuses.size()])));
+		pins = Collections.unmodifiableList(Arrays.asList(allPins.toArray(new Pin[allPins.size()])));
+		configs = Collections.unmodifiableList(allConfigs);
+		header = buffer.toString();
+	}
+
+	/**
+	 * getBus
+	 *
+	 * @param index
+	 * @return Bus or null if the index is out of range
+	 */
+	Bus getBus(int index) {
+		return (0 <= index && index < buses.size()) ? buses.get(index) : null;
+	}
+
+	/**
+	 * getBus
+	 *
+	 * @param busName
+	 * @return Bus or null if no bus has the specified name
+	 */
+	Bus getBus(String busName) {
+		if (busesByName == null) {
+			Map<String, Bus> map = new CaselessMap<Bus>();
+
+			for (Bus bus : buses) {
+				map.put(bus.getName(), bus);
+			}
+
+			busesByName = map;
+		}
+
+		return busesByName.get(busName);
+	}
+
+	/**
+	 * Return the index of the specified bus within the flattened bus list
+	 *
+	 * @param bus
+	 * @return int or -1 if the bus does not belong to this board
+	 */
+	int getBusIndex(Bus bus) {
+		int result = -1;
+
+		for (int i = 0; i < chain.length; i++) {
+			List<Bus> declaredBuses = chain[i].getDeclaredBuses();
+
+			if (declaredBuses != null) {
+				int index = declaredBuses.indexOf(bus);
+
+				if (index != -1) {
+					result = busOffsets[i] + index;
+					break;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * getBuses
+	 *
+	 * @return An unmodifiable List<Bus>
+	 */
+	List<Bus> getBuses() {
+		return buses;
+	}
+
+	/**
+	 * getConfigs
+	 *
+	 * @return An unmodifiable List<Tuple<String, String>>
+	 */
+	List<Tuple<String, String>> getConfigs() {
+		return configs;
+	}
+
+	/**
+	 * getHeader
+	 *
+	 * @return String
+	 */
+	String getHeader() {
+		return header;
+	}
+
+	/**
+	 * getPin
+	 *
+	 * @param pinName
+	 *            The FPGA pin name
+	 * @return Pin or null if no pin has the specified name
+	 */
+	Pin getPin(String pinName) {
+		if (pinsByName == null) {
+			Map<String, Pin> map = new HashMap<String, Pin>();
+
+			for (Pin pin : pins) {
+				if (!map.containsKey(pin.getName())) {
+					map.put(pin.getName(), pin);
+				}
+			}
+
+			pinsByName = map;
+		}
+
+		return pinsByName.get(pinName);
+	}
+
+	/**
+	 * getPinByUCFName
+	 *
+	 * @param ucfName
+	 *            The UCF name of the pin, without bus parentheses
+	 * @return Pin or null if no pin has the specified name
+	 */
+	Pin getPinByUCFName(String ucfName) {
+		if (pinsByUCFName == null) {
+			Map<String, Pin> map = new CaselessMap<Pin>();
+
+			for (Pin pin : pins) {
+				map.put(pin.getUCFName(false), pin);
+			}
+
+			pinsByUCFName = map;
+		}
+
+		return pinsByUCFName.get(ucfName);
+	}
+
+	/**
+	 * getPins
+	 *
+	 * @return An unmodifiable List<Pin>
+	 */
+	List<Pin> getPins() {
+		return pins;
+	}
+
+	/**
+	 * Determine if this snapshot still reflects the registry and every board
+	 * in the inheritance chain
+	 *
+	 * @param registry
+	 * @return boolean
+	 */
+	boolean isCurrent(BoardRegistry registry) {
+		boolean result = this.registry == registry && registryModificationCount == registry.getModificationCount();
+
+		for (int i = 0; result && i < chain.length; i++) {
+			result = modificationCounts[i] == chain[i].getModificationCount();
+		}
+
+		return result;
+	}
+}
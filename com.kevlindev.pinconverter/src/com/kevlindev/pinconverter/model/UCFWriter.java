@@ -0,0 +1,161 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * UCFWriter streams UCF constraint rows to a writer. Rather than collecting
+ * every row into a table and converting the table to a string, a first pass
+ * over the pins measures the width of each column and a second pass writes
+ * each row, padded to those widths, directly to the writer. Rows are rendered
+ * into a reused buffer, so no strings are created per pin. The output matches
+ * that of a table built with Board#toUCF.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class UCFWriter extends AbstractConstraintEmitter {
+	/**
+	 * The UCF columns, in output order
+	 */
+	private static final UCF[] COLUMNS = UCF.values();
+
+	/**
+	 * The widest value of each column
+	 */
+	private final int[] widths = new int[COLUMNS.length];
+
+	/**
+	 * Whether each column is left unpadded
+	 */
+	private final boolean[] collapsed = new boolean[COLUMNS.length];
+
+	/**
+	 * UCFWriter
+	 *
+	 * @param writer
+	 * @param configuration
+	 */
+	public UCFWriter(Writer writer, Set<Configuration> configuration) {
+		super(writer, configuration);
+
+		for (UCF column : COLUMNS) {
+			collapsed[column.ordinal()] = isCollapsed(column);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.pinconverter.model.AbstractConstraintEmitter#beginRows()
+	 */
+	@Override
+	public void beginRows() {
+		Arrays.fill(widths, 0);
+	}
+
+	/**
+	 * isCollapsed
+	 *
+	 * @param column
+	 * @return boolean
+	 */
+	private boolean isCollapsed(UCF column) {
+		boolean result;
+
+		switch (column) {
+			case ADDITIONS:
+				result = configuration.contains(Configuration.COLLAPSE_COLUMNS);
+				break;
+
+			case COMMENT:
+				// the last column is never padded
+				result = true;
+				break;
+
+			default:
+				result = false;
+				break;
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.AbstractConstraintEmitter#measureRow(com
+	 * .kevlindev.pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void measureRow(ConstraintRow row) {
+		for (UCF column : COLUMNS) {
+			widths[column.ordinal()] = Math.max(widths[column.ordinal()], row.getLength(column));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeHeader(com.kevlindev
+	 * .pinconverter.model.Board, java.lang.String)
+	 */
+	@Override
+	public void writeHeader(Board board, String boardName) throws IOException {
+		writeHeaderComments("UCF", board, boardName);
+
+		// emit custom config
+		write(board.getConfigsString(configuration));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeRow(com.kevlindev
+	 * .pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void writeRow(ConstraintRow row) throws IOException {
+		for (UCF column : COLUMNS) {
+			if (column.ordinal() > 0) {
+				line.append(' ');
+			}
+
+			row.append(line, column);
+
+			if (!collapsed[column.ordinal()]) {
+				for (int i = row.getLength(column); i < widths[column.ordinal()]; i++) {
+					line.append(' ');
+				}
+			}
+		}
+
+		writeLine();
+	}
+
+	/**
+	 * Write the UCF rows for a board with all wings placed on the specified
+	 * overlay
+	 *
+	 * @param overlay
+	 * @param selection
+	 *            The buses and slots to write. If this is null, all pins are
+	 *            written
+	 * @throws IOException
+	 */
+	public void writeRows(BoardOverlay overlay, BusSelection selection) throws IOException {
+		ConstraintGenerator generator = new ConstraintGenerator(configuration);
+
+		generator.addEmitter(this);
+		generator.writeRows(overlay, selection);
+	}
+}
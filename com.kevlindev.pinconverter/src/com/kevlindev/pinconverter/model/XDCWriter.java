@@ -0,0 +1,157 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * XDCWriter writes Vivado XDC constraints. Each pin gets a PACKAGE_PIN
+ * property and one property per attribute. PERIOD attributes become clocks and
+ * PROHIBIT configs become site properties. Unused pins are written as
+ * comments.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class XDCWriter extends AbstractConstraintEmitter {
+	/**
+	 * The attribute converted to a create_clock command
+	 */
+	private static final String PERIOD = "PERIOD";
+
+	/**
+	 * The config converted to a PROHIBIT site property
+	 */
+	private static final String PROHIBIT = "PROHIBIT";
+
+	/**
+	 * XDCWriter
+	 *
+	 * @param writer
+	 * @param configuration
+	 */
+	public XDCWriter(Writer writer, Set<Configuration> configuration) {
+		super(writer, configuration);
+	}
+
+	/**
+	 * Append a clock period, dropping any "ns" suffix since XDC periods are
+	 * always in nanoseconds
+	 *
+	 * @param value
+	 */
+	private void appendPeriod(String value) {
+		String period = value.trim();
+
+		if (period.toLowerCase().endsWith("ns")) {
+			period = period.substring(0, period.length() - 2).trim();
+		}
+
+		line.append(period);
+	}
+
+	/**
+	 * appendPort
+	 *
+	 * @param row
+	 */
+	private void appendPort(ConstraintRow row) {
+		line.append(" [get_ports {");
+		row.appendPortName(line, '[', ']');
+		line.append("}]");
+	}
+
+	/**
+	 * Start a line, commenting it out if the row is unused
+	 *
+	 * @param row
+	 */
+	private void beginLine(ConstraintRow row) {
+		if (row.isUnused()) {
+			line.append("# ");
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.AbstractConstraintEmitter#writeConfig(java
+	 * .lang.String, java.lang.String)
+	 */
+	@Override
+	protected void writeConfig(String name, String value) throws IOException {
+		if (PROHIBIT.equalsIgnoreCase(name) && value != null) {
+			line.append("set_property PROHIBIT TRUE [get_sites {");
+
+			// UCF separates sites with commas, but Tcl lists are separated
+			// by spaces
+			String separator = "";
+
+			for (String site : value.split(",")) {
+				site = site.trim();
+
+				if (site.length() > 0) {
+					line.append(separator).append(site);
+					separator = " ";
+				}
+			}
+
+			line.append("}]");
+			writeLine();
+		} else {
+			super.writeConfig(name, value);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeHeader(com.kevlindev
+	 * .pinconverter.model.Board, java.lang.String)
+	 */
+	@Override
+	public void writeHeader(Board board, String boardName) throws IOException {
+		writeHeaderComments("XDC", board, boardName);
+		writeConfigs(board);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.pinconverter.model.IConstraintEmitter#writeRow(com.kevlindev
+	 * .pinconverter.model.ConstraintRow)
+	 */
+	@Override
+	public void writeRow(ConstraintRow row) throws IOException {
+		beginLine(row);
+		line.append("set_property PACKAGE_PIN ").append(row.getLocation());
+		appendPort(row);
+		writeLine();
+
+		AttributeSet attributes = row.getAttributes();
+
+		for (int i = 0; i < attributes.size(); i++) {
+			String key = attributes.getKey(i);
+			String value = attributes.getValue(i);
+
+			beginLine(row);
+
+			if (PERIOD.equalsIgnoreCase(key) && value != null) {
+				line.append("create_clock -period ");
+				appendPeriod(value);
+			} else {
+				line.append("set_property ").append(key).append(' ').append((value != null) ? value : "TRUE");
+			}
+
+			appendPort(row);
+			writeLine();
+		}
+	}
+}
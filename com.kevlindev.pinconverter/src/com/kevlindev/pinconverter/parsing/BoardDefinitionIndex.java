@@ -0,0 +1,286 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.BoardRegistry;
+import com.kevlindev.pinconverter.IBoardFactory;
+import com.kevlindev.pinconverter.model.Board;
+
+/**
+ * BoardDefinitionIndex records where each board definition lives within an
+ * encoded board definition file. A single pass over the bytes finds each
+ * board's range, and only the text before each board's opening curly brace is
+ * decoded and parsed to get its names and parent. Board bodies are parsed on
+ * demand.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardDefinitionIndex {
+	/**
+	 * The ASCII delimiters used by BoardDefinitionSplitter. An encoding must
+	 * represent these as the same single bytes for the index to work on raw
+	 * bytes
+	 */
+	private static final String DELIMITERS = "{}\"#<>\r\n";
+
+	/**
+	 * Create an index for the specified bytes
+	 *
+	 * @param bytes
+	 *            The encoded board definitions. The buffer is retained, so
+	 *            memory-mapped buffers are preferred
+	 * @param charset
+	 *            The character set used to encode the bytes
+	 * @return The index or null if the character set is not ASCII-compatible
+	 */
+	public static BoardDefinitionIndex create(ByteBuffer bytes, Charset charset) {
+		BoardDefinitionIndex result = null;
+
+		if (Arrays.equals(DELIMITERS.getBytes(charset), getAsciiBytes(DELIMITERS))) {
+			result = new BoardDefinitionIndex(bytes, charset);
+		}
+
+		return result;
+	}
+
+	/**
+	 * getAsciiBytes
+	 *
+	 * @param text
+	 * @return byte[]
+	 */
+	private static byte[] getAsciiBytes(String text) {
+		byte[] result = new byte[text.length()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (byte) text.charAt(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The encoded board definitions
+	 */
+	private ByteBuffer bytes;
+
+	/**
+	 * The character set used to decode board definitions
+	 */
+	private Charset charset;
+
+	/**
+	 * The names and parent name of each board, without any buses
+	 */
+	private List<Board> headers = new ArrayList<Board>();
+
+	/**
+	 * The offset of the first byte of each board definition, including any
+	 * preceding whitespace and comments
+	 */
+	private int[] starts = new int[16];
+
+	/**
+	 * The offset just past the closing curly brace of each board definition
+	 */
+	private int[] ends = new int[16];
+
+	/**
+	 * BoardDefinitionIndex
+	 *
+	 * @param bytes
+	 * @param charset
+	 */
+	private BoardDefinitionIndex(ByteBuffer bytes, Charset charset) {
+		this.bytes = bytes;
+		this.charset = charset;
+
+		BoardDefinitionSplitter splitter = new BoardDefinitionSplitter();
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+		int limit = bytes.limit();
+		int start = 0;
+		int bodyStart = -1;
+
+		for (int i = 0; i < limit; i++) {
+			switch (splitter.next(bytes.get(i) & 0xFF)) {
+				case BODY_START:
+					bodyStart = i;
+					break;
+
+				case BOARD_END:
+					Board header = (bodyStart != -1) ? parser.parseBoardHeader(decode(start, bodyStart)) : null;
+
+					if (header != null) {
+						addEntry(header, start, i + 1);
+					} else {
+						logError("Invalid board definition", start);
+					}
+
+					start = i + 1;
+					bodyStart = -1;
+					break;
+
+				default:
+					break;
+			}
+		}
+
+		// anything left over must be whitespace or comments
+		BoardDefinitionScanner scanner = new BoardDefinitionScanner();
+
+		scanner.setSource(decode(start, limit));
+
+		if (scanner.nextToken() != BoardDefinitionTokenType.EOF) {
+			logError("Incomplete board definition", start);
+		}
+	}
+
+	/**
+	 * Add a board to the index
+	 *
+	 * @param header
+	 * @param start
+	 * @param end
+	 */
+	private void addEntry(Board header, int start, int end) {
+		int index = headers.size();
+
+		if (index == starts.length) {
+			starts = Arrays.copyOf(starts, index * 2);
+			ends = Arrays.copyOf(ends, index * 2);
+		}
+
+		headers.add(header);
+		starts[index] = start;
+		ends[index] = end;
+	}
+
+	/**
+	 * Parse the board at the specified index. A new board is returned on each
+	 * call
+	 *
+	 * @param index
+	 * @return The board or null if its definition could not be parsed
+	 */
+	public Board createBoard(int index) {
+		BoardDefinitionParser parser = new BoardDefinitionParser();
+		Board result = null;
+
+		parser.parse(decode(starts[index], ends[index]));
+
+		List<Board> boards = parser.getBoards();
+
+		if (boards.size() == 1) {
+			result = boards.get(0);
+		} else {
+			logError("Invalid board definition", starts[index]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Decode a range of bytes
+	 *
+	 * @param start
+	 * @param end
+	 * @return String
+	 */
+	private String decode(int start, int end) {
+		ByteBuffer range = bytes.duplicate();
+
+		range.limit(end);
+		range.position(start);
+
+		return charset.decode(range).toString();
+	}
+
+	/**
+	 * getBoardCount
+	 *
+	 * @return int
+	 */
+	public int getBoardCount() {
+		return headers.size();
+	}
+
+	/**
+	 * getBoardNames
+	 *
+	 * @param index
+	 * @return List<String>
+	 */
+	public List<String> getBoardNames(int index) {
+		return headers.get(index).getNames();
+	}
+
+	/**
+	 * getEnd
+	 *
+	 * @param index
+	 * @return int
+	 */
+	public int getEnd(int index) {
+		return ends[index];
+	}
+
+	/**
+	 * getParentBoardName
+	 *
+	 * @param index
+	 * @return String
+	 */
+	public String getParentBoardName(int index) {
+		return headers.get(index).getParentBoardName();
+	}
+
+	/**
+	 * getStart
+	 *
+	 * @param index
+	 * @return int
+	 */
+	public int getStart(int index) {
+		return starts[index];
+	}
+
+	/**
+	 * logError
+	 *
+	 * @param message
+	 * @param offset
+	 */
+	private void logError(String message, int offset) {
+		Logger.logError(MessageFormat.format("{0} at byte offset {1}", message, Integer.toString(offset)));
+	}
+
+	/**
+	 * Register every indexed board with the specified registry. Each board is
+	 * parsed the first time the registry needs it
+	 *
+	 * @param registry
+	 */
+	public void register(BoardRegistry registry) {
+		for (int i = 0; i < headers.size(); i++) {
+			final int index = i;
+
+			registry.addBoardFactory(getBoardNames(i), new IBoardFactory() {
+				@Override
+				public Board createBoard() {
+					return BoardDefinitionIndex.this.createBoard(index);
+				}
+			});
+		}
+	}
+}
@@ -10,7 +10,10 @@ import java.util.Set;
 import com.kevlindev.parsing.Lexer;
 
 /**
- * BoardDefinitionLexer
+ * BoardDefinitionLexer. This lexer matches each token type's regular
+ * expression against the remaining source. BoardDefinitionParser uses the much
+ * faster BoardDefinitionScanner instead; this class remains as the reference
+ * definition of the token stream.
  * 
  * @author Kevin Lindsey
  * @version 1.0
@@ -4,8 +4,14 @@
  */
 package com.kevlindev.pinconverter.parsing;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
@@ -14,22 +20,28 @@ import java.util.Map;
 import java.util.Set;
 
 import com.kevlindev.collections.Tuple;
-import com.kevlindev.parsing.ILexer;
-import com.kevlindev.parsing.Lexeme;
-import com.kevlindev.parsing.Lexer;
-import com.kevlindev.parsing.Parser;
+import com.kevlindev.pinconverter.model.AttributeSet;
 import com.kevlindev.pinconverter.model.Board;
 import com.kevlindev.pinconverter.model.Bus;
 import com.kevlindev.pinconverter.model.Pin;
 import com.kevlindev.utils.StringUtils;
 
 /**
- * BoardDefinitionParser
+ * BoardDefinitionParser. This is a recursive descent parser that pulls tokens
+ * directly from a BoardDefinitionScanner. Tokens are never turned into
+ * Lexemes; text is only extracted for names and headers.
  * 
  * @author Kevin Lindsey
  * @version 1.0
  */
-public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
+public class BoardDefinitionParser {
+	/**
+	 * The initial size of the character buffer used when parsing from a
+	 * Reader. The buffer only grows when a single board definition does not
+	 * fit
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+
 	/**
 	 * A set used when determining if a given token can be considered a name
 	 */
@@ -47,13 +59,16 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 	 */
 	private List<Board> boards;
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.kevlindev.parsing.Parser#createLexer()
+	/**
+	 * The scanner used to tokenize the source being parsed
+	 */
+	private BoardDefinitionScanner scanner = new BoardDefinitionScanner();
+
+	/**
+	 * Advance to the next token in the source
 	 */
-	protected Lexer<BoardDefinitionTokenType> createLexer() {
-		return new BoardDefinitionLexer();
+	protected void advance() {
+		scanner.nextToken();
 	}
 
 	/**
@@ -65,21 +80,143 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 		return boards;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * getText
 	 * 
-	 * @see com.kevlindev.parsing.IParser#parse(java.lang.String)
+	 * @return String
+	 */
+	protected String getText() {
+		return scanner.getTokenText();
+	}
+
+	/**
+	 * isType
+	 * 
+	 * @param type
+	 * @return boolean
+	 */
+	protected boolean isType(BoardDefinitionTokenType type) {
+		return scanner.getTokenType() == type;
+	}
+
+	/**
+	 * isType
+	 * 
+	 * @param types
+	 * @return boolean
+	 */
+	protected boolean isType(Set<BoardDefinitionTokenType> types) {
+		BoardDefinitionTokenType type = scanner.getTokenType();
+
+		return type != null && types.contains(type);
+	}
+
+	/**
+	 * Parse the specified board definition source
+	 * 
+	 * @param source
 	 */
 	public void parse(String source) {
+		final List<Board> result = new ArrayList<Board>();
+
 		// clear boards
 		boards = Collections.emptyList();
 
-		// setup lexer and prime
-		getLexer().setSource(source);
+		// setup scanner and prime
+		scanner.setSource(source);
 		advance();
 
 		try {
-			boards = parseBoardDefinitions();
+			parseBoardDefinitions(new IBoardListener() {
+				@Override
+				public void boardParsed(Board board) {
+					result.add(board);
+				}
+			});
+
+			boards = result;
+		} catch (ParseException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Parse board definitions from a byte channel, decoding it with the
+	 * platform's default character set. See parse(Reader, IBoardListener)
+	 * 
+	 * @param channel
+	 *            The channel to read
+	 * @param listener
+	 *            The listener to notify as each board is parsed
+	 * @throws IOException
+	 */
+	public void parse(ReadableByteChannel channel, IBoardListener listener) throws IOException {
+		parse(Channels.newReader(channel, Charset.defaultCharset().newDecoder(), -1), listener);
+	}
+
+	/**
+	 * Parse board definitions from a reader. Characters are read into a buffer
+	 * until the closing curly brace of a board definition has been seen. That
+	 * board is then parsed and handed to the listener before any more input is
+	 * read. The buffer is reused for the next board, so memory use is bounded
+	 * by the size of the largest single board definition. Note that getBoards
+	 * is not updated by this method
+	 * 
+	 * @param reader
+	 *            The reader to consume. The reader is not closed
+	 * @param listener
+	 *            The listener to notify as each board is parsed
+	 * @throws IOException
+	 */
+	public void parse(Reader reader, IBoardListener listener) throws IOException {
+		char[] buffer = new char[INITIAL_BUFFER_SIZE];
+		int start = 0;
+		int limit = 0;
+		int scanned = 0;
+		BoardDefinitionSplitter splitter = new BoardDefinitionSplitter();
+		boolean eof = false;
+
+		try {
+			while (true) {
+				int boardEnd = -1;
+
+				// look for a closing curly brace at the top level
+				while (scanned < limit && boardEnd == -1) {
+					if (splitter.next(buffer[scanned++]) == BoardDefinitionSplitter.Boundary.BOARD_END) {
+						boardEnd = scanned;
+					}
+				}
+
+				if (boardEnd != -1) {
+					parseBoardDefinitions(buffer, start, boardEnd, listener);
+					start = boardEnd;
+				} else if (eof) {
+					// process whatever remains so trailing errors are reported
+					parseBoardDefinitions(buffer, start, limit, listener);
+					break;
+				} else {
+					// discard processed characters and grow only if a single
+					// board does not fit in the buffer
+					if (start > 0) {
+						System.arraycopy(buffer, start, buffer, 0, limit - start);
+						limit -= start;
+						scanned -= start;
+						start = 0;
+					}
+
+					if (limit == buffer.length) {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					}
+
+					int count = reader.read(buffer, limit, buffer.length - limit);
+
+					if (count == -1) {
+						eof = true;
+					} else {
+						limit += count;
+					}
+				}
+			}
 		} catch (ParseException e) {
 			e.printStackTrace();
 		}
@@ -143,16 +280,7 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 	protected Board parseBoardDefinition() throws ParseException {
 		Board result = new Board();
 
-		for (String name : parseNames()) {
-			result.addName(name);
-		}
-
-		if (isType(BoardDefinitionTokenType.COLON)) {
-			// advance over ':'
-			advance();
-
-			result.setParentBoardName(parseName());
-		}
+		parseBoardHeader(result);
 
 		if (isType(BoardDefinitionTokenType.LCURLY)) {
 			// advance over '{'
@@ -183,30 +311,90 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 		return result;
 	}
 
+	/**
+	 * Parse the names and optional parent name that precede the opening curly
+	 * brace of a board definition. This is used to index board definitions
+	 * without parsing their bodies
+	 * 
+	 * @param source
+	 *            The text preceding a board's opening curly brace
+	 * @return A board with names and a parent name but no buses, or null if
+	 *         the source could not be parsed
+	 */
+	public Board parseBoardHeader(String source) {
+		Board result = new Board();
+
+		// setup scanner and prime
+		scanner.setSource(source);
+		advance();
+
+		try {
+			parseBoardHeader(result);
+
+			if (!isType(BoardDefinitionTokenType.EOF)) {
+				throwError("A board's names should be followed by a left curly brace");
+			}
+		} catch (ParseException e) {
+			e.printStackTrace();
+			result = null;
+		}
+
+		return result;
+	}
+
+	/**
+	 * BoardHeader : Names | Names COLON Name;
+	 * 
+	 * @param board
+	 * @throws ParseException
+	 */
+	protected void parseBoardHeader(Board board) throws ParseException {
+		for (String name : parseNames()) {
+			board.addName(name);
+		}
+
+		if (isType(BoardDefinitionTokenType.COLON)) {
+			// advance over ':'
+			advance();
+
+			board.setParentBoardName(parseName());
+		}
+	}
+
 	/**
 	 * BoardDefinitions : Boards;<br>
 	 * Boards : Boards Board | Board;
 	 * 
+	 * @param listener
 	 * @throws ParseException
-	 * @return List<Board>
 	 */
-	protected List<Board> parseBoardDefinitions() throws ParseException {
-		List<Board> result = new ArrayList<Board>();
-		ILexer<BoardDefinitionTokenType> lexer = getLexer();
-
-		while (lexer.hasNext()) {
-			Lexeme<BoardDefinitionTokenType> current = getCurrentLexeme();
+	protected void parseBoardDefinitions(IBoardListener listener) throws ParseException {
+		while (!isType(BoardDefinitionTokenType.EOF)) {
+			int current = scanner.getTokenOffset();
 
-			result.add(parseBoardDefinition());
+			listener.boardParsed(parseBoardDefinition());
 
-			// break possible infinite loop if the lexer didn't advance
-			if (current == getCurrentLexeme()) { // $codepro.audit.disable
-													// useEquals
+			// break possible infinite loop if the scanner didn't advance
+			if (current == scanner.getTokenOffset()) {
 				break;
 			}
 		}
+	}
 
-		return result;
+	/**
+	 * Parse all board definitions within a range of a character buffer
+	 * 
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @param listener
+	 * @throws ParseException
+	 */
+	private void parseBoardDefinitions(char[] buffer, int start, int end, IBoardListener listener) throws ParseException {
+		scanner.setSource(buffer, start, end);
+		advance();
+
+		parseBoardDefinitions(listener);
 	}
 
 	/**
@@ -237,7 +425,7 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 					// advance over '}'
 					advance();
 
-					bus.setAdditions(additions);
+					bus.setAttributeSet(AttributeSet.intern(additions));
 				} else {
 					throwError("A right curly brace must close bus additions");
 				}
@@ -317,7 +505,7 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 				// advance over '}'
 				advance();
 
-				result.setAdditions(additions);
+				result.setAttributeSet(AttributeSet.intern(additions));
 			} else {
 				throwError("A right curly brace must close pin additions");
 			}
@@ -361,10 +549,10 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 			advance();
 
 			if (isType(BoardDefinitionTokenType.MULTILINE_STRING)) {
-				String text = getText();
+				// trim lines and set header, skipping the '<<' and '>>'
+				String text = scanner.getText(scanner.getTokenOffset() + 2, scanner.getTokenLength() - 4);
 
-				// trim lines and set header
-				result = StringUtils.trimLines(text.substring(2, text.length() - 2).trim());
+				result = StringUtils.trimLines(text.trim());
 
 				// advance over multi-line string
 				advance();
@@ -386,10 +574,11 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 		String result = null;
 
 		if (isType(NAME_SET)) {
-			result = getText();
-
 			if (isType(BoardDefinitionTokenType.STRING)) {
-				result = result.substring(1, result.length() - 1);
+				// skip the surrounding quotes
+				result = scanner.getText(scanner.getTokenOffset() + 1, scanner.getTokenLength() - 2);
+			} else {
+				result = getText();
 			}
 
 			// advance over name
@@ -421,4 +610,14 @@ public class BoardDefinitionParser extends Parser<BoardDefinitionTokenType> {
 
 		return result;
 	}
+
+	/**
+	 * Throw a parse exception at the offset of the current token
+	 * 
+	 * @param message
+	 * @throws ParseException
+	 */
+	protected void throwError(String message) throws ParseException {
+		throw new ParseException(message, scanner.getTokenOffset());
+	}
 }
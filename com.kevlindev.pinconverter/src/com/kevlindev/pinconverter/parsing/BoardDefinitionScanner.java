@@ -0,0 +1,408 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+/**
+ * BoardDefinitionScanner is a hand-written, single-pass replacement for the
+ * regular expressions in BoardDefinitionTokenType. It walks a char array once,
+ * recording each token's type, offset, and length. Text is only materialized
+ * when a caller asks for it. Whitespace and comments are skipped, just as they
+ * are filtered by BoardDefinitionLexer.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardDefinitionScanner {
+	/**
+	 * The characters being scanned
+	 */
+	private char[] source;
+
+	/**
+	 * The offset just past the last character to scan
+	 */
+	private int end;
+
+	/**
+	 * The offset of the next character to scan
+	 */
+	private int offset;
+
+	/**
+	 * The type of the current token. This is null if the current character
+	 * does not start any known token
+	 */
+	private BoardDefinitionTokenType tokenType;
+
+	/**
+	 * The offset of the first character of the current token
+	 */
+	private int tokenOffset;
+
+	/**
+	 * The number of characters in the current token
+	 */
+	private int tokenLength;
+
+	/**
+	 * isDigit
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isDigit(char c) {
+		return '0' <= c && c <= '9';
+	}
+
+	/**
+	 * Determine if the specified character can start an identifier. This
+	 * matches [-_a-zA-Z]
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isIdentifierStart(char c) {
+		return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || c == '_' || c == '-';
+	}
+
+	/**
+	 * Determine if the specified character can be part of an identifier. This
+	 * matches [-_a-zA-Z0-9]
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isIdentifierPart(char c) {
+		return isIdentifierStart(c) || isDigit(c);
+	}
+
+	/**
+	 * Determine if the specified character is whitespace. This matches the
+	 * regular expression \s
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+	}
+
+	/**
+	 * Determine if the specified character is a word character. This matches
+	 * the regular expression \w and is used to emulate \b
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isWordChar(char c) {
+		return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || isDigit(c) || c == '_';
+	}
+
+	/**
+	 * Return the offset of the end of the current line, not including the
+	 * line terminator
+	 *
+	 * @param start
+	 * @return int
+	 */
+	private int findEndOfLine(int start) {
+		int i = start;
+
+		while (i < end && source[i] != '\r' && source[i] != '\n') {
+			i++;
+		}
+
+		return i;
+	}
+
+	/**
+	 * Return the offset of the first run of digits starting at the specified
+	 * offset
+	 *
+	 * @param start
+	 * @return int
+	 */
+	private int skipDigits(int start) {
+		int i = start;
+
+		while (i < end && isDigit(source[i])) {
+			i++;
+		}
+
+		return i;
+	}
+
+	/**
+	 * Get the offset just past the last character this scanner will process
+	 *
+	 * @return int
+	 */
+	public int getEndOffset() {
+		return end;
+	}
+
+	/**
+	 * Return the underlying character array. Callers must not modify it
+	 *
+	 * @return char[]
+	 */
+	public char[] getSource() {
+		return source;
+	}
+
+	/**
+	 * Create a string from a range within the source
+	 *
+	 * @param start
+	 *            The offset of the first character
+	 * @param length
+	 *            The number of characters to include
+	 * @return String
+	 */
+	public String getText(int start, int length) {
+		return new String(source, start, length);
+	}
+
+	/**
+	 * getTokenLength
+	 *
+	 * @return int
+	 */
+	public int getTokenLength() {
+		return tokenLength;
+	}
+
+	/**
+	 * getTokenOffset
+	 *
+	 * @return int
+	 */
+	public int getTokenOffset() {
+		return tokenOffset;
+	}
+
+	/**
+	 * Return the text of the current token. Note that this allocates a new
+	 * string, so callers should use the offset and length when possible
+	 *
+	 * @return String
+	 */
+	public String getTokenText() {
+		return new String(source, tokenOffset, tokenLength);
+	}
+
+	/**
+	 * getTokenType
+	 *
+	 * @return BoardDefinitionTokenType
+	 */
+	public BoardDefinitionTokenType getTokenType() {
+		return tokenType;
+	}
+
+	/**
+	 * Scan the next significant token, skipping whitespace and comments. The
+	 * type of the token is returned and is also available via getTokenType.
+	 * EOF is returned once all characters have been consumed. A null value is
+	 * returned if the current character does not begin any known token. In
+	 * that case, the offending character is consumed so scanning can continue
+	 *
+	 * @return BoardDefinitionTokenType
+	 */
+	public BoardDefinitionTokenType nextToken() {
+		// skip whitespace and comments
+		while (offset < end) {
+			char c = source[offset];
+
+			if (isWhitespace(c)) {
+				offset++;
+			} else if (c == '#') {
+				offset = findEndOfLine(offset + 1);
+			} else {
+				break;
+			}
+		}
+
+		tokenOffset = offset;
+
+		if (offset >= end) {
+			tokenType = BoardDefinitionTokenType.EOF;
+			tokenLength = 0;
+
+			return tokenType;
+		}
+
+		char c = source[offset];
+		int i = offset + 1;
+
+		switch (c) {
+			case ',':
+				tokenType = BoardDefinitionTokenType.COMMA;
+				break;
+
+			case ':':
+				tokenType = BoardDefinitionTokenType.COLON;
+				break;
+
+			case '=':
+				tokenType = BoardDefinitionTokenType.EQUAL;
+				break;
+
+			case '{':
+				tokenType = BoardDefinitionTokenType.LCURLY;
+				break;
+
+			case '}':
+				tokenType = BoardDefinitionTokenType.RCURLY;
+				break;
+
+			case '[':
+				tokenType = BoardDefinitionTokenType.LBRACKET;
+				break;
+
+			case ']':
+				tokenType = BoardDefinitionTokenType.RBRACKET;
+				break;
+
+			case '"': {
+				// "[^"\r\n]*"
+				while (i < end && source[i] != '"' && source[i] != '\r' && source[i] != '\n') {
+					i++;
+				}
+
+				if (i < end && source[i] == '"') {
+					tokenType = BoardDefinitionTokenType.STRING;
+					i++;
+				} else {
+					tokenType = null;
+					i = offset + 1;
+				}
+				break;
+			}
+
+			case '<': {
+				// <<.*?>>
+				tokenType = null;
+
+				if (i < end && source[i] == '<') {
+					for (int j = i + 1; j + 1 < end; j++) {
+						if (source[j] == '>' && source[j + 1] == '>') {
+							tokenType = BoardDefinitionTokenType.MULTILINE_STRING;
+							i = j + 2;
+							break;
+						}
+					}
+				}
+				break;
+			}
+
+			case '@':
+				if (matches(i, "header")) {
+					tokenType = BoardDefinitionTokenType.HEADER;
+					i += 6;
+				} else if (matches(i, "config")) {
+					tokenType = BoardDefinitionTokenType.CONFIG;
+					i += 6;
+				} else {
+					tokenType = null;
+				}
+				break;
+
+			default:
+				if (isIdentifierStart(c)) {
+					// [-_a-zA-Z][-_a-zA-Z0-9]*(?:\([0-9]+\))?
+					while (i < end && isIdentifierPart(source[i])) {
+						i++;
+					}
+
+					if (i < end && source[i] == '(') {
+						int digitsEnd = skipDigits(i + 1);
+
+						if (digitsEnd > i + 1 && digitsEnd < end && source[digitsEnd] == ')') {
+							i = digitsEnd + 1;
+						}
+					}
+
+					tokenType = BoardDefinitionTokenType.IDENTIFIER;
+				} else if (isDigit(c)) {
+					// [0-9]+(?:\.[0-9]+)?(?:ns\b)?
+					i = skipDigits(i);
+
+					if (i < end && source[i] == '.') {
+						int fractionEnd = skipDigits(i + 1);
+
+						if (fractionEnd > i + 1) {
+							i = fractionEnd;
+						}
+					}
+
+					if (matches(i, "ns") && (i + 2 >= end || !isWordChar(source[i + 2]))) {
+						i += 2;
+					}
+
+					tokenType = BoardDefinitionTokenType.NUMBER;
+				} else {
+					tokenType = null;
+				}
+				break;
+		}
+
+		tokenLength = i - offset;
+		offset = i;
+
+		return tokenType;
+	}
+
+	/**
+	 * Determine if the specified text appears in the source at the given
+	 * offset
+	 *
+	 * @param start
+	 * @param text
+	 * @return boolean
+	 */
+	private boolean matches(int start, String text) {
+		int length = text.length();
+		boolean result = start + length <= end;
+
+		for (int i = 0; result && i < length; i++) {
+			result = source[start + i] == text.charAt(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Reset this scanner to process the specified string
+	 *
+	 * @param source
+	 */
+	public void setSource(String source) {
+		char[] chars = (source != null) ? source.toCharArray() : new char[0];
+
+		setSource(chars, 0, chars.length);
+	}
+
+	/**
+	 * Reset this scanner to process a range of a character array. The array
+	 * is used directly and is not copied
+	 *
+	 * @param source
+	 *            The characters to scan
+	 * @param start
+	 *            The offset of the first character to scan
+	 * @param end
+	 *            The offset just past the last character to scan
+	 */
+	public void setSource(char[] source, int start, int end) {
+		this.source = source;
+		this.offset = start;
+		this.end = end;
+
+		tokenType = null;
+		tokenOffset = start;
+		tokenLength = 0;
+	}
+}
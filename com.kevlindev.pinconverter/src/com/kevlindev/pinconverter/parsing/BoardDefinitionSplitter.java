@@ -0,0 +1,122 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+/**
+ * BoardDefinitionSplitter finds the boundaries of top-level board definitions
+ * without tokenizing them. Characters are fed one at a time and curly braces
+ * are counted, ignoring any that appear in strings, comments, and multi-line
+ * strings. Since every delimiter it looks for is ASCII, bytes from any
+ * ASCII-compatible encoding may be fed as well.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class BoardDefinitionSplitter {
+	/**
+	 * The events reported while feeding characters to the splitter
+	 */
+	public enum Boundary {
+		/**
+		 * The character is not a board boundary
+		 */
+		NONE,
+
+		/**
+		 * The character is the opening curly brace of a board definition
+		 */
+		BODY_START,
+
+		/**
+		 * The character is the closing curly brace of a board definition
+		 */
+		BOARD_END
+	}
+
+	/**
+	 * The lexical states that affect whether a curly brace counts
+	 */
+	private enum State {
+		DEFAULT, STRING, COMMENT, MULTILINE_STRING
+	}
+
+	/**
+	 * The current lexical state
+	 */
+	private State state = State.DEFAULT;
+
+	/**
+	 * The current curly brace nesting depth
+	 */
+	private int depth;
+
+	/**
+	 * The previous character, or 0 if it cannot start or end a two-character
+	 * delimiter
+	 */
+	private int previous;
+
+	/**
+	 * Process the next character
+	 *
+	 * @param c
+	 *            The character or byte value to process
+	 * @return The boundary, if any, that this character represents
+	 */
+	public Boundary next(int c) {
+		Boundary result = Boundary.NONE;
+
+		switch (state) {
+			case STRING:
+				if (c == '"' || c == '\r' || c == '\n') {
+					state = State.DEFAULT;
+				}
+				break;
+
+			case COMMENT:
+				if (c == '\r' || c == '\n') {
+					state = State.DEFAULT;
+				}
+				break;
+
+			case MULTILINE_STRING:
+				if (c == '>' && previous == '>') {
+					state = State.DEFAULT;
+					c = 0;
+				}
+				break;
+
+			default:
+				if (c == '"') {
+					state = State.STRING;
+				} else if (c == '#') {
+					state = State.COMMENT;
+				} else if (c == '<' && previous == '<') {
+					state = State.MULTILINE_STRING;
+					c = 0;
+				} else if (c == '{') {
+					if (depth == 0) {
+						result = Boundary.BODY_START;
+					}
+
+					depth++;
+				} else if (c == '}') {
+					depth--;
+
+					// a stray closing curly brace also ends a board so the
+					// parser can report it
+					if (depth <= 0) {
+						depth = 0;
+						result = Boundary.BOARD_END;
+					}
+				}
+				break;
+		}
+
+		previous = c;
+
+		return result;
+	}
+}
@@ -0,0 +1,24 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+import com.kevlindev.pinconverter.model.Board;
+
+/**
+ * IBoardListener
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public interface IBoardListener {
+	/**
+	 * Called by BoardDefinitionParser as soon as a board definition's closing
+	 * curly brace has been parsed
+	 * 
+	 * @param board
+	 *            The newly parsed board
+	 */
+	void boardParsed(Board board);
+}
@@ -0,0 +1,455 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+/**
+ * UCFScanner is a hand-written scanner for the statements on a line of a UCF
+ * file. Each call to next moves to the next statement and records the offsets
+ * of its name, its LOC value, its constraints, and any comment that follows
+ * it, without allocating. NET and INST statements may hold any number of
+ * constraints separated by '|', and the LOC constraint may appear anywhere
+ * among them with a quoted or unquoted value. Keywords are matched without
+ * regard to case, as they are by the Xilinx tools. Statements that span lines
+ * are not recognized.
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class UCFScanner {
+	/**
+	 * Determine if a character ends a keyword, name, or constraint key
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isTokenEnd(char c) {
+		return isWhitespace(c) || c == '=' || c == '|' || c == ';' || c == '#' || c == '"';
+	}
+
+	/**
+	 * isWhitespace
+	 *
+	 * @param c
+	 * @return boolean
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * The characters being scanned
+	 */
+	private CharSequence text;
+
+	/**
+	 * The offset just past the last character to scan
+	 */
+	private int end;
+
+	/**
+	 * The offset of the next character to scan
+	 */
+	private int offset;
+
+	/**
+	 * The type of the current statement
+	 */
+	private UCFStatementType statementType;
+
+	/**
+	 * The offset of the first character of the current statement
+	 */
+	private int statementStart;
+
+	/**
+	 * The offset just past the current statement, including its ';'
+	 */
+	private int statementEnd;
+
+	/**
+	 * The offset of the current statement's name, without quotes
+	 */
+	private int nameStart;
+
+	/**
+	 * The offset just past the current statement's name, without quotes
+	 */
+	private int nameEnd;
+
+	/**
+	 * The offset of the value of the current statement's first LOC
+	 * constraint, without quotes, or -1 if there is no LOC constraint
+	 */
+	private int locationStart;
+
+	/**
+	 * The offset just past the LOC value, or -1 if there is no LOC constraint
+	 */
+	private int locationEnd;
+
+	/**
+	 * The offset of the current statement's first constraint
+	 */
+	private int constraintsStart;
+
+	/**
+	 * The offset just past the current statement's last constraint
+	 */
+	private int constraintsEnd;
+
+	/**
+	 * The offset of the '#' starting the comment, or -1 if no comment has
+	 * been reached
+	 */
+	private int commentStart;
+
+	/**
+	 * getCommentStart
+	 *
+	 * @return The offset of the '#' starting the line's comment, or -1 if
+	 *         there is no comment. This is set once next returns false
+	 */
+	public int getCommentStart() {
+		return commentStart;
+	}
+
+	/**
+	 * getConstraintsEnd
+	 *
+	 * @return int
+	 */
+	public int getConstraintsEnd() {
+		return constraintsEnd;
+	}
+
+	/**
+	 * getConstraintsStart
+	 *
+	 * @return int
+	 */
+	public int getConstraintsStart() {
+		return constraintsStart;
+	}
+
+	/**
+	 * getLocationEnd
+	 *
+	 * @return The offset just past the LOC value or -1 if there is none
+	 */
+	public int getLocationEnd() {
+		return locationEnd;
+	}
+
+	/**
+	 * getLocationStart
+	 *
+	 * @return The offset of the LOC value or -1 if there is none
+	 */
+	public int getLocationStart() {
+		return locationStart;
+	}
+
+	/**
+	 * getNameEnd
+	 *
+	 * @return int
+	 */
+	public int getNameEnd() {
+		return nameEnd;
+	}
+
+	/**
+	 * getNameStart
+	 *
+	 * @return int
+	 */
+	public int getNameStart() {
+		return nameStart;
+	}
+
+	/**
+	 * getStatementEnd
+	 *
+	 * @return int
+	 */
+	public int getStatementEnd() {
+		return statementEnd;
+	}
+
+	/**
+	 * getStatementStart
+	 *
+	 * @return int
+	 */
+	public int getStatementStart() {
+		return statementStart;
+	}
+
+	/**
+	 * getStatementType
+	 *
+	 * @return UCFStatementType
+	 */
+	public UCFStatementType getStatementType() {
+		return statementType;
+	}
+
+	/**
+	 * Determine if the current statement is a NET or INST statement whose LOC
+	 * value names a single pin. Values naming logic sites, such as SLICE_X0Y0,
+	 * ranges and lists of sites, and wildcards do not name a pin
+	 *
+	 * @return boolean
+	 */
+	public boolean hasPinLocation() {
+		boolean result = statementType != UCFStatementType.OTHER && locationStart != -1 && locationEnd > locationStart;
+
+		for (int i = locationStart; result && i < locationEnd; i++) {
+			char c = text.charAt(i);
+
+			result = !isWhitespace(c) && c != '_' && c != ':' && c != ',' && c != '*' && c != '"';
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if the text at the specified range matches a keyword, ignoring
+	 * case
+	 *
+	 * @param start
+	 * @param stop
+	 * @param keyword
+	 * @return boolean
+	 */
+	private boolean isKeyword(int start, int stop, String keyword) {
+		boolean result = stop - start == keyword.length();
+
+		for (int i = 0; result && i < keyword.length(); i++) {
+			result = Character.toUpperCase(text.charAt(start + i)) == keyword.charAt(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine if the current character ends a statement
+	 *
+	 * @return boolean
+	 */
+	private boolean isStatementEnd() {
+		char c = text.charAt(offset);
+
+		return c == ';' || c == '#';
+	}
+
+	/**
+	 * Move to the next statement on the line
+	 *
+	 * @return Returns false if there are no more statements on the line
+	 */
+	public boolean next() {
+		boolean result = false;
+
+		skipWhitespace();
+
+		if (offset < end && text.charAt(offset) == '#') {
+			commentStart = offset;
+			offset = end;
+		} else if (offset < end) {
+			statementStart = offset;
+			nameStart = nameEnd = offset;
+			locationStart = locationEnd = -1;
+
+			int keywordStart = offset;
+
+			skipToken();
+
+			if (isKeyword(keywordStart, offset, "NET")) {
+				statementType = UCFStatementType.NET;
+			} else if (isKeyword(keywordStart, offset, "INST")) {
+				statementType = UCFStatementType.INST;
+			} else {
+				statementType = UCFStatementType.OTHER;
+			}
+
+			if (statementType != UCFStatementType.OTHER) {
+				skipWhitespace();
+				scanName();
+				skipWhitespace();
+				scanConstraints();
+			} else {
+				skipWhitespace();
+				constraintsStart = offset;
+				constraintsEnd = skipText(false);
+			}
+
+			if (offset < end && text.charAt(offset) == ';') {
+				offset++;
+			}
+
+			statementEnd = offset;
+			result = true;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Start scanning the specified text
+	 *
+	 * @param text
+	 */
+	public void reset(CharSequence text) {
+		reset(text, 0, text.length());
+	}
+
+	/**
+	 * Start scanning a range of the specified text
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 */
+	public void reset(CharSequence text, int start, int end) {
+		this.text = text;
+		this.offset = start;
+		this.end = end;
+		this.statementType = null;
+		this.commentStart = -1;
+	}
+
+	/**
+	 * Scan the '|'-separated constraints of a NET or INST statement, recording
+	 * the value of the first LOC constraint
+	 */
+	private void scanConstraints() {
+		constraintsStart = offset;
+		constraintsEnd = offset;
+
+		while (offset < end && !isStatementEnd()) {
+			char c = text.charAt(offset);
+
+			if (c == '|' || isWhitespace(c)) {
+				offset++;
+			} else if (c == '"' || c == '=') {
+				// a value without a key
+				skipText(true);
+			} else {
+				int keyStart = offset;
+
+				skipToken();
+
+				int keyEnd = offset;
+
+				skipWhitespace();
+
+				if (offset < end && text.charAt(offset) == '=') {
+					offset++;
+					skipWhitespace();
+
+					int valueStart = offset;
+					int valueEnd = skipText(true);
+
+					if (locationStart == -1 && isKeyword(keyStart, keyEnd, "LOC")) {
+						boolean quoted = valueEnd - valueStart >= 2 && text.charAt(valueStart) == '"' && text.charAt(valueEnd - 1) == '"';
+
+						locationStart = (quoted) ? valueStart + 1 : valueStart;
+						locationEnd = (quoted) ? valueEnd - 1 : valueEnd;
+					}
+
+					constraintsEnd = valueEnd;
+				} else {
+					constraintsEnd = keyEnd;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scan a quoted or unquoted statement name
+	 */
+	private void scanName() {
+		if (offset < end && text.charAt(offset) == '"') {
+			offset++;
+			nameStart = offset;
+
+			while (offset < end && text.charAt(offset) != '"') {
+				offset++;
+			}
+
+			nameEnd = offset;
+
+			if (offset < end) {
+				offset++;
+			}
+		} else {
+			nameStart = offset;
+			skipToken();
+			nameEnd = offset;
+		}
+	}
+
+	/**
+	 * Skip a quoted string, leaving the offset just past its closing quote or
+	 * at the end of the line if it is not closed
+	 */
+	private void skipString() {
+		offset++;
+
+		while (offset < end && text.charAt(offset) != '"') {
+			offset++;
+		}
+
+		if (offset < end) {
+			offset++;
+		}
+	}
+
+	/**
+	 * Skip a keyword, name, or constraint key
+	 */
+	private void skipToken() {
+		while (offset < end && !isTokenEnd(text.charAt(offset))) {
+			offset++;
+		}
+	}
+
+	/**
+	 * Skip text up to the end of the statement, or to the next '|' if
+	 * requested, stepping over quoted strings
+	 *
+	 * @param stopAtBar
+	 *            Stop at a '|' separating two constraints
+	 * @return The offset just past the text, ignoring trailing whitespace
+	 */
+	private int skipText(boolean stopAtBar) {
+		int result = offset;
+
+		while (offset < end && !isStatementEnd() && !(stopAtBar && text.charAt(offset) == '|')) {
+			if (text.charAt(offset) == '"') {
+				skipString();
+				result = offset;
+			} else {
+				if (!isWhitespace(text.charAt(offset))) {
+					result = offset + 1;
+				}
+
+				offset++;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Skip whitespace
+	 */
+	private void skipWhitespace() {
+		while (offset < end && isWhitespace(text.charAt(offset))) {
+			offset++;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.parsing;
+
+/**
+ * UCFStatementType
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public enum UCFStatementType {
+	/**
+	 * A NET statement, e.g. NET "CLK" LOC = "P89";
+	 */
+	NET,
+
+	/**
+	 * An INST statement, e.g. INST "led_OBUF" LOC = P18;
+	 */
+	INST,
+
+	/**
+	 * Any other statement, e.g. CONFIG PROHIBIT = P99;
+	 */
+	OTHER
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.cache.ResultCache;
+import com.kevlindev.pinconverter.commands.ICommand;
+
+/**
+ * CacheSwitch
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class CacheSwitch extends AbstractSwitch {
+	/**
+	 * A full or relative path to the directory holding cached results
+	 */
+	private String directoryName;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#createCommand()
+	 */
+	@Override
+	public ICommand createCommand() {
+		return new ICommand() {
+			@Override
+			public boolean execute(ExecutionContext context) {
+				ResultCache cache = null;
+
+				if (directoryName != null && directoryName.length() > 0) {
+					cache = new ResultCache(new File(directoryName));
+				}
+
+				context.setResultCache(cache);
+
+				return true;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "Reuse the results of identical generate, transform, and validate commands stored in the specified directory.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Cache Results";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#getAliases()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> aliases = new ArrayList<String>();
+
+		aliases.add("-cache");
+		aliases.add("--cache");
+
+		return aliases;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.papilio.ISwitch#processArg(com.kevlindev.papilio.PinConverter
+	 * , java.util.Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		boolean result = false;
+
+		if (args.hasNext()) {
+			directoryName = args.next();
+
+			result = true;
+		}
+
+		return result;
+	}
+}
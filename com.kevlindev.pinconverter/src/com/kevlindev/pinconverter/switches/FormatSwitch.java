@@ -0,0 +1,116 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.commands.ICommand;
+import com.kevlindev.pinconverter.model.ConstraintFormat;
+import com.kevlindev.utils.StringUtils;
+
+/**
+ * FormatSwitch
+ *
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class FormatSwitch extends AbstractSwitch {
+	/**
+	 * A comma-delimited list of format names
+	 */
+	private String formatList;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#createCommand()
+	 */
+	@Override
+	public ICommand createCommand() {
+		return new ICommand() {
+			@Override
+			public boolean execute(ExecutionContext context) {
+				List<ConstraintFormat> formats = new ArrayList<ConstraintFormat>();
+				boolean result = true;
+
+				for (String name : StringUtils.COMMA_DELIMITER_PATTERN.split(formatList.trim())) {
+					ConstraintFormat format = ConstraintFormat.getFormat(name);
+
+					if (format == null) {
+						System.err.println(MessageFormat.format("Unrecognized format ''{0}''. Expected one of UCF, XDC, PCF, or QSF", name));
+						result = false;
+					} else if (!formats.contains(format)) {
+						formats.add(format);
+					}
+				}
+
+				if (result) {
+					context.setFormats(formats);
+				}
+
+				return result;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "Set a comma-delimited list of formats to generate: UCF, XDC, PCF, QSF.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Output Formats";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.kevlindev.papilio.ISwitch#getAliases()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> aliases = new ArrayList<String>();
+
+		aliases.add("-f");
+		aliases.add("--format");
+
+		return aliases;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * com.kevlindev.papilio.ISwitch#processArg(com.kevlindev.papilio.PinConverter
+	 * , java.util.Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		boolean result = false;
+
+		if (args.hasNext()) {
+			formatList = args.next();
+
+			result = true;
+		}
+
+		return result;
+	}
+}
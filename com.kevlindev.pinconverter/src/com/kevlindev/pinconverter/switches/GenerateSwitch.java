@@ -4,26 +4,26 @@
  */
 package com.kevlindev.pinconverter.switches;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import com.kevlindev.collections.CaselessSet;
-import com.kevlindev.collections.CaselessString;
+import com.kevlindev.logging.Logger;
 import com.kevlindev.pinconverter.ExecutionContext;
 import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.pinconverter.cache.CacheKey;
 import com.kevlindev.pinconverter.commands.ICommand;
 import com.kevlindev.pinconverter.model.Board;
-import com.kevlindev.pinconverter.model.Bus;
-import com.kevlindev.pinconverter.model.BusIterator;
-import com.kevlindev.pinconverter.model.Configuration;
-import com.kevlindev.pinconverter.model.UCF;
-import com.kevlindev.text.Table;
-import com.kevlindev.utils.StringUtils;
+import com.kevlindev.pinconverter.model.BoardOverlay;
+import com.kevlindev.pinconverter.model.BusSelection;
+import com.kevlindev.pinconverter.model.ConstraintFormat;
+import com.kevlindev.pinconverter.model.ConstraintGenerator;
 
 /**
  * GenerateSwitch
@@ -45,134 +45,185 @@ public class GenerateSwitch extends AbstractSwitch {
 	@Override
 	public ICommand createCommand() {
 		return new ICommand() {
-			private Table createTable(Board board, ExecutionContext context) {
-				Table result = new Table();
-				Set<String> allowedNames = getNameFilter(board);
-				Set<Configuration> configuration = context.getConfiguration();
+			@Override
+			public boolean execute(ExecutionContext context) {
+				Board board = context.getDestinationBoard();
+				boolean result = false;
 
-				if (configuration.contains(Configuration.COLLAPSE_COLUMNS)) {
-					result.setAlignment(UCF.ADDITIONS.ordinal(), Table.Alignment.COLLAPSE);
-				}
+				if (board != null) {
+					List<ConstraintFormat> formats = context.getFormats();
+					List<CacheKey> keys = createCacheKeys(context, formats);
 
-				result.setAlignment(UCF.COMMENT.ordinal(), Table.Alignment.COLLAPSE);
+					if (outputCachedResults(context, formats, keys)) {
+						result = true;
+					} else {
+						result = generate(context, board, formats, keys);
+					}
+				} else {
+					String message;
+					String boardName = context.getDestinationBoardName();
 
-				// emit board to table
-				board.toUCF(result, allowedNames, configuration);
+					if (boardName == null || boardName.isEmpty()) {
+						message = "Unable to generate UCF file. You need to define a destination board with the -dst option";
+					} else {
+						// @formatter:off
+						message = MessageFormat.format(
+							"Unable to generate UCF file. The board you specified, ''{0}'', is not defined",
+							boardName
+						);
+						// @formatter:on
+					}
 
-				// sort table, if necessary
-				if (context.isSorted()) {
-					// TODO: add Comparator that takes indexes into account
-					result.sort(UCF.NET.ordinal());
+					System.err.println(message);
 				}
 
 				return result;
 			}
 
-			private void emitHeaders(Board board, ExecutionContext context, StringBuilder buffer) {
-				buffer.append("# UCF file for the ").append(context.getDestinationBoardName()).append(" board").append(StringUtils.EOL);
-				buffer.append("# Generated by pin_converter, written by Kevin Lindsey").append(StringUtils.EOL);
-				buffer.append("# https://github.com/thelonious/papilio_pins/tree/development/pin_converter").append(StringUtils.EOL);
-				buffer.append(StringUtils.EOL);
+			private List<CacheKey> createCacheKeys(ExecutionContext context, List<ConstraintFormat> formats) {
+				CacheKey key = context.createCacheKey("generate");
+				List<CacheKey> result = null;
 
-				// emit custom header
-				String header = board.getHeader();
+				if (key != null) {
+					key.add(busList);
+					result = new ArrayList<CacheKey>();
 
-				if (header != null && header.length() > 0) {
-					buffer.append(header);
+					// each format is cached separately, so it can be copied
+					// to its own file
+					for (ConstraintFormat format : formats) {
+						result.add(key.copy().add(format.name()));
+					}
 				}
+
+				return result;
 			}
 
-			@Override
-			public boolean execute(ExecutionContext context) {
-				Board board = context.getDestinationBoard();
+			private boolean generate(ExecutionContext context, Board board, List<ConstraintFormat> formats, List<CacheKey> keys) {
+				List<Writer> outputs = new ArrayList<Writer>();
+				boolean buffered = formats.size() > 1 && !context.isOutputToFile();
 				boolean result = false;
 
-				if (board != null) {
-					StringBuilder buffer = new StringBuilder();
+				// place wings on an overlay so the registry's board is left
+				// untouched
+				BoardOverlay overlay = new BoardOverlay(board);
 
-					// place wings on the board
-					placeWings(board, context.getWingPlacementMap());
+				placeWings(overlay, context.getWingPlacementMap());
 
-					// emit header
-					emitHeaders(board, context, buffer);
+				try {
+					ConstraintGenerator generator = new ConstraintGenerator(context.getConfiguration());
 
-					// emit custom config
-					buffer.append(board.getConfigsString(context.getConfiguration()));
+					for (int i = 0; i < formats.size(); i++) {
+						ConstraintFormat format = formats.get(i);
+						Writer output;
 
-					// emit table to UCF buffer
-					buffer.append(createTable(board, context).toString());
+						if (buffered) {
+							// keep formats going to STDOUT from being
+							// interleaved
+							output = new StringWriter();
+						} else {
+							// stream each format to its file, caching it as it
+							// is written
+							output = context.openOutput(getFileFormat(formats, format), (keys != null) ? keys.get(i) : null);
+						}
 
-					// output result
-					context.outputResult(buffer.toString());
+						outputs.add(output);
+						generator.addEmitter(format.createEmitter(output, context.getConfiguration()));
+					}
+
+					// resolve each row once and stream it to every format
+					generator.writeHeaders(board, context.getDestinationBoardName());
+					generator.writeRows(overlay, getSelection(board));
+
+					if (buffered) {
+						writeBuffers(context, formats, outputs, keys);
+					}
 
 					result = true;
-				} else {
-					String message;
-					String boardName = context.getDestinationBoardName();
+				} catch (IOException e) {
+					e.printStackTrace();
+				} finally {
+					for (Writer output : outputs) {
+						context.closeOutput(output, result);
+					}
+				}
 
-					if (boardName == null || boardName.isEmpty()) {
-						message = "Unable to generate UCF file. You need to define a destination board with the -dst option";
-					} else {
-						// @formatter:off
-						message = MessageFormat.format(
-							"Unable to generate UCF file. The board you specified, ''{0}'', is not defined",
-							boardName
-						);
-						// @formatter:on
+				return result;
+			}
+
+			private boolean outputCachedResults(ExecutionContext context, List<ConstraintFormat> formats, List<CacheKey> keys) {
+				List<File> entries = new ArrayList<File>();
+				boolean result = false;
+
+				if (keys != null) {
+					for (CacheKey key : keys) {
+						File entry = context.getCachedResult(key);
+
+						if (entry != null) {
+							entries.add(entry);
+						}
 					}
+				}
 
-					System.err.println(message);
+				if (!entries.isEmpty() && entries.size() == formats.size()) {
+					try {
+						for (int i = 0; i < formats.size(); i++) {
+							context.outputCachedResult(entries.get(i), getFileFormat(formats, formats.get(i)));
+						}
+
+						result = true;
+					} catch (IOException e) {
+						Logger.logError("Unable to read from result cache: " + e.getMessage());
+					}
 				}
 
 				return result;
 			}
 
-			private void placeWings(Board board, Map<String, String> wingPlacementMap) {
+			private void placeWings(BoardOverlay overlay, Map<String, String> wingPlacementMap) {
 				if (wingPlacementMap != null) {
 					for (Map.Entry<String, String> entry : wingPlacementMap.entrySet()) {
 						Board wing = Registrar.WING_REGISTRY.getBoard(entry.getValue());
 						String header = entry.getKey();
 
-						board.placeWing(wing, header);
+						overlay.placeWing(wing, header);
 					}
 				}
 			}
 
-			private Set<String> getNameFilter(Board board) {
-				Set<String> result = null;
+			private ConstraintFormat getFileFormat(List<ConstraintFormat> formats, ConstraintFormat format) {
+				// a single UCF file keeps the output file's name, but other
+				// formats are never written under a UCF file's name
+				return (formats.size() > 1 || format != ConstraintFormat.UCF) ? format : null;
+			}
+
+			private BusSelection getSelection(Board board) {
+				BusSelection result = null;
 
 				if (busList != null && busList.length() > 0) {
-					String[] buses = StringUtils.COMMA_DELIMITER_PATTERN.split(busList);
+					result = BusSelection.compile(board, busList);
+				}
 
-					result = new CaselessSet(new LinkedHashSet<CaselessString>());
+				return result;
+			}
 
-					for (String busText : buses) {
-						Bus bus = board.getBus(busText);
+			private void writeBuffers(ExecutionContext context, List<ConstraintFormat> formats, List<Writer> buffers, List<CacheKey> keys) throws IOException {
+				Writer output = null;
 
-						if (board.containsBusName(busText) && bus.getPinCount() == 1) {
-							result.add(busText);
-						} else {
-							BusIterator busNames;
-
-							if (bus != null) {
-								String range = "[0:" + (bus.getPinCount() - 1) + "]";
-								busNames = BusIterator.getBus(busText + range);
-							} else {
-								busNames = BusIterator.getBus(busText);
-							}
-
-							// add wing name to pass filtering in
-							// Bus#toUCF(Set<String>)
-							result.add(busNames.getName());
-
-							while (busNames.hasNext()) {
-								result.add(busNames.next());
-							}
+				try {
+					output = context.openOutput();
+
+					for (int i = 0; i < formats.size(); i++) {
+						String text = buffers.get(i).toString();
+
+						output.write(text);
+
+						if (keys != null) {
+							context.cacheResult(keys.get(i), text);
 						}
 					}
+				} finally {
+					context.closeOutput(output);
 				}
-
-				return result;
 			}
 		};
 	}
@@ -184,7 +235,7 @@ public class GenerateSwitch extends AbstractSwitch {
 	 */
 	@Override
 	public String getDescription() {
-		return "Generate a new UCF file for the specified board.";
+		return "Generate a new UCF file, or files in the formats set with --format, for the specified board.";
 	}
 
 	/*
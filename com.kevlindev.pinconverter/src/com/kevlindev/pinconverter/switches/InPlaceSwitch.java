@@ -0,0 +1,74 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.commands.ICommand;
+
+/**
+ * InPlaceSwitch
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class InPlaceSwitch extends AbstractSwitch {
+	@Override
+	public ICommand createCommand() {
+		return new ICommand() {
+			@Override
+			public boolean execute(ExecutionContext context) {
+				context.setIsInPlace(true);
+
+				return true;
+			}
+		};
+	}
+
+	@Override
+	public String getDescription() {
+		return "Replace each transformed file with its output.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Transform In Place";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.pinconverter.switches.AbstractSwitch#getSwitchNames()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> names = new ArrayList<String>();
+
+		names.add("-ip");
+		names.add("--inPlace");
+
+		return names;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.pinconverter.switches.AbstractSwitch#processArg(java.util
+	 * .Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		return true;
+	}
+}
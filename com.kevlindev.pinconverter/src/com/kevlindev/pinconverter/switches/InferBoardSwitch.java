@@ -0,0 +1,77 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.pinconverter.commands.ICommand;
+import com.kevlindev.pinconverter.commands.InferBoardCommand;
+
+/**
+ * InferBoardSwitch
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class InferBoardSwitch extends AbstractSwitch {
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#createCommand()
+	 */
+	@Override
+	public ICommand createCommand() {
+		return new InferBoardCommand();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "List the boards having the FPGA pins used by a UCF file, best first.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Infer Board";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getAliases()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> aliases = new ArrayList<String>();
+
+		aliases.add("-infer");
+		aliases.add("--inferBoard");
+
+		return aliases;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.papilio.ISwitch#processArg(com.kevlindev.papilio.PinConverter
+	 * , java.util.Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		return true;
+	}
+}
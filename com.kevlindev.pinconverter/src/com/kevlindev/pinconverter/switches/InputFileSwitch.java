@@ -5,11 +5,13 @@
 package com.kevlindev.pinconverter.switches;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import com.kevlindev.pinconverter.commands.ICommand;
 import com.kevlindev.pinconverter.commands.InputFileCommand;
+import com.kevlindev.utils.StringUtils;
 
 /**
  * GenerateSwitch
@@ -19,7 +21,8 @@ import com.kevlindev.pinconverter.commands.InputFileCommand;
  */
 public class InputFileSwitch extends AbstractSwitch {
 	/**
-	 * A full or relative path of a file to input
+	 * A full or relative path of a file to input, or a comma-delimited list of
+	 * files, directories, and glob patterns
 	 */
 	private String fileName;
 
@@ -30,7 +33,9 @@ public class InputFileSwitch extends AbstractSwitch {
 	 */
 	@Override
 	public ICommand createCommand() {
-		return new InputFileCommand(fileName);
+		List<String> fileNames = (fileName != null) ? Arrays.asList(StringUtils.COMMA_DELIMITER_PATTERN.split(fileName.trim())) : null;
+
+		return new InputFileCommand(fileNames);
 	}
 
 	/*
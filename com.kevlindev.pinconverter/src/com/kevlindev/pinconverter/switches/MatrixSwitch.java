@@ -0,0 +1,148 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.Registrar;
+import com.kevlindev.pinconverter.commands.ICommand;
+import com.kevlindev.pinconverter.matrix.MatrixGenerator;
+import com.kevlindev.pinconverter.matrix.MatrixPlan;
+
+/**
+ * MatrixSwitch
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class MatrixSwitch extends AbstractSwitch {
+	/**
+	 * A full or relative path to a spec file or null to generate every
+	 * combination
+	 */
+	private String specFileName;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#createCommand()
+	 */
+	@Override
+	public ICommand createCommand() {
+		return new ICommand() {
+			@Override
+			public boolean execute(ExecutionContext context) {
+				MatrixPlan plan = createPlan();
+				boolean result = false;
+
+				if (plan != null) {
+					File directory = new File(context.isOutputToFile() ? context.getOutputFileName() : ".");
+
+					if (directory.isDirectory() || directory.mkdirs()) {
+						MatrixGenerator generator = new MatrixGenerator(directory, context.getFormats(), context.getConfiguration(), context.getThreadCount());
+
+						result = generator.generate(plan, Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY);
+
+						for (String error : generator.getErrors()) {
+							System.err.println(error);
+						}
+
+						System.out.println(generator.getReport());
+					} else {
+						System.err.println("Unable to create output directory: " + directory);
+					}
+				}
+
+				return result;
+			}
+
+			private MatrixPlan createPlan() {
+				MatrixPlan result = null;
+
+				if (specFileName == null) {
+					result = MatrixPlan.enumerate(Registrar.BOARD_REGISTRY, Registrar.WING_REGISTRY);
+				} else {
+					try {
+						Reader reader = new FileReader(specFileName);
+
+						try {
+							result = MatrixPlan.read(reader);
+						} finally {
+							reader.close();
+						}
+					} catch (IOException e) {
+						Logger.logError("Unable to read matrix spec file: " + e.getMessage());
+					}
+				}
+
+				return result;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "Generate files for every board and wing placement combination, or for those listed in a spec file, into the --output directory.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Generate Matrix";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getAliases()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> aliases = new ArrayList<String>();
+
+		aliases.add("-mx");
+		aliases.add("--matrix");
+
+		return aliases;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.papilio.ISwitch#processArg(com.kevlindev.papilio.PinConverter
+	 * , java.util.Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		boolean result = false;
+
+		if (args.hasNext()) {
+			String arg = args.next();
+
+			specFileName = ("all".equals(arg.toLowerCase())) ? null : arg;
+			result = true;
+		}
+
+		return result;
+	}
+}
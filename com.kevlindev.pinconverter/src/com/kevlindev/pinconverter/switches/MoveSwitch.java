@@ -4,16 +4,18 @@
  */
 package com.kevlindev.pinconverter.switches;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-import com.kevlindev.collections.CaselessMap;
+import com.kevlindev.logging.Logger;
 import com.kevlindev.pinconverter.ExecutionContext;
 import com.kevlindev.pinconverter.commands.ICommand;
-import com.kevlindev.pinconverter.model.BusIterator;
-import com.kevlindev.utils.StringUtils;
+import com.kevlindev.pinconverter.model.PinMoves;
 
 /**
  * MoveSwitch
@@ -23,7 +25,42 @@ import com.kevlindev.utils.StringUtils;
  */
 public class MoveSwitch extends AbstractSwitch {
 	/**
-	 * A list of move commands
+	 * The prefix of an argument naming a move script
+	 */
+	private static final String SCRIPT_PREFIX = "@";
+
+	/**
+	 * Read a move script. Each line holds a list of moves, which are applied
+	 * after the moves on the lines before it. Blank lines and lines starting
+	 * with '#' are ignored
+	 * 
+	 * @param reader
+	 * @return PinMoves
+	 * @throws IOException
+	 */
+	public static PinMoves readScript(Reader reader) throws IOException {
+		BufferedReader input = new BufferedReader(reader);
+		PinMoves result = PinMoves.NONE;
+
+		try {
+			String line;
+
+			while ((line = input.readLine()) != null) {
+				line = line.trim();
+
+				if (line.length() > 0 && !line.startsWith("#")) {
+					result = result.then(PinMoves.parse(line));
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		return result;
+	}
+
+	/**
+	 * A list of move commands or a move script file name prefixed with '@'
 	 */
 	private String commandLists;
 
@@ -34,38 +71,29 @@ public class MoveSwitch extends AbstractSwitch {
 	 */
 	@Override
 	public ICommand createCommand() {
+		// the switch is reused for each --move, so each command keeps its own
+		// list
+		final String moveList = commandLists;
+
 		return new ICommand() {
 			@Override
 			public boolean execute(ExecutionContext context) {
-				String[] commands = StringUtils.COMMA_DELIMITER_PATTERN.split(commandLists);
-				// TODO: grab translation map from execution context so we
-				// append instead of replacing?
-				Map<String, String> pinTranslationMap = new CaselessMap<String>();
-
-				for (String command : commands) {
-					int index = command.indexOf(StringUtils.TRANSFORM_DELIMITER);
-					String sourcePin;
-					String destinationPin;
-
-					if (index != -1) {
-						sourcePin = command.substring(0, index).trim();
-						destinationPin = command.substring(index + StringUtils.TRANSFORM_DELIMITER.length()).trim();
-					} else {
-						// assume A is a shortcut for A->A
-						sourcePin = destinationPin = command.trim();
-					}
+				boolean result = true;
 
-					BusIterator sourceBus = BusIterator.getBus(sourcePin);
-					BusIterator destinationBus = BusIterator.getBus(destinationPin);
+				if (moveList.startsWith(SCRIPT_PREFIX)) {
+					String fileName = moveList.substring(SCRIPT_PREFIX.length());
 
-					while (sourceBus.hasNext() && destinationBus.hasNext()) {
-						pinTranslationMap.put(sourceBus.next(), destinationBus.next());
+					try {
+						context.addPinMoves(readScript(new FileReader(fileName)));
+					} catch (IOException e) {
+						Logger.logError("Unable to read move script: " + e.getMessage());
+						result = false;
 					}
+				} else {
+					context.addPinMoves(PinMoves.parse(moveList));
 				}
 
-				context.setPinTranslationMap(pinTranslationMap);
-
-				return true;
+				return result;
 			}
 		};
 	}
@@ -77,7 +105,7 @@ public class MoveSwitch extends AbstractSwitch {
 	 */
 	@Override
 	public String getDescription() {
-		return "Move assignments from one wing to another.";
+		return "Move assignments from one wing to another. Moves given more than once, or read from a script with @file, are applied in order.";
 	}
 
 	/*
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import com.kevlindev.collections.Tuple;
 import com.kevlindev.pinconverter.ExecutionContext;
 import com.kevlindev.pinconverter.commands.ICommand;
 import com.kevlindev.utils.StringUtils;
@@ -24,6 +25,45 @@ public class PlaceWingSwitch extends AbstractSwitch {
 	 */
 	private String wingPlacementList;
 
+	/**
+	 * Parse a list of wing placements, e.g. "B/LED->AL,AH;PS/2->BH"
+	 * 
+	 * @param wingPlacementList
+	 * @return A list of tuples of the location of the first pin each wing
+	 *         covers, e.g. A8, and the wing name
+	 */
+	public static List<Tuple<String, String>> getPlacements(String wingPlacementList) {
+		List<Tuple<String, String>> result = new ArrayList<Tuple<String, String>>();
+		String[] wingPlacements = StringUtils.SEMICOLON_DELIMITER_PATTERN.split(wingPlacementList);
+
+		for (String wingPlacement : wingPlacements) {
+			int index = wingPlacement.indexOf(StringUtils.TRANSFORM_DELIMITER);
+
+			if (index != -1) {
+				String wingName = wingPlacement.substring(0, index).trim();
+				String destinationPinList = wingPlacement.substring(index + StringUtils.TRANSFORM_DELIMITER.length()).trim();
+				String[] destinationPins = StringUtils.COMMA_DELIMITER_PATTERN.split(destinationPinList);
+
+				for (String destinationPin : destinationPins) {
+					if (destinationPin.endsWith("l") || destinationPin.endsWith("L")) {
+						destinationPin = destinationPin.substring(0, destinationPin.length() - 1) + "0"; // $codepro.audit.disable
+																											// stringConcatenationInLoop
+					} else if (destinationPin.endsWith("h") || destinationPin.endsWith("H")) {
+						destinationPin = destinationPin.substring(0, destinationPin.length() - 1) + "8"; // $codepro.audit.disable
+																											// stringConcatenationInLoop
+					} else {
+						destinationPin = destinationPin + "0"; // $codepro.audit.disable
+																// stringConcatenationInLoop
+					}
+
+					result.add(new Tuple<String, String>(destinationPin, wingName));
+				}
+			}
+		}
+
+		return result;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -34,31 +74,8 @@ public class PlaceWingSwitch extends AbstractSwitch {
 		return new ICommand() {
 			@Override
 			public boolean execute(ExecutionContext context) {
-				String[] wingPlacements = StringUtils.SEMICOLON_DELIMITER_PATTERN.split(wingPlacementList);
-
-				for (String wingPlacement : wingPlacements) {
-					int index = wingPlacement.indexOf(StringUtils.TRANSFORM_DELIMITER);
-
-					if (index != -1) {
-						String wingName = wingPlacement.substring(0, index).trim();
-						String destinationPinList = wingPlacement.substring(index + StringUtils.TRANSFORM_DELIMITER.length()).trim();
-						String[] destinationPins = StringUtils.COMMA_DELIMITER_PATTERN.split(destinationPinList);
-
-						for (String destinationPin : destinationPins) {
-							if (destinationPin.endsWith("l") || destinationPin.endsWith("L")) {
-								destinationPin = destinationPin.substring(0, destinationPin.length() - 1) + "0"; // $codepro.audit.disable
-																													// stringConcatenationInLoop
-							} else if (destinationPin.endsWith("h") || destinationPin.endsWith("H")) {
-								destinationPin = destinationPin.substring(0, destinationPin.length() - 1) + "8"; // $codepro.audit.disable
-																													// stringConcatenationInLoop
-							} else {
-								destinationPin = destinationPin + "0"; // $codepro.audit.disable
-																		// stringConcatenationInLoop
-							}
-
-							context.addWingPlacement(destinationPin, wingName);
-						}
-					}
+				for (Tuple<String, String> placement : getPlacements(wingPlacementList)) {
+					context.addWingPlacement(placement.first, placement.last);
 				}
 
 				return true;
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2011, Kevin Lindsey
+ * See LICENSE file for licensing information
+ */
+package com.kevlindev.pinconverter.switches;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.kevlindev.logging.Logger;
+import com.kevlindev.pinconverter.ExecutionContext;
+import com.kevlindev.pinconverter.commands.ICommand;
+
+/**
+ * ThreadsSwitch
+ * 
+ * @author Kevin Lindsey
+ * @version 1.0
+ */
+public class ThreadsSwitch extends AbstractSwitch {
+	/**
+	 * The number of threads to use
+	 */
+	private int threadCount;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#createCommand()
+	 */
+	@Override
+	public ICommand createCommand() {
+		final int count = threadCount;
+
+		return new ICommand() {
+			@Override
+			public boolean execute(ExecutionContext context) {
+				boolean result = count > 0;
+
+				if (result) {
+					context.setThreadCount(count);
+				} else {
+					Logger.logError("The number of threads must be a positive number or 'auto'");
+				}
+
+				return result;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "Transform, validate, and generate matrices using the specified number of threads, or one per processor with 'auto'.";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.pinconverter.switches.ISwitch#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName() {
+		return "Threads";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.kevlindev.papilio.ISwitch#getAliases()
+	 */
+	@Override
+	public List<String> getSwitchNames() {
+		List<String> aliases = new ArrayList<String>();
+
+		aliases.add("-j");
+		aliases.add("--threads");
+
+		return aliases;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.kevlindev.papilio.ISwitch#processArg(com.kevlindev.papilio.PinConverter
+	 * , java.util.Iterator)
+	 */
+	@Override
+	public boolean processArg(Iterator<String> args) {
+		boolean result = false;
+
+		if (args.hasNext()) {
+			String arg = args.next();
+
+			if ("auto".equals(arg.toLowerCase())) {
+				threadCount = Runtime.getRuntime().availableProcessors();
+			} else {
+				try {
+					threadCount = Integer.parseInt(arg);
+				} catch (NumberFormatException e) {
+					threadCount = 0;
+				}
+			}
+
+			result = true;
+		}
+
+		return result;
+	}
+}